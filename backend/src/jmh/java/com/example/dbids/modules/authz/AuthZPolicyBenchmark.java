@@ -0,0 +1,89 @@
+package com.example.dbids.modules.authz;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * 역할 규칙 판정 비용 비교 (사용자 수천 명, 규칙 수십 개).
+ * - legacy  : 매 판정마다 규칙 문자열 split + Pattern 컴파일 (기존 AuthZEngine.oneMatch 방식)
+ * - compiled: 기동 시 컴파일된 AuthZPolicy 인덱스(해시/트라이) 조회
+ * 실행: ./gradlew jmh -PjmhInclude=AuthZPolicyBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class AuthZPolicyBenchmark {
+
+    @Param({"10", "50"})
+    public int rulesPerRole;
+
+    private List<String> deny;
+    private AuthZPolicy policy;
+    private String[] users;
+    private final String[] tables = {"ORDERS", "HR.SALARY", "AUDIT_2025_01", "CUSTOMERS", "PAYMENTS"};
+    private int cursor;
+
+    @Setup
+    public void setup() {
+        deny = new ArrayList<>();
+        for (int i = 0; i < rulesPerRole; i++) {
+            switch (i % 3) {
+                case 0 -> deny.add("DELETE:T" + i);
+                case 1 -> deny.add("SELECT:SCHEMA" + i + ".*");
+                default -> deny.add("UPDATE:*_" + i);
+            }
+        }
+        deny.add("SELECT:HR.*");
+
+        AuthZProperties.Role role = new AuthZProperties.Role();
+        role.setAllow(List.of("SELECT:*"));
+        role.setDeny(deny);
+
+        Map<String, String> userRoles = new HashMap<>();
+        users = new String[5_000];
+        for (int i = 0; i < users.length; i++) {
+            users[i] = "user" + i + "@corp.com";
+            userRoles.put(users[i], "R");
+        }
+        AuthZProperties p = new AuthZProperties();
+        p.setRoles(Map.of("R", role));
+        p.setUserRoles(userRoles);
+        policy = AuthZPolicy.compile(p);
+    }
+
+    @Benchmark
+    public void legacy(Blackhole bh) {
+        String user = users[cursor++ % users.length];
+        bh.consume(user.trim().toUpperCase(Locale.ROOT));
+        for (String t : tables) {
+            String hit = null;
+            for (String r : deny) if (legacyMatch(r, AuthZEngine.Action.SELECT, t)) { hit = r; break; }
+            bh.consume(hit);
+        }
+    }
+
+    @Benchmark
+    public void compiled(Blackhole bh) {
+        String user = users[cursor++ % users.length];
+        AuthZPolicy.CompiledRole role = policy.role(policy.resolveRoleName(user));
+        for (String t : tables) bh.consume(role.denyRule(AuthZEngine.Action.SELECT, t));
+    }
+
+    private static boolean legacyMatch(String rule, AuthZEngine.Action action, String table) {
+        String[] parts = rule.split(":", 2);
+        if (parts.length != 2) return false;
+        if (!parts[0].trim().toUpperCase(Locale.ROOT).equals(action.name())) return false;
+        String rt = parts[1].trim();
+        if (rt.equals("*")) return true;
+        String pat = rt.toUpperCase(Locale.ROOT).replace(".", "\\.").replace("`", "").replace("*", ".*");
+        return Pattern.compile("^" + pat + "$").matcher(table.toUpperCase(Locale.ROOT)).matches();
+    }
+}
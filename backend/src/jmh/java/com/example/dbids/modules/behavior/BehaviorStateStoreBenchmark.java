@@ -0,0 +1,93 @@
+package com.example.dbids.modules.behavior;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 동시 적재(16 스레드) 시 사용자별 윈도우 집계 처리량 비교.
+ * - locked: 사용자별 객체 + 모니터(synchronized) 갱신 (기존 UserWindow 방식)
+ * - store : BehaviorStateStore (int 핸들 + long[] 원자 가산, 잠금 없음)
+ * users=16 은 소수 사용자에 경합이 몰리는 경우, 100000 은 사용자가 넓게 퍼진 경우.
+ * 실행: ./gradlew jmh -PjmhInclude=BehaviorStateStoreBenchmark
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Threads(16)
+public class BehaviorStateStoreBenchmark {
+
+    private static final int SLOTS = 6;
+    private static final long SUB_MS = 10_000;
+    private static final BehaviorFeatureExtractor.Delta DELTA = new BehaviorFeatureExtractor.Delta(1, 1, 0, 0, 1);
+
+    @Param({"16", "100000"})
+    public int users;
+
+    private String[] ids;
+    private BehaviorStateStore store;
+    private ConcurrentHashMap<String, Locked> locked;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int i = (int) Thread.currentThread().threadId() * 7919;
+        long eventMs;
+    }
+
+    @Setup
+    public void setup() {
+        ids = new String[users];
+        for (int i = 0; i < users; i++) ids[i] = "user" + i + "@corp.com";
+        store = new BehaviorStateStore(SLOTS, SUB_MS, users);
+        locked = new ConcurrentHashMap<>();
+    }
+
+    @Benchmark
+    public void store(Cursor c, Blackhole bh) {
+        String user = ids[Math.floorMod(c.i++, users)];
+        long ev = (c.eventMs += 3);
+        int h = store.acquire(user);
+        try {
+            bh.consume(store.add(h, ev, ev, DELTA, user));
+        } finally {
+            store.release(h);
+        }
+    }
+
+    @Benchmark
+    public void locked(Cursor c, Blackhole bh) {
+        String user = ids[Math.floorMod(c.i++, users)];
+        long ev = (c.eventMs += 3);
+        Locked w = locked.computeIfAbsent(user, k -> new Locked());
+        synchronized (w) {
+            bh.consume(w.add(ev, DELTA));
+        }
+    }
+
+    /** 비교 기준: 슬롯 링 + 모니터 */
+    private static final class Locked {
+        final int[] q = new int[SLOTS], write = new int[SLOTS], ddl = new int[SLOTS], err = new int[SLOTS];
+        long head = Long.MIN_VALUE;
+
+        int add(long eventMs, BehaviorFeatureExtractor.Delta d) {
+            long slot = eventMs / SUB_MS;
+            int closed = 0;
+            if (head == Long.MIN_VALUE) head = slot;
+            if (slot > head) {
+                for (int v : q) closed += v;
+                for (long s = head + 1; s <= head + Math.min(slot - head, SLOTS); s++) {
+                    int i = (int) (s % SLOTS);
+                    q[i] = 0; write[i] = 0; ddl[i] = 0; err[i] = 0;
+                }
+                head = slot;
+            }
+            if (slot > head - SLOTS) {
+                int i = (int) (slot % SLOTS);
+                q[i] += d.q; write[i] += d.write; ddl[i] += d.ddl; err[i] += d.error;
+            }
+            return closed;
+        }
+    }
+}
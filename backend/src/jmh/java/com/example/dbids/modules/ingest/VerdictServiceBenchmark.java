@@ -0,0 +1,67 @@
+package com.example.dbids.modules.ingest;
+
+import com.example.dbids.modules.authz.AuthZProperties;
+import com.example.dbids.modules.authz.AuthZService;
+import com.example.dbids.modules.behavior.BehaviorDetector;
+import com.example.dbids.modules.behavior.BehaviorProperties;
+import com.example.dbids.modules.detection.DetectionService;
+import com.example.dbids.sqlite.model.DetectionEvent;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 인라인 판정(VerdictService.check) 지연 분포. 예산: p0.99 < 1ms(1000 us).
+ * - 판정 경로만 측정: 파이프라인은 시작하지 않고 큐를 1칸으로 둠 → defer 는 곧바로 false(기록 누락)
+ * - PATTERN 은 실제 룰셋, AUTHZ 는 역할 정책(판정 캐시 포함), SQL 은 정상/차단/탐지 혼합
+ * 분위수는 SampleTime 결과의 p0.99 행을 본다. UT-VD-04 는 공유 CI 용 느슨한 퇴행 가드일 뿐이라 예산 확인은 여기서.
+ * 실행: ./gradlew jmh -PjmhInclude=VerdictServiceBenchmark
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class VerdictServiceBenchmark {
+
+    private VerdictService verdicts;
+    private final byte[][] sqls = {
+            utf8("SELECT o.id, o.total FROM orders o JOIN users u ON u.id = o.user_id WHERE u.email = 'a@b.c' AND o.total > 100"),
+            utf8("UPDATE accounts SET balance = balance - 10 WHERE id = 42"),
+            utf8("SELECT * FROM users WHERE name = '' OR 1=1 -- '"),
+            utf8("DELETE FROM hr.salary WHERE emp_id = 7"),
+            utf8("  drop table orders; "),
+    };
+    private final String[] users = {"app_rw", "app_ro", "report@corp.com"};
+    private int cursor;
+
+    @Setup
+    public void setup() {
+        AuthZProperties.Role rw = new AuthZProperties.Role();
+        rw.setAllow(List.of("SELECT:*", "INSERT:*", "UPDATE:*", "DELETE:*"));
+        rw.setDeny(List.of("DELETE:HR.*", "DDL:*"));
+        AuthZProperties.Role ro = new AuthZProperties.Role();
+        ro.setAllow(List.of("SELECT:*"));
+        ro.setDeny(List.of("INSERT:*", "UPDATE:*", "DELETE:*", "DDL:*"));
+        ro.setDefaultSeverity(DetectionEvent.Severity.HIGH);
+        AuthZProperties authz = new AuthZProperties();
+        authz.setRoles(Map.of("RW", rw, "RO", ro));
+        authz.setUserRoles(Map.of("app_rw", "RW", "app_ro", "RO", "report@corp.com", "RO"));
+
+        IngestProperties p = new IngestProperties();
+        p.setQueueCapacity(1);
+        IngestPipeline pipeline = new IngestPipeline(p, new IngestBatchWriter(null, null),
+                new DetectionService(), new AuthZService(authz),
+                new BehaviorDetector(new BehaviorProperties(), null));
+        verdicts = new VerdictService(pipeline);
+    }
+
+    @Benchmark
+    public VerdictService.Verdict check() {
+        int i = cursor++;
+        return verdicts.check(sqls[i % sqls.length], users[i % users.length]);
+    }
+
+    private static byte[] utf8(String s) { return s.getBytes(StandardCharsets.UTF_8); }
+}
@@ -0,0 +1,68 @@
+package com.example.dbids.modules.rule;
+
+import com.example.dbids.sqlite.model.DetectionEvent;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 룰 수(5 → 수백 개) 증가에 따른 평가 비용 비교.
+ * - legacy  : 룰마다 정규식 find() + 매칭마다 Match 생성 후 max (기존 RuleEngine 방식)
+ * - compiled: Aho-Corasick 단일 스캔 + 후보 룰만 검증 (현재 RuleEngine)
+ * 실행: ./gradlew jmh -PjmhInclude=RuleEngineBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class RuleEngineBenchmark {
+
+    @Param({"5", "100", "500"})
+    public int ruleCount;
+
+    private List<Rule> rules;
+    private RuleEngine compiled;
+    private String[] queries;
+
+    @Setup
+    public void setup() {
+        rules = new ArrayList<>(RuleSetProvider.defaultRules());
+        Random rnd = new Random(7);
+        String[] verbs = {"GRANT", "REVOKE", "LOAD_FILE", "BENCHMARK", "OUTFILE", "EXEC", "XP_CMDSHELL", "INFORMATION_SCHEMA"};
+        for (int i = rules.size(); i < ruleCount; i++) {
+            String v = verbs[rnd.nextInt(verbs.length)];
+            rules.add(new Rule("SYN_" + i, DetectionEvent.Severity.values()[i % 3],
+                    "\\b" + v + "\\s+T" + i + "\\b"));
+        }
+        compiled = new RuleEngine(rules);
+
+        SqlNormalizer n = new SqlNormalizer();
+        queries = new String[] {
+                n.normalize("SELECT o.id, o.total, c.name FROM orders o JOIN customers c ON c.id = o.customer_id WHERE o.created_at > '2025-01-01' AND o.status = 'PAID' ORDER BY o.total DESC LIMIT 50"),
+                n.normalize("UPDATE accounts SET balance = balance - 100 WHERE id = 42"),
+                n.normalize("SELECT name FROM users WHERE id = 1 OR 1=1 UNION SELECT password FROM admins"),
+                n.normalize("INSERT INTO audit_log (user_id, action, created_at) VALUES (7, 'login', NOW())")
+        };
+    }
+
+    @Benchmark
+    public void legacy(Blackhole bh) {
+        for (String q : queries) {
+            Optional<RuleEngine.Match> m = rules.stream()
+                    .filter(r -> r.matches(q))
+                    .map(r -> new RuleEngine.Match(r.id, r.severity))
+                    .max(Comparator.comparing(x -> x.severity));
+            bh.consume(m);
+        }
+    }
+
+    @Benchmark
+    public void compiled(Blackhole bh) {
+        for (String q : queries) bh.consume(compiled.evaluate(q));
+    }
+}
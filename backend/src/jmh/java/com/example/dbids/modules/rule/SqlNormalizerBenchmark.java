@@ -0,0 +1,54 @@
+package com.example.dbids.modules.rule;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 정규화 비용 비교.
+ * - legacy : replaceAll 6회 + toUpperCase (기존 구현)
+ * - scanner: 재사용 버퍼 기반 수작업 스캐너 (현재 SqlNormalizer)
+ * 실행: ./gradlew jmh -PjmhInclude=SqlNormalizerBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class SqlNormalizerBenchmark {
+
+    @Param({"short", "typical", "long"})
+    public String shape;
+
+    private String sql;
+    private final SqlNormalizer normalizer = new SqlNormalizer();
+
+    @Setup
+    public void setup() {
+        sql = switch (shape) {
+            case "short" -> "select name from users where id = 42";
+            case "typical" -> "/* app=orders */ SELECT o.id, o.total, c.name FROM orders o\n"
+                    + "  JOIN customers c ON c.id = o.customer_id -- join\n"
+                    + " WHERE o.created_at > '2025-01-01' AND o.status = 'PAID' AND c.tier IN (1, 2, 3)\n"
+                    + " ORDER BY o.total DESC LIMIT 50";
+            default -> "INSERT INTO audit_log (user_id, action, payload) VALUES "
+                    + "(7, 'login', '" + "x".repeat(400) + "'), ".repeat(10)
+                    + "(8, 'logout', 'done')";
+        };
+    }
+
+    @Benchmark
+    public String legacy() {
+        String s = sql;
+        s = s.replaceAll("(?s)/\\*.*?\\*/", " ");
+        s = s.replaceAll("(?m)--.*?$", " ");
+        s = s.replaceAll("'([^']|'')*'", "'?'");
+        s = s.replaceAll("\"(?:[^\"\\\\]|\\\\.)*\"", "\"?\"");
+        s = s.replaceAll("\\b\\d+\\b", "0");
+        s = s.replaceAll("\\s+", " ").trim();
+        return s.toUpperCase();
+    }
+
+    @Benchmark
+    public String scanner() {
+        return normalizer.normalize(sql);
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.dbids.sqlite;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Comparator;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * 대시보드 조회(읽기 3 스레드)와 적재(쓰기 1 스레드)가 동시에 돌 때 저장소 프로파일별 처리량.
+ * - WAL    : 단일 writer + 읽기 전용 풀, synchronous=NORMAL
+ * - LEGACY : 롤백 저널 단일 풀(busy_timeout 없음 → SQLITE_BUSY 는 재시도로 흡수, 재시도 횟수도 보고)
+ * 쓰기는 적재 경로처럼 트랜잭션당 50행, 읽기는 /api/logs 첫 페이지(최신순 50건).
+ * 실행: ./gradlew jmh -PjmhInclude=SqliteStorageProfileBenchmark
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Group)
+public class SqliteStorageProfileBenchmark {
+
+    private static final int SEED_ROWS = 20_000;
+    private static final int WRITE_BATCH = 50;
+
+    @Param({"WAL", "LEGACY"})
+    public String profile;
+
+    private Path dir;
+    private DataSource ds;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Busy {
+        public long busyRetries;
+    }
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        dir = Files.createTempDirectory("sqlite-bench");
+        SqliteStorageProperties p = new SqliteStorageProperties();
+        p.setProfile(SqliteStorageProperties.Profile.valueOf(profile));
+        ds = SqliteDataSources.create("jdbc:sqlite:" + dir.resolve("bench.db"), p);
+        new SqliteMigrator(ds).migrate();
+        try (Connection c = ds.getConnection()) {
+            c.setAutoCommit(false);
+            for (int i = 0; i < SEED_ROWS / WRITE_BATCH; i++) insertBatch(c, i);
+            c.commit();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        if (ds instanceof Closeable c) c.close();
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(f -> f.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public void write(Busy busy) throws SQLException {
+        while (true) {
+            try (Connection c = ds.getConnection()) {
+                c.setAutoCommit(false);
+                try {
+                    insertBatch(c, (int) (System.nanoTime() & 0xffff));
+                    c.commit();
+                    return;
+                } catch (SQLException e) {
+                    c.rollback();
+                    if (!isBusy(e)) throw e;
+                    busy.busyRetries++;
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(3)
+    public void read(Busy busy, Blackhole bh) throws SQLException {
+        while (true) {
+            try (Connection c = ds.getConnection()) {
+                if (ds instanceof SqliteDataSources.ReadWriteSplit) c.setReadOnly(true);   // readOnly 트랜잭션과 같은 경로
+                try (PreparedStatement ps = c.prepareStatement(
+                        "SELECT id, executed_at, user_id, sql_raw, status FROM query_log ORDER BY executed_at DESC, id DESC LIMIT 50");
+                     ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) bh.consume(rs.getString(1));
+                    return;
+                } catch (SQLException e) {
+                    if (!isBusy(e)) throw e;
+                    busy.busyRetries++;
+                }
+            }
+        }
+    }
+
+    private static void insertBatch(Connection c, int seed) throws SQLException {
+        try (PreparedStatement ps = c.prepareStatement(
+                "INSERT INTO query_log(id, executed_at, user_id, sql_raw, sql_summary, return_rows, status) VALUES (?,?,?,?,?,?,?)")) {
+            for (int i = 0; i < WRITE_BATCH; i++) {
+                ps.setString(1, UUID.randomUUID().toString());
+                ps.setString(2, "2030-01-01T00:%02d:%02dZ".formatted((seed + i) / 60 % 60, (seed + i) % 60));
+                ps.setString(3, "user" + (i % 16) + "@corp.com");
+                ps.setString(4, "SELECT * FROM orders WHERE id = " + i);
+                ps.setString(5, "SELECT orders");
+                ps.setInt(6, i);
+                ps.setString(7, "SUCCESS");
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+
+    private static boolean isBusy(SQLException e) {
+        String m = String.valueOf(e.getMessage());
+        return m.contains("SQLITE_BUSY") || m.contains("database is locked");
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.dbids.api;
+
+import com.example.dbids.modules.authz.AuthZService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/authz")
+public class AuthZController {
+
+    private final AuthZService authz;
+
+    public AuthZController(AuthZService authz) {
+        this.authz = authz;
+    }
+
+    /** 판정 카운터: 결과(ALLOW/DENY/NO_MATCH/NO_ROLE) × 역할 × 액션 */
+    @GetMapping("/stats")
+    public Map<String, Object> stats() {
+        return authz.decisionStats();
+    }
+
+    /** 권한 설정 변경 반영: Environment 에서 authz.* 재바인딩 → 정책 인덱스 재컴파일 + 판정 캐시 초기화 */
+    @PostMapping("/reload")
+    public ResponseEntity<Void> reload() {
+        authz.reloadPolicy();
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.dbids.api;
 
+import com.example.dbids.dto.CursorPage;
 import com.example.dbids.dto.EventDtos;
 import com.example.dbids.modules.events.EventQueryService;
 import org.springframework.http.ResponseEntity;
@@ -19,7 +20,8 @@ public class EventsController {
 
     /**
      * GET /api/events
-     * 파라미터(선택): type, severity, from, to, user, adminId, q, page, size
+     * 파라미터(선택): type, severity, from, to, user, adminId, q, page, size,
+     *   cursor(직전 응답의 nextCursor → 키셋으로 이어 읽기), count(exact|estimate|none)
      */
     @GetMapping
     public ResponseEntity<?> list(
@@ -31,17 +33,20 @@ public class EventsController {
             @RequestParam(required = false) String adminId,
             @RequestParam(required = false) String q,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String count
     ) {
         try {
             EventQueryService.SearchCond c = new EventQueryService.SearchCond();
             c.type = type; c.severity = severity; c.from = from; c.to = to;
             c.user = user; c.adminId = adminId; c.q = q; c.page = page; c.size = size;
+            c.cursor = cursor; c.count = CursorPage.CountMode.parse(count);
 
-            EventDtos.Page<EventDtos.EventSummary> result = svc.search(c);
+            CursorPage<EventDtos.EventSummary> result = svc.search(c);
             return ResponseEntity.ok(result);
         } catch (IllegalArgumentException e) {
-            // enum 파싱 실패 등
+            // enum 파싱 실패, 잘못된 cursor 등
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
     }
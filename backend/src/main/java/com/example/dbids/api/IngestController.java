@@ -2,63 +2,184 @@
 package com.example.dbids.api;
 
 import com.example.dbids.dto.QueryLogDTO;
-import com.example.dbids.modules.behavior.BehaviorDetector;
-import com.example.dbids.modules.detection.DetectionService;
+import com.example.dbids.modules.auth.CurrentAdminEmailResolver;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.dbids.modules.ingest.IngestPipeline;
+import com.example.dbids.modules.ingest.IngestVerdict;
 import com.example.dbids.modules.storage.StorageService;
 import com.example.dbids.sqlite.model.QueryLog;
-import com.example.dbids.sqlite.repository.QueryLogRepository;
-import com.example.dbids.modules.authz.AuthZService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
 import java.net.URI;
-import java.util.Locale;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 @RestController
 @RequestMapping("/api/ingest")
 public class IngestController {
 
+    private static final String NDJSON = "application/x-ndjson";
+
     private final StorageService storage;
-    private final DetectionService detection;
-    private final BehaviorDetector behavior;
-    private final QueryLogRepository logRepo;
-    private final AuthZService authz;
-
-    public IngestController(StorageService storage,
-            DetectionService detection,
-            BehaviorDetector behavior,
-            AuthZService authz,
-            QueryLogRepository logRepo) {
+    private final IngestPipeline pipeline;
+    private final ObjectMapper mapper;
+    private final CurrentAdminEmailResolver currentAdmin;
+
+    public IngestController(StorageService storage, IngestPipeline pipeline, ObjectMapper mapper,
+            CurrentAdminEmailResolver currentAdmin) {
         this.storage = storage;
-        this.detection = detection;
-        this.behavior = behavior;
-        this.authz = authz;
-        this.logRepo = logRepo;
+        this.pipeline = pipeline;
+        this.mapper = mapper;
+        this.currentAdmin = currentAdmin;
     }
 
+    /**
+     * 검증 → PATTERN/AUTHZ 판정 후 수집 파이프라인에 적재하고 바로 응답한다(본문에 verdict 포함).
+     * 저장(로그+이벤트 한 트랜잭션)과 BEHAVIOR 탐지는 파이프라인 워커가 비동기로 처리.
+     * 알림 수신자(헤더/세션)는 요청 스레드에서만 알 수 있으므로 여기서 정해 파이프라인에 실어 보낸다.
+     */
     @PostMapping("/log")
     public ResponseEntity<?> ingest(@RequestBody QueryLogDTO dto) {
         try {
             // ★ userId는 받은 그대로 저장 (대문자화/변형 X)
+            QueryLog log = storage.toEntity(dto);
+
+            IngestVerdict verdict = pipeline.submit(log, currentAdmin.resolveNotifyEmailOrNull());
+            if (verdict == null) {
+                return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                        .header(HttpHeaders.RETRY_AFTER, "1")
+                        .body(Map.of("error", "ingest queue full"));
+            }
+
+            return ResponseEntity.accepted()
+                    .location(URI.create("/logs/" + log.getId()))
+                    .body(Map.of("id", log.getId(), "verdict", verdict));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
 
-            String logId = storage.saveQueryLog(dto);
+    /**
+     * 배치 수집: JSON 배열 또는 NDJSON(한 줄에 QueryLogDTO 하나).
+     * 행 단위로 검증/적재하고, 거절된 행은 index와 사유를 돌려줘 에이전트가 그 행만 재전송하게 한다.
+     * verdicts[i]는 i번째 행의 판정(거절 시 null).
+     * 저장은 파이프라인 저장 스테이지가 그룹 커밋(JDBC batch)으로 처리.
+     */
+    @PostMapping(value = "/logs", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> ingestBatch(@RequestBody List<QueryLogDTO> dtos) {
+        BatchResult r = new BatchResult();
+        String notifyTo = currentAdmin.resolveNotifyEmailOrNull();
+        for (int i = 0; i < dtos.size(); i++) ingestRow(r, i, dtos.get(i), notifyTo);
+        return r.toResponse();
+    }
 
-            try {
-                QueryLog saved = logRepo.findById(logId).orElse(null);
-                if (saved != null) {
-                    detection.evaluateAndRecord(saved);
-                    authz.evaluateAndRecord(saved);
-                    behavior.onLog(saved);
+    @PostMapping(value = "/logs", consumes = NDJSON)
+    public ResponseEntity<?> ingestNdjson(HttpServletRequest req) throws IOException {
+        BatchResult r = new BatchResult();
+        String notifyTo = currentAdmin.resolveNotifyEmailOrNull();
+        try (BufferedReader in = new BufferedReader(
+                new InputStreamReader(req.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            int i = 0;
+            while ((line = in.readLine()) != null) {
+                if (line.isBlank()) continue;
+                int idx = i++;
+                QueryLogDTO dto;
+                try {
+                    dto = mapper.readValue(line, QueryLogDTO.class);
+                } catch (JsonProcessingException e) {
+                    r.reject(idx, "malformed json", false);
+                    continue;
                 }
-            } catch (Exception ignore) {}
+                ingestRow(r, idx, dto, notifyTo);
+            }
+        }
+        return r.toResponse();
+    }
 
-            return ResponseEntity.created(URI.create("/logs/" + logId))
-                    .body(Map.of("id", logId));
+    private void ingestRow(BatchResult r, int idx, QueryLogDTO dto, String notifyTo) {
+        QueryLog log;
+        try {
+            log = storage.toEntity(dto);
         } catch (IllegalArgumentException e) {
-            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
-        } catch (Exception e) {
-            return ResponseEntity.accepted().body(Map.of("error", "ingest deferred"));
+            r.reject(idx, e.getMessage(), false);
+            return;
+        }
+        IngestVerdict verdict = pipeline.submit(log, notifyTo);
+        if (verdict != null) r.accept(idx, log.getId(), verdict);
+        else r.reject(idx, "ingest queue full", true);
+    }
+
+    /** 큐 깊이/처리량 지표 */
+    @GetMapping("/stats")
+    public Map<String, Object> stats() {
+        return pipeline.stats();
+    }
+
+    /** 부분 성공 응답: ids[i]/verdicts[i]는 i번째 행의 LogID/판정(거절 시 null) */
+    private static final class BatchResult {
+        private final List<String> ids = new ArrayList<>();
+        private final List<IngestVerdict> verdicts = new ArrayList<>();
+        private final List<Map<String, Object>> errors = new ArrayList<>();
+        private int accepted;
+        private boolean anyRetryable;
+
+        void accept(int idx, String id, IngestVerdict verdict) {
+            slot(idx);
+            ids.set(idx, id);
+            verdicts.set(idx, verdict);
+            accepted++;
+        }
+
+        void reject(int idx, String error, boolean retryable) {
+            slot(idx);
+            Map<String, Object> e = new LinkedHashMap<>();
+            e.put("index", idx);
+            e.put("error", error);
+            e.put("retryable", retryable);
+            errors.add(e);
+            anyRetryable |= retryable;
+        }
+
+        private void slot(int idx) {
+            while (ids.size() <= idx) {
+                ids.add(null);
+                verdicts.add(null);
+            }
+        }
+
+        ResponseEntity<?> toResponse() {
+            if (ids.isEmpty()) {
+                return ResponseEntity.badRequest().body(Map.of("error", "empty batch"));
+            }
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("accepted", accepted);
+            body.put("rejected", errors.size());
+            body.put("ids", ids);
+            body.put("verdicts", verdicts);
+            body.put("errors", errors);
+
+            HttpStatus st;
+            if (errors.isEmpty())      st = HttpStatus.ACCEPTED;
+            else if (accepted > 0)     st = HttpStatus.MULTI_STATUS;
+            else if (anyRetryable)     st = HttpStatus.TOO_MANY_REQUESTS;
+            else                       st = HttpStatus.BAD_REQUEST;
+
+            var res = ResponseEntity.status(st);
+            if (anyRetryable) res.header(HttpHeaders.RETRY_AFTER, "1");
+            return res.body(body);
         }
     }
 }
@@ -1,32 +1,45 @@
 // src/main/java/com/example/dbids/api/LogQueryController.java
 package com.example.dbids.api;
 
-import com.example.dbids.dto.LogSummaryResponse;
+import com.example.dbids.dto.CursorPage;
 import com.example.dbids.dto.QueryLogFilter;
-import com.example.dbids.dto.QueryLogResponse;
 import com.example.dbids.modules.storage.LogQueryService;
+import com.example.dbids.modules.storage.QueryLogExporter;
+import com.example.dbids.sqlite.LogRollups;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.data.domain.*;
 import org.springframework.http.*;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.format.DateTimeParseException;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/logs")
 public class LogQueryController {
 
+    private static final ObjectMapper ERROR_WRITER = new ObjectMapper();
+
     private final LogQueryService service;
+    private final QueryLogExporter exporter;
 
-    public LogQueryController(LogQueryService service) {
+    public LogQueryController(LogQueryService service, QueryLogExporter exporter) {
         this.service = service;
+        this.exporter = exporter;
     }
 
-    /** 전체 노출 + 필터/검색 */
+    /**
+     * 전체 노출 + 필터/검색
+     * - cursor: 직전 응답의 nextCursor(있으면 키셋으로 이어 읽기, page 무시)
+     * - count: exact(기본) | estimate | none — 전체 건수 계산 방식
+     */
     @GetMapping
-    public Page<QueryLogResponse> list(
+    public ResponseEntity<?> list(
             @RequestParam(name="user", required=false) String user,
             @RequestParam(name="email", required=false) String emailAlias, // FE 호환
-            @RequestParam(name="keywords", required=false) String keywords, // sqlSummary LIKE
+            @RequestParam(name="keywords", required=false) String keywords, // SQL 요약/원문 전문 검색(FTS5)
             @RequestParam(name="status", required=false) List<String> status,
             @RequestParam(name="from", required=false) String from,   // ISO-8601 문자열
             @RequestParam(name="to", required=false) String to,
@@ -34,18 +47,30 @@ public class LogQueryController {
             @RequestParam(name="rowsMax", required=false) Integer rowsMax,
             @RequestParam(defaultValue="0") int page,
             @RequestParam(defaultValue="50") int size,
-            @RequestParam(defaultValue="executedAt,DESC") String sort
+            @RequestParam(defaultValue="executedAt,DESC") String sort,
+            @RequestParam(name="cursor", required=false) String cursor,
+            @RequestParam(name="count", required=false) String count
     ) {
         String effectiveUser = (user != null && !user.isBlank()) ? user : emailAlias; // email 호환
         Pageable pageable = PageRequest.of(Math.max(0, page), clamp(size, 1, 200), parseSort(sort));
 
         QueryLogFilter f = new QueryLogFilter(effectiveUser, keywords, status, from, to, rowsMin, rowsMax);
-        return service.search(f, pageable);
+        try {
+            String c = (cursor == null || cursor.isBlank()) ? null : cursor;
+            return ResponseEntity.ok(service.search(f, pageable, c, CursorPage.CountMode.parse(count)));
+        } catch (IllegalArgumentException e) {
+            // 잘못된 cursor / count 값
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
     }
 
-    /** 같은 조건으로 CSV 다운로드 */
+    /**
+     * 같은 조건으로 전체 내보내기(행 수 제한 없음, 소켓으로 바로 스트리밍)
+     * - format: csv(기본) | ndjson
+     * - gzip=true 면 .gz 파일로 압축
+     */
     @GetMapping("/export")
-    public ResponseEntity<byte[]> export(
+    public ResponseEntity<StreamingResponseBody> export(
             @RequestParam(name="user", required=false) String user,
             @RequestParam(name="email", required=false) String emailAlias,
             @RequestParam(name="keywords", required=false) String keywords,
@@ -54,23 +79,39 @@ public class LogQueryController {
             @RequestParam(name="to", required=false) String to,
             @RequestParam(name="rowsMin", required=false) Integer rowsMin,
             @RequestParam(name="rowsMax", required=false) Integer rowsMax,
-            @RequestParam(defaultValue="0") int page,
-            @RequestParam(defaultValue="1000") int size,
-            @RequestParam(defaultValue="executedAt,DESC") String sort
+            @RequestParam(defaultValue="executedAt,DESC") String sort,
+            @RequestParam(name="format", required=false) String format,
+            @RequestParam(name="gzip", defaultValue="false") boolean gzip
     ) {
         String effectiveUser = (user != null && !user.isBlank()) ? user : emailAlias;
-        Pageable pageable = PageRequest.of(Math.max(0, page), clamp(size, 1, 10_000), parseSort(sort));
-
         QueryLogFilter f = new QueryLogFilter(effectiveUser, keywords, status, from, to, rowsMin, rowsMax);
-        byte[] csv = service.exportCsv(f, pageable);
+
+        QueryLogExporter.Format fmt;
+        StreamingResponseBody body;
+        try {
+            fmt = QueryLogExporter.Format.parse(format);
+            body = exporter.prepare(f, parseSort(sort), fmt, gzip);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            // 본문 타입이 StreamingResponseBody 로 고정이라 오류도 같은 형태({"error": ...})로 씀
+            Map<String, String> err = Map.of("error", String.valueOf(e.getMessage()));
+            return ResponseEntity.badRequest()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(out -> ERROR_WRITER.writeValue(out, err));
+        }
+
+        String filename = "query_logs." + fmt.extension + (gzip ? ".gz" : "");
         return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"query_logs.csv\"")
-                .contentType(MediaType.parseMediaType("text/csv; charset=UTF-8"))
-                .body(csv);
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .contentType(MediaType.parseMediaType(gzip ? "application/gzip" : fmt.contentType))
+                .body(body);
     }
 
+    /**
+     * 통계/요약: 사용자별 + 시간대별 건수(성공/실패/return_rows 합 포함).
+     * - grain: minute | hour(기본) | day — 시간대 버킷 단위
+     */
     @GetMapping("/summary")
-    public LogSummaryResponse summary(
+    public ResponseEntity<?> summary(
             @RequestParam(name="user", required=false) String user,
             @RequestParam(name="email", required=false) String emailAlias, // FE 호환
             @RequestParam(name="keywords", required=false) String keywords,
@@ -79,11 +120,17 @@ public class LogQueryController {
             @RequestParam(name="to", required=false) String to,
             @RequestParam(name="rowsMin", required=false) Integer rowsMin,
             @RequestParam(name="rowsMax", required=false) Integer rowsMax,
-            @RequestParam(name="limit", required=false, defaultValue="50000") int limit  // 안전장치
+            @RequestParam(name="limit", required=false, defaultValue="50000") int limit,  // 안전장치
+            @RequestParam(name="grain", required=false) String grain
     ) {
         String effectiveUser = (user != null && !user.isBlank()) ? user : emailAlias;
         QueryLogFilter f = new QueryLogFilter(effectiveUser, keywords, status, from, to, rowsMin, rowsMax);
-        return service.summarize(f, limit);
+        try {
+            return ResponseEntity.ok(service.summarize(f, limit, LogRollups.Grain.parse(grain)));
+        } catch (IllegalArgumentException e) {
+            // 잘못된 grain 값
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
     }
 
     // ===== helpers =====
@@ -0,0 +1,40 @@
+package com.example.dbids.api;
+
+import com.example.dbids.modules.ingest.VerdictService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/verdict")
+public class VerdictController {
+
+    private final VerdictService verdicts;
+
+    public VerdictController(VerdictService verdicts) {
+        this.verdicts = verdicts;
+    }
+
+    /**
+     * POST /api/verdict?user=...
+     * 본문: 원문 SQL 바이트(UTF-8, text/plain 또는 application/octet-stream)
+     * 응답: { decision: ALLOW|DENY, logId, logged, detections[] } — 기록은 응답 후 파이프라인이 처리
+     */
+    @PostMapping
+    public ResponseEntity<?> check(@RequestParam(name = "user", required = false) String user,
+            @RequestBody(required = false) byte[] sql) {
+        try {
+            return ResponseEntity.ok(verdicts.check(sql == null ? new byte[0] : sql, user));
+        } catch (IllegalArgumentException e) {
+            // 사용자 누락, 빈 SQL, 비정상 UTF-8
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /** 판정 수(ALLOW/DENY), 기록 누락 수, 판정 지연 p50/p99/최대 */
+    @GetMapping("/stats")
+    public Map<String, Object> stats() {
+        return verdicts.stats();
+    }
+}
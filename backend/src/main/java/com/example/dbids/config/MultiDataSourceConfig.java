@@ -1,11 +1,15 @@
 package com.example.dbids.config;
 
+import com.example.dbids.sqlite.SqliteDataSources;
+import com.example.dbids.sqlite.SqliteStorageProperties;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
 import org.springframework.boot.jdbc.DataSourceBuilder;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.*;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.orm.jpa.*;
 import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
 import org.springframework.transaction.PlatformTransactionManager;
@@ -39,9 +43,12 @@ public class MultiDataSourceConfig {
 //    }
 
     // --- SQLite (내부 저장) ---
+    /** dbids.sqlite.profile 에 따라 WAL(단일 writer + 읽기 전용 풀) 또는 LEGACY(단일 풀) */
     @Bean
-    @ConfigurationProperties("spring.datasource.sqlite")
-    public DataSource sqliteDataSource() { return DataSourceBuilder.create().build(); }
+    public DataSource sqliteDataSource(@Value("${spring.datasource.sqlite.jdbc-url}") String jdbcUrl,
+                                       SqliteStorageProperties storage) {
+        return SqliteDataSources.create(jdbcUrl, storage);
+    }
 
     @Bean
     public LocalContainerEntityManagerFactoryBean sqliteEmf(
@@ -55,7 +62,7 @@ public class MultiDataSourceConfig {
         // Hibernate 속성 (Dialect 등)
         var props = new java.util.HashMap<String, Object>();
         props.put("hibernate.dialect", "org.hibernate.community.dialect.SQLiteDialect");
-        props.put("hibernate.hbm2ddl.auto", "none"); // 우리가 schema-sqlite.sql로 초기화
+        props.put("hibernate.hbm2ddl.auto", "none"); // 우리가 db/sqlite 마이그레이션(SqliteMigrator)으로 초기화
         // 옵션: SQL 로깅
         // props.put("hibernate.show_sql", "true");
         emf.setJpaPropertyMap(props);
@@ -69,6 +76,21 @@ public class MultiDataSourceConfig {
         return new JpaTransactionManager(emf.getObject());
     }
 
+    /** 배치 insert 등 JDBC 직접 경로용. sqliteTx 트랜잭션 안에서는 같은 커넥션을 공유한다. */
+    @Bean
+    public JdbcTemplate sqliteJdbc(@Qualifier("sqliteDataSource") DataSource ds) {
+        return new JdbcTemplate(ds);
+    }
+
+    /**
+     * 트랜잭션 밖 읽기 전용 JDBC 경로용(WAL 이면 reader 풀). 긴 내보내기 스트림 등이
+     * 단일 writer 커넥션을 붙잡아 수집/아웃박스 쓰기를 막지 않도록 sqliteJdbc 와 분리.
+     */
+    @Bean
+    public JdbcTemplate sqliteReadJdbc(@Qualifier("sqliteDataSource") DataSource ds) {
+        return new JdbcTemplate(SqliteDataSources.reader(ds));
+    }
+
     // SQLite 외래키 강제 (옵션)
     @Bean
     HibernatePropertiesCustomizer sqlitePragmaCustomizer(
@@ -0,0 +1,69 @@
+package com.example.dbids.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 키셋(seek) 페이지 응답: 정렬 키(시각, id) 기준으로 "마지막 행 다음"부터 읽으므로 N번째 페이지도 첫 페이지와 비용이 같다.
+ * - nextCursor: 다음 페이지 요청에 그대로 넘기는 불투명 토큰(마지막 행의 시각/id)
+ * - totalElements/totalPages: countMode 가 none 이면 -1, estimate 면 근사값
+ * page 는 호출 측 표시용으로 요청값을 그대로 돌려준다(대시보드 호환).
+ */
+public class CursorPage<T> {
+
+    public enum CountMode {
+        EXACT, ESTIMATE, NONE;
+
+        public static CountMode parse(String s) {
+            if (s == null || s.isBlank()) return EXACT;
+            return valueOf(s.trim().toUpperCase(Locale.ROOT));   // 잘못된 값은 IllegalArgumentException → 400
+        }
+    }
+
+    /** 마지막으로 본 행의 정렬 키. 토큰은 base64url("v1|" + key + "|" + id) */
+    public record Cursor(String key, String id) {
+        private static final String VERSION = "v1";
+
+        public String encode() {
+            String raw = VERSION + "|" + key + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        public static Cursor decode(String token) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+                String[] parts = raw.split("\\|", 3);
+                if (parts.length != 3 || !VERSION.equals(parts[0]) || parts[1].isEmpty() || parts[2].isEmpty()) {
+                    throw new IllegalArgumentException("invalid cursor");
+                }
+                return new Cursor(parts[1], parts[2]);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("invalid cursor", e);
+            }
+        }
+    }
+
+    public List<T> content;
+    public int page;
+    public int size;
+    public long totalElements;
+    public int totalPages;
+    public String countMode;
+    public boolean hasNext;
+    public String nextCursor;
+
+    public CursorPage() {}
+
+    public CursorPage(List<T> content, int page, int size, long totalElements, CountMode countMode, Cursor next) {
+        this.content = content;
+        this.page = page;
+        this.size = size;
+        this.countMode = countMode.name().toLowerCase(Locale.ROOT);
+        this.totalElements = totalElements;
+        this.totalPages = totalElements < 0 ? -1 : (int) Math.ceil(totalElements / (double) Math.max(size, 1));
+        this.hasNext = next != null;
+        this.nextCursor = next == null ? null : next.encode();
+    }
+}
@@ -3,7 +3,6 @@ package com.example.dbids.dto;
 import com.example.dbids.sqlite.model.DetectionEvent;
 import com.example.dbids.sqlite.model.QueryLog;
 
-import java.util.List;
 
 public class EventDtos {
 
@@ -65,21 +64,4 @@ public class EventDtos {
             }
         }
     }
-
-    public static class Page<T> {
-        public List<T> content;
-        public int page;
-        public int size;
-        public long totalElements;
-        public int totalPages;
-
-        public Page() {}
-        public Page(List<T> content, int page, int size, long totalElements) {
-            this.content = content;
-            this.page = page;
-            this.size = size;
-            this.totalElements = totalElements;
-            this.totalPages = (int) Math.ceil(totalElements / (double) Math.max(size,1));
-        }
-    }
 }
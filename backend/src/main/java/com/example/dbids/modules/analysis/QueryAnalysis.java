@@ -0,0 +1,102 @@
+package com.example.dbids.modules.analysis;
+
+import com.example.dbids.modules.behavior.QueryClassifier;
+import com.example.dbids.modules.behavior.SqlStatementParser;
+import com.example.dbids.modules.rule.SqlNormalizer;
+import com.example.dbids.modules.storage.SqlSummarizer;
+import com.example.dbids.sqlite.model.QueryLog;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 수집된 로그 1건에 대한 공용 분석 결과.
+ * 정규화/분류/테이블 추정을 수집 시점에 한 번만 수행하고 모든 탐지기(PATTERN/AUTHZ/BEHAVIOR)가 공유한다.
+ * 분류/테이블은 원문 SQL을 토크나이저로 파싱한 문장 목록에서 나온다(다중 문장이면 문장별로 보관).
+ * 요약(summary)은 저장 값이 있으면 그대로 쓰고, 없을 때만 처음 요청 시 계산한다.
+ */
+public final class QueryAnalysis {
+
+    private static final SqlNormalizer NORMALIZER = new SqlNormalizer();
+    private static final SqlStatementParser PARSER = new SqlStatementParser();
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME  = 0x100000001b3L;
+
+    private final String sqlRaw;
+    private final String normalized;
+    private final List<SqlStatementParser.Statement> statements;
+    private final QueryClassifier.Kind kind;
+    private final List<String> tables;
+    private final long fingerprint;
+    private volatile String summary;
+
+    private QueryAnalysis(String sqlRaw, String normalized, List<SqlStatementParser.Statement> statements,
+            long fingerprint, String summary) {
+        this.sqlRaw = sqlRaw;
+        this.normalized = normalized;
+        this.statements = statements;
+        this.kind = statements.isEmpty() ? QueryClassifier.Kind.OTHER : statements.get(0).kind();
+        this.tables = union(statements);
+        this.fingerprint = fingerprint;
+        this.summary = summary;
+    }
+
+    public static QueryAnalysis of(QueryLog log) {
+        return of(log.getSqlRaw(), log.getSqlSummary());
+    }
+
+    public static QueryAnalysis of(String sqlRaw) {
+        return of(sqlRaw, null);
+    }
+
+    public static QueryAnalysis of(String sqlRaw, String providedSummary) {
+        String norm = NORMALIZER.normalize(sqlRaw);
+        List<SqlStatementParser.Statement> statements = List.copyOf(PARSER.parse(sqlRaw));
+        String summary = (providedSummary == null || providedSummary.isBlank()) ? null : providedSummary;
+        return new QueryAnalysis(sqlRaw, norm, statements, fingerprint(norm), summary);
+    }
+
+    /** 정규화(주석 제거/리터럴 마스킹/대문자) SQL */
+    public String getNormalized() { return normalized; }
+
+    /** 문장별 종류/테이블 (세미콜론으로 나뉜 순서) */
+    public List<SqlStatementParser.Statement> getStatements() { return statements; }
+
+    /** 첫 문장의 종류 */
+    public QueryClassifier.Kind getKind() { return kind; }
+
+    /** 전체 문장의 참조 테이블 합집합 */
+    public List<String> getTables() { return tables; }
+
+    /** 리터럴이 마스킹된 정규화 SQL의 64bit FNV-1a 해시 → 같은 형태의 문장끼리 묶는 키 */
+    public long getFingerprint() { return fingerprint; }
+
+    public String getFingerprintHex() { return String.format("%016x", fingerprint); }
+
+    public String getSummary() {
+        String s = summary;
+        if (s == null) {
+            s = SqlSummarizer.summarize(sqlRaw);
+            summary = s;
+        }
+        return s;
+    }
+
+    private static List<String> union(List<SqlStatementParser.Statement> statements) {
+        if (statements.size() == 1) return statements.get(0).tables();
+        Set<String> all = new LinkedHashSet<>();
+        for (SqlStatementParser.Statement st : statements) all.addAll(st.tables());
+        return List.copyOf(all);
+    }
+
+    private static long fingerprint(String normalized) {
+        long h = FNV_OFFSET;
+        for (int i = 0; i < normalized.length(); i++) {
+            h ^= normalized.charAt(i);
+            h *= FNV_PRIME;
+        }
+        return h;
+    }
+}
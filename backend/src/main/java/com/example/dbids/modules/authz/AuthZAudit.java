@@ -0,0 +1,90 @@
+package com.example.dbids.modules.authz;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 권한 판정 감사 로그 + 카운터.
+ * - 로거 "dbids.authz.audit"(logback-spring.xml 에서 비동기 어펜더로 분리, 레벨은 logging.level 로 조절)
+ * - DENY 는 INFO 로 항상 기록(비동기 큐가 완전히 찬 경우만 유실), ALLOW/NO_MATCH/NO_ROLE 은 DEBUG 로 sampleRate 비율만 기록
+ * - 모든 판정은 (결과, 역할, 액션)별 카운터로 집계 → GET /api/authz/stats
+ */
+public class AuthZAudit {
+
+    public enum Outcome { ALLOW, DENY, NO_MATCH, NO_ROLE }
+
+    static final String LOGGER = "dbids.authz.audit";
+    private static final Logger LOG = LoggerFactory.getLogger(LOGGER);
+
+    private static final String NONE = "-";
+
+    private final double sampleRate;
+    private final ConcurrentHashMap<Key, LongAdder> counters = new ConcurrentHashMap<>();
+
+    private record Key(Outcome outcome, String role, AuthZEngine.Action action) {}
+
+    public AuthZAudit(double sampleRate) {
+        this.sampleRate = Math.max(0.0, Math.min(1.0, sampleRate));
+    }
+
+    /** 판정 1건 기록. role/action/table/rule 은 없으면 null */
+    void record(Outcome outcome, String user, String role, AuthZEngine.Action action, String table, String rule) {
+        counters.computeIfAbsent(new Key(outcome, role == null ? NONE : role, action), k -> new LongAdder()).increment();
+
+        if (outcome == Outcome.DENY) {
+            if (!LOG.isInfoEnabled()) return;
+            LOG.atInfo()
+                    .addKeyValue("decision", outcome)
+                    .addKeyValue("user", user)
+                    .addKeyValue("role", role)
+                    .addKeyValue("action", action)
+                    .addKeyValue("table", table)
+                    .addKeyValue("rule", rule)
+                    .log("authz decision");
+            return;
+        }
+        if (!LOG.isDebugEnabled() || !sampled()) return;
+        LOG.atDebug()
+                .addKeyValue("decision", outcome)
+                .addKeyValue("user", user)
+                .addKeyValue("role", role)
+                .addKeyValue("action", action)
+                .addKeyValue("sampleRate", sampleRate)
+                .log("authz decision");
+    }
+
+    private boolean sampled() {
+        return sampleRate >= 1.0 || (sampleRate > 0.0 && ThreadLocalRandom.current().nextDouble() < sampleRate);
+    }
+
+    public long count(Outcome outcome, String role, AuthZEngine.Action action) {
+        LongAdder a = counters.get(new Key(outcome, role == null ? NONE : role, action));
+        return a == null ? 0 : a.sum();
+    }
+
+    /** { totals: {ALLOW: n, ...}, byRole: { role: { action: { outcome: n } } } } */
+    public Map<String, Object> stats() {
+        Map<String, Long> totals = new LinkedHashMap<>();
+        for (Outcome o : Outcome.values()) totals.put(o.name(), 0L);
+        Map<String, Map<String, Map<String, Long>>> byRole = new TreeMap<>();
+        counters.forEach((k, v) -> {
+            long n = v.sum();
+            totals.merge(k.outcome().name(), n, Long::sum);
+            byRole.computeIfAbsent(k.role(), r -> new TreeMap<>())
+                    .computeIfAbsent(k.action() == null ? NONE : k.action().name(), a -> new TreeMap<>())
+                    .put(k.outcome().name(), n);
+        });
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("sampleRate", sampleRate);
+        m.put("totals", totals);
+        m.put("byRole", byRole);
+        return m;
+    }
+}
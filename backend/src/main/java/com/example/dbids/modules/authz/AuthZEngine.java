@@ -1,13 +1,20 @@
 // src/main/java/com/example/dbids/modules/authz/AuthZEngine.java
 package com.example.dbids.modules.authz;
 
+import com.example.dbids.modules.analysis.QueryAnalysis;
 import com.example.dbids.modules.behavior.QueryClassifier;
-import com.example.dbids.modules.rule.SqlNormalizer;
+import com.example.dbids.modules.behavior.SqlStatementParser;
 import com.example.dbids.sqlite.model.DetectionEvent;
 
-import java.util.*;
-import java.util.regex.Pattern;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * 역할 기반 권한 판정. 규칙은 생성/reload 시 {@link AuthZPolicy}로 컴파일해 두고,
+ * 그 앞에 (사용자, 액션, 테이블) 판정 캐시를 둔다.
+ */
 public class AuthZEngine {
 
     public enum Action { SELECT, INSERT, UPDATE, DELETE, DDL, OTHER }
@@ -20,86 +27,140 @@ public class AuthZEngine {
             String ruleMatched
     ) {}
 
-    private final AuthZProperties props;
-    private final SqlNormalizer normalizer = new SqlNormalizer();
-    private final QueryClassifier classifier = new QueryClassifier();
+    /** 사용자·액션당 캐시할 테이블 수 상한 (사용자 수 상한은 authz.decisionCacheUsers) */
+    private static final int TABLES_PER_ACTION = 256;
+
+    private volatile AuthZProperties props;
+    private final AuthZAudit audit;
+    private volatile AuthZPolicy policy;
+    private final ConcurrentHashMap<String, UserDecisions> cache = new ConcurrentHashMap<>();
 
     public AuthZEngine(AuthZProperties props) {
+        this(props, new AuthZAudit(props.getAudit().getSampleRate()));
+    }
+
+    public AuthZEngine(AuthZProperties props, AuthZAudit audit) {
         this.props = props;
+        this.audit = audit;
+        this.policy = AuthZPolicy.compile(props);
+    }
+
+    public AuthZAudit audit() { return audit; }
+
+    /** 현재 설정 객체가 바뀐 뒤 정책 인덱스를 다시 컴파일하고 판정 캐시를 비운다. */
+    public void reload() {
+        reload(props);
+    }
+
+    /** 새로 바인딩한 설정으로 교체: 정책 재컴파일 + 판정 캐시 초기화(감사 샘플링 비율은 시작 시 값 유지) */
+    public void reload(AuthZProperties next) {
+        policy = AuthZPolicy.compile(next);
+        props = next;
+        cache.clear();
     }
 
     public Optional<Violation> evaluate(String userIdRaw, String sqlRaw) {
+        return evaluate(userIdRaw, QueryAnalysis.of(sqlRaw));
+    }
+
+    /** 공용 분석 결과(문장별 분류/테이블)를 재사용하는 진입점: 파싱을 다시 하지 않는다 */
+    public Optional<Violation> evaluate(String userIdRaw, QueryAnalysis analysis) {
         // userIdRaw는 그대로 두고, 매칭만 내부적으로 케이스 무시/오타 우회
-        String roleName = props.resolveRoleName(userIdRaw);
-        if (roleName == null) {
-            System.out.println("[AUTHZ] no role for user=" + userIdRaw + " (roleName=null)");
+        UserDecisions u = decisionsFor(userIdRaw);
+        if (u.role == null) {
+            // 역할 미지정(roleName=null) 또는 정의되지 않은 역할 이름 → 정책 비적용
+            audit.record(AuthZAudit.Outcome.NO_ROLE, userIdRaw, u.roleName, toAction(analysis.getKind()), null, null);
             return Optional.empty();
         }
 
-        AuthZProperties.Role role = (props.getRoles() == null) ? null : props.getRoles().get(roleName);
-        if (role == null) {
-            System.out.println("[AUTHZ] role object not found for name=" + roleName);
-            return Optional.empty();
-        }
+        // 다중 문장이면 문장마다 (종류, 테이블)로 판정 → 하나라도 DENY면 위반
+        List<SqlStatementParser.Statement> statements = analysis.getStatements();
+        if (statements.isEmpty()) statements = List.of(new SqlStatementParser.Statement(analysis.getKind(), List.of()));
 
-        String norm = normalizer.normalize(sqlRaw);
-        Action action = toAction(norm);
-        String[] tables = classifier.guessTables(norm);
-        if (tables == null || tables.length == 0) tables = new String[] {"*"};
-
-        List<String> deny = role.getDeny() == null ? List.of() : role.getDeny();
-        List<String> allow = role.getAllow() == null ? List.of() : role.getAllow();
-
-        for (String t : tables) {
-            if (matches(deny, action, t)) {
-                String ruleStr = matched(deny, action, t);
-                System.out.println("[AUTHZ] DENY matched user=" + userIdRaw + " action=" + action + " table=" + t + " rule=" + ruleStr);
-                return Optional.of(new Violation(
-                        role.getDefaultSeverity(),
-                        "AUTHZ_DENY for " + action.name() + ":" + t,
-                        action,
-                        t,
-                        "DENY " + ruleStr
-                ));
-            }
-            if (matches(allow, action, t)) {
-                System.out.println("[AUTHZ] ALLOW matched user=" + userIdRaw + " action=" + action + " table=" + t);
+        boolean allowed = false;
+        for (SqlStatementParser.Statement st : statements) {
+            Action action = toAction(st.kind());
+            List<String> tables = st.tables().isEmpty() ? List.of("*") : st.tables();
+
+            for (String t : tables) {
+                Decision d = u.decide(action, t);
+                if (d.denyRule != null) {
+                    audit.record(AuthZAudit.Outcome.DENY, userIdRaw, u.roleName, action, t, d.denyRule);
+                    return Optional.of(new Violation(
+                            u.role.severity,
+                            "AUTHZ_DENY for " + action.name() + ":" + t,
+                            action,
+                            t,
+                            "DENY " + d.denyRule
+                    ));
+                }
+                allowed |= d.allowed;
             }
         }
-        System.out.println("[AUTHZ] EMPTY (no event) user=" + userIdRaw);
+        audit.record(allowed ? AuthZAudit.Outcome.ALLOW : AuthZAudit.Outcome.NO_MATCH,
+                userIdRaw, u.roleName, toAction(analysis.getKind()), null, null);
         return Optional.empty();
     }
 
-    private static boolean matches(List<String> rules, Action action, String table) {
-        return rules.stream().anyMatch(r -> oneMatch(r, action, table));
-    }
-    private static String matched(List<String> rules, Action action, String table) {
-        return rules.stream().filter(r -> oneMatch(r, action, table)).findFirst().orElse("");
+    private UserDecisions decisionsFor(String userIdRaw) {
+        AuthZPolicy p = policy;
+        if (userIdRaw == null) return new UserDecisions(p, null, null);
+        UserDecisions u = cache.get(userIdRaw);
+        if (u != null && u.policy == p) return u;
+
+        String roleName = p.resolveRoleName(userIdRaw);
+        u = new UserDecisions(p, roleName, p.role(roleName));
+        if (cache.size() >= Math.max(1, props.getDecisionCacheUsers())) cache.clear();
+        cache.put(userIdRaw, u);
+        return u;
     }
-    private static boolean oneMatch(String rule, Action action, String table) {
-        String[] parts = rule.split(":", 2);
-        if (parts.length != 2) return false;
-        String ra = parts[0].trim().toUpperCase(Locale.ROOT);
-        String rt = parts[1].trim();
-        if (!ra.equals(action.name())) return false;
-        if (rt.equals("*")) return true;
-        String tbl = (table == null ? "" : table).toUpperCase(Locale.ROOT);
-        String pat = rt.toUpperCase(Locale.ROOT)
-                .replace(".", "\\.")
-                .replace("`", "")
-                .replace("*", ".*");
-        return Pattern.compile("^" + pat + "$").matcher(tbl).matches();
+
+    /** (액션, 테이블) 판정 결과: 첫 DENY 규칙 원문(없으면 null) + ALLOW 일치 여부 */
+    private record Decision(String denyRule, boolean allowed) {}
+
+    /** 사용자 1명의 역할 해석 결과 + 액션별 테이블 판정 캐시. 생성 당시 정책 인덱스에 묶인다. */
+    private static final class UserDecisions {
+        final AuthZPolicy policy;
+        final String roleName;
+        final AuthZPolicy.CompiledRole role;
+        private final ConcurrentHashMap<String, Decision>[] byAction;
+
+        @SuppressWarnings("unchecked")
+        UserDecisions(AuthZPolicy policy, String roleName, AuthZPolicy.CompiledRole role) {
+            this.policy = policy;
+            this.roleName = roleName;
+            this.role = role;
+            this.byAction = new ConcurrentHashMap[Action.values().length];
+        }
+
+        Decision decide(Action action, String table) {
+            String key = table == null ? "" : table;
+            ConcurrentHashMap<String, Decision> m = byAction[action.ordinal()];
+            if (m == null) {
+                synchronized (this) {
+                    m = byAction[action.ordinal()];
+                    if (m == null) byAction[action.ordinal()] = m = new ConcurrentHashMap<>();
+                }
+            }
+            Decision d = m.get(key);
+            if (d != null) return d;
+
+            String tbl = key.toUpperCase(Locale.ROOT);
+            d = new Decision(role.denyRule(action, tbl), role.allowed(action, tbl));
+            if (m.size() < TABLES_PER_ACTION) m.putIfAbsent(key, d);
+            return d;
+        }
     }
 
-    private static Action toAction(String normalized) {
-        if (normalized == null || normalized.isBlank()) return Action.OTHER;
-        String s = normalized.trim();
-        if (s.startsWith("SELECT")) return Action.SELECT;
-        if (s.startsWith("INSERT")) return Action.INSERT;
-        if (s.startsWith("UPDATE")) return Action.UPDATE;
-        if (s.startsWith("DELETE")) return Action.DELETE;
-        if (s.startsWith("CREATE") || s.startsWith("ALTER") || s.startsWith("DROP")
-                || s.startsWith("TRUNCATE") || s.startsWith("RENAME")) return Action.DDL;
-        return Action.OTHER;
+    private static Action toAction(QueryClassifier.Kind kind) {
+        if (kind == null) return Action.OTHER;
+        return switch (kind) {
+            case SELECT -> Action.SELECT;
+            case INSERT -> Action.INSERT;
+            case UPDATE -> Action.UPDATE;
+            case DELETE -> Action.DELETE;
+            case DDL    -> Action.DDL;
+            default     -> Action.OTHER;
+        };
     }
 }
@@ -0,0 +1,207 @@
+package com.example.dbids.modules.authz;
+
+import com.example.dbids.sqlite.model.DetectionEvent;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * AuthZProperties 를 기동/리로드 시점에 한 번 컴파일한 불변 정책 인덱스.
+ * - 사용자 → 역할: 대문자/'@' 제거 키로 미리 색인(케이스 무시 + '@' 무시 fallback)
+ * - 역할별 allow/deny: 액션 비트셋 + 액션별 (전체 '*', 정확 일치 해시, 접두 와일드카드 트라이, 그 외 glob 정규식)
+ * 평가 시에는 정규식 컴파일이나 규칙 문자열 파싱 없이 해시/트라이 조회만 한다.
+ * 같은 (액션, 테이블)에 여러 규칙이 맞으면 기존과 같이 선언 순서상 첫 규칙을 돌려준다.
+ */
+final class AuthZPolicy {
+
+    private static final AuthZEngine.Action[] ACTIONS = AuthZEngine.Action.values();
+
+    private final Map<String, String> userIndex;       // 대문자 userId(및 '@' 제거본) → roleName
+    private final Map<String, CompiledRole> roles;
+
+    private AuthZPolicy(Map<String, String> userIndex, Map<String, CompiledRole> roles) {
+        this.userIndex = userIndex;
+        this.roles = roles;
+    }
+
+    static AuthZPolicy compile(AuthZProperties props) {
+        Map<String, String> users = new HashMap<>();
+        if (props.getUserRoles() != null) {
+            for (Map.Entry<String, String> e : props.getUserRoles().entrySet()) {
+                if (e.getKey() == null) continue;
+                users.put(e.getKey().trim().toUpperCase(Locale.ROOT), e.getValue());
+                users.put(e.getKey().replace("@", "").trim().toUpperCase(Locale.ROOT), e.getValue());
+            }
+        }
+        Map<String, CompiledRole> roles = new HashMap<>();
+        if (props.getRoles() != null) {
+            for (Map.Entry<String, AuthZProperties.Role> e : props.getRoles().entrySet()) {
+                if (e.getValue() != null) roles.put(e.getKey(), CompiledRole.of(e.getValue()));
+            }
+        }
+        return new AuthZPolicy(Collections.unmodifiableMap(users), Collections.unmodifiableMap(roles));
+    }
+
+    /** 케이스 무시 + '@' 무시 fallback 으로 역할 이름 조회 */
+    String resolveRoleName(String userIdRaw) {
+        if (userIdRaw == null || userIdRaw.isBlank()) return null;
+        String kUC = userIdRaw.trim().toUpperCase(Locale.ROOT);
+        String v = userIndex.get(kUC);
+        return v != null ? v : userIndex.get(kUC.replace("@", ""));
+    }
+
+    CompiledRole role(String roleName) {
+        return roleName == null ? null : roles.get(roleName);
+    }
+
+    // ---------------------------------------------------------------- 역할
+
+    static final class CompiledRole {
+        final DetectionEvent.Severity severity;
+        private final RuleSet deny;
+        private final RuleSet allow;
+
+        private CompiledRole(DetectionEvent.Severity severity, RuleSet deny, RuleSet allow) {
+            this.severity = severity;
+            this.deny = deny;
+            this.allow = allow;
+        }
+
+        static CompiledRole of(AuthZProperties.Role r) {
+            return new CompiledRole(r.getDefaultSeverity(), RuleSet.of(r.getDeny()), RuleSet.of(r.getAllow()));
+        }
+
+        /** 첫 번째로 일치한 DENY 규칙 원문(없으면 null) */
+        String denyRule(AuthZEngine.Action action, String tableUpper) {
+            return deny.firstMatch(action, tableUpper);
+        }
+
+        boolean allowed(AuthZEngine.Action action, String tableUpper) {
+            return allow.firstMatch(action, tableUpper) != null;
+        }
+    }
+
+    // ---------------------------------------------------------------- 규칙 집합
+
+    private static final class RuleSet {
+        private final String[] texts;          // 선언 순서 → 원문
+        private final int actionMask;          // 규칙이 하나라도 있는 액션 비트
+        private final TableIndex[] byAction;   // Action.ordinal() → 인덱스
+
+        private RuleSet(String[] texts, int actionMask, TableIndex[] byAction) {
+            this.texts = texts;
+            this.actionMask = actionMask;
+            this.byAction = byAction;
+        }
+
+        static RuleSet of(List<String> rules) {
+            List<String> list = rules == null ? List.of() : rules;
+            String[] texts = list.toArray(new String[0]);
+            TableIndex[] byAction = new TableIndex[ACTIONS.length];
+            int mask = 0;
+            for (int i = 0; i < texts.length; i++) {
+                String rule = texts[i];
+                if (rule == null) continue;
+                String[] parts = rule.split(":", 2);
+                if (parts.length != 2) continue;
+                AuthZEngine.Action a = actionOf(parts[0].trim().toUpperCase(Locale.ROOT));
+                if (a == null) continue;
+                if (byAction[a.ordinal()] == null) byAction[a.ordinal()] = new TableIndex();
+                byAction[a.ordinal()].add(parts[1].trim(), i);
+                mask |= 1 << a.ordinal();
+            }
+            return new RuleSet(texts, mask, byAction);
+        }
+
+        String firstMatch(AuthZEngine.Action action, String tableUpper) {
+            if ((actionMask & (1 << action.ordinal())) == 0) return null;
+            int idx = byAction[action.ordinal()].first(tableUpper);
+            return idx == Integer.MAX_VALUE ? null : texts[idx];
+        }
+
+        private static AuthZEngine.Action actionOf(String name) {
+            for (AuthZEngine.Action a : ACTIONS) if (a.name().equals(name)) return a;
+            return null;
+        }
+    }
+
+    /**
+     * 한 액션의 테이블 패턴 인덱스. 값은 규칙 선언 순서(작을수록 우선).
+     * 패턴 변환 규칙은 기존 구현과 동일: 대문자화, '`' 제거, '.' 은 리터럴, '*' 는 임의 문자열.
+     */
+    private static final class TableIndex {
+        private int any = Integer.MAX_VALUE;                  // "*"
+        private final Map<String, Integer> exact = new HashMap<>();
+        private final PrefixTrie prefixes = new PrefixTrie(); // "ABC*"
+        private final List<Pattern> globs = new ArrayList<>();// 그 외 ("*_LOG", "A*B" 등)
+        private final List<Integer> globOrder = new ArrayList<>();
+
+        void add(String rawTable, int order) {
+            if (rawTable.equals("*")) {
+                any = Math.min(any, order);
+                return;
+            }
+            String t = rawTable.toUpperCase(Locale.ROOT).replace("`", "");
+            int star = t.indexOf('*');
+            boolean plain = !hasRegexMeta(t);
+            if (plain && star < 0) {
+                exact.merge(t, order, Math::min);
+            } else if (plain && star == t.length() - 1) {
+                prefixes.put(t.substring(0, star), order);
+            } else {
+                String pat = t.replace(".", "\\.").replace("*", ".*");
+                globs.add(Pattern.compile("^" + pat + "$"));
+                globOrder.add(order);
+            }
+        }
+
+        int first(String table) {
+            int best = any;
+            Integer e = exact.get(table);
+            if (e != null && e < best) best = e;
+            best = Math.min(best, prefixes.first(table));
+            for (int i = 0; i < globs.size(); i++) {
+                int o = globOrder.get(i);
+                if (o < best && globs.get(i).matcher(table).matches()) best = o;
+            }
+            return best;
+        }
+
+        // '.' 과 '*' 외의 정규식 메타문자가 있으면 기존처럼 정규식으로 평가
+        private static boolean hasRegexMeta(String s) {
+            for (int i = 0; i < s.length(); i++) {
+                if ("\\^$|?+()[]{}".indexOf(s.charAt(i)) >= 0) return true;
+            }
+            return false;
+        }
+    }
+
+    /** 접두 와일드카드("ORDERS_*") 트라이: 테이블명을 따라 내려가며 지나친 접두의 최소 순서를 찾는다 */
+    private static final class PrefixTrie {
+        private final Map<Character, PrefixTrie> next = new HashMap<>(4);
+        private int order = Integer.MAX_VALUE;
+
+        void put(String prefix, int o) {
+            PrefixTrie n = this;
+            for (int i = 0; i < prefix.length(); i++) n = n.next.computeIfAbsent(prefix.charAt(i), k -> new PrefixTrie());
+            n.order = Math.min(n.order, o);
+        }
+
+        int first(String s) {
+            int best = order;
+            PrefixTrie n = this;
+            for (int i = 0; i < s.length(); i++) {
+                if (n.next.isEmpty()) break;
+                n = n.next.get(s.charAt(i));
+                if (n == null) break;
+                best = Math.min(best, n.order);
+            }
+            return best;
+        }
+    }
+}
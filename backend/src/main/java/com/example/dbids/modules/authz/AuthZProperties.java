@@ -2,6 +2,8 @@
 package com.example.dbids.modules.authz;
 
 import com.example.dbids.sqlite.model.DetectionEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
@@ -9,17 +11,25 @@ import jakarta.annotation.PostConstruct;
 import java.util.*;
 
 @Component
-@ConfigurationProperties(prefix = "authz")
+@ConfigurationProperties(prefix = AuthZProperties.PREFIX)
 public class AuthZProperties {
 
+    /** 설정 접두어(reload 시 같은 접두어로 다시 바인딩) */
+    public static final String PREFIX = "authz";
+
+    private static final Logger log = LoggerFactory.getLogger(AuthZProperties.class);
+
     /** role name -> role definition */
     private Map<String, Role> roles;
 
     /** userId -> roleName (원본 그대로 저장) */
     private Map<String, String> userRoles;
 
-    /** 케이스 무시 매칭용 (내부 전용) */
-    private Map<String, String> userRolesCI;
+    /** 판정 감사 로그 설정 */
+    private Audit audit = new Audit();
+
+    /** AuthZEngine 판정 캐시에 보관할 최대 사용자 수(초과 시 비우고 다시 채움) */
+    private int decisionCacheUsers = 10_000;
 
     public Map<String, Role> getRoles() { return roles; }
     public void setRoles(Map<String, Role> roles) { this.roles = roles; }
@@ -27,36 +37,18 @@ public class AuthZProperties {
     public Map<String, String> getUserRoles() { return userRoles; }
     public void setUserRoles(Map<String, String> userRoles) { this.userRoles = userRoles; }
 
+    public Audit getAudit() { return audit; }
+    public void setAudit(Audit audit) { this.audit = audit; }
+
+    public int getDecisionCacheUsers() { return decisionCacheUsers; }
+    public void setDecisionCacheUsers(int decisionCacheUsers) { this.decisionCacheUsers = decisionCacheUsers; }
+
+    /** 요약 로그(사용자 → 역할 색인은 AuthZPolicy 가 컴파일 시 구성) */
     @PostConstruct
     public void init() {
-        // 케이스 무시 맵 구성 (키만 UPPERCASE로 인덱싱) — 원본 userRoles는 그대로 보존
-        userRolesCI = new LinkedHashMap<>();
-        if (userRoles != null) {
-            for (Map.Entry<String, String> e : userRoles.entrySet()) {
-                if (e.getKey() == null) continue;
-                userRolesCI.put(e.getKey().trim().toUpperCase(Locale.ROOT), e.getValue());
-                // @ 빠진 설정도 있을 수 있어 fallback 키도 같이 인덱싱
-                String noAt = e.getKey().replace("@", "");
-                userRolesCI.put(noAt.trim().toUpperCase(Locale.ROOT), e.getValue());
-            }
-        }
-
-        // 요약 로그
-        System.out.println("[AUTHZ] === Properties Loaded ===");
-        System.out.println("[AUTHZ] roles keys = " + (roles == null ? "[]" : roles.keySet()));
-        System.out.println("[AUTHZ] userRoles(raw) = " + (userRoles == null ? "{}" : userRoles));
-        System.out.println("[AUTHZ] userRoles(index, case-insensitive) size = " + (userRolesCI == null ? 0 : userRolesCI.size()));
-        System.out.println("[AUTHZ] ==========================");
-    }
-
-    /** 입력 userId를 원본 그대로 두고, 내부적으로만 케이스 무시 + @무시 fallback 으로 roleName을 찾는다. */
-    public String resolveRoleName(String userIdRaw) {
-        if (userIdRaw == null || userIdRaw.isBlank() || userRolesCI == null) return null;
-        String kUC = userIdRaw.trim().toUpperCase(Locale.ROOT);
-        String v = userRolesCI.get(kUC);
-        if (v != null) return v;
-        String noAtUC = kUC.replace("@", "");
-        return userRolesCI.get(noAtUC);
+        log.info("authz properties loaded: roles={}, userRoles={}",
+                roles == null ? "[]" : roles.keySet(),
+                userRoles == null ? 0 : userRoles.size());
     }
 
     public static class Role {
@@ -71,4 +63,12 @@ public class AuthZProperties {
         public DetectionEvent.Severity getDefaultSeverity() { return defaultSeverity; }
         public void setDefaultSeverity(DetectionEvent.Severity defaultSeverity) { this.defaultSeverity = defaultSeverity; }
     }
+
+    public static class Audit {
+        /** ALLOW/NO_MATCH/NO_ROLE 판정 중 DEBUG 로그로 남길 비율(0~1). DENY 는 항상 기록 */
+        private double sampleRate = 0.01;
+
+        public double getSampleRate() { return sampleRate; }
+        public void setSampleRate(double sampleRate) { this.sampleRate = sampleRate; }
+    }
 }
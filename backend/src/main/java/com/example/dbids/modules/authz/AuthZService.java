@@ -1,48 +1,64 @@
 // src/main/java/com/example/dbids/modules/authz/AuthZService.java
 package com.example.dbids.modules.authz;
 
-import com.example.dbids.modules.notify.NotificationService;
-import com.example.dbids.modules.rule.SqlNormalizer;
+import com.example.dbids.modules.analysis.QueryAnalysis;
+import com.example.dbids.modules.detection.Finding;
 import com.example.dbids.sqlite.model.DetectionEvent;
 import com.example.dbids.sqlite.model.QueryLog;
-import com.example.dbids.sqlite.repository.DetectionEventRepository;
-import com.example.dbids.sqlite.repository.QueryLogRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
-import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
 @Service
 public class AuthZService {
 
-    private final DetectionEventRepository eventRepo;
     private final AuthZEngine engine;
-    private final SqlNormalizer normalizer = new SqlNormalizer();
-    private final NotificationService notifier;
-    private final QueryLogRepository logRepo;
+    private final Environment env;      // null 이면 reload 는 현재 설정 객체를 그대로 재컴파일
 
-    public AuthZService(DetectionEventRepository eventRepo,
-            AuthZProperties props,
-            NotificationService notifier,
-            QueryLogRepository logRepo) {
-        this.eventRepo = eventRepo;
+    @Autowired
+    public AuthZService(AuthZProperties props, Environment env) {
         this.engine = new AuthZEngine(props);
-        this.notifier = notifier;
-        this.logRepo = logRepo;
+        this.env = env;
     }
 
-    @Transactional("sqliteTx")
-    public Optional<String> evaluateAndRecord(QueryLog log) {
+    public AuthZService(AuthZProperties props) {
+        this(props, null);
+    }
+
+    /**
+     * 권한 설정 변경 반영: Environment 에서 authz.* 를 새 객체로 다시 바인딩해 정책 재컴파일 + 판정 캐시 초기화.
+     * 시작 시 바인딩된 AuthZProperties 빈은 바뀌지 않으므로 그것을 재컴파일해서는 변경이 보이지 않는다.
+     */
+    public void reloadPolicy() {
+        if (env == null) {
+            engine.reload();
+            return;
+        }
+        engine.reload(Binder.get(env).bind(AuthZProperties.PREFIX, AuthZProperties.class)
+                .orElseGet(AuthZProperties::new));
+    }
+
+    /** 판정 카운터(결과 × 역할 × 액션) */
+    public Map<String, Object> decisionStats() {
+        return engine.audit().stats();
+    }
+
+    /** 권한 판정만 수행(저장/알림 없음). 위반은 항상 차단(blocking). 예외는 미탐으로 처리(fail-open) */
+    public Optional<Finding> evaluate(QueryLog log, QueryAnalysis analysis) {
         try {
             // ★ userId 원본 그대로 전달
-            var v = engine.evaluate(log.getUserId(), log.getSqlRaw());
+            var v = engine.evaluate(log.getUserId(), analysis);
             if (v.isEmpty()) return Optional.empty();
 
             var vio = v.get();
-            String normalized = normalizer.normalize(log.getSqlRaw());
+            // 스냅샷: 위반 사유/규칙 + 정규화 SQL
+            String snapshot = vio.reason() + " RULE=" + vio.ruleMatched() + " SQL=" + analysis.getNormalized();
 
             DetectionEvent ev = new DetectionEvent(
                     UUID.randomUUID().toString(),
@@ -50,16 +66,9 @@ public class AuthZService {
                     DetectionEvent.Type.AUTHZ,
                     vio.severity(),
                     Instant.now().toString(),
-                    normalized
+                    snapshot
             );
-            eventRepo.save(ev);
-            notifier.onEvent(ev);
-
-            if (log.getStatus() != QueryLog.Status.FAILURE) {
-                log.setStatus(QueryLog.Status.FAILURE);
-                try { logRepo.save(log); } catch (Exception ignore) {}
-            }
-            return Optional.of(ev.getId());
+            return Optional.of(new Finding(ev, vio.ruleMatched(), true));
         } catch (Exception ignore) {
             return Optional.empty();
         }
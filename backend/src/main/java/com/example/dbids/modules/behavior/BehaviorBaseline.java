@@ -0,0 +1,131 @@
+package com.example.dbids.modules.behavior;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * 사용자 1명의 적응형 기준선: 지표(QPM, 쓰기 비율, 분당 DDL, 오류 수)별
+ * - EWMA 평균/분산 (alpha 가중 지수이동)
+ * - P² 스트리밍 분위수(마커 5개, 값 저장 없이 O(1) 갱신)
+ * 윈도우 1개가 닫힐 때마다 한 번 갱신한다. 상태는 double 49개(392 byte) 고정 배열이며 그대로 직렬화한다.
+ */
+final class BehaviorBaseline {
+
+    static final int QPM = 0, WRITE_RATIO = 1, DDL_PER_MIN = 2, ERR_BURST = 3;
+    static final int METRICS = 4;
+
+    // 지표별 [mean, var, q0..q4(마커 높이), n0..n4(마커 위치)]
+    private static final int MEAN = 0, VAR = 1, HEIGHTS = 2, POS = 7, M_STRIDE = 12;
+    private static final int SAMPLES = METRICS * M_STRIDE;
+    static final int BYTES = (SAMPLES + 1) * Double.BYTES;
+
+    private final double p;
+    private final double[] dn;                 // 마커별 목표 위치 증분
+    private final double[] s = new double[SAMPLES + 1];
+    private volatile boolean dirty;
+
+    BehaviorBaseline(double quantile) {
+        this.p = Math.min(0.999, Math.max(0.5, quantile));
+        this.dn = new double[]{0, p / 2, p, (1 + p) / 2, 1};
+    }
+
+    synchronized long samples() { return (long) s[SAMPLES]; }
+
+    synchronized double mean(int m) { return s[m * M_STRIDE + MEAN]; }
+
+    synchronized double std(int m) { return Math.sqrt(Math.max(0.0, s[m * M_STRIDE + VAR])); }
+
+    /** P² 추정 분위수(관측 5개 미만이면 관측값 중 근사 순위) */
+    synchronized double quantile(int m) {
+        int b = m * M_STRIDE + HEIGHTS;
+        int c = (int) Math.min(samples(), 5);
+        if (c == 0) return 0.0;
+        if (samples() >= 5) return s[b + 2];
+        double[] first = Arrays.copyOfRange(s, b, b + c);
+        Arrays.sort(first);
+        return first[(int) Math.min(c - 1, Math.floor(p * c))];
+    }
+
+    boolean isDirty() { return dirty; }
+
+    void markClean() { dirty = false; }
+
+    void markDirty() { dirty = true; }
+
+    /** 닫힌 윈도우 지표 x[METRICS] 반영 */
+    synchronized void update(double[] x, double alpha) {
+        long n = samples();
+        for (int m = 0; m < METRICS; m++) {
+            int b = m * M_STRIDE;
+            if (n == 0) {
+                s[b + MEAN] = x[m];
+                s[b + VAR] = 0.0;
+            } else {
+                double diff = x[m] - s[b + MEAN];
+                double incr = alpha * diff;
+                s[b + MEAN] += incr;
+                s[b + VAR] = (1 - alpha) * (s[b + VAR] + diff * incr);
+            }
+            p2(b, n, x[m]);
+        }
+        s[SAMPLES] = n + 1;
+        dirty = true;
+    }
+
+    // P² (Jain & Chlamtac): 마커 5개의 높이/위치를 조정해 p-분위수를 추적
+    private void p2(int b, long n, double x) {
+        int q = b + HEIGHTS, pos = b + POS;
+        if (n < 5) {
+            s[q + (int) n] = x;
+            if (n == 4) {
+                Arrays.sort(s, q, q + 5);
+                for (int i = 0; i < 5; i++) s[pos + i] = i + 1;
+            }
+            return;
+        }
+        int k;
+        if (x < s[q]) { s[q] = x; k = 0; }
+        else if (x < s[q + 1]) k = 0;
+        else if (x < s[q + 2]) k = 1;
+        else if (x < s[q + 3]) k = 2;
+        else if (x <= s[q + 4]) k = 3;
+        else { s[q + 4] = x; k = 3; }
+        for (int i = k + 1; i < 5; i++) s[pos + i] += 1;
+
+        double count = n + 1;
+        for (int i = 1; i <= 3; i++) {
+            double desired = 1 + (count - 1) * dn[i];
+            double d = desired - s[pos + i];
+            if ((d >= 1 && s[pos + i + 1] - s[pos + i] > 1) || (d <= -1 && s[pos + i - 1] - s[pos + i] < -1)) {
+                int ds = d > 0 ? 1 : -1;
+                double qp = parabolic(q, pos, i, ds);
+                if (s[q + i - 1] < qp && qp < s[q + i + 1]) s[q + i] = qp;
+                else s[q + i] = s[q + i] + ds * (s[q + i + ds] - s[q + i]) / (s[pos + i + ds] - s[pos + i]);
+                s[pos + i] += ds;
+            }
+        }
+    }
+
+    private double parabolic(int q, int pos, int i, int d) {
+        double ni = s[pos + i], nm = s[pos + i - 1], np = s[pos + i + 1];
+        double qi = s[q + i], qm = s[q + i - 1], qn = s[q + i + 1];
+        return qi + d / (np - nm) * ((ni - nm + d) * (qn - qi) / (np - ni) + (np - ni - d) * (qi - qm) / (ni - nm));
+    }
+
+    // ---------------------------------------------------------------- 스냅샷
+
+    synchronized byte[] toBytes() {
+        ByteBuffer buf = ByteBuffer.allocate(BYTES);
+        for (double v : s) buf.putDouble(v);
+        return buf.array();
+    }
+
+    /** 형식이 맞지 않으면 null(새 기준선으로 다시 학습) */
+    static BehaviorBaseline fromBytes(byte[] bytes, double quantile) {
+        if (bytes == null || bytes.length != BYTES) return null;
+        BehaviorBaseline b = new BehaviorBaseline(quantile);
+        ByteBuffer buf = ByteBuffer.wrap(bytes);
+        for (int i = 0; i < b.s.length; i++) b.s[i] = buf.getDouble();
+        return b;
+    }
+}
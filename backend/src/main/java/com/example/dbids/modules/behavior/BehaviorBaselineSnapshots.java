@@ -0,0 +1,55 @@
+package com.example.dbids.modules.behavior;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * 적응형 기준선 스냅샷 저장소(behavior_baseline 테이블).
+ * 상태는 BehaviorBaseline 의 고정 길이 직렬화(BLOB)로 사용자당 1행 upsert 한다.
+ */
+@Component
+public class BehaviorBaselineSnapshots {
+
+    private static final int JDBC_BATCH = 500;
+    private static final String UPSERT_SQL =
+            "INSERT INTO behavior_baseline (user_id, state, samples, updated_at) VALUES (?, ?, ?, ?) "
+                    + "ON CONFLICT(user_id) DO UPDATE SET state = excluded.state, samples = excluded.samples, "
+                    + "updated_at = excluded.updated_at";
+
+    /** 저장 대상 1건 */
+    public record Row(String userId, byte[] state, long samples) {}
+
+    private final JdbcTemplate jdbc;
+    private final JdbcTemplate readJdbc;      // 트랜잭션 밖 조회는 reader 풀
+
+    public BehaviorBaselineSnapshots(@Qualifier("sqliteJdbc") JdbcTemplate jdbc,
+            @Qualifier("sqliteReadJdbc") JdbcTemplate readJdbc) {
+        this.jdbc = jdbc;
+        this.readJdbc = readJdbc;
+    }
+
+    /** 사용자 1명의 스냅샷(없으면 null). 퇴출 후 다시 나타난 사용자를 평가할 때 읽는다 */
+    public byte[] load(String userId) {
+        List<byte[]> rows = readJdbc.query("SELECT state FROM behavior_baseline WHERE user_id = ?",
+                (rs, i) -> rs.getBytes(1), userId);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    @Transactional("sqliteTx")
+    public int saveAll(List<Row> rows) {
+        if (rows == null || rows.isEmpty()) return 0;
+        String now = Instant.now().toString();
+        jdbc.batchUpdate(UPSERT_SQL, rows, JDBC_BATCH, (ps, r) -> {
+            ps.setString(1, r.userId());
+            ps.setBytes(2, r.state());
+            ps.setLong(3, r.samples());
+            ps.setString(4, now);
+        });
+        return rows.size();
+    }
+}
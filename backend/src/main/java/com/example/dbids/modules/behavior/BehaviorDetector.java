@@ -1,117 +1,306 @@
 package com.example.dbids.modules.behavior;
 
-import com.example.dbids.modules.notify.NotificationService;
+import com.example.dbids.modules.analysis.QueryAnalysis;
 import com.example.dbids.sqlite.model.DetectionEvent;
 import com.example.dbids.sqlite.model.QueryLog;
-import com.example.dbids.sqlite.repository.DetectionEventRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
 
 /**
  * SDS 준수: 추가 테이블 없이, 메모리 윈도우 집계 후
  * 임계치 초과 시 DetectionEvent(Type=BEHAVIOR)만 SQLite에 기록.
+ *
+ * 윈도우는 사용자별 슬라이딩 링(BehaviorStateStore 의 프리미티브 레코드)이며, 하위 버킷이 넘어갈 때마다
+ * 직전 윈도우를 평가한다. 집계는 원자 연산만 쓰므로 동시 적재에도 잠금이 없다.
+ * 로그가 끊긴 사용자도 계층형 타이밍 휠이 제때 윈도우를 닫아 평가하고, 링이 비면 핸들을 반납(퇴출)한다.
+ *
+ * 점수: 사용자별 기준선(BehaviorBaseline)이 warmupWindows 만큼 학습되면 지표별 z-score 가중합으로,
+ * 그 전에는 기존 상수 임계치로 평가한다. 기준선은 behavior_baseline 테이블에 주기적으로 스냅샷된다.
+ * 메모리에는 추적 중인(핸들이 있는) 사용자의 기준선만 둔다: 퇴출 시 스냅샷 후 내려놓고,
+ * 다시 나타나면 처음 평가할 때 스냅샷에서 읽어 온다.
  */
 @Service
 public class BehaviorDetector {
 
+    private static final Logger LOG = LoggerFactory.getLogger(BehaviorDetector.class);
+    private static final int WHEEL_SIZE = 64;
+
     private final BehaviorProperties props;
-    private final DetectionEventRepository eventRepo;
-    private final NotificationService notifier;
+    private final BehaviorEventWriter writer;                           // 이벤트 + 아웃박스 한 트랜잭션
     private final BehaviorFeatureExtractor extractor = new BehaviorFeatureExtractor();
-    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final BehaviorStateStore store;
+    private final TimingWheel wheel;
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder evictedCount = new LongAdder();
+    private final LongAdder writeFailed = new LongAdder();
+    private final BehaviorBaselineSnapshots snapshots;                  // null 이면 메모리에만 유지
+    private final ConcurrentHashMap<String, BehaviorBaseline> baselines = new ConcurrentHashMap<>();
+    private ScheduledExecutorService ticker;
+
+    @Autowired
+    public BehaviorDetector(BehaviorProperties props, BehaviorEventWriter writer,
+                            BehaviorBaselineSnapshots snapshots) {
+        this(props, writer, snapshots, System::currentTimeMillis);
+    }
+
+    public BehaviorDetector(BehaviorProperties props, BehaviorEventWriter writer) {
+        this(props, writer, null, System::currentTimeMillis);
+    }
+
+    /** 테스트용: 벽시계 주입 */
+    BehaviorDetector(BehaviorProperties props, BehaviorEventWriter writer, LongSupplier clock) {
+        this(props, writer, null, clock);
+    }
 
-    public BehaviorDetector(BehaviorProperties props, DetectionEventRepository eventRepo, NotificationService notifier) {
+    /** 테스트용: 스냅샷 저장소 + 벽시계 주입 */
+    BehaviorDetector(BehaviorProperties props, BehaviorEventWriter writer,
+                     BehaviorBaselineSnapshots snapshots, LongSupplier clock) {
         this.props = props;
-        this.eventRepo = eventRepo;
-        this.notifier = notifier;
+        this.writer = writer;
+        this.snapshots = snapshots;
+        this.wheel = new TimingWheel(props.getWheelTickMs(), WHEEL_SIZE, clock);
+        int slots = Math.max(1, props.getSubBuckets());
+        this.store = new BehaviorStateStore(slots, Math.max(1, props.getWindowSeconds() * 1000L / slots), props.getMaxUsers());
     }
 
-    /** 사용자별 윈도우 버킷(인메모리) */
-    static class Bucket {
-        long winStartEpoch; // 초 단위
-        int q, write, ddl, err;
-        String lastLogId;   // FK 대표 로그ID(가장 최근)
+    /** 타이밍 휠 구동(벽시계 기준 윈도우 마감/유휴 퇴출) */
+    @PostConstruct
+    public synchronized void start() {
+        if (ticker != null) return;
+        ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "behavior-wheel");
+            t.setDaemon(true);
+            return t;
+        });
+        long tick = Math.max(1, props.getWheelTickMs());
+        ticker.scheduleAtFixedRate(() -> wheel.advance(wheel.now()), tick, tick, TimeUnit.MILLISECONDS);
+
+        if (snapshots != null && props.getBaseline().isEnabled()) {
+            long every = Math.max(1, props.getBaseline().getSnapshotSeconds());
+            ticker.scheduleWithFixedDelay(this::snapshotBaselines, every, every, TimeUnit.SECONDS);
+        }
     }
 
-    private long alignWindowStart(Instant ts) {
-        long sec = ts.getEpochSecond();
-        long w = props.getWindowSeconds();
-        return (sec / w) * w;
+    @PreDestroy
+    public synchronized void stop() {
+        if (ticker == null) return;
+        ticker.shutdownNow();
+        ticker = null;
+        snapshotBaselines();
     }
 
     private static Instant parseIso(String iso) { return Instant.parse(iso); }
 
     @Transactional("sqliteTx")
     public void onLog(QueryLog log) {
+        onLog(log, QueryAnalysis.of(log.getSqlRaw()));
+    }
+
+    /** 공용 분석 결과(분류/테이블)를 재사용하는 진입점 */
+    @Transactional("sqliteTx")
+    public void onLog(QueryLog log, QueryAnalysis analysis) {
         try {
-            Instant exec = parseIso(log.getExecutedAt());
-            long start = alignWindowStart(exec);
+            long exec = parseIso(log.getExecutedAt()).toEpochMilli();
             String user = log.getUserId();
+            var d = extractor.extract(log, analysis);
 
-            Bucket b = buckets.compute(user, (k, old) -> {
-                if (old == null || old.winStartEpoch != start) {
-                    if (old != null) flushAndMaybeAlert(user, old);
-                    Bucket nb = new Bucket();
-                    nb.winStartEpoch = start;
-                    return nb;
-                }
-                return old;
-            });
-
-            var d = extractor.extract(log);
-            b.q     += d.q;
-            b.write += d.write;
-            b.ddl   += d.ddl;
-            b.err   += d.error;
-            b.lastLogId = log.getId(); // FK 대표 연결
-
-            // 별도 스케줄러 없이, 새 윈도우가 열릴 때 이전 버킷이 flush됨.
+            int h = store.acquire(user);
+            if (h == BehaviorStateStore.NO_HANDLE) { dropped.increment(); return; }   // maxUsers 초과 → 추적 생략(fail-open)
+            try {
+                BehaviorStateStore.Totals closed = store.add(h, exec, wheel.now(), d, log.getId());
+                if (store.tryArm(h)) arm(user, h);
+                if (closed != null) evaluate(user, h, closed);
+            } finally {
+                store.release(h);
+            }
         } catch (Exception ignore) {
             // fail-open
         }
     }
 
-    /** 윈도우 통계를 상수 임계 방식으로 평가 → 임계치 넘으면 BEHAVIOR 이벤트 기록 */
-    private void flushAndMaybeAlert(String user, Bucket b) {
+    /** 테스트용: 스케줄러 없이 타이밍 휠을 now 까지 진행 */
+    void tick(long now) { wheel.advance(now); }
+
+    /** 현재 추적 중인 사용자 수 */
+    public int trackedUsers() { return store.size(); }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("trackedUsers", store.size());
+        m.put("bytesPerUser", store.bytesPerUser());
+        m.put("pendingTimers", wheel.pending());
+        m.put("evicted", evictedCount.sum());
+        m.put("dropped", dropped.sum());
+        m.put("writeFailed", writeFailed.sum());
+        m.put("baselines", baselines.size());
+        return m;
+    }
+
+    // 다음 하위 버킷 경계에 맞춰 타이머 등록(tryArm 으로 사용자당 최대 1개)
+    private void arm(String user, int h) {
+        long now = wheel.now();
+        wheel.schedule(now + store.millisToNextSlot(h, now), () -> onTimer(user, h));
+    }
+
+    /** 타이머 만료: 벽시계 경과만큼 창을 진행해 닫힌 윈도우를 평가하고, 비었으면 퇴출 */
+    private void onTimer(String user, int h) {
+        if (!store.owns(h, user)) return;
+        store.disarm(h);
+        BehaviorStateStore.Totals closed = store.advanceIdle(h, wheel.now());
+        if (closed != null) evaluate(user, h, closed);
+        if (store.isEmpty(h) && store.tryEvict(h, user)) {
+            evictedCount.increment();
+            retireBaseline(user);
+        } else if (store.tryArm(h)) {
+            arm(user, h);
+        }
+    }
+
+    /** 윈도우 통계 평가 → 임계치 넘으면 BEHAVIOR 이벤트 기록(쿨다운 적용) */
+    private void evaluate(String user, int h, BehaviorStateStore.Totals b) {
         try {
             double minutes    = props.getWindowSeconds() / 60.0;
-            double qpm        = b.q / Math.max(minutes, 1e-6);
-            double writeRatio = (b.q == 0) ? 0.0 : ((double) b.write / b.q);
-            double ddlPerMin  = b.ddl / Math.max(minutes, 1e-6);
-            double errBurst   = b.err;
+            double qpm        = b.q() / Math.max(minutes, 1e-6);
+            double writeRatio = (b.q() == 0) ? 0.0 : ((double) b.write() / b.q());
+            double ddlPerMin  = b.ddl() / Math.max(minutes, 1e-6);
+            double errBurst   = b.err();
+            double[] x = {qpm, writeRatio, ddlPerMin, errBurst};
 
-            double score = props.getWQpm()        * qpm
-                    + props.getWWriteRatio() * writeRatio
-                    + props.getWDdlPerMin()  * ddlPerMin
-                    + props.getWErrorBurst() * errBurst;
+            BehaviorProperties.Baseline cfg = props.getBaseline();
+            BehaviorBaseline base = cfg.isEnabled() ? baselineFor(user) : null;
+            boolean adaptive = base != null && base.samples() >= cfg.getWarmupWindows();
 
+            double score;
             DetectionEvent.Severity sev = null;
-            if (score >= props.getThresholdHigh())       sev = DetectionEvent.Severity.HIGH;
-            else if (score >= props.getThresholdMedium()) sev = DetectionEvent.Severity.MEDIUM;
-
-            if (sev != null && b.lastLogId != null) {
-                String snapshot = String.format(
-                        "USER=%s QPM=%.2f WRITE_RATIO=%.2f DDL/m=%.2f ERR=%d SCORE=%.2f",
-                        user, qpm, writeRatio, ddlPerMin, b.err, score
-                );
-                DetectionEvent ev = new DetectionEvent(
-                        UUID.randomUUID().toString(),
-                        b.lastLogId,                         // FK: 대표 로그ID
-                        DetectionEvent.Type.BEHAVIOR,
-                        sev,
-                        Instant.now().toString(),
-                        snapshot
-                );
-                eventRepo.save(ev);
-                notifier.onEvent(ev);
+            if (adaptive) {
+                score = adaptiveScore(base, x);
+                if (score >= cfg.getZHigh())        sev = DetectionEvent.Severity.HIGH;
+                else if (score >= cfg.getZMedium()) sev = DetectionEvent.Severity.MEDIUM;
+            } else {
+                score = props.getWQpm()        * qpm
+                        + props.getWWriteRatio() * writeRatio
+                        + props.getWDdlPerMin()  * ddlPerMin
+                        + props.getWErrorBurst() * errBurst;
+                if (score >= props.getThresholdHigh())       sev = DetectionEvent.Severity.HIGH;
+                else if (score >= props.getThresholdMedium()) sev = DetectionEvent.Severity.MEDIUM;
+            }
+            // 점수 계산 후 학습(현재 윈도우가 자기 자신을 정상으로 만들지 않도록)
+            if (base != null) base.update(x, cfg.getAlpha());
+
+            if (sev == null || b.lastLogId() == null) return;
+
+            // 같은 버스트는 한 윈도우 동안 한 번만(더 높은 등급으로 올라가면 예외)
+            int level = sev.ordinal() + 1;
+            if (!store.tryAlert(h, level)) return;
+
+            String snapshot = String.format(
+                    "USER=%s QPM=%.2f WRITE_RATIO=%.2f DDL/m=%.2f ERR=%d SCORE=%.2f",
+                    user, qpm, writeRatio, ddlPerMin, b.err(), score
+            ) + (adaptive ? " MODE=ADAPTIVE" : "");
+            DetectionEvent ev = new DetectionEvent(
+                    UUID.randomUUID().toString(),
+                    b.lastLogId(),                       // FK: 대표 로그ID
+                    DetectionEvent.Type.BEHAVIOR,
+                    sev,
+                    Instant.now().toString(),
+                    snapshot
+            );
+            try {
+                writer.write(ev);
+            } catch (RuntimeException e) {
+                // 이벤트/아웃박스는 함께 롤백됨. 탐지 경로는 fail-open 이지만 누락은 남긴다
+                writeFailed.increment();
+                LOG.warn("behavior event write failed (user={}, severity={}): {}", user, sev, e.toString());
             }
         } catch (Exception ignore) {
             // fail-open
         }
     }
+
+    // 지표별 표준편차 하한(기준선이 거의 상수일 때 작은 변화가 무한대 z 가 되지 않도록)
+    private static final double[] MIN_STD = {5.0, 0.05, 0.5, 1.0};
+
+    /** 기준선 분위수를 넘은 지표만 양의 z-score 를 가중합 */
+    private double adaptiveScore(BehaviorBaseline base, double[] x) {
+        double[] w = {props.getWQpm(), props.getWWriteRatio(), props.getWDdlPerMin(), props.getWErrorBurst()};
+        double score = 0.0;
+        for (int m = 0; m < BehaviorBaseline.METRICS; m++) {
+            if (x[m] <= base.quantile(m)) continue;
+            double z = (x[m] - base.mean(m)) / Math.max(base.std(m), MIN_STD[m]);
+            if (z > 0) score += w[m] * z;
+        }
+        return score;
+    }
+
+    private BehaviorBaseline baselineFor(String user) {
+        BehaviorBaseline b = baselines.get(user);
+        if (b != null) return b;
+        if (baselines.size() >= props.getMaxUsers()) return null;   // 상한 초과 → 상수 임계 모드
+        BehaviorBaseline restored = restoreBaseline(user);
+        return baselines.computeIfAbsent(user,
+                k -> restored != null ? restored : new BehaviorBaseline(props.getBaseline().getQuantile()));
+    }
+
+    /** 다시 나타난 사용자의 스냅샷(없거나 읽기 실패면 null → 웜업부터 학습) */
+    private BehaviorBaseline restoreBaseline(String user) {
+        if (snapshots == null) return null;
+        try {
+            byte[] bytes = snapshots.load(user);
+            return bytes == null ? null : BehaviorBaseline.fromBytes(bytes, props.getBaseline().getQuantile());
+        } catch (Exception ignore) {
+            return null;
+        }
+    }
+
+    /**
+     * 상태 핸들과 함께 기준선도 메모리에서 내려놓는다(떠난 사용자가 상한을 계속 차지하지 않도록).
+     * 학습분은 먼저 스냅샷하고, 기록에 실패하면 다음 주기 스냅샷이 쓰도록 남겨 둔다(fail-open).
+     */
+    private void retireBaseline(String user) {
+        BehaviorBaseline b = baselines.remove(user);
+        if (b == null || snapshots == null || !b.isDirty()) return;
+        try {
+            b.markClean();
+            snapshots.saveAll(List.of(new BehaviorBaselineSnapshots.Row(user, b.toBytes(), b.samples())));
+        } catch (Exception e) {
+            b.markDirty();
+            baselines.putIfAbsent(user, b);
+        }
+    }
+
+    /** 변경된 기준선만 SQLite 에 upsert (fail-open) */
+    void snapshotBaselines() {
+        if (snapshots == null) return;
+        List<BehaviorBaseline> written = new ArrayList<>();
+        try {
+            List<BehaviorBaselineSnapshots.Row> rows = new ArrayList<>();
+            baselines.forEach((user, b) -> {
+                if (!b.isDirty()) return;
+                b.markClean();
+                rows.add(new BehaviorBaselineSnapshots.Row(user, b.toBytes(), b.samples()));
+                written.add(b);
+            });
+            snapshots.saveAll(rows);
+        } catch (Exception ignore) {
+            written.forEach(BehaviorBaseline::markDirty);   // fail-open: 다음 주기에 다시 기록
+        }
+    }
 }
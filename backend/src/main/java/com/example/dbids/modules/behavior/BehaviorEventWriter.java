@@ -0,0 +1,30 @@
+package com.example.dbids.modules.behavior;
+
+import com.example.dbids.modules.notify.NotificationService;
+import com.example.dbids.sqlite.model.DetectionEvent;
+import com.example.dbids.sqlite.repository.DetectionEventRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * BEHAVIOR 이벤트의 쓰기 단위: 이벤트 + 알림 아웃박스를 한 트랜잭션(sqliteTx)으로 기록.
+ * 평가는 타이밍 휠 스레드(트랜잭션 밖)에서 돌므로, 여기서 묶지 않으면 둘이 따로 커밋된다.
+ */
+@Component
+public class BehaviorEventWriter {
+
+    private final DetectionEventRepository eventRepo;
+    private final NotificationService notifier;
+
+    public BehaviorEventWriter(DetectionEventRepository eventRepo, NotificationService notifier) {
+        this.eventRepo = eventRepo;
+        this.notifier = notifier;
+    }
+
+    /** 알림 적재가 실패하면 이벤트도 함께 롤백 */
+    @Transactional("sqliteTx")
+    public void write(DetectionEvent ev) {
+        eventRepo.save(ev);
+        notifier.onEvent(ev);
+    }
+}
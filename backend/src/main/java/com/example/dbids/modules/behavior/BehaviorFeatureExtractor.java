@@ -1,13 +1,10 @@
 package com.example.dbids.modules.behavior;
 
-import com.example.dbids.modules.rule.SqlNormalizer;
+import com.example.dbids.modules.analysis.QueryAnalysis;
 import com.example.dbids.sqlite.model.QueryLog;
 
 public class BehaviorFeatureExtractor {
 
-    private final SqlNormalizer normalizer = new SqlNormalizer();
-    private final QueryClassifier classifier = new QueryClassifier();
-
     public static class Delta {
         public final int q;              // 쿼리 개수(항상 1)
         public final int write;          // INSERT/UPDATE/DELETE면 1
@@ -24,12 +21,19 @@ public class BehaviorFeatureExtractor {
     }
 
     public Delta extract(QueryLog log) {
-        String norm = normalizer.normalize(log.getSqlRaw());
-        QueryClassifier.Kind kind = classifier.classify(norm);
-        boolean write = isWrite(kind);
-        boolean ddl   = (kind == QueryClassifier.Kind.DDL);
+        return extract(log, QueryAnalysis.of(log.getSqlRaw()));
+    }
+
+    /** 공용 분석 결과(분류/테이블)를 재사용 */
+    public Delta extract(QueryLog log, QueryAnalysis analysis) {
+        // 다중 문장이면 하나라도 쓰기/DDL 이면 해당 플래그
+        boolean write = false, ddl = false;
+        for (SqlStatementParser.Statement st : analysis.getStatements()) {
+            write |= isWrite(st.kind());
+            ddl   |= (st.kind() == QueryClassifier.Kind.DDL);
+        }
         boolean err   = (log.getStatus() == QueryLog.Status.FAILURE);
-        int tables    = classifier.guessTables(norm).length;
+        int tables    = analysis.getTables().size();
         return new Delta(1, write ? 1 : 0, ddl ? 1 : 0, err ? 1 : 0, tables);
     }
 }
@@ -10,6 +10,15 @@ public class BehaviorProperties {
     /** 윈도우 크기(초). 기본 60 */
     private int windowSeconds = 60;
 
+    /** 윈도우를 나누는 하위 버킷 수(슬라이딩 간격 = windowSeconds / subBuckets). 기본 6 */
+    private int subBuckets = 6;
+
+    /** 타이밍 휠 tick(ms): 윈도우 마감/유휴 퇴출 지연의 상한 */
+    private long wheelTickMs = 200;
+
+    /** 동시에 추적할 최대 사용자 수(초과 사용자는 추적 생략) */
+    private int maxUsers = 1_000_000;
+
     /** 점수 임계치 (상수 임계 모드; SDS 범위 내 튜닝) */
     private double thresholdMedium = 3.0;
     private double thresholdHigh   = 6.0;
@@ -20,10 +29,59 @@ public class BehaviorProperties {
     private double wDdlPerMin  = 1.0;
     private double wErrorBurst = 0.5;
 
+    /** 적응형 기준선(사용자별 EWMA/분위수) */
+    private Baseline baseline = new Baseline();
+
+    public static class Baseline {
+        /** false 면 항상 상수 임계 모드 */
+        private boolean enabled = true;
+        /** EWMA 가중치(클수록 최근 윈도우 반영이 빠름) */
+        private double alpha = 0.05;
+        /** 이 윈도우 수만큼 학습하기 전에는 상수 임계치 사용 */
+        private int warmupWindows = 30;
+        /** 가중 z-score 합 임계치 */
+        private double zMedium = 3.0;
+        private double zHigh   = 5.0;
+        /** 지표가 이 분위수를 넘을 때만 z-score 를 점수에 반영 */
+        private double quantile = 0.99;
+        /** SQLite 스냅샷 주기(초) */
+        private int snapshotSeconds = 60;
+
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+        public double getAlpha() { return alpha; }
+        public void setAlpha(double alpha) { this.alpha = alpha; }
+
+        public int getWarmupWindows() { return warmupWindows; }
+        public void setWarmupWindows(int warmupWindows) { this.warmupWindows = warmupWindows; }
+
+        public double getZMedium() { return zMedium; }
+        public void setZMedium(double zMedium) { this.zMedium = zMedium; }
+
+        public double getZHigh() { return zHigh; }
+        public void setZHigh(double zHigh) { this.zHigh = zHigh; }
+
+        public double getQuantile() { return quantile; }
+        public void setQuantile(double quantile) { this.quantile = quantile; }
+
+        public int getSnapshotSeconds() { return snapshotSeconds; }
+        public void setSnapshotSeconds(int snapshotSeconds) { this.snapshotSeconds = snapshotSeconds; }
+    }
+
     // getters / setters
     public int getWindowSeconds() { return windowSeconds; }
     public void setWindowSeconds(int windowSeconds) { this.windowSeconds = windowSeconds; }
 
+    public int getSubBuckets() { return subBuckets; }
+    public void setSubBuckets(int subBuckets) { this.subBuckets = subBuckets; }
+
+    public long getWheelTickMs() { return wheelTickMs; }
+    public void setWheelTickMs(long wheelTickMs) { this.wheelTickMs = wheelTickMs; }
+
+    public int getMaxUsers() { return maxUsers; }
+    public void setMaxUsers(int maxUsers) { this.maxUsers = maxUsers; }
+
     public double getThresholdMedium() { return thresholdMedium; }
     public void setThresholdMedium(double thresholdMedium) { this.thresholdMedium = thresholdMedium; }
 
@@ -42,5 +100,8 @@ public class BehaviorProperties {
     public double getWErrorBurst() { return wErrorBurst; }
     public void setWErrorBurst(double wErrorBurst) { this.wErrorBurst = wErrorBurst; }
 
+    public Baseline getBaseline() { return baseline; }
+    public void setBaseline(Baseline baseline) { this.baseline = baseline; }
+
 
 }
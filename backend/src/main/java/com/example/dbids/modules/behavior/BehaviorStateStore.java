@@ -0,0 +1,330 @@
+package com.example.dbids.modules.behavior;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 사용자별 행동 윈도우 상태 저장소(프리미티브 배열).
+ * - userId 는 int 핸들로 인턴(신규 사용자/퇴출 시에만 잠금), 핸들은 퇴출 후 재사용
+ * - 사용자 1명 = long[] 페이지 안의 고정 길이 레코드(캐시라인 단위로 패딩 → 사용자 간 false sharing 없음)
+ * - 핫 패스(기존 사용자 로그)는 해시 조회 + VarHandle 원자 연산만 사용(잠금 없음)
+ *
+ * 레코드 레이아웃(long 단위):
+ *   [0] STATE      진행 중인 writer 수 | EVICTED 비트
+ *   [1] HEAD       가장 최근 하위 버킷 번호(EMPTY = 아직 없음)
+ *   [2] LAST_EVENT 최대 executedAt(ms)
+ *   [3] LAST_WALL  마지막 로그 수신 벽시계(ms)
+ *   [4] ALERT      마지막 알림 (하위 버킷 번호 << 2 | 등급)
+ *   [5] ARMED      타이머 등록 여부
+ *   [8 + 3k ..]    하위 버킷 k: (버킷 번호 태그, q | write<<32, ddl | err<<32)
+ * 하위 버킷은 태그로 세대를 구분하므로 윈도우가 넘어갈 때 링을 비우지 않는다(쓰는 쪽이 태그 CAS 로 초기화).
+ */
+final class BehaviorStateStore {
+
+    /** 윈도우 합계(평가 입력) */
+    record Totals(int q, int write, int ddl, int err, String lastLogId) {}
+
+    static final int NO_HANDLE = -1;
+
+    private static final VarHandle LONGS = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final VarHandle REFS = MethodHandles.arrayElementVarHandle(String[].class);
+
+    private static final int PAGE_SHIFT = 10;
+    private static final int PAGE = 1 << PAGE_SHIFT;       // 페이지당 사용자 수
+    private static final int CACHE_LINE_LONGS = 8;
+
+    private static final int STATE = 0, HEAD = 1, LAST_EVENT = 2, LAST_WALL = 3, ALERT = 4, ARMED = 5;
+    private static final int SLOTS_OFF = 8;
+
+    private static final long EMPTY = Long.MIN_VALUE;
+    private static final long RESETTING = Long.MIN_VALUE + 1;
+    private static final long NO_ALERT = Long.MIN_VALUE;
+    private static final long EVICTED = 1L << 62;
+    private static final long LOW32 = 0xffff_ffffL;
+
+    private final int slots;
+    private final long subMs;
+    private final int stride;
+    private final int capacity;
+
+    private final ConcurrentHashMap<String, Integer> handles = new ConcurrentHashMap<>();
+    private volatile long[][] pages = new long[0][];
+    private volatile String[][] refs = new String[0][];     // [핸들*2] = owner, [핸들*2+1] = lastLogId
+
+    private final Object allocLock = new Object();
+    private int nextHandle;
+    private int[] free = new int[64];
+    private int freeTop;
+
+    BehaviorStateStore(int slots, long subMs, int capacity) {
+        this.slots = Math.max(1, slots);
+        this.subMs = Math.max(1, subMs);
+        this.capacity = Math.max(1, capacity);
+        int raw = SLOTS_OFF + 3 * this.slots;
+        this.stride = (raw + CACHE_LINE_LONGS - 1) / CACHE_LINE_LONGS * CACHE_LINE_LONGS;
+    }
+
+    int slots() { return slots; }
+
+    /** 추적 중인 사용자 수 */
+    int size() { return handles.size(); }
+
+    /** 사용자 1명이 차지하는 카운터 영역 크기(byte) */
+    long bytesPerUser() { return stride * 8L; }
+
+    // ---------------------------------------------------------------- 핸들
+
+    /**
+     * user 의 핸들을 얻고 writer 로 진입(퇴출 방지). 용량 초과면 NO_HANDLE.
+     * 반드시 {@link #release(int)} 로 짝을 맞춘다.
+     */
+    int acquire(String user) {
+        while (true) {
+            Integer boxed = handles.get(user);
+            if (boxed == null) {
+                boxed = intern(user);
+                if (boxed == null) return NO_HANDLE;
+            }
+            int h = boxed;
+            long[] p = page(h);
+            int off = offset(h) + STATE;
+            long prev = (long) LONGS.getAndAdd(p, off, 1L);
+            if ((prev & EVICTED) == 0 && user.equals(owner(h))) return h;
+            LONGS.getAndAdd(p, off, -1L);
+            if ((prev & EVICTED) != 0) handles.remove(user, boxed);   // 퇴출 중: 색인 정리를 돕고 재시도
+            Thread.onSpinWait();
+        }
+    }
+
+    void release(int h) {
+        LONGS.getAndAdd(page(h), offset(h) + STATE, -1L);
+    }
+
+    /** 타이머 경로: 핸들이 아직 user 소유인지 */
+    boolean owns(int h, String user) {
+        return user.equals(owner(h));
+    }
+
+    private Integer intern(String user) {
+        synchronized (allocLock) {
+            Integer existing = handles.get(user);
+            if (existing != null) return existing;
+            int h;
+            boolean recycled = freeTop > 0;
+            if (recycled) {
+                h = free[--freeTop];
+            } else if (nextHandle < capacity) {
+                h = nextHandle++;
+                ensurePage(h);
+            } else {
+                return null;
+            }
+            long[] p = page(h);
+            int base = offset(h);
+            LONGS.setVolatile(p, base + HEAD, EMPTY);
+            LONGS.setVolatile(p, base + LAST_EVENT, Long.MIN_VALUE);
+            LONGS.setVolatile(p, base + LAST_WALL, 0L);
+            LONGS.setVolatile(p, base + ALERT, NO_ALERT);
+            LONGS.setVolatile(p, base + ARMED, 0L);
+            for (int k = 0; k < slots; k++) {
+                int s = base + SLOTS_OFF + 3 * k;
+                LONGS.setVolatile(p, s, EMPTY);
+                LONGS.setVolatile(p, s + 1, 0L);
+                LONGS.setVolatile(p, s + 2, 0L);
+            }
+            String[] r = refPage(h);
+            REFS.setVolatile(r, refOffset(h) + 1, (String) null);
+            REFS.setVolatile(r, refOffset(h), user);
+            // 재사용 핸들: 남아 있던 writer 진입 수는 보존하고 EVICTED 만 해제
+            if (recycled) LONGS.getAndAdd(p, base + STATE, -EVICTED);
+            handles.put(user, h);
+            return h;
+        }
+    }
+
+    /**
+     * 윈도우가 비었으면 퇴출하고 핸들을 반납. 진행 중인 writer 가 있거나 그새 채워졌으면 false.
+     * 타이머(사용자당 1개)만 호출한다.
+     */
+    boolean tryEvict(int h, String user) {
+        long[] p = page(h);
+        int off = offset(h) + STATE;
+        if (!LONGS.compareAndSet(p, off, 0L, EVICTED)) return false;
+        if (!isEmpty(h)) {
+            LONGS.getAndAdd(p, off, -EVICTED);
+            return false;
+        }
+        handles.remove(user, h);
+        String[] r = refPage(h);
+        REFS.setVolatile(r, refOffset(h) + 1, (String) null);
+        REFS.setVolatile(r, refOffset(h), (String) null);
+        synchronized (allocLock) {
+            if (freeTop == free.length) free = Arrays.copyOf(free, free.length * 2);
+            free[freeTop++] = h;
+        }
+        return true;
+    }
+
+    // ---------------------------------------------------------------- 윈도우
+
+    /**
+     * 로그 1건 반영(acquire 된 핸들). 하위 버킷이 넘어가면 직전 윈도우 합계를 돌려준다(평가 대상), 아니면 null.
+     * 윈도우보다 오래된(늦게 도착한) 로그는 집계하지 않는다.
+     */
+    Totals add(int h, long eventMs, long wallMs, BehaviorFeatureExtractor.Delta d, String logId) {
+        long[] p = page(h);
+        int base = offset(h);
+        long slot = Math.floorDiv(eventMs, subMs);
+        Totals closed = rollTo(h, p, base, slot);
+
+        long head = (long) LONGS.getVolatile(p, base + HEAD);
+        if (slot > head - slots) addToSlot(p, base, slot, d);
+
+        long last;
+        do {
+            last = (long) LONGS.getVolatile(p, base + LAST_EVENT);
+        } while (eventMs > last && !LONGS.compareAndSet(p, base + LAST_EVENT, last, eventMs));
+        LONGS.setRelease(p, base + LAST_WALL, wallMs);
+        REFS.setRelease(refPage(h), refOffset(h) + 1, logId);
+        return closed;
+    }
+
+    /** 벽시계 경과분만큼 이벤트 시간을 추정해 진행(타이머 경로). 넘어간 윈도우가 있으면 합계 반환 */
+    Totals advanceIdle(int h, long wallMs) {
+        long[] p = page(h);
+        int base = offset(h);
+        if ((long) LONGS.getVolatile(p, base + HEAD) == EMPTY) return null;
+        return rollTo(h, p, base, Math.floorDiv(estimatedEventMs(p, base, wallMs), subMs));
+    }
+
+    /** 윈도우 안의 하위 버킷이 전부 비었으면(마지막 윈도우까지 평가 완료) 퇴출 가능 */
+    boolean isEmpty(int h) {
+        long[] p = page(h);
+        int base = offset(h);
+        long head = (long) LONGS.getVolatile(p, base + HEAD);
+        if (head == EMPTY) return true;
+        for (int k = 0; k < slots; k++) {
+            int s = base + SLOTS_OFF + 3 * k;
+            long tag = (long) LONGS.getVolatile(p, s);
+            if (tag > head - slots && tag <= head && ((long) LONGS.getVolatile(p, s + 1) & LOW32) != 0) return false;
+        }
+        return true;
+    }
+
+    /** 다음 하위 버킷 경계까지 남은 벽시계 시간(ms) */
+    long millisToNextSlot(int h, long wallMs) {
+        long estimated = estimatedEventMs(page(h), offset(h), wallMs);
+        return Math.max(1, (Math.floorDiv(estimated, subMs) + 1) * subMs - estimated);
+    }
+
+    /** 타이머 미등록 상태면 등록 권한을 얻는다(사용자당 타이머 1개) */
+    boolean tryArm(int h) {
+        return LONGS.compareAndSet(page(h), offset(h) + ARMED, 0L, 1L);
+    }
+
+    void disarm(int h) {
+        LONGS.setVolatile(page(h), offset(h) + ARMED, 0L);
+    }
+
+    /**
+     * 알림 쿨다운: 마지막 알림이 현재 윈도우 안에 있고 등급이 같거나 낮으면 false.
+     * 통과하면 (현재 버킷, 등급)을 기록한다.
+     */
+    boolean tryAlert(int h, int level) {
+        long[] p = page(h);
+        int base = offset(h);
+        while (true) {
+            long head = (long) LONGS.getVolatile(p, base + HEAD);
+            long prev = (long) LONGS.getVolatile(p, base + ALERT);
+            if (prev != NO_ALERT && head - (prev >> 2) < slots && level <= (int) (prev & 3)) return false;
+            if (LONGS.compareAndSet(p, base + ALERT, prev, (head << 2) | (level & 3))) return true;
+        }
+    }
+
+    // 직전 head 로 끝나는 윈도우 합계를 먼저 구한 뒤 head 를 옮긴다(CAS 승자만 합계를 돌려줌)
+    private Totals rollTo(int h, long[] p, int base, long slot) {
+        while (true) {
+            long head = (long) LONGS.getVolatile(p, base + HEAD);
+            if (head == EMPTY) {
+                if (LONGS.compareAndSet(p, base + HEAD, EMPTY, slot)) return null;
+                continue;
+            }
+            if (slot <= head) return null;
+            Totals t = totals(h, p, base, head);
+            if (LONGS.compareAndSet(p, base + HEAD, head, slot)) return t.q() == 0 ? null : t;
+        }
+    }
+
+    private Totals totals(int h, long[] p, int base, long head) {
+        long tq = 0, tw = 0, td = 0, te = 0;
+        for (int k = 0; k < slots; k++) {
+            int s = base + SLOTS_OFF + 3 * k;
+            long tag = (long) LONGS.getVolatile(p, s);
+            if (tag <= head - slots || tag > head) continue;
+            long qw = (long) LONGS.getVolatile(p, s + 1);
+            long de = (long) LONGS.getVolatile(p, s + 2);
+            tq += qw & LOW32; tw += qw >>> 32;
+            td += de & LOW32; te += de >>> 32;
+        }
+        String lastLogId = (String) REFS.getAcquire(refPage(h), refOffset(h) + 1);
+        return new Totals((int) tq, (int) tw, (int) td, (int) te, lastLogId);
+    }
+
+    // 태그가 다른 세대면 CAS 로 초기화 권한을 얻어 비운 뒤 원자 가산
+    private void addToSlot(long[] p, int base, long slot, BehaviorFeatureExtractor.Delta d) {
+        int s = base + SLOTS_OFF + 3 * index(slot);
+        while (true) {
+            long tag = (long) LONGS.getVolatile(p, s);
+            if (tag == slot) break;
+            if (tag == RESETTING) { Thread.onSpinWait(); continue; }
+            if (tag > slot) return;                                 // 더 최근 버킷이 차지(늦은 로그)
+            if (LONGS.compareAndSet(p, s, tag, RESETTING)) {
+                LONGS.setVolatile(p, s + 1, 0L);
+                LONGS.setVolatile(p, s + 2, 0L);
+                LONGS.setVolatile(p, s, slot);
+                break;
+            }
+        }
+        long qw = (d.q & LOW32) | ((long) d.write << 32);
+        long de = (d.ddl & LOW32) | ((long) d.error << 32);
+        if (qw != 0) LONGS.getAndAdd(p, s + 1, qw);
+        if (de != 0) LONGS.getAndAdd(p, s + 2, de);
+    }
+
+    private long estimatedEventMs(long[] p, int base, long wallMs) {
+        long lastEvent = (long) LONGS.getVolatile(p, base + LAST_EVENT);
+        long lastWall = (long) LONGS.getAcquire(p, base + LAST_WALL);
+        return lastEvent + Math.max(0, wallMs - lastWall);
+    }
+
+    // ---------------------------------------------------------------- 페이지
+
+    private void ensurePage(int h) {
+        int idx = h >>> PAGE_SHIFT;
+        if (idx < pages.length) return;
+        long[][] np = Arrays.copyOf(pages, idx + 1);
+        String[][] nr = Arrays.copyOf(refs, idx + 1);
+        np[idx] = new long[PAGE * stride];
+        nr[idx] = new String[PAGE * 2];
+        refs = nr;
+        pages = np;
+    }
+
+    private long[] page(int h) { return pages[h >>> PAGE_SHIFT]; }
+
+    private String[] refPage(int h) { return refs[h >>> PAGE_SHIFT]; }
+
+    private int offset(int h) { return (h & (PAGE - 1)) * stride; }
+
+    private static int refOffset(int h) { return (h & (PAGE - 1)) * 2; }
+
+    private String owner(int h) {
+        return (String) REFS.getAcquire(refPage(h), refOffset(h));
+    }
+
+    private int index(long slot) {
+        return (int) Math.floorMod(slot, (long) slots);
+    }
+}
@@ -1,35 +1,26 @@
 package com.example.dbids.modules.behavior;
 
-import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
+/** 문장 종류/참조 테이블 판별. 실제 분석은 {@link SqlStatementParser}(토크나이저 기반)에 위임한다. */
 public class QueryClassifier {
 
     public enum Kind { SELECT, INSERT, UPDATE, DELETE, DDL, OTHER }
 
-    public Kind classify(String normalizedSql) {
-        if (normalizedSql == null || normalizedSql.isBlank()) return Kind.OTHER;
-        String s = normalizedSql.trim();
-        if (s.startsWith("SELECT")) return Kind.SELECT;
-        if (s.startsWith("INSERT")) return Kind.INSERT;
-        if (s.startsWith("UPDATE")) return Kind.UPDATE;
-        if (s.startsWith("DELETE")) return Kind.DELETE;
-        if (s.startsWith("CREATE") || s.startsWith("ALTER") || s.startsWith("DROP")
-                || s.startsWith("TRUNCATE") || s.startsWith("RENAME")) return Kind.DDL;
-        return Kind.OTHER;
+    private final SqlStatementParser parser = new SqlStatementParser();
+
+    /** 첫 문장의 종류(WITH ... 는 본문 기준) */
+    public Kind classify(String sql) {
+        List<SqlStatementParser.Statement> stmts = parser.parse(sql);
+        return stmts.isEmpty() ? Kind.OTHER : stmts.get(0).kind();
     }
 
-    /** 매우 단순한 테이블명 추정(프리뷰용) */
-    public String[] guessTables(String normalizedSql) {
-        if (normalizedSql == null) return new String[0];
-        Set<String> names = new HashSet<>();
-        Pattern p = Pattern.compile("\\b(FROM|INTO|UPDATE|TABLE)\\s+([A-Z0-9_.`]+)");
-        Matcher m = p.matcher(normalizedSql);
-        while (m.find()) {
-            names.add(m.group(2));
-        }
+    /** 모든 문장에서 참조한 테이블(JOIN/서브쿼리/CTE 본문 포함, 등장 순서) */
+    public String[] guessTables(String sql) {
+        Set<String> names = new LinkedHashSet<>();
+        for (SqlStatementParser.Statement st : parser.parse(sql)) names.addAll(st.tables());
         return names.toArray(new String[0]);
     }
 }
@@ -0,0 +1,250 @@
+package com.example.dbids.modules.behavior;
+
+import com.example.dbids.modules.behavior.SqlTokenizer.Keyword;
+import com.example.dbids.modules.behavior.SqlTokenizer.Type;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 얕은(shallow) SQL 문장 파서: 토크나이저를 한 번 훑으면서 문장별 종류와 참조 테이블을 뽑는다.
+ * - 다중 문장(;) 분리
+ * - FROM 목록(콤마), JOIN, 서브쿼리/파생 테이블, INSERT INTO, UPDATE, DDL(TABLE/VIEW/INDEX ON/RENAME TO)
+ * - CTE(WITH ... AS (...)): 본문 안의 테이블은 수집하고 CTE 이름 자체는 테이블에서 제외,
+ *   문장 종류는 CTE 뒤의 본문(SELECT/INSERT/UPDATE/DELETE) 기준
+ * - 함수 인자 안의 FROM(EXTRACT(YEAR FROM d), TRIM(... FROM x))은 테이블로 보지 않음
+ * 구문 검증은 하지 않으며, 인식하지 못한 구문은 무시하고 계속 진행한다.
+ */
+public class SqlStatementParser {
+
+    public record Statement(QueryClassifier.Kind kind, List<String> tables) {}
+
+    public List<Statement> parse(CharSequence sql) {
+        List<Statement> out = new ArrayList<>(1);
+        if (sql == null) return out;
+
+        SqlTokenizer tk = new SqlTokenizer(sql);
+        Cursor c = new Cursor();
+        for (Type t = tk.next(); t != Type.EOF; t = tk.next()) {
+            if (t == Type.SEMI) {
+                c.finish(out);
+                c = new Cursor();
+                continue;
+            }
+            c.accept(tk, t);
+        }
+        c.finish(out);
+        return out;
+    }
+
+    // ---------------------------------------------------------------- 문장 1개 분량의 상태
+
+    private static final class Cursor {
+
+        // 테이블 문맥
+        private static final int NONE = 0, EXPECT = 1, NAME = 2, DOT = 3, AFTER = 4, ALIAS = 5, ALIASED = 6;
+        // CTE 헤더
+        private static final int C_NONE = 0, C_NAME = 1, C_AFTER_NAME = 2, C_BEFORE_BODY = 3, C_AFTER_BODY = 4;
+        // 괄호 프레임 플래그
+        private static final int F_FUNC = 1, F_CTE = 2, F_DERIVED = 4, F_LIST = 8, F_CTE_BODY = 16;
+
+        private QueryClassifier.Kind kind;
+        private boolean seen;
+        private final Set<String> tables = new LinkedHashSet<>();
+        private Set<String> cteNames;
+
+        private int[] frames = new int[8];
+        private int depth;
+        private boolean fresh;      // 직전 토큰이 '(' 인지
+
+        private int mode = NONE;
+        private boolean list;       // 현재 테이블 뒤 콤마가 다음 테이블을 뜻하는지(FROM a, b)
+        private int cte = C_NONE;
+        private boolean prevIdent;  // 직전 토큰이 일반 식별자 → 다음 '(' 는 함수 호출
+        private final StringBuilder name = new StringBuilder();
+
+        void accept(SqlTokenizer tk, Type t) {
+            seen = true;
+
+            // 한정 이름(db.tbl) 이어 붙이기
+            if (mode == NAME) {
+                if (t == Type.DOT) { mode = DOT; return; }
+                commitName();
+            } else if (mode == DOT) {
+                if (t == Type.WORD || t == Type.QUOTED) {
+                    name.append('.').append(tk.upperText());
+                    mode = NAME;
+                    return;
+                }
+                commitName();
+            }
+
+            boolean first = fresh;
+            fresh = false;
+            boolean ident = false;
+            switch (t) {
+                case WORD -> ident = word(tk, tk.keyword(), first);
+                case QUOTED -> ident = word(tk, null, first);
+                case LPAREN -> open();
+                case RPAREN -> close();
+                case COMMA -> comma();
+                default -> mode = NONE;
+            }
+            prevIdent = ident;
+        }
+
+        /** @return 일반 식별자였으면 true */
+        private boolean word(SqlTokenizer tk, Keyword kw, boolean first) {
+            // func( SELECT ... ) / INSERT INTO t (SELECT ...) → 함수가 아니라 서브쿼리
+            if (first && (kw == Keyword.SELECT || kw == Keyword.WITH)) frames[depth] &= ~F_FUNC;
+
+            switch (cte) {
+                case C_NAME -> {
+                    if (kw != Keyword.RECURSIVE) {
+                        if (cteNames == null) cteNames = new HashSet<>();
+                        cteNames.add(tk.upperText());
+                        cte = C_AFTER_NAME;
+                    }
+                    return false;
+                }
+                case C_AFTER_NAME -> {
+                    if (kw == Keyword.AS) cte = C_BEFORE_BODY;
+                    return false;
+                }
+                case C_BEFORE_BODY -> { return false; }     // [NOT] MATERIALIZED
+                case C_AFTER_BODY -> cte = C_NONE;          // 본문 문장 시작
+                default -> { }
+            }
+
+            switch (mode) {
+                case EXPECT -> {
+                    if (kw == null) {
+                        if (tk.type() == Type.WORD && tk.text().startsWith("@")) { mode = NONE; return true; }
+                        startName(tk.upperText());
+                        return true;
+                    }
+                    if (kw.modifier) return false;
+                    mode = NONE;
+                }
+                case AFTER -> {
+                    if (kw == null) { mode = ALIASED; return true; }
+                    if (kw == Keyword.AS) { mode = ALIAS; return false; }
+                    mode = NONE;
+                }
+                case ALIAS -> {
+                    if (kw == null) { mode = ALIASED; return true; }
+                    mode = NONE;
+                }
+                default -> mode = NONE;
+            }
+
+            if (kind == null && (frames[depth] & F_CTE) == 0) {
+                if (kw == Keyword.WITH) { cte = C_NAME; return false; }
+                kind = kindOf(kw);
+                if (kw == Keyword.UPDATE) expect(true);
+                else if (kw == Keyword.INSERT || kw == Keyword.REPLACE || kw == Keyword.TRUNCATE) expect(false);
+                return kw == null;
+            }
+            if (kw == null) return true;
+
+            switch (kw) {
+                case FROM -> { if ((frames[depth] & F_FUNC) == 0) expect(true); }
+                case JOIN, STRAIGHT_JOIN -> expect(list);
+                case INTO -> expect(false);
+                case USING -> { if (kind == QueryClassifier.Kind.DELETE) expect(true); }
+                case TABLE -> { if (kind == QueryClassifier.Kind.DDL) expect(true); }
+                case VIEW, TO, REFERENCES -> { if (kind == QueryClassifier.Kind.DDL) expect(false); }
+                case ON -> { if (kind == QueryClassifier.Kind.DDL && depth == 0) expect(false); }
+                default -> { }
+            }
+            return false;
+        }
+
+        private void open() {
+            int f = frames[depth] & F_CTE;
+            if (list) f |= F_LIST;
+            boolean derived = false;
+            if (cte == C_BEFORE_BODY) {
+                f |= F_CTE | F_CTE_BODY;
+                cte = C_NONE;
+            } else if (cte == C_AFTER_NAME) {
+                f |= F_FUNC;                        // CTE 컬럼 목록
+            } else if (mode == EXPECT) {
+                f |= F_DERIVED;                     // FROM (SELECT ...) x / FROM (a JOIN b)
+                derived = true;
+            } else if (prevIdent) {
+                f |= F_FUNC;
+            }
+            push(f);
+            fresh = true;
+            mode = derived ? EXPECT : NONE;
+            list = derived;
+        }
+
+        private void close() {
+            if (depth == 0) { mode = NONE; return; }
+            int f = frames[depth--];
+            list = (f & F_LIST) != 0;
+            if ((f & F_CTE_BODY) != 0) {
+                cte = C_AFTER_BODY;
+                mode = NONE;
+            } else {
+                mode = (f & F_DERIVED) != 0 ? AFTER : NONE;
+            }
+        }
+
+        private void comma() {
+            if (cte == C_AFTER_BODY && depth == 0) { cte = C_NAME; return; }
+            mode = ((mode == AFTER || mode == ALIASED) && list) ? EXPECT : NONE;
+        }
+
+        private void expect(boolean listAllowed) {
+            mode = EXPECT;
+            list = listAllowed;
+        }
+
+        private void startName(String part) {
+            name.setLength(0);
+            name.append(part);
+            mode = NAME;
+        }
+
+        private void commitName() {
+            mode = AFTER;
+            if (name.isEmpty()) return;
+            String n = name.toString();
+            if (cteNames != null && n.indexOf('.') < 0 && cteNames.contains(n)) return;
+            tables.add(n);
+        }
+
+        private void push(int f) {
+            if (++depth == frames.length) {
+                int[] grown = new int[frames.length * 2];
+                System.arraycopy(frames, 0, grown, 0, frames.length);
+                frames = grown;
+            }
+            frames[depth] = f;
+        }
+
+        void finish(List<Statement> out) {
+            if (mode == NAME || mode == DOT) commitName();
+            if (!seen) return;
+            out.add(new Statement(kind == null ? QueryClassifier.Kind.OTHER : kind, List.copyOf(tables)));
+        }
+
+        private static QueryClassifier.Kind kindOf(Keyword kw) {
+            if (kw == null) return QueryClassifier.Kind.OTHER;
+            return switch (kw) {
+                case SELECT, VALUES -> QueryClassifier.Kind.SELECT;
+                case INSERT, REPLACE -> QueryClassifier.Kind.INSERT;
+                case UPDATE -> QueryClassifier.Kind.UPDATE;
+                case DELETE -> QueryClassifier.Kind.DELETE;
+                case CREATE, ALTER, DROP, TRUNCATE, RENAME -> QueryClassifier.Kind.DDL;
+                default -> QueryClassifier.Kind.OTHER;
+            };
+        }
+    }
+}
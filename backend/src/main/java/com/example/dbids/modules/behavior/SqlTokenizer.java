@@ -0,0 +1,212 @@
+package com.example.dbids.modules.behavior;
+
+import java.util.Locale;
+
+/**
+ * 스트리밍 SQL 토크나이저.
+ * 토큰 객체를 만들지 않고 커서(type/start/end)만 움직이며, 키워드 판별도 원문 구간을 직접 비교한다.
+ * 주석(--, #, 블록 주석)과 공백은 건너뛰고, 문자열 리터럴은 하나의 STRING 토큰으로 묶는다.
+ * 문자열이 필요한 곳(테이블명 등)에서만 {@link #upperText()}로 할당한다.
+ */
+public final class SqlTokenizer {
+
+    public enum Type { WORD, QUOTED, STRING, NUMBER, LPAREN, RPAREN, COMMA, SEMI, DOT, OP, EOF }
+
+    /** 파서가 구분하는 키워드. modifier=true 는 테이블명 앞에 올 수 있는 수식어(IF NOT EXISTS, ONLY 등) */
+    public enum Keyword {
+        SELECT, INSERT, REPLACE, UPDATE, DELETE, CREATE, ALTER, DROP, TRUNCATE, RENAME,
+        WITH, RECURSIVE, AS, FROM, JOIN, STRAIGHT_JOIN, INTO, TABLE, VIEW, INDEX, USING, ON, TO, REFERENCES,
+        VALUES, VALUE, SET, WHERE, GROUP, ORDER, BY, HAVING, LIMIT, OFFSET,
+        UNION, INTERSECT, EXCEPT, MINUS, ALL, DISTINCT,
+        INNER, LEFT, RIGHT, FULL, OUTER, CROSS, NATURAL,
+        AND, OR, IN, IS, NULL, LIKE, BETWEEN, CASE, WHEN, THEN, ELSE, END,
+        FOR, WINDOW, RETURNING, OUTFILE, DUMPFILE, DUPLICATE, KEY,
+        IF(true), NOT(true), EXISTS(true), ONLY(true), LATERAL(true), TEMPORARY(true),
+        IGNORE(true), LOW_PRIORITY(true), DELAYED(true), HIGH_PRIORITY(true), QUICK(true);
+
+        final boolean modifier;
+
+        Keyword() { this(false); }
+        Keyword(boolean modifier) { this.modifier = modifier; }
+    }
+
+    private static final int SLOTS = 256;
+    private static final Keyword[] KEYWORDS = new Keyword[SLOTS];
+    private static final int MAX_KEYWORD;
+
+    static {
+        int max = 0;
+        for (Keyword k : Keyword.values()) {
+            String s = k.name();
+            int p = hash(s, 0, s.length()) & (SLOTS - 1);
+            while (KEYWORDS[p] != null) p = (p + 1) & (SLOTS - 1);
+            KEYWORDS[p] = k;
+            max = Math.max(max, s.length());
+        }
+        MAX_KEYWORD = max;
+    }
+
+    private final CharSequence s;
+    private final int n;
+    private int pos;
+
+    private Type type;
+    private int start, end;
+    private Keyword keyword;
+
+    public SqlTokenizer(CharSequence sql) {
+        this.s = sql == null ? "" : sql;
+        this.n = this.s.length();
+    }
+
+    public Type type() { return type; }
+
+    public int start() { return start; }
+
+    public int end() { return end; }
+
+    /** WORD 토큰이 키워드면 해당 값, 아니면 null */
+    public Keyword keyword() { return keyword; }
+
+    /** 토큰 원문(QUOTED 는 따옴표 제외) */
+    public String text() { return s.subSequence(start, end).toString(); }
+
+    /** 대문자 토큰 원문 — 테이블/CTE 이름 비교용 */
+    public String upperText() {
+        char[] c = new char[end - start];
+        for (int i = 0; i < c.length; i++) {
+            char ch = s.charAt(start + i);
+            if (ch >= 128) return text().toUpperCase(Locale.ROOT);
+            c[i] = (ch >= 'a' && ch <= 'z') ? (char) (ch - 32) : ch;
+        }
+        return new String(c);
+    }
+
+    public Type next() {
+        keyword = null;
+        skipTrivia();
+        if (pos >= n) {
+            start = end = n;
+            return type = Type.EOF;
+        }
+
+        char c = s.charAt(pos);
+        start = pos;
+        switch (c) {
+            case '(' -> { return single(Type.LPAREN); }
+            case ')' -> { return single(Type.RPAREN); }
+            case ',' -> { return single(Type.COMMA); }
+            case ';' -> { return single(Type.SEMI); }
+            case '.' -> { return single(Type.DOT); }
+            case '\'' -> { return string(); }
+            case '"', '`' -> { return quoted(c); }
+            case '[' -> { return quoted(']'); }
+            default -> { }
+        }
+        if (c >= '0' && c <= '9') {
+            int j = pos + 1;
+            while (j < n && (isWordPart(s.charAt(j)) || s.charAt(j) == '.')) j++;
+            end = pos = j;
+            return type = Type.NUMBER;
+        }
+        if (isWordStart(c)) {
+            int j = pos + 1;
+            while (j < n && isWordPart(s.charAt(j))) j++;
+            end = pos = j;
+            keyword = lookup(s, start, end);
+            return type = Type.WORD;
+        }
+        return single(Type.OP);
+    }
+
+    private Type single(Type t) {
+        end = ++pos;
+        return type = t;
+    }
+
+    // '...' ('' 및 \' 이스케이프), 미종결이면 끝까지
+    private Type string() {
+        int j = pos + 1;
+        while (j < n) {
+            char ch = s.charAt(j);
+            if (ch == '\\') { j += 2; continue; }
+            if (ch == '\'') {
+                if (j + 1 < n && s.charAt(j + 1) == '\'') { j += 2; continue; }
+                j++;
+                break;
+            }
+            j++;
+        }
+        end = pos = Math.min(j, n);
+        return type = Type.STRING;
+    }
+
+    // "ident" / `ident` / [ident] → 내용 구간만 토큰으로
+    private Type quoted(char close) {
+        int j = pos + 1;
+        while (j < n && s.charAt(j) != close) j++;
+        start = pos + 1;
+        end = j;
+        pos = Math.min(j + 1, n);
+        return type = Type.QUOTED;
+    }
+
+    private void skipTrivia() {
+        while (pos < n) {
+            char c = s.charAt(pos);
+            if (c <= ' ' || Character.isWhitespace(c)) {
+                pos++;
+            } else if (c == '-' && pos + 1 < n && s.charAt(pos + 1) == '-' || c == '#') {
+                while (pos < n && s.charAt(pos) != '\n' && s.charAt(pos) != '\r') pos++;
+            } else if (c == '/' && pos + 1 < n && s.charAt(pos + 1) == '*') {
+                int j = pos + 2;
+                while (j + 1 < n && !(s.charAt(j) == '*' && s.charAt(j + 1) == '/')) j++;
+                pos = Math.min(j + 2, n);
+            } else {
+                return;
+            }
+        }
+    }
+
+    private static boolean isWordStart(char c) {
+        return c == '_' || c == '@' || c == '$' || Character.isLetter(c);
+    }
+
+    private static boolean isWordPart(char c) {
+        return c == '_' || c == '@' || c == '$' || Character.isLetterOrDigit(c);
+    }
+
+    // ---------------------------------------------------------------- 키워드 조회(할당 없음)
+
+    static Keyword lookup(CharSequence s, int from, int to) {
+        int len = to - from;
+        if (len < 2 || len > MAX_KEYWORD) return null;
+        int h = hash(s, from, to);
+        if (h < 0) return null;
+        for (int p = h & (SLOTS - 1); KEYWORDS[p] != null; p = (p + 1) & (SLOTS - 1)) {
+            String k = KEYWORDS[p].name();
+            if (k.length() == len && equalsUpper(k, s, from)) return KEYWORDS[p];
+        }
+        return null;
+    }
+
+    /** ASCII 대문자 폴딩 해시. 비 ASCII 문자가 있으면 -1(키워드 아님) */
+    private static int hash(CharSequence s, int from, int to) {
+        int h = 0;
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (c >= 128) return -1;
+            h = 31 * h + ((c >= 'a' && c <= 'z') ? c - 32 : c);
+        }
+        return h & Integer.MAX_VALUE;
+    }
+
+    private static boolean equalsUpper(String k, CharSequence s, int from) {
+        for (int i = 0; i < k.length(); i++) {
+            char c = s.charAt(from + i);
+            if (c >= 'a' && c <= 'z') c -= 32;
+            if (c != k.charAt(i)) return false;
+        }
+        return true;
+    }
+}
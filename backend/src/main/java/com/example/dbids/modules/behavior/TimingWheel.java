@@ -0,0 +1,116 @@
+package com.example.dbids.modules.behavior;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * 계층형 타이밍 휠(hashed hierarchical timing wheel).
+ * - 0단: tickMs 간격 슬롯 wheelSize 개, 상위 단은 하위 단 한 바퀴(tickMs × wheelSize)를 한 칸으로 갖는다(필요할 때 생성).
+ * - 등록/만료 모두 O(1)(상위 단 작업은 해당 칸 차례가 오면 하위 단으로 한 번씩 내려옴).
+ * - 취소는 지원하지 않는다: 호출 측이 만료 시점에 조건을 다시 확인하고 필요하면 재등록(lazy re-arm)한다.
+ * advance(now) 를 호출한 스레드에서 만료 작업을 실행한다.
+ */
+final class TimingWheel {
+
+    private final long tickMs;
+    private final int wheelSize;
+    private final LongSupplier clock;
+    private final Level root;
+    private int pending;
+
+    TimingWheel(long tickMs, int wheelSize, LongSupplier clock) {
+        this.tickMs = Math.max(1, tickMs);
+        this.wheelSize = Math.max(2, wheelSize);
+        this.clock = clock;
+        long now = clock.getAsLong();
+        this.root = new Level(this.tickMs, this.wheelSize, now - now % this.tickMs);
+    }
+
+    long now() { return clock.getAsLong(); }
+
+    /** deadlineMs(벽시계 ms) 이후 첫 tick 에 task 실행. 이미 지난 시각이면 다음 tick 에서 실행 */
+    synchronized void schedule(long deadlineMs, Runnable task) {
+        pending++;
+        // tick 배수로 올림 → 칸 시작 시각이 곧 만료 시각(일찍 실행되지 않음)
+        place(new Task(Math.ceilDiv(deadlineMs, tickMs) * tickMs, task), null);
+    }
+
+    synchronized int pending() { return pending; }
+
+    /** now 까지 시계를 진행하며 만료된 작업을 실행 */
+    void advance(long now) {
+        List<Task> expired = new ArrayList<>();
+        synchronized (this) {
+            while (root.current + tickMs <= now) {
+                long t = root.current + tickMs;
+                // 상위 단 경계 → 해당 칸 작업을 하위 단으로 내림
+                for (Level l = root; l != null; l = l.next) {
+                    if (t % l.tick != 0) break;
+                    l.current = t;
+                    if (l != root) cascade(l, expired);
+                }
+                root.current = t;
+                cascade(root, expired);
+            }
+            pending -= expired.size();
+        }
+        for (Task task : expired) {
+            try { task.run.run(); } catch (Exception ignore) { /* fail-open */ }
+        }
+    }
+
+    private void cascade(Level l, List<Task> expired) {
+        int idx = (int) ((l.current / l.tick) % l.size);
+        Task head = l.slots[idx];
+        l.slots[idx] = null;
+        while (head != null) {
+            Task next = head.next;
+            head.next = null;
+            place(head, expired);
+            head = next;
+        }
+    }
+
+    private void place(Task t, List<Task> expired) {
+        Level l = root;
+        if (t.deadline < l.current + l.tick) {
+            if (expired != null) { expired.add(t); return; }
+            // 등록 시점에 이미 만료 → 현재+1 칸에 두어 다음 tick 에 실행
+            t.deadline = l.current + l.tick;
+        }
+        while (t.deadline >= l.current + l.tick * l.size) {
+            if (l.next == null) l.next = new Level(l.tick * l.size, l.size, l.current - l.current % (l.tick * l.size));
+            l = l.next;
+        }
+        int idx = (int) ((t.deadline / l.tick) % l.size);
+        t.next = l.slots[idx];
+        l.slots[idx] = t;
+    }
+
+    private static final class Level {
+        final long tick;
+        final int size;
+        final Task[] slots;
+        long current;
+        Level next;
+
+        Level(long tick, int size, long current) {
+            this.tick = tick;
+            this.size = size;
+            this.slots = new Task[size];
+            this.current = current;
+        }
+    }
+
+    private static final class Task {
+        long deadline;
+        final Runnable run;
+        Task next;
+
+        Task(long deadline, Runnable run) {
+            this.deadline = deadline;
+            this.run = run;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.dbids.modules.detection;
+
+import com.example.dbids.sqlite.model.DetectionEvent;
+
+/**
+ * 저장 전 메모리에서 계산한 탐지 결과(PATTERN/AUTHZ).
+ * - event   : 기록할 DetectionEvent (아직 저장하지 않음)
+ * - rule    : 매칭 규칙 ID(알림 묶음 키)
+ * - blocking: 차단으로 간주 → QueryLog.status=FAILURE 로 저장
+ */
+public record Finding(DetectionEvent event, String rule, boolean blocking) {}
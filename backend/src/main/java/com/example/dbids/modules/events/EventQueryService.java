@@ -1,14 +1,22 @@
 package com.example.dbids.modules.events;
 
+import com.example.dbids.dto.CursorPage;
 import com.example.dbids.dto.EventDtos;
+import com.example.dbids.sqlite.FtsQuery;
+import com.example.dbids.sqlite.LogPartitions;
+import com.example.dbids.sqlite.SqliteRowEstimator;
 import com.example.dbids.sqlite.model.DetectionEvent;
 import com.example.dbids.sqlite.model.QueryLog;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
 import jakarta.persistence.TypedQuery;
+import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.*;
 
 @Service
@@ -17,6 +25,14 @@ public class EventQueryService {
     @PersistenceContext(unitName = "sqliteUnit")
     private EntityManager em;
 
+    private final SqliteRowEstimator estimator;
+    private final LogPartitions partitions;
+
+    public EventQueryService(SqliteRowEstimator estimator, LogPartitions partitions) {
+        this.estimator = estimator;
+        this.partitions = partitions;
+    }
+
     public static class SearchCond {
         public String type;      // PATTERN|BEHAVIOR|AUTHZ (opt)
         public String severity;  // LOW|MEDIUM|HIGH (opt)
@@ -24,70 +40,223 @@ public class EventQueryService {
         public String to;        // ISO-8601 <  (opt)
         public String user;      // contains (opt)
         public String adminId;   // exact (opt)
-        public String q;         // SQL like keyword (opt)
+        public String q;         // SQL 키워드(opt): 토큰 접두어 일치, "..." 는 정확한 토큰/구(FtsQuery)
         public int page = 0;
         public int size = 20;
+        public String cursor;    // 직전 응답의 nextCursor (opt)
+        public CursorPage.CountMode count = CursorPage.CountMode.EXACT;
     }
 
+    /**
+     * 이벤트 목록. (occurredAt, id) 내림차순.
+     * - cursor 가 있거나 첫 페이지면 키셋: 커서 행 다음 size 건만 읽음(OFFSET 스캔 없음)
+     * - 커서 없이 page>0 이면 기존 OFFSET(대시보드 호환)
+     * - 기간이 파티션 파일과 겹치면 겹치는 파일만 붙여 같은 규칙으로 조회(searchPartitioned)
+     */
     @Transactional(readOnly = true, transactionManager = "sqliteTx")
-    public EventDtos.Page<EventDtos.EventSummary> search(SearchCond c) {
-        StringBuilder sb = new StringBuilder();
-        StringBuilder cnt = new StringBuilder();
+    public CursorPage<EventDtos.EventSummary> search(SearchCond c) {
+        StringBuilder where = new StringBuilder(" WHERE 1=1");
         Map<String,Object> p = new HashMap<>();
 
-        // 조인: event e LEFT JOIN query_log q (userId, adminId 조건/출력용)
-        sb.append("""
-            SELECT e, q
-            FROM DetectionEvent e
-            LEFT JOIN QueryLog q ON q.id = e.logId
-            WHERE 1=1
-        """);
-        cnt.append("""
-            SELECT COUNT(e)
-            FROM DetectionEvent e
-            LEFT JOIN QueryLog q ON q.id = e.logId
-            WHERE 1=1
-        """);
-
-        if (notBlank(c.type))     { sb.append(" AND e.eventType = :type");     cnt.append(" AND e.eventType = :type");     p.put("type", DetectionEvent.Type.valueOf(c.type)); }
-        if (notBlank(c.severity)) { sb.append(" AND e.severity = :severity");  cnt.append(" AND e.severity = :severity");  p.put("severity", DetectionEvent.Severity.valueOf(c.severity)); }
-        if (notBlank(c.from))     { sb.append(" AND e.occurredAt >= :from");   cnt.append(" AND e.occurredAt >= :from");   p.put("from", c.from); }
-        if (notBlank(c.to))       { sb.append(" AND e.occurredAt < :to");      cnt.append(" AND e.occurredAt < :to");      p.put("to", c.to); }
-        if (notBlank(c.user))     { sb.append(" AND q.userId LIKE :user");     cnt.append(" AND q.userId LIKE :user");     p.put("user", "%" + c.user + "%"); }
-        if (notBlank(c.adminId))  { sb.append(" AND q.adminId = :adminId");    cnt.append(" AND q.adminId = :adminId");    p.put("adminId", c.adminId); }
-        if (notBlank(c.q))        { sb.append(" AND e.sqlRaw LIKE :q");        cnt.append(" AND e.sqlRaw LIKE :q");        p.put("q", "%" + c.q + "%"); }
-
-        sb.append(" ORDER BY e.occurredAt DESC");
-
-        TypedQuery<Object[]> query = em.createQuery(sb.toString(), Object[].class);
-        TypedQuery<Long> countQ = em.createQuery(cnt.toString(), Long.class);
-
-        p.forEach((k,v) -> { query.setParameter(k,v); countQ.setParameter(k,v); });
+        if (notBlank(c.type))     { where.append(" AND e.eventType = :type");     p.put("type", DetectionEvent.Type.valueOf(c.type)); }
+        if (notBlank(c.severity)) { where.append(" AND e.severity = :severity");  p.put("severity", DetectionEvent.Severity.valueOf(c.severity)); }
+        if (notBlank(c.from))     { where.append(" AND e.occurredAt >= :from");   p.put("from", c.from); }
+        if (notBlank(c.to))       { where.append(" AND e.occurredAt < :to");      p.put("to", c.to); }
+        if (notBlank(c.user))     { where.append(" AND q.userId LIKE :user");     p.put("user", "%" + c.user + "%"); }
+        if (notBlank(c.adminId))  { where.append(" AND q.adminId = :adminId");    p.put("adminId", c.adminId); }
+        if (notBlank(c.q)) {
+            String fts = FtsQuery.of(c.q);
+            if (fts != null)      { where.append(" AND event_fts_match(e.id, :q) = true"); p.put("q", fts); }
+            else                  { where.append(" AND e.sqlRaw LIKE :q");        p.put("q", "%" + c.q + "%"); }
+        }
 
         int page = Math.max(c.page, 0);
         int size = Math.min(Math.max(c.size, 1), 200);
-        query.setFirstResult(page * size);
-        query.setMaxResults(size);
+        CursorPage.Cursor after = notBlank(c.cursor) ? CursorPage.Cursor.decode(c.cursor) : null;
+        boolean keyset = after != null || page == 0;
+
+        List<LogPartitions.Partition> parts = partitions.forEvents(c.from, c.to);
+        if (!parts.isEmpty()) return searchPartitioned(c, page, size, after, keyset, parts);
+
+        // 조인: event e LEFT JOIN query_log q (userId, adminId 조건/출력용)
+        StringBuilder sb = new StringBuilder("SELECT e, q FROM DetectionEvent e LEFT JOIN QueryLog q ON q.id = e.logId").append(where);
+        if (after != null) {
+            // 앞의 범위 조건으로 (occurred_at, id) 인덱스를 탄다
+            sb.append(" AND e.occurredAt <= :cts AND (e.occurredAt < :cts OR e.id < :cid)");
+        }
+        sb.append(" ORDER BY e.occurredAt DESC, e.id DESC");
+
+        TypedQuery<Object[]> query = em.createQuery(sb.toString(), Object[].class);
+        p.forEach(query::setParameter);
+        if (after != null) {
+            query.setParameter("cts", after.key());
+            query.setParameter("cid", after.id());
+        }
+        if (!keyset) query.setFirstResult(page * size);
+        query.setMaxResults(size + 1);               // 1건 더 읽어 다음 페이지 유무 판단
 
         List<Object[]> rows = query.getResultList();
+        boolean more = rows.size() > size;
+        if (more) rows = rows.subList(0, size);
         List<EventDtos.EventSummary> list = new ArrayList<>(rows.size());
         for (Object[] r : rows) {
             DetectionEvent e = (DetectionEvent) r[0];
             QueryLog q = (QueryLog) r[1];
             list.add(new EventDtos.EventSummary(e, q));
         }
+        CursorPage.Cursor next = null;
+        if (more) {
+            DetectionEvent last = (DetectionEvent) rows.get(rows.size() - 1)[0];
+            next = new CursorPage.Cursor(last.getOccurredAt(), last.getId());
+        }
+
+        long total = switch (c.count) {
+            case EXACT    -> exactCount(where.toString(), p);
+            case ESTIMATE -> p.isEmpty() ? estimator.estimateRows("detection_event") : cappedCount(c);
+            case NONE     -> -1L;
+        };
+        return new CursorPage<>(list, page, size, total, c.count, next);
+    }
+
+    private long exactCount(String where, Map<String,Object> p) {
+        TypedQuery<Long> countQ = em.createQuery(
+                "SELECT COUNT(e) FROM DetectionEvent e LEFT JOIN QueryLog q ON q.id = e.logId" + where, Long.class);
+        p.forEach(countQ::setParameter);
+        return countQ.getSingleResult();
+    }
+
+    // 필터가 있을 때의 근사 건수: CAP 건까지만 셈(조인은 user/adminId 조건이 있을 때만)
+    private long cappedCount(SearchCond c) {
+        boolean join = notBlank(c.user) || notBlank(c.adminId);
+        Map<String,Object> p = new HashMap<>();
+        StringBuilder sql = new StringBuilder("SELECT 1 FROM detection_event e");
+        if (join) sql.append(" LEFT JOIN query_log q ON q.id = e.log_id");
+        sql.append(" WHERE ").append(nativeWhere(c, p, "main", true));
+
+        Query q = em.createNativeQuery("SELECT COUNT(*) FROM (" + sql + " LIMIT :cap)");
+        p.forEach(q::setParameter);
+        q.setParameter("cap", SqliteRowEstimator.CAP);
+        return ((Number) q.getSingleResult()).longValue();
+    }
+
+    // 네이티브 조건(e = schema.detection_event, q = query_log). p 에 바인딩 값을 채움.
+    // 키워드는 그 스키마에 FTS 색인이 있으면 MATCH, 없으면(색인 전 파티션 파일) LIKE
+    private static String nativeWhere(SearchCond c, Map<String,Object> p, String schema, boolean searchable) {
+        StringBuilder sql = new StringBuilder("1=1");
+        if (notBlank(c.type))     { sql.append(" AND e.event_type = :type");   p.put("type", DetectionEvent.Type.valueOf(c.type).name()); }
+        if (notBlank(c.severity)) { sql.append(" AND e.severity = :severity"); p.put("severity", DetectionEvent.Severity.valueOf(c.severity).name()); }
+        if (notBlank(c.from))     { sql.append(" AND e.occurred_at >= :from"); p.put("from", c.from); }
+        if (notBlank(c.to))       { sql.append(" AND e.occurred_at < :to");    p.put("to", c.to); }
+        if (notBlank(c.user))     { sql.append(" AND q.user_id LIKE :user");   p.put("user", "%" + c.user + "%"); }
+        if (notBlank(c.adminId))  { sql.append(" AND q.admin_id = :adminId");  p.put("adminId", c.adminId); }
+        if (notBlank(c.q)) {
+            String fts = FtsQuery.of(c.q);
+            if (fts != null && searchable) {
+                sql.append(" AND e.rowid IN (SELECT rowid FROM ").append(schema).append(".detection_event_fts(:fts))");
+                p.put("fts", fts);
+            } else                { sql.append(" AND e.sql_raw LIKE :q");      p.put("q", "%" + c.q + "%"); }
+        }
+        return sql.toString();
+    }
+
+    // 파티션마다 (이벤트 + 같은 파일의 로그) 조인. 이벤트는 롤오버 때 자기 로그와 같은 파일로 옮겨짐
+    private static String joined(String schema, String select) {
+        return "SELECT " + select + " FROM " + schema + ".detection_event e LEFT JOIN " + schema + ".query_log q ON q.id = e.log_id";
+    }
+
+    /**
+     * 파티션 파일이 섞인 기간의 이벤트 목록. arm(main/파티션)마다 같은 조건으로 (occurred_at, id) 내림차순 "offset+size+1" 건만
+     * 읽고 바깥에서 합쳐 다시 정렬. 키셋/OFFSET/건수 규칙은 search 와 같음.
+     */
+    private CursorPage<EventDtos.EventSummary> searchPartitioned(SearchCond c, int page, int size, CursorPage.Cursor after,
+            boolean keyset, List<LogPartitions.Partition> parts) {
+        Map<String,Object> p = new HashMap<>();
+        nativeWhere(c, p, "main", true);           // arm 조건은 스키마별(FTS 색인 유무)로 아래에서 만듦
+        boolean filtered = !p.isEmpty();
+        String keysetCond = "";
+        if (after != null) {
+            keysetCond = " AND e.occurred_at <= :cts AND (e.occurred_at < :cts OR e.id < :cid)";
+            p.put("cts", after.key());
+            p.put("cid", after.id());
+        }
+        long offset = keyset ? 0 : (long) page * size;
+        p.put("armLimit", offset + size + 1);
+        p.put("lim", size + 1);
+        p.put("off", offset);
+        p.put("cap", SqliteRowEstimator.CAP);
+
+        String listCond = keysetCond;
+        return partitions.read(parts, scope -> {
+            String sql = scope.unionAll(s -> joined(s, SUMMARY_COLUMNS) + " WHERE " + nativeWhere(c, p, s, scope.searchable(s)) + listCond
+                    + " ORDER BY e.occurred_at DESC, e.id DESC LIMIT :armLimit")
+                    + " ORDER BY occurred_at DESC, id DESC LIMIT :lim OFFSET :off";
+            List<EventDtos.EventSummary> rows = scope.jdbc().query(sql, p, SUMMARY_ROW);
+            boolean more = rows.size() > size;
+            if (more) rows = rows.subList(0, size);
+            CursorPage.Cursor next = null;
+            if (more) {
+                EventDtos.EventSummary last = rows.get(rows.size() - 1);
+                next = new CursorPage.Cursor(last.occurredAt, last.id);
+            }
+
+            long total = switch (c.count) {
+                case EXACT -> scope.jdbc().queryForObject("SELECT SUM(n) FROM (" + scope.unionAll(
+                        s -> joined(s, "COUNT(*) AS n") + " WHERE " + nativeWhere(c, p, s, scope.searchable(s))) + ")", p, Long.class);
+                case ESTIMATE -> filtered
+                        ? scope.jdbc().queryForObject("SELECT COUNT(*) FROM (" + scope.unionAll(
+                                s -> joined(s, "1") + " WHERE " + nativeWhere(c, p, s, scope.searchable(s)) + " LIMIT :cap") + " LIMIT :cap)", p, Long.class)
+                        : estimator.estimateRows("detection_event") + parts.stream().mapToLong(LogPartitions.Partition::eventRows).sum();
+                case NONE -> -1L;
+            };
+            return new CursorPage<>(rows, page, size, total, c.count, next);
+        });
+    }
 
-        long total = countQ.getSingleResult();
-        return new EventDtos.Page<>(list, page, size, total);
+    private static final String SUMMARY_COLUMNS =
+            "e.id, e.log_id, e.event_type, e.severity, e.occurred_at, e.sql_raw, q.user_id, q.admin_id";
+
+    private static final String DETAIL_COLUMNS = "e.id, e.log_id, e.event_type, e.severity, e.occurred_at, e.sql_raw, "
+            + "q.id AS q_id, q.executed_at, q.user_id, q.admin_id, q.sql_raw AS q_sql_raw, q.sql_summary, q.return_rows, q.status";
+
+    private static DetectionEvent event(ResultSet rs) throws SQLException {
+        return new DetectionEvent(rs.getString("id"), rs.getString("log_id"),
+                DetectionEvent.Type.valueOf(rs.getString("event_type")), DetectionEvent.Severity.valueOf(rs.getString("severity")),
+                rs.getString("occurred_at"), rs.getString("sql_raw"));
     }
 
+    private static final RowMapper<EventDtos.EventSummary> SUMMARY_ROW = (rs, i) -> {
+        DetectionEvent e = event(rs);
+        String userId = rs.getString("user_id");
+        QueryLog q = userId == null ? null
+                : new QueryLog(e.getLogId(), null, userId, rs.getString("admin_id"), null, null, 0, null);
+        return new EventDtos.EventSummary(e, q);
+    };
+
     @Transactional(readOnly = true, transactionManager = "sqliteTx")
     public Optional<EventDtos.EventDetail> findDetail(String id) {
         DetectionEvent e = em.find(DetectionEvent.class, id);
-        if (e == null) return Optional.empty();
+        if (e == null) return findPartitioned(id);
         QueryLog q = (e.getLogId() == null ? null : em.find(QueryLog.class, e.getLogId()));
         return Optional.of(new EventDtos.EventDetail(e, q));
     }
 
+    // 롤오버로 파티션 파일에 옮겨진 이벤트(id 에는 시각이 없으므로 이벤트가 있는 파티션을 모두 PK 조회)
+    private Optional<EventDtos.EventDetail> findPartitioned(String id) {
+        List<LogPartitions.Partition> parts = partitions.forEvents(null, null);
+        if (parts.isEmpty()) return Optional.empty();
+        return partitions.read(parts, scope -> {
+            String sql = scope.unionAll(s -> joined(s, DETAIL_COLUMNS) + " WHERE e.id = :id") + " LIMIT 1";
+            List<EventDtos.EventDetail> found = scope.jdbc().query(sql, Map.of("id", id), (rs, i) -> {
+                DetectionEvent e = event(rs);
+                QueryLog q = rs.getString("q_id") == null ? null
+                        : new QueryLog(rs.getString("q_id"), rs.getString("executed_at"), rs.getString("user_id"), rs.getString("admin_id"),
+                                rs.getString("q_sql_raw"), rs.getString("sql_summary"), rs.getInt("return_rows"),
+                                QueryLog.Status.valueOf(rs.getString("status")));
+                return new EventDtos.EventDetail(e, q);
+            });
+            return found.stream().findFirst();
+        });
+    }
+
     private static boolean notBlank(String s){ return s != null && !s.trim().isEmpty(); }
 }
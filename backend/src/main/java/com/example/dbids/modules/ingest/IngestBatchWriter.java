@@ -0,0 +1,51 @@
+package com.example.dbids.modules.ingest;
+
+import com.example.dbids.modules.detection.Finding;
+import com.example.dbids.modules.notify.NotificationService;
+import com.example.dbids.modules.storage.StorageService;
+import com.example.dbids.sqlite.model.DetectionEvent;
+import com.example.dbids.sqlite.model.QueryLog;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 저장 스테이지의 쓰기 단위: 로그 + PATTERN/AUTHZ 이벤트 + 알림 아웃박스를 한 트랜잭션(sqliteTx)으로 기록.
+ * 아웃박스가 로그와 같이 커밋되므로 "탐지는 저장됐는데 알림 행은 없음" 상태가 생기지 않고,
+ * 채널 워커 깨우기(NotificationEnqueued)는 TransactionalEventListener 로 커밋 후에 전달된다.
+ */
+@Component
+class IngestBatchWriter {
+
+    private final StorageService storage;
+    private final NotificationService notifier;
+
+    IngestBatchWriter(StorageService storage, NotificationService notifier) {
+        this.storage = storage;
+        this.notifier = notifier;
+    }
+
+    /** 배치 전체를 한 트랜잭션으로. 알림 적재가 실패하면 로그/이벤트도 함께 롤백(호출 측이 행 단위로 재시도) */
+    @Transactional("sqliteTx")
+    public void write(List<IngestPipeline.Item> items) {
+        List<QueryLog> logs = new ArrayList<>(items.size());
+        List<DetectionEvent> events = new ArrayList<>();
+        for (IngestPipeline.Item it : items) {
+            logs.add(it.log());
+            for (Finding f : it.findings()) events.add(f.event());
+        }
+        storage.persistAll(logs, events);
+        for (IngestPipeline.Item it : items) {
+            for (Finding f : it.findings()) {
+                notifier.onEvent(f.event(), f.rule(), it.log(), it.notifyTo());
+            }
+        }
+    }
+
+    /** 알림 없이 로그/이벤트만 기록: 알림 적재 때문에 행 단위 쓰기도 실패한 항목의 마지막 시도 */
+    public void writeWithoutAlerts(IngestPipeline.Item it) {
+        storage.persistAll(List.of(it.log()), it.events());
+    }
+}
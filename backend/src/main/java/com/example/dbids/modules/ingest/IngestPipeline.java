@@ -0,0 +1,344 @@
+package com.example.dbids.modules.ingest;
+
+import com.example.dbids.modules.analysis.QueryAnalysis;
+import com.example.dbids.modules.authz.AuthZService;
+import com.example.dbids.modules.behavior.BehaviorDetector;
+import com.example.dbids.modules.detection.DetectionService;
+import com.example.dbids.modules.detection.Finding;
+import com.example.dbids.sqlite.model.DetectionEvent;
+import com.example.dbids.sqlite.model.QueryLog;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+/**
+ * 수집 파이프라인: IngestController가 검증한 로그를 submit() 하면 호출 스레드에서 PATTERN/AUTHZ 를
+ * 메모리 엔티티에 대해 평가해 최종 status 를 정하고(판정은 응답으로 반환), 유입 큐(고정 크기 링 버퍼)에 넣는다.
+ * 저장 스테이지는 로그와 그 이벤트, 알림 아웃박스를 배치 단위(그룹 커밋) 한 트랜잭션으로 기록한 뒤
+ * BEHAVIOR 스테이지로 넘긴다(사용자 창 단위 판정이라 비동기 유지).
+ * 탐지 스테이지는 자체 큐와 워커 풀을 가지며, 느린 스테이지는 put() 블로킹으로
+ * 저장 스테이지 → 유입 큐 순서로 백프레셔를 전파한다.
+ */
+@Service
+public class IngestPipeline {
+
+    private static final Logger LOG = LoggerFactory.getLogger(IngestPipeline.class);
+
+    private static final long POLL_MS = 200;
+    private static final long JOIN_MS = 5_000;
+
+    private final IngestProperties props;
+    private final IngestBatchWriter writer;
+    private final DetectionService detection;
+    private final AuthZService authz;
+    private final BlockingQueue<Item> ingress;
+    private final List<Stage> stages;
+
+    private final LongAdder accepted      = new LongAdder();
+    private final LongAdder rejected      = new LongAdder();
+    private final LongAdder blocked       = new LongAdder();
+    private final LongAdder persisted     = new LongAdder();
+    private final LongAdder persistFailed = new LongAdder();
+    private final LongAdder notifyFailed  = new LongAdder();
+
+    private final List<Thread> persistThreads = new ArrayList<>();
+    private volatile boolean running;
+
+    @Autowired
+    public IngestPipeline(IngestProperties props,
+            IngestBatchWriter writer,
+            DetectionService detection,
+            AuthZService authz,
+            BehaviorDetector behavior) {
+        this.props = props;
+        this.writer = writer;
+        this.detection = detection;
+        this.authz = authz;
+        this.ingress = new ArrayBlockingQueue<>(Math.max(1, props.getQueueCapacity()));
+        this.stages = List.of(
+                new Stage("behavior", props.getBehaviorWorkers(), props.getStageCapacity(), behavior::onLog)
+        );
+    }
+
+    @PostConstruct
+    public synchronized void start() {
+        if (running) return;
+        running = true;
+        for (Stage s : stages) s.start();
+        for (int i = 0; i < Math.max(1, props.getPersistWorkers()); i++) {
+            persistThreads.add(daemon("ingest-persist-" + i, this::persistLoop));
+        }
+    }
+
+    /** 종료 시 유입 큐 → 탐지 스테이지 순으로 남은 항목을 비운 뒤 멈춘다. */
+    @PreDestroy
+    public synchronized void stop() {
+        if (!running) return;
+        running = false;
+        join(persistThreads);
+        persistThreads.clear();
+        for (Stage s : stages) s.stop();
+    }
+
+    /**
+     * 판정 후 유입 큐에 적재. null 이면 큐가 가득 찬 상태(호출 측에서 429 응답).
+     * - REJECT: 즉시 실패
+     * - BLOCK : blockTimeoutMs 동안 자리가 나기를 기다림
+     * 공용 분석(QueryAnalysis)은 호출 스레드에서 한 번 계산해 PATTERN/AUTHZ 평가와 BEHAVIOR 스테이지가 공유한다.
+     */
+    public IngestVerdict submit(QueryLog log) {
+        return submit(log, null);
+    }
+
+    /**
+     * notifyTo: 이 로그의 탐지 알림 이메일 수신자(null 이면 to-default).
+     * 알림은 저장 워커 스레드에서 적재되어 요청 컨텍스트가 없으므로 호출자가 요청 스레드에서 정해 넘긴다.
+     */
+    public IngestVerdict submit(QueryLog log, String notifyTo) {
+        QueryAnalysis analysis = QueryAnalysis.of(log);
+        List<Finding> findings = judge(log, analysis);
+        if (!offer(new Item(log, analysis, findings, notifyTo), props.getBackpressure() == IngestProperties.Backpressure.BLOCK)) {
+            return null;
+        }
+        IngestVerdict verdict = IngestVerdict.of(log, findings);
+        if (verdict.blocked()) blocked.increment();
+        return verdict;
+    }
+
+    /**
+     * PATTERN/AUTHZ 평가(저장 없음). 차단 판정이면 저장 전에 status=FAILURE 로 바꿔 두므로
+     * 저장 후 고쳐 쓰지 않는다. 인라인 판정(VerdictService)도 같은 평가를 쓴다.
+     */
+    public List<Finding> judge(QueryLog log, QueryAnalysis analysis) {
+        List<Finding> findings = new ArrayList<>(2);
+        detection.evaluate(log, analysis).ifPresent(findings::add);
+        authz.evaluate(log, analysis).ifPresent(findings::add);
+        for (Finding f : findings) {
+            if (f.blocking()) log.setStatus(QueryLog.Status.FAILURE);
+        }
+        return List.copyOf(findings);
+    }
+
+    /**
+     * 이미 판정한 로그의 기록만 위임(인라인 판정 경로). 백프레셔 정책과 무관하게 기다리지 않으며,
+     * 큐가 가득 차면 false(기록 누락 — 판정 자체는 유효).
+     * 호출자(프록시/에이전트)에는 관리자 세션이 없으므로 알림 수신자는 to-default.
+     */
+    public boolean defer(QueryLog log, QueryAnalysis analysis, List<Finding> findings) {
+        if (!offer(new Item(log, analysis, List.copyOf(findings), null), false)) return false;
+        for (Finding f : findings) {
+            if (f.blocking()) { blocked.increment(); break; }
+        }
+        return true;
+    }
+
+    private boolean offer(Item item, boolean block) {
+        boolean ok;
+        if (block) {
+            try {
+                ok = ingress.offer(item, props.getBlockTimeoutMs(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                ok = false;
+            }
+        } else {
+            ok = ingress.offer(item);
+        }
+        (ok ? accepted : rejected).increment();
+        return ok;
+    }
+
+    public int queueDepth() { return ingress.size(); }
+
+    /** 큐 깊이/처리량 지표 (GET /api/ingest/stats) */
+    public Map<String, Object> stats() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("backpressure", props.getBackpressure().name());
+        m.put("queueDepth", ingress.size());
+        m.put("queueCapacity", ingress.size() + ingress.remainingCapacity());
+        m.put("accepted", accepted.sum());
+        m.put("rejected", rejected.sum());
+        m.put("blocked", blocked.sum());
+        m.put("persisted", persisted.sum());
+        m.put("persistFailed", persistFailed.sum());
+        m.put("notifyFailed", notifyFailed.sum());
+        Map<String, Object> st = new LinkedHashMap<>();
+        for (Stage s : stages) st.put(s.name, s.stats());
+        m.put("stages", st);
+        return m;
+    }
+
+    private void persistLoop() {
+        int max = Math.max(1, props.getBatchSize());
+        while (running || !ingress.isEmpty()) {
+            List<Item> batch = new ArrayList<>();
+            try {
+                Item first = ingress.poll(POLL_MS, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                collect(batch, max);
+            } catch (InterruptedException e) {
+                if (batch.isEmpty()) continue;
+            }
+            persistBatch(batch);
+        }
+    }
+
+    /** 그룹 커밋: batchSize 만큼 차거나 flushIntervalMs 가 지날 때까지 추가 행을 모은다. */
+    private void collect(List<Item> batch, int max) throws InterruptedException {
+        ingress.drainTo(batch, max - batch.size());
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(props.getFlushIntervalMs());
+        while (batch.size() < max) {
+            long wait = deadline - System.nanoTime();
+            if (wait <= 0) break;
+            Item next = ingress.poll(wait, TimeUnit.NANOSECONDS);
+            if (next == null) break;
+            batch.add(next);
+            ingress.drainTo(batch, max - batch.size());
+        }
+    }
+
+    private void persistBatch(List<Item> batch) {
+        try {
+            writer.write(batch);
+            persisted.add(batch.size());
+            for (Item it : batch) forward(it);
+            return;
+        } catch (Exception e) {
+            // 배치 실패 → 아래에서 행 단위로 다시 기록해 문제 행만 격리
+        }
+        for (Item it : batch) {
+            try {
+                writer.write(List.of(it));
+            } catch (Exception e) {
+                if (it.findings().isEmpty() || !persistWithoutAlerts(it, e)) {
+                    persistFailed.increment();
+                    continue;
+                }
+            }
+            persisted.increment();
+            forward(it);
+        }
+    }
+
+    // 로그+알림이 함께 실패한 행: 알림 없이 로그/이벤트만 기록(fail-open). 알림 누락은 지표와 로그로 남김
+    private boolean persistWithoutAlerts(Item it, Exception cause) {
+        try {
+            writer.writeWithoutAlerts(it);
+        } catch (Exception e) {
+            return false;
+        }
+        notifyFailed.increment();
+        LOG.warn("ingest: stored log {} without its alerts ({} findings): {}", it.log().getId(), it.findings().size(), cause.toString());
+        return true;
+    }
+
+    /** 커밋 이후: BEHAVIOR 스테이지로 */
+    private void forward(Item it) {
+        for (Stage s : stages) s.put(it);
+    }
+
+    private static Thread daemon(String name, Runnable r) {
+        Thread t = new Thread(r, name);
+        t.setDaemon(true);
+        t.start();
+        return t;
+    }
+
+    private static void join(List<Thread> threads) {
+        for (Thread t : threads) {
+            try { t.join(JOIN_MS); } catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+        }
+    }
+
+    /**
+     * 파이프라인 항목: 로그(최종 status) + 수집 시점에 한 번 계산한 공용 분석 결과 + PATTERN/AUTHZ 탐지
+     * + 요청 스레드에서 정한 알림 수신자(null 이면 to-default)
+     */
+    record Item(QueryLog log, QueryAnalysis analysis, List<Finding> findings, String notifyTo) {
+        List<DetectionEvent> events() {
+            List<DetectionEvent> out = new ArrayList<>(findings.size());
+            for (Finding f : findings) out.add(f.event());
+            return out;
+        }
+    }
+
+    /** 탐지 스테이지: 전용 큐 + 워커 풀. 핸들러 예외는 삼킨다(fail-open). */
+    static final class Stage {
+        final String name;
+        private final int workers;
+        private final BlockingQueue<Item> queue;
+        private final BiConsumer<QueryLog, QueryAnalysis> handler;
+        private final LongAdder processed = new LongAdder();
+        private final LongAdder failed    = new LongAdder();
+        private final List<Thread> threads = new ArrayList<>();
+        private volatile boolean running;
+
+        Stage(String name, int workers, int capacity, BiConsumer<QueryLog, QueryAnalysis> handler) {
+            this.name = name;
+            this.workers = Math.max(1, workers);
+            this.queue = new ArrayBlockingQueue<>(Math.max(1, capacity));
+            this.handler = handler;
+        }
+
+        void start() {
+            running = true;
+            for (int i = 0; i < workers; i++) threads.add(daemon("ingest-" + name + "-" + i, this::loop));
+        }
+
+        void stop() {
+            running = false;
+            join(threads);
+            threads.clear();
+        }
+
+        /** 큐가 가득 차면 자리가 날 때까지 대기 → 상류로 백프레셔 전파 */
+        void put(Item it) {
+            try {
+                queue.put(it);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void loop() {
+            while (running || !queue.isEmpty()) {
+                Item it;
+                try {
+                    it = queue.poll(POLL_MS, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    continue;
+                }
+                if (it == null) continue;
+                try {
+                    handler.accept(it.log(), it.analysis());
+                    processed.increment();
+                } catch (Exception e) {
+                    failed.increment();
+                }
+            }
+        }
+
+        Map<String, Object> stats() {
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("workers", workers);
+            m.put("queueDepth", queue.size());
+            m.put("processed", processed.sum());
+            m.put("failed", failed.sum());
+            return m;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.dbids.modules.ingest;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "dbids.ingest")
+public class IngestProperties {
+
+    /** 백프레셔 정책: REJECT=즉시 429, BLOCK=blockTimeoutMs 동안 대기 후 429 */
+    public enum Backpressure { REJECT, BLOCK }
+
+    /** 유입 큐(링 버퍼) 용량 */
+    private int queueCapacity = 10_000;
+
+    /** 탐지 스테이지별 큐 용량 */
+    private int stageCapacity = 10_000;
+
+    /** 저장 스테이지 워커 수 (SQLite 단일 writer 고려 기본 1) */
+    private int persistWorkers = 1;
+
+    /** BEHAVIOR 스테이지 워커 수 (PATTERN/AUTHZ 는 submit 시점에 동기 평가) */
+    private int behaviorWorkers = 1;   // 사용자 윈도우 순서 보장을 위해 기본 1
+
+    /** 그룹 커밋: 한 트랜잭션(JDBC batch)으로 묶을 최대 행 수 */
+    private int batchSize = 500;
+
+    /** 그룹 커밋: 첫 행 이후 추가 행을 기다리는 최대 시간(ms). 0이면 즉시 flush */
+    private long flushIntervalMs = 20;
+
+    private Backpressure backpressure = Backpressure.REJECT;
+
+    /** BLOCK 모드에서 큐 자리가 날 때까지 기다리는 최대 시간(ms) */
+    private long blockTimeoutMs = 1_000;
+
+    // getters / setters
+    public int getQueueCapacity() { return queueCapacity; }
+    public void setQueueCapacity(int queueCapacity) { this.queueCapacity = queueCapacity; }
+
+    public int getStageCapacity() { return stageCapacity; }
+    public void setStageCapacity(int stageCapacity) { this.stageCapacity = stageCapacity; }
+
+    public int getPersistWorkers() { return persistWorkers; }
+    public void setPersistWorkers(int persistWorkers) { this.persistWorkers = persistWorkers; }
+
+    public int getBehaviorWorkers() { return behaviorWorkers; }
+    public void setBehaviorWorkers(int behaviorWorkers) { this.behaviorWorkers = behaviorWorkers; }
+
+    public int getBatchSize() { return batchSize; }
+    public void setBatchSize(int batchSize) { this.batchSize = batchSize; }
+
+    public long getFlushIntervalMs() { return flushIntervalMs; }
+    public void setFlushIntervalMs(long flushIntervalMs) { this.flushIntervalMs = flushIntervalMs; }
+
+    public Backpressure getBackpressure() { return backpressure; }
+    public void setBackpressure(Backpressure backpressure) { this.backpressure = backpressure; }
+
+    public long getBlockTimeoutMs() { return blockTimeoutMs; }
+    public void setBlockTimeoutMs(long blockTimeoutMs) { this.blockTimeoutMs = blockTimeoutMs; }
+}
@@ -0,0 +1,31 @@
+package com.example.dbids.modules.ingest;
+
+import com.example.dbids.modules.detection.Finding;
+import com.example.dbids.sqlite.model.DetectionEvent;
+import com.example.dbids.sqlite.model.QueryLog;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 수집 응답에 싣는 탐지 판정(PATTERN/AUTHZ). 에이전트가 별도 조회 없이 차단 여부를 안다.
+ * - blocked   : 차단 규칙에 걸림 → 로그는 status=FAILURE 로 저장
+ * - status    : 저장되는 최종 status
+ * - detections: 기록될 이벤트(eventId 로 /api/events/{id} 조회 가능)
+ * BEHAVIOR 는 사용자 창 단위 판정이라 여기 포함되지 않고 비동기로 기록된다.
+ */
+public record IngestVerdict(boolean blocked, QueryLog.Status status, List<Detection> detections) {
+
+    public record Detection(String eventId, DetectionEvent.Type type, DetectionEvent.Severity severity, String rule) {}
+
+    static IngestVerdict of(QueryLog log, List<Finding> findings) {
+        List<Detection> ds = new ArrayList<>(findings.size());
+        boolean blocked = false;
+        for (Finding f : findings) {
+            DetectionEvent ev = f.event();
+            ds.add(new Detection(ev.getId(), ev.getEventType(), ev.getSeverity(), f.rule()));
+            blocked |= f.blocking();
+        }
+        return new IngestVerdict(blocked, log.getStatus(), List.copyOf(ds));
+    }
+}
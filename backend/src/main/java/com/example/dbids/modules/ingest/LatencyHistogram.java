@@ -0,0 +1,50 @@
+package com.example.dbids.modules.ingest;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 지연 분포(나노초). 2의 거듭제곱 버킷에 잠금 없이 더하고, 분위수는 버킷 상한으로 근사한다(최대 2배 오차).
+ * 판정 경로에서 샘플마다 할당/정렬을 하지 않기 위함.
+ */
+final class LatencyHistogram {
+
+    private final LongAdder[] buckets = new LongAdder[64];
+    private final AtomicLong max = new AtomicLong();
+
+    LatencyHistogram() {
+        for (int i = 0; i < buckets.length; i++) buckets[i] = new LongAdder();
+    }
+
+    void record(long nanos) {
+        long n = Math.max(1, nanos);
+        buckets[63 - Long.numberOfLeadingZeros(n)].increment();
+        max.accumulateAndGet(n, Math::max);
+    }
+
+    /** q(0~1) 분위수의 버킷 상한(ns). 샘플이 없으면 0 */
+    long quantile(double q) {
+        long[] c = new long[buckets.length];
+        long total = 0;
+        for (int i = 0; i < c.length; i++) total += (c[i] = buckets[i].sum());
+        if (total == 0) return 0;
+        long rank = (long) Math.ceil(q * total);
+        long seen = 0;
+        for (int i = 0; i < c.length; i++) {
+            seen += c[i];
+            if (seen >= Math.max(1, rank)) return i >= 62 ? Long.MAX_VALUE : (1L << (i + 1)) - 1;
+        }
+        return max.get();
+    }
+
+    /** p50/p99/최대(µs) */
+    Map<String, Object> snapshot() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("p50Micros", quantile(0.50) / 1_000.0);
+        m.put("p99Micros", quantile(0.99) / 1_000.0);
+        m.put("maxMicros", max.get() / 1_000.0);
+        return m;
+    }
+}
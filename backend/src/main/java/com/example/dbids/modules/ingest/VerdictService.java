@@ -0,0 +1,89 @@
+package com.example.dbids.modules.ingest;
+
+import com.example.dbids.modules.analysis.QueryAnalysis;
+import com.example.dbids.modules.detection.Finding;
+import com.example.dbids.modules.proxy.Utf8Validator;
+import com.example.dbids.sqlite.model.QueryLog;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 인라인 차단 판정: 쿼리가 MySQL 로 전달되기 전에 원문 SQL 바이트 + 사용자로 ALLOW/DENY 를 정한다.
+ * - 판정: 수집 파이프라인과 같은 PATTERN/AUTHZ 평가(컴파일된 룰셋 스캔 + 권한 판정 캐시), DB 접근 없음
+ * - DENY: 차단 규칙(PATTERN HIGH, AUTHZ 위반)에 걸림 → 로그는 status=FAILURE 로 기록
+ * - 기록: 판정이 끝난 로그/이벤트를 파이프라인 큐에 넘기기만 함(대기 없음). 저장·알림·BEHAVIOR 는 워커가 처리
+ * 탐지기 예외는 미탐으로 처리되므로 판정은 fail-open(ALLOW).
+ */
+@Service
+public class VerdictService {
+
+    public enum Decision { ALLOW, DENY }
+
+    /**
+     * logged=false 면 파이프라인 큐가 가득 차 이 건의 기록이 누락됨(판정은 유효).
+     * detections 는 수집 응답(IngestVerdict)과 같은 형태.
+     */
+    public record Verdict(Decision decision, String logId, boolean logged, List<IngestVerdict.Detection> detections) {}
+
+    // StorageService 와 같은 저장 상한. 판정은 잘리지 않은 원문으로 한다
+    private static final int SQL_RAW_MAX = 8192;
+
+    private final IngestPipeline pipeline;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder denied  = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    public VerdictService(IngestPipeline pipeline) {
+        this.pipeline = pipeline;
+    }
+
+    public Verdict check(byte[] sql, String user) {
+        return check(sql, 0, sql.length, user);
+    }
+
+    /**
+     * sql[off, off+len) 의 UTF-8 SQL 을 판정(패킷 버퍼를 복사 없이 넘길 수 있도록 범위 지정).
+     * 비정상 인코딩/빈 SQL/사용자 누락은 IllegalArgumentException.
+     */
+    public Verdict check(byte[] sql, int off, int len, String user) {
+        long t0 = System.nanoTime();
+        if (user == null || user.isBlank()) throw new IllegalArgumentException("user is required");
+        String raw = Utf8Validator.decode(sql, off, len).trim();
+        if (raw.isEmpty()) throw new IllegalArgumentException("sql is required");
+
+        QueryLog log = new QueryLog(UUID.randomUUID().toString(), Instant.now().toString(), user, null,
+                raw, null, 0, QueryLog.Status.SUCCESS);
+        QueryAnalysis analysis = QueryAnalysis.of(raw);
+        List<Finding> findings = pipeline.judge(log, analysis);
+        IngestVerdict v = IngestVerdict.of(log, findings);
+        Decision decision = v.blocked() ? Decision.DENY : Decision.ALLOW;
+
+        if (raw.length() > SQL_RAW_MAX) {
+            log = new QueryLog(log.getId(), log.getExecutedAt(), user, null,
+                    raw.substring(0, SQL_RAW_MAX), null, 0, log.getStatus());
+        }
+        boolean logged = pipeline.defer(log, analysis, findings);
+
+        (decision == Decision.DENY ? denied : allowed).increment();
+        if (!logged) dropped.increment();
+        latency.record(System.nanoTime() - t0);
+        return new Verdict(decision, log.getId(), logged, v.detections());
+    }
+
+    /** 판정 수/기록 누락/지연 분포 (GET /api/verdict/stats) */
+    public Map<String, Object> stats() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("allowed", allowed.sum());
+        m.put("denied", denied.sum());
+        m.put("dropped", dropped.sum());
+        m.putAll(latency.snapshot());
+        return m;
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.dbids.modules.notify;
+
+import com.example.dbids.sqlite.model.DetectionEvent;
+
+/**
+ * 묶음 알림 1건의 요약: 같은 (유형, 심각도, 사용자, 규칙) 이벤트가 창(windowSeconds) 안에서 count 번 발생.
+ * rule 이 없는 탐지(BEHAVIOR 등)는 "-" 이며, 헤드라인에는 유형 이름을 대신 쓴다.
+ */
+public record AlertDigest(DetectionEvent.Type type, DetectionEvent.Severity severity,
+                          String user, String rule, int count, int windowSeconds) {
+
+    /** 예: "42 x PATTERN_OR_1_EQ_1 from user X in 60s" */
+    public String headline() {
+        String what = (rule == null || rule.equals("-")) ? type.name() : rule;
+        return count + " x " + what + " from user " + user + " in " + windowSeconds + "s";
+    }
+}
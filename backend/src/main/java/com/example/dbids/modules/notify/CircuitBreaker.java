@@ -0,0 +1,43 @@
+package com.example.dbids.modules.notify;
+
+/**
+ * 채널별 회로 차단기(채널 워커 1개 스레드에서만 사용).
+ * CLOSED → 연속 실패 threshold 회 → OPEN(openMs 동안 발송 안 함) → HALF_OPEN(1건 시험) → 성공 시 CLOSED, 실패 시 다시 OPEN
+ */
+final class CircuitBreaker {
+
+    enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int threshold;
+    private final long openMs;
+    private volatile State state = State.CLOSED;
+    private int failures;
+    private long openUntil;
+
+    CircuitBreaker(int threshold, long openMs) {
+        this.threshold = Math.max(1, threshold);
+        this.openMs = Math.max(0, openMs);
+    }
+
+    State state() { return state; }
+
+    boolean allow(long now) {
+        if (state != State.OPEN) return true;
+        if (now < openUntil) return false;
+        state = State.HALF_OPEN;
+        return true;
+    }
+
+    void onSuccess() {
+        failures = 0;
+        state = State.CLOSED;
+    }
+
+    void onFailure(long now) {
+        if (state == State.HALF_OPEN || ++failures >= threshold) {
+            state = State.OPEN;
+            openUntil = now + openMs;
+            failures = 0;
+        }
+    }
+}
@@ -1,41 +1,103 @@
 package com.example.dbids.modules.notify;
 
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailPreparationException;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * 이메일 발송. SMTP 세션 풀(SmtpTransportPool)을 쓸 수 있으면 인증된 연결을 재사용하고,
+ * 그렇지 않으면(풀 비활성/목 JavaMailSender) 알림마다 JavaMailSender.send 로 보낸다.
+ */
 @Component
 public class EmailSender {
 
     private final JavaMailSender mailSender;
     private final NotifierProperties props;
+    private final SmtpTransportPool pool;
 
     // spring.mail.username 이 설정되어 있으면 기본 from으로 쓰일 수 있음
     @Value("${spring.mail.username:}")
     private String springMailUsername;
 
     public EmailSender(JavaMailSender mailSender, NotifierProperties props) {
+        this(mailSender, props, null);
+    }
+
+    @Autowired
+    public EmailSender(JavaMailSender mailSender, NotifierProperties props, SmtpTransportPool pool) {
         this.mailSender = mailSender;
         this.props = props;
+        this.pool = pool;
     }
 
     public void send(String subject, String body) {
-        String to = props.getEmail().getToDefault();
-        if (to == null || to.isBlank()) {
-            throw new IllegalStateException("dbids.notifier.email.to-default is not set");
-        }
-        sendTo(subject, body, to);
+        sendTo(subject, body, defaultTo());
     }
 
     public void sendTo(String subject, String body, String toAddress) {
         if (!props.getEmail().isEnabled()) return;
+        if (pool != null && pool.isAvailable()) {
+            try {
+                sendToAsync(subject, body, toAddress).join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException re) throw re;
+                throw e;
+            }
+            return;
+        }
+        sendDirect(subject, body, toAddress);
+    }
 
-        String from = (props.getEmail().getFrom() != null && !props.getEmail().getFrom().isBlank())
-                ? props.getEmail().getFrom()
-                : springMailUsername; // 최후의 폴백
+    /** 기본 수신자(to-default)에게 비동기 발송. 설정이 없으면 IllegalStateException 으로 실패한 future */
+    public CompletableFuture<Void> sendAsync(String subject, String body) {
+        try {
+            return sendToAsync(subject, body, defaultTo());
+        } catch (IllegalStateException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
 
+    /**
+     * 풀 대기열에 넣고 즉시 반환 → 채널 워커가 배치 전체를 넣어 두면 풀 연결마다 묶어서 보낸다.
+     * 풀이 없으면 호출 스레드에서 JavaMailSender 로 보내고 그 결과로 완료된 future
+     */
+    public CompletableFuture<Void> sendToAsync(String subject, String body, String toAddress) {
+        if (!props.getEmail().isEnabled()) return CompletableFuture.completedFuture(null);
+        if (pool == null || !pool.isAvailable()) {
+            try {
+                sendDirect(subject, body, toAddress);
+                return CompletableFuture.completedFuture(null);
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        MimeMessage msg = pool.createMimeMessage();
+        try {
+            MimeMessageHelper h = new MimeMessageHelper(msg, "UTF-8");
+            String from = from();
+            if (from != null && !from.isBlank()) h.setFrom(from);
+            h.setTo(toAddress);
+            h.setSubject(subject);
+            h.setText(body);
+        } catch (MessagingException e) {
+            return CompletableFuture.failedFuture(new MailPreparationException(e));
+        }
+        return pool.submit(msg);
+    }
+
+    // 풀 없이 알림 1건 = JavaMailSender.send 1회
+    private void sendDirect(String subject, String body, String toAddress) {
         SimpleMailMessage msg = new SimpleMailMessage();
+        String from = from();
         if (from != null && !from.isBlank()) msg.setFrom(from);
         msg.setTo(toAddress);
         msg.setSubject(subject);
@@ -43,4 +105,18 @@ public class EmailSender {
 
         mailSender.send(msg);
     }
+
+    private String defaultTo() {
+        String to = props.getEmail().getToDefault();
+        if (to == null || to.isBlank()) {
+            throw new IllegalStateException("dbids.notifier.email.to-default is not set");
+        }
+        return to;
+    }
+
+    private String from() {
+        return (props.getEmail().getFrom() != null && !props.getEmail().getFrom().isBlank())
+                ? props.getEmail().getFrom()
+                : springMailUsername; // 최후의 폴백
+    }
 }
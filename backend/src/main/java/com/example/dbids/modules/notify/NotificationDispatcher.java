@@ -0,0 +1,189 @@
+package com.example.dbids.modules.notify;
+
+import com.example.dbids.sqlite.model.NotificationLog;
+import com.example.dbids.sqlite.model.NotificationOutbox;
+import com.example.dbids.sqlite.repository.NotificationOutboxRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 아웃박스 채널 워커: 채널(EMAIL/SLACK)마다 전용 스레드 1개가 기한이 된 PENDING 행을 배치로 꺼내 한꺼번에 비동기 발송한다.
+ * - 실패: 지수 백오프(+지터)로 재예약, maxAttempts 초과 시 FAILED 확정
+ * - 채널별 회로 차단기: 연속 실패 시 일정 시간 발송 중단(다시 열 때는 시험 1건) → 느린/죽은 채널이 시도 횟수를 소모하지 않음
+ * - 적재 트랜잭션 커밋 직후 이벤트로 깨우고, 그 외에는 pollMs 주기로 확인
+ * 탐지/적재 경로는 채널 상태와 무관하게 DB 1회 기록으로 끝난다.
+ */
+@Component
+public class NotificationDispatcher {
+
+    private static final Logger LOG = LoggerFactory.getLogger(NotificationDispatcher.class);
+    private static final int RECORD_RETRIES = 5;
+
+    private final NotificationService service;
+    private final NotificationOutboxRepository outboxRepo;
+    private final NotifierProperties.Outbox cfg;
+    private final Map<NotificationLog.Channel, CircuitBreaker> breakers = new EnumMap<>(NotificationLog.Channel.class);
+    private final Map<NotificationLog.Channel, Semaphore> wakeups = new EnumMap<>(NotificationLog.Channel.class);
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean running;
+
+    public NotificationDispatcher(NotificationService service, NotificationOutboxRepository outboxRepo,
+                                  NotifierProperties props) {
+        this.service = service;
+        this.outboxRepo = outboxRepo;
+        this.cfg = props.getOutbox();
+        for (NotificationLog.Channel c : NotificationLog.Channel.values()) {
+            breakers.put(c, new CircuitBreaker(cfg.getBreakerFailureThreshold(), cfg.getBreakerOpenMs()));
+            wakeups.put(c, new Semaphore(0));
+        }
+    }
+
+    @PostConstruct
+    public synchronized void start() {
+        if (running || !cfg.isWorkersEnabled()) return;
+        running = true;
+        for (NotificationLog.Channel c : NotificationLog.Channel.values()) {
+            Thread t = new Thread(() -> loop(c), "notify-" + c.name().toLowerCase());
+            t.setDaemon(true);
+            t.start();
+            workers.add(t);
+        }
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        running = false;
+        workers.forEach(Thread::interrupt);
+        workers.clear();
+    }
+
+    /** 적재 트랜잭션 커밋 후(트랜잭션 밖이면 즉시) 해당 채널 워커를 깨움 */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEnqueued(NotificationEnqueued e) {
+        for (NotificationLog.Channel c : e.channels()) wakeups.get(c).release();
+    }
+
+    private void loop(NotificationLog.Channel channel) {
+        Semaphore wake = wakeups.get(channel);
+        while (running) {
+            try {
+                // 배치가 꽉 찼으면 바로 다음 배치, 아니면 신호/폴링 대기
+                if (drain(channel, System.currentTimeMillis()) < cfg.getBatchSize()) {
+                    wake.tryAcquire(Math.max(1, cfg.getPollMs()), TimeUnit.MILLISECONDS);
+                    wake.drainPermits();
+                }
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                LOG.warn("notification worker {} failed: {}", channel, e.toString());
+                try { Thread.sleep(Math.max(1, cfg.getPollMs())); } catch (InterruptedException ie) { return; }
+            }
+        }
+    }
+
+    /**
+     * 채널 1회 처리: 기한이 된 행을 최대 batchSize 건 한꺼번에 발송 시작 → 전부 끝나길 기다린 뒤 결과를 한 트랜잭션으로 기록.
+     * 처리 건수 반환. 회로가 HALF_OPEN 이면 시험 1건만 보낸다.
+     */
+    int drain(NotificationLog.Channel channel, long now) {
+        CircuitBreaker breaker = breakers.get(channel);
+        if (!breaker.allow(now)) return 0;
+
+        int limit = breaker.state() == CircuitBreaker.State.HALF_OPEN ? 1 : Math.max(1, cfg.getBatchSize());
+        List<NotificationOutbox> due = outboxRepo.findDue(channel, now, PageRequest.of(0, limit));
+        if (due.isEmpty()) return 0;
+
+        List<CompletableFuture<Void>> sends = new ArrayList<>(due.size());
+        for (NotificationOutbox job : due) sends.add(service.deliverAsync(job));
+        CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new)).exceptionally(e -> null).join();
+
+        List<NotificationService.Outcome> outcomes = new ArrayList<>(due.size());
+        for (int i = 0; i < due.size(); i++) {
+            NotificationOutbox job = due.get(i);
+            Exception error = failure(sends.get(i));
+            if (error == null) {
+                breaker.onSuccess();
+                outcomes.add(NotificationService.Outcome.sent(job));
+            } else if (breaker.state() == CircuitBreaker.State.OPEN) {
+                // 같은 배치 안에서 회로가 열림 → 뒤이은 실패는 채널 탓이므로 시도 횟수 없이 회로가 풀릴 때로 미룸
+                outcomes.add(NotificationService.Outcome.deferred(job, error, now + cfg.getBreakerOpenMs()));
+            } else {
+                breaker.onFailure(now);
+                int attempt = job.getAttempts() + 1;
+                outcomes.add(attempt >= cfg.getMaxAttempts()
+                        ? NotificationService.Outcome.failed(job, error)
+                        : NotificationService.Outcome.retry(job, error, now + backoffMs(attempt)));
+            }
+        }
+        record(outcomes);
+        return outcomes.size();
+    }
+
+    // 완료된 future 의 실패 원인(성공이면 null)
+    private static Exception failure(CompletableFuture<Void> f) {
+        try {
+            f.join();
+            return null;
+        } catch (CompletionException | CancellationException e) {
+            Throwable cause = (e instanceof CompletionException && e.getCause() != null) ? e.getCause() : e;
+            return cause instanceof Exception ex ? ex : new RuntimeException(cause);
+        }
+    }
+
+    // 이미 발송한 결과를 잃으면 PENDING 으로 남아 중복 발송되므로, SQLite 잠금 충돌은 잠시 후 다시 기록
+    private void record(List<NotificationService.Outcome> outcomes) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                service.recordOutcomes(outcomes);
+                return;
+            } catch (TransientDataAccessException e) {
+                if (attempt >= RECORD_RETRIES) throw e;
+                try { Thread.sleep(50L * attempt); } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    // base × 2^(attempt-1), 상한 maxBackoffMs, 50~100% 지터
+    long backoffMs(int attempt) {
+        long base = Math.max(1, cfg.getBaseBackoffMs());
+        long exp = base << Math.min(30, Math.max(0, attempt - 1));
+        long capped = Math.min(Math.max(base, cfg.getMaxBackoffMs()), exp);
+        return capped / 2 + ThreadLocalRandom.current().nextLong(capped / 2 + 1);
+    }
+
+    CircuitBreaker.State breakerState(NotificationLog.Channel channel) {
+        return breakers.get(channel).state();
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("pending", outboxRepo.countByStatus(NotificationOutbox.Status.PENDING));
+        m.put("failed", outboxRepo.countByStatus(NotificationOutbox.Status.FAILED));
+        Map<String, String> states = new LinkedHashMap<>();
+        breakers.forEach((c, b) -> states.put(c.name(), b.state().name()));
+        m.put("breakers", states);
+        return m;
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.dbids.modules.notify;
+
+import com.example.dbids.sqlite.model.NotificationLog;
+
+import java.util.Set;
+
+/** 아웃박스 적재 알림(커밋 후 채널 워커를 깨우는 용도) */
+public record NotificationEnqueued(Set<NotificationLog.Channel> channels) {}
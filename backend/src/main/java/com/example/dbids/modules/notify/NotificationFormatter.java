@@ -31,5 +31,26 @@ public class NotificationFormatter {
         return sb.toString();
     }
 
+    public String digestSubject(AlertDigest d) {
+        return "[DB-IDS] [" + d.severity() + "] " + d.headline();
+    }
+
+    public String digestBody(AlertDigest d, DetectionEvent last, QueryLog log) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("🚨 DB-IDS Detection Digest\n\n")
+                .append(d.headline()).append("\n\n")
+                .append("Type          : ").append(d.type()).append('\n')
+                .append("Severity      : ").append(d.severity()).append('\n')
+                .append("Rule          : ").append(d.rule()).append('\n')
+                .append("Last Event ID : ").append(last.getId()).append('\n')
+                .append("Last Log ID   : ").append(last.getLogId()).append('\n')
+                .append("Last Time     : ").append(last.getOccurredAt()).append('\n');
+
+        if (log != null) {
+            sb.append("\nLast SQL Summary:\n").append(nz(log.getSqlSummary(), "-")).append('\n');
+        }
+        return sb.toString();
+    }
+
     private static String nz(String s, String d) { return (s == null || s.isBlank()) ? d : s; }
 }
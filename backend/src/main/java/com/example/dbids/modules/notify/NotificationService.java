@@ -3,20 +3,48 @@ package com.example.dbids.modules.notify;
 
 import com.example.dbids.modules.auth.CurrentAdminEmailResolver;
 import com.example.dbids.sqlite.model.DetectionEvent;
+import com.example.dbids.sqlite.model.NotificationDigestMember;
 import com.example.dbids.sqlite.model.NotificationLog;
+import com.example.dbids.sqlite.model.NotificationOutbox;
 import com.example.dbids.sqlite.model.QueryLog;
+import com.example.dbids.sqlite.repository.NotificationDigestMemberRepository;
 import com.example.dbids.sqlite.repository.NotificationLogRepository;
+import com.example.dbids.sqlite.repository.NotificationOutboxRepository;
 import com.example.dbids.sqlite.repository.QueryLogRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
-import java.util.Optional;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
+/**
+ * 알림 적재/발송.
+ * - onEvent: 탐지 트랜잭션(sqliteTx) 안에서 채널별 아웃박스 1행만 기록(외부 호출 없음)
+ *   같은 (유형, 심각도, 사용자, 규칙) 반복 알림은 창 단위 묶음 1건으로 합침
+ * - deliverAsync/recordOutcomes: NotificationDispatcher 의 채널 워커가 호출(발송, 결과를 notification_log 에 기록)
+ */
 @Service
 public class NotificationService {
 
+    /** 워커 발송 결과: error == null 이면 성공, retryAt < 0 이면 재시도 소진. attempt 는 이번 시도 번호 */
+    public record Outcome(NotificationOutbox job, int attempt, Exception error, long retryAt) {
+        public static Outcome sent(NotificationOutbox job) { return new Outcome(job, job.getAttempts() + 1, null, -1); }
+        public static Outcome retry(NotificationOutbox job, Exception e, long retryAt) {
+            return new Outcome(job, job.getAttempts() + 1, e, retryAt);
+        }
+        public static Outcome failed(NotificationOutbox job, Exception e) { return new Outcome(job, job.getAttempts() + 1, e, -1); }
+        /** 회로가 열린 뒤의 실패: 시도 횟수를 소모하지 않고 재예약 */
+        public static Outcome deferred(NotificationOutbox job, Exception e, long retryAt) {
+            return new Outcome(job, job.getAttempts(), e, retryAt);
+        }
+    }
+
     private final EmailSender emailSender;
     private final SlackSender slackSender;
     private final NotificationFormatter mailFmt;
@@ -24,6 +52,9 @@ public class NotificationService {
     private final CurrentAdminEmailResolver currentAdmin;
     private final QueryLogRepository logRepo;
     private final NotificationLogRepository notifRepo;
+    private final NotificationOutboxRepository outboxRepo;
+    private final NotificationDigestMemberRepository memberRepo;
+    private final ApplicationEventPublisher events;
     private final NotifierProperties props;
 
     public NotificationService(EmailSender emailSender,
@@ -33,6 +64,9 @@ public class NotificationService {
             CurrentAdminEmailResolver currentAdmin,
             QueryLogRepository logRepo,
             NotificationLogRepository notifRepo,
+            NotificationOutboxRepository outboxRepo,
+            NotificationDigestMemberRepository memberRepo,
+            ApplicationEventPublisher events,
             NotifierProperties props) {
         this.emailSender = emailSender;
         this.slackSender = slackSender;
@@ -41,57 +75,190 @@ public class NotificationService {
         this.currentAdmin = currentAdmin;
         this.logRepo = logRepo;
         this.notifRepo = notifRepo;
+        this.outboxRepo = outboxRepo;
+        this.memberRepo = memberRepo;
+        this.events = events;
         this.props = props;
     }
 
-    /** sqliteTx로 묶어서 로그까지 한 트랜잭션으로 남김 */
+    /** 호출한 탐지기의 sqliteTx 에 합류해 이벤트와 함께 아웃박스를 커밋(발송은 커밋 후 워커가) */
     @Transactional("sqliteTx")
     public void onEvent(DetectionEvent ev) {
-        Optional<QueryLog> logOpt = logRepo.findById(ev.getLogId());
-        QueryLog log = logOpt.orElse(null);
+        onEvent(ev, null);
+    }
+
+    /**
+     * rule: 탐지 규칙 ID(PATTERN 규칙 / AuthZ 매칭 규칙). null 이면 AuthZ 스냅샷의 RULE= 에서 찾고, 없으면 "-".
+     * 묶음(digest)이 켜져 있으면 (유형, 심각도, 사용자, 규칙) 별로 창당 1건만 발송한다.
+     * - 창 안 첫 알림: 즉시 발송 행
+     * - 이후 알림: 창이 끝나는 시각에 발송될 대기 행 1개에 합쳐짐(구성원 기록, 본문은 묶음 포맷으로 갱신)
+     */
+    @Transactional("sqliteTx")
+    public void onEvent(DetectionEvent ev, String rule) {
+        // 요청 스레드에서 호출된 경우에만 관리자 수신자가 잡힘(워커 스레드면 null → to-default)
+        onEvent(ev, rule, logRepo.findById(ev.getLogId()).orElse(null), currentAdmin.resolveNotifyEmailOrNull());
+    }
+
+    /**
+     * 수집 파이프라인처럼 로그 엔티티를 이미 들고 있는 호출자용: 로그 재조회 없이 적재.
+     * recipient: 이메일 수신자(null 이면 to-default). 요청 컨텍스트(헤더/세션)는 요청 스레드에만 있으므로
+     * 호출자가 요청 스레드에서 CurrentAdminEmailResolver 로 정해 넘긴다.
+     */
+    @Transactional("sqliteTx")
+    public void onEvent(DetectionEvent ev, String rule, QueryLog log, String recipient) {
 
+        long nowMs = System.currentTimeMillis();
         String now = Instant.now().toString();
+        Set<NotificationLog.Channel> queued = EnumSet.noneOf(NotificationLog.Channel.class);
+
+        NotifierProperties.Digest dcfg = props.getDigest();
+        String user = (log != null && log.getUserId() != null) ? log.getUserId() : "-";
+        String ruleId = resolveRule(ev, rule);
+        String key = dcfg.isEnabled() ? digestKey(ev, user, ruleId) : null;
 
         // ---- Email ----
         if (props.getEmail().isEnabled()) {
-            String subject = mailFmt.emailSubject(ev, log);
-            String body    = mailFmt.emailBody(ev, log);
-            try {
-                String to = currentAdmin.resolveNotifyEmailOrNull();
-                if (to != null && !to.isBlank()) emailSender.sendTo(subject, body, to);
-                else                               emailSender.send(subject, body);
-
-                notifRepo.save(new NotificationLog(
-                        java.util.UUID.randomUUID().toString(), ev.getId(),
-                        NotificationLog.Channel.EMAIL, NotificationLog.Status.SENT,
-                        null, null, now   // error_code, error_message, sent_at
-                ));
-            } catch (Exception e) {
-                notifRepo.save(new NotificationLog(
-                        java.util.UUID.randomUUID().toString(), ev.getId(),
-                        NotificationLog.Channel.EMAIL, NotificationLog.Status.FAILED,
-                        e.getClass().getSimpleName(), shortMsg(e), now
+            String to = recipient;
+            NotificationOutbox last = latest(NotificationLog.Channel.EMAIL, key);
+            if (!coalesce(last, ev, log, user, ruleId, nowMs)) {
+                long due = dueAt(last, nowMs);
+                outboxRepo.save(new NotificationOutbox(
+                        UUID.randomUUID().toString(), ev.getId(), NotificationLog.Channel.EMAIL,
+                        (to == null || to.isBlank()) ? null : to,
+                        mailFmt.emailSubject(ev, log), mailFmt.emailBody(ev, log), due, now, key
                 ));
+                if (due <= nowMs) queued.add(NotificationLog.Channel.EMAIL);
             }
         }
 
         // ---- Slack ----
         if (props.getSlack().isEnabled()) {
-            String text = slackFmt.text(ev, log);
-            try {
-                if (text != null && !text.isBlank()) slackSender.send(text);
-                notifRepo.save(new NotificationLog(
-                        java.util.UUID.randomUUID().toString(), ev.getId(),
-                        NotificationLog.Channel.SLACK, NotificationLog.Status.SENT,
-                        null, null, now
-                ));
-            } catch (Exception e) {
-                notifRepo.save(new NotificationLog(
-                        java.util.UUID.randomUUID().toString(), ev.getId(),
-                        NotificationLog.Channel.SLACK, NotificationLog.Status.FAILED,
-                        e.getClass().getSimpleName(), shortMsg(e), now
+            NotificationOutbox last = latest(NotificationLog.Channel.SLACK, key);
+            if (!coalesce(last, ev, log, user, ruleId, nowMs)) {
+                long due = dueAt(last, nowMs);
+                String text = slackFmt.text(ev, log);
+                outboxRepo.save(new NotificationOutbox(
+                        UUID.randomUUID().toString(), ev.getId(), NotificationLog.Channel.SLACK,
+                        null, null, text == null ? "" : text, due, now, key
                 ));
+                if (due <= nowMs) queued.add(NotificationLog.Channel.SLACK);
+            }
+        }
+
+        // 창 끝으로 미룬 행은 워커 폴링이 기한에 꺼내므로 깨우지 않음
+        if (!queued.isEmpty()) events.publishEvent(new NotificationEnqueued(queued));
+    }
+
+    private NotificationOutbox latest(NotificationLog.Channel channel, String key) {
+        if (key == null) return null;
+        return outboxRepo.findFirstByChannelAndDigestKeyOrderByScheduledAtDesc(channel, key).orElse(null);
+    }
+
+    // 아직 발송 기한이 오지 않은(시도 0회) 같은 키 행이 있으면 그 행에 합침
+    private boolean coalesce(NotificationOutbox open, DetectionEvent ev, QueryLog log,
+                             String user, String rule, long nowMs) {
+        if (open == null || open.getStatus() != NotificationOutbox.Status.PENDING
+                || open.getAttempts() > 0 || open.getNextAttemptAt() <= nowMs) {
+            return false;
+        }
+        open.setEventCount(open.getEventCount() + 1);
+        AlertDigest d = new AlertDigest(ev.getEventType(), ev.getSeverity(), user, rule,
+                open.getEventCount(), props.getDigest().getWindowSeconds());
+        if (open.getChannel() == NotificationLog.Channel.EMAIL) {
+            open.setContent(mailFmt.digestSubject(d), mailFmt.digestBody(d, ev, log));
+        } else {
+            open.setContent(null, slackFmt.digestText(d, ev, log));
+        }
+        outboxRepo.save(open);
+        memberRepo.save(new NotificationDigestMember(UUID.randomUUID().toString(), open.getId(), ev.getId()));
+        return true;
+    }
+
+    // 같은 키로 최근 창 안에 이미 예약된 행이 있으면 그 창이 끝나는 시각, 아니면 즉시
+    private long dueAt(NotificationOutbox last, long nowMs) {
+        if (last == null) return nowMs;
+        long windowMs = Math.max(0, props.getDigest().getWindowSeconds()) * 1000L;
+        return Math.max(nowMs, last.getScheduledAt() + windowMs);
+    }
+
+    private static String digestKey(DetectionEvent ev, String user, String rule) {
+        return ev.getEventType() + "|" + ev.getSeverity() + "|" + user + "|" + rule;
+    }
+
+    // AuthZ 스냅샷 형식: "<사유> RULE=<규칙> SQL=<정규화 SQL>"
+    private static String resolveRule(DetectionEvent ev, String rule) {
+        if (rule != null && !rule.isBlank()) return rule;
+        String snap = ev.getSqlRaw();
+        if (ev.getEventType() == DetectionEvent.Type.AUTHZ && snap != null) {
+            int i = snap.indexOf(" RULE=");
+            if (i >= 0) {
+                int from = i + " RULE=".length();
+                int to = snap.indexOf(" SQL=", from);
+                String r = (to < 0 ? snap.substring(from) : snap.substring(from, to)).trim();
+                if (!r.isEmpty()) return r;
+            }
+        }
+        return "-";
+    }
+
+    /**
+     * 아웃박스 1건 발송 시작(채널 워커 스레드). 결과는 future 로 전달(실패는 예외 완료):
+     * 워커가 배치 전체를 띄운 뒤 한꺼번에 기다리므로 Slack 은 대기열에서, 이메일은 SMTP 풀 연결마다 묶여 나간다
+     */
+    public CompletableFuture<Void> deliverAsync(NotificationOutbox job) {
+        try {
+            return switch (job.getChannel()) {
+                case EMAIL -> (job.getRecipient() != null)
+                        ? emailSender.sendToAsync(job.getSubject(), job.getBody(), job.getRecipient())
+                        : emailSender.sendAsync(job.getSubject(), job.getBody());
+                case SLACK -> (job.getBody() != null && !job.getBody().isBlank())
+                        ? slackSender.sendAsync(job.getBody())
+                        : CompletableFuture.completedFuture(null);
+            };
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * 워커 배치 1회분 결과를 한 트랜잭션으로 기록: 아웃박스 상태 갱신 + 최종 결과는 notification_log.
+     * 같은 결과로 다시 호출해도 상태가 같도록(잠금 충돌 재시도 대비) 시도 번호는 Outcome 값으로 덮어쓴다.
+     * 묶음 행이면 구성 이벤트마다 notification_log 1행(digest_id = 아웃박스 ID)을 남긴다.
+     */
+    @Transactional("sqliteTx")
+    public void recordOutcomes(List<Outcome> outcomes) {
+        String now = Instant.now().toString();
+        for (Outcome o : outcomes) {
+            NotificationOutbox job = o.job();
+            job.setAttempts(o.attempt());
+            if (o.error() == null) {
+                job.setStatus(NotificationOutbox.Status.SENT);
+                job.setLastError(null);
+                logFinal(job, NotificationLog.Status.SENT, null, null, now);
+            } else if (o.retryAt() >= 0) {
+                job.setNextAttemptAt(o.retryAt());
+                job.setLastError(shortMsg(o.error()));
+            } else {
+                job.setStatus(NotificationOutbox.Status.FAILED);
+                job.setLastError(shortMsg(o.error()));
+                logFinal(job, NotificationLog.Status.FAILED,
+                        o.error().getClass().getSimpleName(), shortMsg(o.error()), now);
             }
+            outboxRepo.save(job);
+        }
+    }
+
+    private void logFinal(NotificationOutbox job, NotificationLog.Status status,
+                          String errorCode, String errorMessage, String now) {
+        String digestId = job.isDigest() ? job.getId() : null;
+        List<String> eventIds = new ArrayList<>();
+        eventIds.add(job.getEventId());
+        if (job.isDigest()) eventIds.addAll(memberRepo.findEventIds(job.getId()));
+        for (String eventId : eventIds) {
+            notifRepo.save(new NotificationLog(
+                    UUID.randomUUID().toString(), eventId, job.getChannel(), status,
+                    errorCode, errorMessage, now, digestId   // error_code, error_message, sent_at, digest_id
+            ));
         }
     }
 
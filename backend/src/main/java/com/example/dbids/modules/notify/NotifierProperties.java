@@ -12,6 +12,8 @@ public class NotifierProperties {
 
     private Email email = new Email();
     private Slack slack = new Slack();
+    private Outbox outbox = new Outbox();
+    private Digest digest = new Digest();
 
     public String getSeverityThreshold() { return severityThreshold; }
     public void setSeverityThreshold(String severityThreshold) { this.severityThreshold = severityThreshold; }
@@ -19,6 +21,10 @@ public class NotifierProperties {
     public void setEmail(Email email) { this.email = email; }
     public Slack getSlack() { return slack; }
     public void setSlack(Slack slack) { this.slack = slack; }
+    public Outbox getOutbox() { return outbox; }
+    public void setOutbox(Outbox outbox) { this.outbox = outbox; }
+    public Digest getDigest() { return digest; }
+    public void setDigest(Digest digest) { this.digest = digest; }
 
     // ---- Email ----
     public static class Email {
@@ -31,6 +37,12 @@ public class NotifierProperties {
         private boolean starttls = false;
         private boolean ssl = false;
         private boolean enabled = true;
+        /** SMTP 세션 풀: 유지할 연결 수(0 이면 풀 없이 알림마다 JavaMailSender.send) */
+        private int poolSize = 2;
+        /** 연결 1개가 한 번에 꺼내 연속 발송할 최대 메시지 수 */
+        private int batchSize = 20;
+        /** 이 시간(ms) 동안 쓰이지 않은 연결은 닫음(서버 유휴 타임아웃 전에) */
+        private long idleCloseMs = 30_000;
 
         public String getHost() { return host; }
         public void setHost(String host) { this.host = host; }
@@ -50,6 +62,12 @@ public class NotifierProperties {
         public void setSsl(boolean ssl) { this.ssl = ssl; }
         public boolean isEnabled() { return enabled; }
         public void setEnabled(boolean enabled) { this.enabled = enabled; }
+        public int getPoolSize() { return poolSize; }
+        public void setPoolSize(int poolSize) { this.poolSize = poolSize; }
+        public int getBatchSize() { return batchSize; }
+        public void setBatchSize(int batchSize) { this.batchSize = batchSize; }
+        public long getIdleCloseMs() { return idleCloseMs; }
+        public void setIdleCloseMs(long idleCloseMs) { this.idleCloseMs = idleCloseMs; }
     }
 
     // ---- Slack ----
@@ -65,6 +83,13 @@ public class NotifierProperties {
         /** 유저명/아이콘 이모지(선택) */
         private String username;
         private String iconEmoji;
+        /** 동시에 진행할 웹훅 요청 수 상한 */
+        private int maxInFlight = 4;
+        /** 토큰 버킷: 초당 발송 수(Slack 웹훅 권장 1/s)와 순간 허용량 */
+        private double ratePerSecond = 1.0;
+        private int burst = 3;
+        /** 속도 제한으로 밀린 메시지를 한 요청에 합칠 최대 개수(1 이면 합치지 않음) */
+        private int batchMax = 10;
 
         public String getWebhookUrl() { return webhookUrl; }
         public void setWebhookUrl(String webhookUrl) { this.webhookUrl = webhookUrl; }
@@ -78,5 +103,61 @@ public class NotifierProperties {
         public void setUsername(String username) { this.username = username; }
         public String getIconEmoji() { return iconEmoji; }
         public void setIconEmoji(String iconEmoji) { this.iconEmoji = iconEmoji; }
+        public int getMaxInFlight() { return maxInFlight; }
+        public void setMaxInFlight(int maxInFlight) { this.maxInFlight = maxInFlight; }
+        public double getRatePerSecond() { return ratePerSecond; }
+        public void setRatePerSecond(double ratePerSecond) { this.ratePerSecond = ratePerSecond; }
+        public int getBurst() { return burst; }
+        public void setBurst(int burst) { this.burst = burst; }
+        public int getBatchMax() { return batchMax; }
+        public void setBatchMax(int batchMax) { this.batchMax = batchMax; }
+    }
+
+    // ---- Outbox (비동기 발송) ----
+    public static class Outbox {
+        /** 채널 워커 구동 여부(false 면 적재만 하고 발송하지 않음) */
+        private boolean workersEnabled = true;
+        /** 깨우기 신호가 없을 때의 폴링 주기(ms) */
+        private long pollMs = 1000;
+        /** 한 번에 꺼내 처리할 최대 행 수 */
+        private int batchSize = 50;
+        /** 최대 시도 횟수(초과 시 FAILED 확정) */
+        private int maxAttempts = 6;
+        /** 지수 백오프 기본/상한(ms) */
+        private long baseBackoffMs = 2000;
+        private long maxBackoffMs = 300_000;
+        /** 연속 실패 N회 → 채널 회로 차단, openMs 후 1건 시험 발송 */
+        private int breakerFailureThreshold = 5;
+        private long breakerOpenMs = 30_000;
+
+        public boolean isWorkersEnabled() { return workersEnabled; }
+        public void setWorkersEnabled(boolean workersEnabled) { this.workersEnabled = workersEnabled; }
+        public long getPollMs() { return pollMs; }
+        public void setPollMs(long pollMs) { this.pollMs = pollMs; }
+        public int getBatchSize() { return batchSize; }
+        public void setBatchSize(int batchSize) { this.batchSize = batchSize; }
+        public int getMaxAttempts() { return maxAttempts; }
+        public void setMaxAttempts(int maxAttempts) { this.maxAttempts = maxAttempts; }
+        public long getBaseBackoffMs() { return baseBackoffMs; }
+        public void setBaseBackoffMs(long baseBackoffMs) { this.baseBackoffMs = baseBackoffMs; }
+        public long getMaxBackoffMs() { return maxBackoffMs; }
+        public void setMaxBackoffMs(long maxBackoffMs) { this.maxBackoffMs = maxBackoffMs; }
+        public int getBreakerFailureThreshold() { return breakerFailureThreshold; }
+        public void setBreakerFailureThreshold(int breakerFailureThreshold) { this.breakerFailureThreshold = breakerFailureThreshold; }
+        public long getBreakerOpenMs() { return breakerOpenMs; }
+        public void setBreakerOpenMs(long breakerOpenMs) { this.breakerOpenMs = breakerOpenMs; }
+    }
+
+    // ---- Digest (알림 묶음) ----
+    public static class Digest {
+        /** (유형, 심각도, 사용자, 규칙) 이 같은 알림을 창 단위로 묶을지 여부 */
+        private boolean enabled = true;
+        /** 묶음 창(초): 첫 알림은 즉시, 창 안의 후속 알림은 창이 끝날 때 1건으로 발송 */
+        private int windowSeconds = 60;
+
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+        public int getWindowSeconds() { return windowSeconds; }
+        public void setWindowSeconds(int windowSeconds) { this.windowSeconds = windowSeconds; }
     }
 }
@@ -35,6 +35,26 @@ public class SlackFormatter {
         return sb.toString();
     }
 
+    /** 묶음 알림: 헤드라인("42 x 규칙 from user X in 60s") + 마지막 이벤트 요약 */
+    public String digestText(AlertDigest d, DetectionEvent last, QueryLog log) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(":rotating_light: *DB-IDS Detection Digest* :rotating_light:\n")
+                .append("*").append(d.headline()).append("*\n")
+                .append("*Severity*: ").append(d.severity()).append("  ")
+                .append("*Type*: ").append(d.type()).append('\n')
+                .append("*Last Event ID*: ").append(last.getId()).append("  ")
+                .append("*Log ID*: ").append(last.getLogId()).append('\n')
+                .append("*Last Time*: ").append(last.getOccurredAt()).append('\n');
+
+        if (log != null) {
+            String summary = nz(log.getSqlSummary(), "-");
+            if (!summary.equals("-")) {
+                sb.append("\n*Last SQL Summary:*\n```").append(cut(summary, 1000)).append("```\n");
+            }
+        }
+        return sb.toString();
+    }
+
     private static String nz(String s, String d) { return (s == null || s.isBlank()) ? d : s; }
     private static String cut(String s, int max) {
         if (s == null) return "";
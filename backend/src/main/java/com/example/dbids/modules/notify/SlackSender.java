@@ -1,44 +1,208 @@
 package com.example.dbids.modules.notify;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
 import org.springframework.stereotype.Component;
 
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Slack Incoming Webhook 비동기 발송.
+ * - sendAsync: 대기열에 넣고 즉시 CompletableFuture 반환(호출 스레드는 막히지 않음)
+ * - HttpClient 1개 공유(연결 재사용), 동시 요청 maxInFlight 개 제한
+ * - 토큰 버킷 속도 제한, 429 응답은 Retry-After 만큼 전체 발송을 멈춘 뒤 같은 메시지를 다시 보냄
+ * - 속도 제한으로 밀린 메시지는 한 요청에 최대 batchMax 개까지 합쳐 보냄(웹훅은 요청당 메시지 1개)
+ * - 페이로드는 Jackson 으로 직렬화(제어 문자 포함 이스케이프)
+ */
 @Component
 public class SlackSender {
+
+    private static final int MAX_RATE_LIMITED_RETRIES = 3;
+    private static final long DEFAULT_RETRY_AFTER_MS = 1000;
+    private static final int MAX_BATCH_CHARS = 3500;      // Slack 권장 text 길이(4000자) 이내로 합침
+    private static final String BATCH_SEPARATOR = "\n\n";
+
     private final NotifierProperties props;
-    private final HttpClient client = HttpClient.newHttpClient();
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final HttpClient client;
+    private final TokenBucket bucket;
+    private final ScheduledExecutorService timer;
+
+    // 아래 상태는 this 로 보호
+    private final Deque<Pending> queue = new ArrayDeque<>();
+    private int inFlight;
+    private boolean pumpScheduled;
 
-    public SlackSender(NotifierProperties props) { this.props = props; }
+    public SlackSender(NotifierProperties props) {
+        this.props = props;
+        var cfg = props.getSlack();
+        this.client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(Math.max(1, cfg.getTimeoutMs())))
+                .build();
+        this.bucket = new TokenBucket(cfg.getRatePerSecond(), cfg.getBurst(), System.currentTimeMillis());
+        this.timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "slack-sender");
+            t.setDaemon(true);
+            return t;
+        });
+    }
 
+    @PreDestroy
+    public void stop() {
+        timer.shutdownNow();
+    }
+
+    /** 블로킹 발송(채널 워커용). 실패는 RuntimeException 으로 전달 */
     public void send(String text) {
+        try {
+            sendAsync(text).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new RuntimeException("SLACK_WEBHOOK_ERROR: " + e.getCause(), e.getCause());
+        }
+    }
+
+    /** 비동기 발송. 꺼져 있으면 즉시 완료, 웹훅 URL 이 없으면 IllegalStateException 으로 실패한 future */
+    public CompletableFuture<Void> sendAsync(String text) {
         var cfg = props.getSlack();
-        if (!cfg.isEnabled()) return;
+        if (!cfg.isEnabled()) return CompletableFuture.completedFuture(null);
         if (cfg.getWebhookUrl() == null || cfg.getWebhookUrl().isBlank())
-            throw new IllegalStateException("dbids.notifier.slack.webhook-url is not set");
+            return CompletableFuture.failedFuture(new IllegalStateException("dbids.notifier.slack.webhook-url is not set"));
+
+        Pending p = new Pending(text == null ? "" : text);
+        synchronized (this) {
+            queue.addLast(p);
+        }
+        pump();
+        return p.future;
+    }
+
+    // 동시 요청/토큰이 허락하는 만큼 대기열을 비움. 토큰이 없으면 다음 토큰 시각에 다시 시도
+    private void pump() {
+        List<List<Pending>> ready = new ArrayList<>();
+        synchronized (this) {
+            var cfg = props.getSlack();
+            while (!queue.isEmpty() && inFlight < Math.max(1, cfg.getMaxInFlight())) {
+                long now = System.currentTimeMillis();
+                if (!bucket.tryTake(now)) {
+                    if (!pumpScheduled && !timer.isShutdown()) {
+                        pumpScheduled = true;
+                        timer.schedule(this::scheduledPump, Math.max(1, bucket.waitMs(now)), TimeUnit.MILLISECONDS);
+                    }
+                    break;
+                }
+                ready.add(takeBatch(Math.max(1, cfg.getBatchMax())));
+                inFlight++;
+            }
+        }
+        for (List<Pending> batch : ready) post(batch);
+    }
 
-        String payload = "{\"text\":" + json(text) + "}";
+    private void scheduledPump() {
+        synchronized (this) {
+            pumpScheduled = false;
+        }
+        pump();
+    }
 
+    private List<Pending> takeBatch(int max) {
+        List<Pending> batch = new ArrayList<>();
+        Pending first = queue.pollFirst();
+        batch.add(first);
+        int chars = first.text.length();
+        while (batch.size() < max && !queue.isEmpty()) {
+            Pending next = queue.peekFirst();
+            if (chars + BATCH_SEPARATOR.length() + next.text.length() > MAX_BATCH_CHARS) break;
+            chars += BATCH_SEPARATOR.length() + next.text.length();
+            batch.add(queue.pollFirst());
+        }
+        return batch;
+    }
+
+    private void post(List<Pending> batch) {
+        HttpRequest req;
         try {
-            HttpRequest req = HttpRequest.newBuilder()
-                    .uri(URI.create(cfg.getWebhookUrl()))
+            StringBuilder text = new StringBuilder();
+            for (Pending p : batch) {
+                if (!text.isEmpty()) text.append(BATCH_SEPARATOR);
+                text.append(p.text);
+            }
+            req = HttpRequest.newBuilder()
+                    .uri(URI.create(props.getSlack().getWebhookUrl()))
+                    .timeout(Duration.ofMillis(Math.max(1, props.getSlack().getTimeoutMs())))
                     .header("Content-Type", "application/json; charset=utf-8")
-                    .POST(HttpRequest.BodyPublishers.ofString(payload))
+                    .POST(HttpRequest.BodyPublishers.ofString(mapper.writeValueAsString(Map.of("text", text.toString()))))
                     .build();
-            HttpResponse<String> resp = client.send(req, HttpResponse.BodyHandlers.ofString());
-            if (resp.statusCode() < 200 || resp.statusCode() >= 300) {
-                throw new RuntimeException("SLACK_WEBHOOK_HTTP_" + resp.statusCode() + ": " + resp.body());
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            onResponse(batch, null, e);
+            return;
+        }
+        client.sendAsync(req, HttpResponse.BodyHandlers.ofString())
+                .whenComplete((resp, err) -> onResponse(batch, resp, err));
+    }
+
+    private void onResponse(List<Pending> batch, HttpResponse<String> resp, Throwable err) {
+        synchronized (this) {
+            inFlight--;
+        }
+        if (err != null) {
+            Throwable cause = (err instanceof CompletionException && err.getCause() != null) ? err.getCause() : err;
+            fail(batch, new RuntimeException("SLACK_WEBHOOK_ERROR: " + cause.getMessage(), cause));
+        } else if (resp.statusCode() == 429) {
+            bucket.pauseUntil(System.currentTimeMillis() + retryAfterMs(resp));
+            List<Pending> retry = new ArrayList<>();
+            for (Pending p : batch) {
+                if (++p.rateLimited > MAX_RATE_LIMITED_RETRIES) {
+                    p.future.completeExceptionally(new RuntimeException("SLACK_WEBHOOK_HTTP_429: " + resp.body()));
+                } else {
+                    retry.add(p);
+                }
             }
-        } catch (Exception e) {
-            throw new RuntimeException("SLACK_WEBHOOK_ERROR: " + e.getMessage(), e);
+            synchronized (this) {
+                for (int i = retry.size() - 1; i >= 0; i--) queue.addFirst(retry.get(i));   // 순서 유지
+            }
+        } else if (resp.statusCode() < 200 || resp.statusCode() >= 300) {
+            fail(batch, new RuntimeException("SLACK_WEBHOOK_HTTP_" + resp.statusCode() + ": " + resp.body()));
+        } else {
+            for (Pending p : batch) p.future.complete(null);
         }
+        pump();
+    }
+
+    private static void fail(List<Pending> batch, RuntimeException e) {
+        for (Pending p : batch) p.future.completeExceptionally(e);
+    }
+
+    // Retry-After: 초 단위 정수(Slack). 없거나 형식이 다르면 1초
+    private static long retryAfterMs(HttpResponse<?> resp) {
+        return resp.headers().firstValue("Retry-After")
+                .map(v -> {
+                    try { return Math.max(0, Long.parseLong(v.trim())) * 1000L; }
+                    catch (NumberFormatException e) { return DEFAULT_RETRY_AFTER_MS; }
+                })
+                .orElse(DEFAULT_RETRY_AFTER_MS);
     }
 
-    private String json(String s) {
-        String esc = s.replace("\\","\\\\").replace("\"","\\\"").replace("\n","\\n");
-        return "\"" + esc + "\"";
+    private static final class Pending {
+        final String text;
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+        int rateLimited;
+
+        Pending(String text) { this.text = text; }
     }
 }
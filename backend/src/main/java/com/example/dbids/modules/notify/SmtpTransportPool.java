@@ -0,0 +1,218 @@
+package com.example.dbids.modules.notify;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 인증된 SMTP 세션 풀: 연결(poolSize 개)마다 전용 스레드가 대기열의 메시지를 배치로 꺼내 같은 세션으로 연속 발송.
+ * - 알림마다 새 연결 + STARTTLS + AUTH 를 반복하지 않음(연결은 idleCloseMs 동안 쓰이지 않으면 닫음)
+ * - 발송 실패 시 연결을 닫고 1회 재연결 후 같은 메시지를 다시 보냄(그래도 실패하면 해당 메시지만 실패)
+ * - 연결별 발송 수/실패/재연결/처리량 지표 제공
+ * JavaMailSender 가 JavaMailSenderImpl(설정 기반)일 때만 사용 가능(그 외에는 EmailSender 가 기존 경로로 발송).
+ */
+@Component
+public class SmtpTransportPool {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SmtpTransportPool.class);
+
+    private final JavaMailSenderImpl mail;
+    private final NotifierProperties.Email cfg;
+    private final BlockingQueue<Job> queue = new LinkedBlockingQueue<>();
+    private final List<Connection> connections = new ArrayList<>();
+    private volatile boolean running;
+
+    public SmtpTransportPool(JavaMailSender mailSender, NotifierProperties props) {
+        this.mail = (mailSender instanceof JavaMailSenderImpl impl) ? impl : null;
+        this.cfg = props.getEmail();
+    }
+
+    public boolean isAvailable() {
+        return mail != null && cfg.getPoolSize() > 0;
+    }
+
+    public MimeMessage createMimeMessage() {
+        return mail.createMimeMessage();
+    }
+
+    /** 대기열에 넣고 즉시 반환. 연결 스레드가 발송을 마치면 future 완료 */
+    public CompletableFuture<Void> submit(MimeMessage msg) {
+        if (!isAvailable()) return CompletableFuture.failedFuture(new IllegalStateException("SMTP pool is not available"));
+        startIfNeeded();
+        Job job = new Job(msg);
+        queue.add(job);
+        return job.future;
+    }
+
+    private synchronized void startIfNeeded() {
+        if (running) return;
+        running = true;
+        for (int i = 0; i < cfg.getPoolSize(); i++) {
+            Connection c = new Connection(i);
+            Thread t = new Thread(c::loop, "smtp-pool-" + i);
+            t.setDaemon(true);
+            c.thread = t;
+            connections.add(c);
+            t.start();
+        }
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        running = false;
+        for (Connection c : connections) c.thread.interrupt();
+        connections.clear();
+        Job j;
+        while ((j = queue.poll()) != null) j.future.completeExceptionally(new IllegalStateException("SMTP pool stopped"));
+    }
+
+    /** 연결별 지표: sent, failed, connects(최초 포함), reconnects, msgPerSec(발송 중 시간 기준) */
+    public synchronized List<Map<String, Object>> stats() {
+        List<Map<String, Object>> out = new ArrayList<>();
+        for (Connection c : connections) {
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("connection", c.id);
+            m.put("connected", c.transport != null);
+            m.put("sent", c.sent.get());
+            m.put("failed", c.failed.get());
+            m.put("connects", c.connects.get());
+            m.put("reconnects", c.reconnects.get());
+            long busy = c.busyNanos.get();
+            m.put("msgPerSec", busy == 0 ? 0.0 : c.sent.get() * 1e9 / busy);
+            out.add(m);
+        }
+        return out;
+    }
+
+    private final class Connection {
+        final int id;
+        Thread thread;
+        volatile Transport transport;         // 이 연결 스레드만 사용(지표 조회는 null 여부만)
+        final AtomicLong sent = new AtomicLong(), failed = new AtomicLong(),
+                connects = new AtomicLong(), reconnects = new AtomicLong(), busyNanos = new AtomicLong();
+
+        Connection(int id) { this.id = id; }
+
+        void loop() {
+            List<Job> batch = new ArrayList<>();
+            while (running) {
+                try {
+                    Job first = queue.poll(Math.max(1, cfg.getIdleCloseMs()), TimeUnit.MILLISECONDS);
+                    if (first == null) {           // 유휴 → 서버가 끊기 전에 먼저 닫음
+                        close();
+                        continue;
+                    }
+                    batch.add(first);
+                    queue.drainTo(batch, Math.max(0, cfg.getBatchSize() - 1));
+                    long t0 = System.nanoTime();
+                    for (Job j : batch) deliver(j);
+                    busyNanos.addAndGet(System.nanoTime() - t0);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    break;
+                } catch (Exception e) {
+                    LOG.warn("smtp connection {} failed: {}", id, e.toString());
+                } finally {
+                    for (Job j : batch) {
+                        if (!j.future.isDone()) j.future.completeExceptionally(new IllegalStateException("SMTP pool stopped"));
+                    }
+                    batch.clear();
+                }
+            }
+            close();
+        }
+
+        private void deliver(Job job) {
+            try {
+                sendOnce(job.msg);
+            } catch (SendFailedException rejected) {
+                // 끊긴 세션도 MAIL FROM 단계에서 SendFailedException([EOF])으로 올라오므로 연결 상태로 구분
+                if (!stillConnected()) {
+                    retryOnNewConnection(job);
+                    return;
+                }
+                // 수신자 거부 등 메시지 자체 문제 → 연결은 유지, 이 메시지만 실패
+                failed.incrementAndGet();
+                job.future.completeExceptionally(new MailSendException("SMTP send failed: " + rejected.getMessage(), rejected));
+                return;
+            } catch (MessagingException first) {
+                retryOnNewConnection(job);
+                return;
+            }
+            sent.incrementAndGet();
+            job.future.complete(null);
+        }
+
+        // 실패 경로에서만 호출(NOOP 왕복)
+        private boolean stillConnected() {
+            Transport t = transport;
+            return t != null && t.isConnected();
+        }
+
+        // 서버가 끊은 세션 등 → 연결을 새로 맺고 한 번 더
+        private void retryOnNewConnection(Job job) {
+            close();
+            reconnects.incrementAndGet();
+            try {
+                sendOnce(job.msg);
+            } catch (MessagingException e) {
+                close();
+                failed.incrementAndGet();
+                job.future.completeExceptionally(new MailSendException("SMTP send failed: " + e.getMessage(), e));
+                return;
+            }
+            sent.incrementAndGet();
+            job.future.complete(null);
+        }
+
+        private void sendOnce(MimeMessage msg) throws MessagingException {
+            // isConnected() 는 SMTP NOOP 왕복이므로 매번 확인하지 않고, 끊긴 연결은 발송 실패 → 재연결로 처리
+            if (transport == null) connect();
+            if (msg.getSentDate() == null) msg.setSentDate(new Date());
+            msg.saveChanges();
+            transport.sendMessage(msg, msg.getAllRecipients());
+        }
+
+        private void connect() throws MessagingException {
+            close();
+            Transport t = mail.getSession().getTransport(mail.getProtocol() == null ? "smtp" : mail.getProtocol());
+            String user = mail.getUsername(), pass = mail.getPassword();
+            t.connect(mail.getHost(), mail.getPort(), (user == null || user.isBlank()) ? null : user,
+                    (user == null || user.isBlank()) ? null : pass);
+            transport = t;
+            connects.incrementAndGet();
+        }
+
+        private void close() {
+            if (transport == null) return;
+            try { transport.close(); } catch (Exception ignore) { /* 이미 끊김 */ }
+            transport = null;
+        }
+    }
+
+    private static final class Job {
+        final MimeMessage msg;
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        Job(MimeMessage msg) { this.msg = msg; }
+    }
+}
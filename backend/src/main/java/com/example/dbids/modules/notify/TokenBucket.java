@@ -0,0 +1,47 @@
+package com.example.dbids.modules.notify;
+
+/**
+ * 토큰 버킷 발송 속도 제한: 초당 ratePerSecond 개 충전, 최대 burst 개 적립.
+ * 서버가 429(Retry-After)로 응답하면 pauseUntil 까지 토큰을 내주지 않고, 재개 시점에는 1개만 가진 채 시작한다.
+ */
+final class TokenBucket {
+
+    private final double perMs;
+    private final double capacity;
+    private double tokens;
+    private long last;
+
+    TokenBucket(double ratePerSecond, int burst, long now) {
+        this.perMs = Math.max(1e-6, ratePerSecond) / 1000.0;
+        this.capacity = Math.max(1, burst);
+        this.tokens = capacity;
+        this.last = now;
+    }
+
+    synchronized boolean tryTake(long now) {
+        if (now < last) return false;                      // 일시 정지 중
+        refill(now);
+        if (tokens < 1.0) return false;
+        tokens -= 1.0;
+        return true;
+    }
+
+    /** 다음 토큰까지 남은 시간(ms). 지금 가능하면 0 */
+    synchronized long waitMs(long now) {
+        refill(now);
+        if (now < last) return last - now;                 // 일시 정지 중
+        return tokens >= 1.0 ? 0 : (long) Math.ceil((1.0 - tokens) / perMs);
+    }
+
+    synchronized void pauseUntil(long until) {
+        if (until <= last) return;
+        tokens = Math.min(tokens, 1.0);
+        last = until;
+    }
+
+    private void refill(long now) {
+        if (now <= last) return;
+        tokens = Math.min(capacity, tokens + (now - last) * perMs);
+        last = now;
+    }
+}
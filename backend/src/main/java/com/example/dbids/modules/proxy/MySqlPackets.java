@@ -0,0 +1,263 @@
+package com.example.dbids.modules.proxy;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * MySQL 클라이언트/서버 프로토콜 패킷 유틸(프록시가 쓰는 부분만).
+ * 패킷 = 3바이트 길이(LE) + 1바이트 시퀀스 + 페이로드. 버퍼는 [헤더 4바이트 | 페이로드] 그대로 두고
+ * 오프셋으로만 읽어 그대로 전달한다(복사 없음).
+ */
+final class MySqlPackets {
+
+    private MySqlPackets() {}
+
+    static final int HEADER = 4;
+    /** 이 길이의 패킷 뒤에는 같은 페이로드의 이어지는 패킷이 온다(시퀀스 != 0) */
+    static final int MAX_PAYLOAD = 0xFFFFFF;
+
+    // 커맨드
+    static final int COM_QUIT         = 0x01;
+    static final int COM_QUERY        = 0x03;
+    static final int COM_CHANGE_USER  = 0x11;
+    static final int COM_STMT_PREPARE = 0x16;
+
+    // capability flags
+    static final int CLIENT_PROTOCOL_41       = 0x0000_0200;
+    static final int CLIENT_SSL               = 0x0000_0800;
+    static final int CLIENT_COMPRESS          = 0x0000_0020;
+    static final int CLIENT_QUERY_ATTRIBUTES  = 0x0800_0000;
+
+    /** SSLRequest 페이로드 길이(캐퍼빌리티/최대 패킷/문자셋/예약 23바이트) */
+    static final int SSL_REQUEST_LEN = 32;
+
+    /** 재사용 버퍼: 패킷 하나를 [0, HEADER + length) 에 담는다 */
+    static final class Packet {
+        byte[] buf = new byte[16 * 1024];
+        int length;     // 페이로드 길이
+        int seq;
+
+        int size() { return HEADER + length; }
+        int u8(int payloadOff) { return buf[HEADER + payloadOff] & 0xFF; }
+    }
+
+    /** 패킷 하나를 읽는다. 스트림이 패킷 경계에서 끝나면 false */
+    static boolean read(InputStream in, Packet p) throws IOException {
+        int n = in.readNBytes(p.buf, 0, HEADER);
+        if (n == 0) return false;
+        if (n < HEADER) throw new EOFException("truncated packet header");
+        p.length = (p.buf[0] & 0xFF) | (p.buf[1] & 0xFF) << 8 | (p.buf[2] & 0xFF) << 16;
+        p.seq = p.buf[3] & 0xFF;
+        if (p.buf.length < HEADER + p.length) {
+            byte[] grown = new byte[Math.max(HEADER + p.length, p.buf.length * 2)];
+            System.arraycopy(p.buf, 0, grown, 0, HEADER);
+            p.buf = grown;
+        }
+        if (in.readNBytes(p.buf, HEADER, p.length) < p.length) throw new EOFException("truncated packet");
+        return true;
+    }
+
+    /**
+     * p 가 MAX_PAYLOAD 길이면 이어지는 패킷(시퀀스 +1 씩)의 페이로드를 뒤에 붙여 한 페이로드로 만든다.
+     * p.seq 는 마지막 조각의 시퀀스가 된다. 합친 길이가 maxBytes 를 넘으면 IOException
+     * (서버도 max_allowed_packet 초과는 ER_NET_PACKET_TOO_LARGE 후 연결 종료).
+     */
+    static void readContinuation(InputStream in, Packet p, long maxBytes) throws IOException {
+        byte[] h = new byte[HEADER];
+        int chunk = p.length;
+        while (chunk == MAX_PAYLOAD) {
+            if (in.readNBytes(h, 0, HEADER) < HEADER) throw new EOFException("truncated packet header");
+            chunk = (h[0] & 0xFF) | (h[1] & 0xFF) << 8 | (h[2] & 0xFF) << 16;
+            p.seq = h[3] & 0xFF;
+            if ((long) p.length + chunk > maxBytes) throw new IOException("packet exceeds " + maxBytes + " bytes");
+            int need = HEADER + p.length + chunk;
+            if (p.buf.length < need) {
+                byte[] grown = new byte[Math.max(need, (int) Math.min(Integer.MAX_VALUE - 8, p.buf.length * 2L))];
+                System.arraycopy(p.buf, 0, grown, 0, HEADER + p.length);
+                p.buf = grown;
+            }
+            if (in.readNBytes(p.buf, HEADER + p.length, chunk) < chunk) throw new EOFException("truncated packet");
+            p.length += chunk;
+        }
+    }
+
+    /** 페이로드를 MAX_PAYLOAD 조각 패킷으로 다시 나눠 쓴다(readContinuation 의 역, 첫 시퀀스 firstSeq) */
+    static void write(OutputStream out, Packet p, int firstSeq) throws IOException {
+        byte[] h = new byte[HEADER];
+        int off = 0, seq = firstSeq, n;
+        do {
+            n = Math.min(MAX_PAYLOAD, p.length - off);
+            h[0] = (byte) n;
+            h[1] = (byte) (n >>> 8);
+            h[2] = (byte) (n >>> 16);
+            h[3] = (byte) seq++;
+            out.write(h);
+            out.write(p.buf, HEADER + off, n);
+            off += n;
+        } while (n == MAX_PAYLOAD);          // 정확히 배수면 길이 0 조각으로 끝을 알림
+    }
+
+    /** 초기 핸드셰이크(서버 → 클라이언트, protocol 10)의 capability flags. 해석 불가면 0 */
+    static int serverCapabilities(Packet p) {
+        int i = HEADER, end = HEADER + p.length;
+        if (i >= end || p.buf[i] != 10) return 0;
+        i++;
+        while (i < end && p.buf[i] != 0) i++;          // server version (NUL 종료)
+        i += 1 + 4 + 8 + 1;                             // NUL, thread id, auth data 1, filler
+        if (i + 2 > end) return 0;
+        int lower = u16(p.buf, i);
+        i += 2 + 1 + 2;                                 // lower flags, charset, status
+        if (i + 2 > end) return lower;
+        return lower | u16(p.buf, i) << 16;
+    }
+
+    /**
+     * 초기 핸드셰이크의 capability flags 에서 mask 비트를 지운다(버퍼 제자리 수정). 해석 불가면 false.
+     * 클라이언트는 광고되지 않은 기능(TLS/압축 등)을 요청하지 않으므로 평문·비압축으로 협상된다.
+     */
+    static boolean clearServerCapabilities(Packet p, int mask) {
+        int i = HEADER, end = HEADER + p.length;
+        if (i >= end || p.buf[i] != 10) return false;
+        i++;
+        while (i < end && p.buf[i] != 0) i++;
+        i += 1 + 4 + 8 + 1;
+        if (i + 2 > end) return false;
+        int lower = u16(p.buf, i) & ~mask;
+        p.buf[i] = (byte) lower;
+        p.buf[i + 1] = (byte) (lower >>> 8);
+        i += 2 + 1 + 2;
+        if (i + 2 <= end) {
+            int upper = u16(p.buf, i) & ~(mask >>> 16);
+            p.buf[i] = (byte) upper;
+            p.buf[i + 1] = (byte) (upper >>> 8);
+        }
+        return true;
+    }
+
+    /** HandshakeResponse41/SSLRequest 의 capability flags */
+    static int clientCapabilities(Packet p) {
+        return p.length < 4 ? 0 : u32(p.buf, HEADER);
+    }
+
+    /** HandshakeResponse41 의 사용자명(캐퍼빌리티 이후 32바이트 고정부 다음 NUL 종료 문자열) */
+    static String handshakeUser(Packet p) {
+        return cString(p, SSL_REQUEST_LEN);
+    }
+
+    /** COM_CHANGE_USER 의 사용자명(커맨드 바이트 다음 NUL 종료 문자열) */
+    static String changeUser(Packet p) {
+        return cString(p, 1);
+    }
+
+    /**
+     * COM_QUERY 에서 SQL 텍스트가 시작하는 페이로드 오프셋. 해석할 수 없으면 -1.
+     * 쿼리 속성(CLIENT_QUERY_ATTRIBUTES)이 협상되었으면 텍스트 앞의 속성 블록을 끝까지 건너뛴다:
+     * parameter_count, parameter_set_count(lenenc) → parameter_count > 0 이면
+     * null 비트맵((count+7)/8 바이트), new_params_bind_flag(1), 속성마다 타입 2바이트 + 이름(lenenc 문자열),
+     * NULL 이 아닌 속성의 값(바이너리 프로토콜, 타입별 길이).
+     */
+    static int queryTextOffset(Packet p, boolean queryAttributes) {
+        if (!queryAttributes) return 1;
+        int[] pos = {1};
+        long count = lenenc(p, pos);
+        if (count < 0 || lenenc(p, pos) < 0) return -1;
+        if (count == 0) return pos[0];
+        if (count > p.length) return -1;                 // 속성마다 최소 3바이트(타입 + 빈 이름)
+        int n = (int) count;
+
+        int nulls = pos[0];
+        pos[0] += (n + 7) / 8;
+        if (pos[0] >= p.length || p.u8(pos[0]++) != 1) return -1;    // 타입이 없으면 값 길이를 알 수 없음
+        int[] types = new int[n];
+        for (int k = 0; k < n; k++) {
+            if (pos[0] + 2 > p.length) return -1;
+            types[k] = p.u8(pos[0]);                     // 하위 바이트 = 타입, 상위 바이트 = 부호 없음 플래그
+            pos[0] += 2;
+            if (!skip(p, pos, lenenc(p, pos))) return -1;
+        }
+        for (int k = 0; k < n; k++) {
+            if ((p.u8(nulls + k / 8) & (1 << (k % 8))) != 0) continue;   // NULL 값은 본문에 없음
+            if (!skipValue(p, pos, types[k])) return -1;
+        }
+        return pos[0];
+    }
+
+    // 바이너리 프로토콜 값 하나(COM_STMT_EXECUTE 와 같은 인코딩). 모르는 타입이면 false
+    private static boolean skipValue(Packet p, int[] pos, int type) {
+        long len = switch (type) {
+            case 0x06 -> 0;                                          // NULL
+            case 0x01 -> 1;                                          // TINY
+            case 0x02, 0x0D -> 2;                                    // SHORT, YEAR
+            case 0x03, 0x09, 0x04 -> 4;                              // LONG, INT24, FLOAT
+            case 0x05, 0x08 -> 8;                                    // DOUBLE, LONGLONG
+            case 0x07, 0x0A, 0x0B, 0x0C ->                           // TIMESTAMP, DATE, TIME, DATETIME: 길이 1바이트 + 값
+                    pos[0] < p.length ? p.u8(pos[0]++) : -1;
+            case 0x00, 0x0F, 0x10, 0xF5, 0xF6, 0xF7, 0xF8,           // DECIMAL, VARCHAR, BIT, JSON, NEWDECIMAL, ENUM, SET,
+                 0xF9, 0xFA, 0xFB, 0xFC, 0xFD, 0xFE, 0xFF ->         // *BLOB, VAR_STRING, STRING, GEOMETRY: lenenc 문자열
+                    lenenc(p, pos);
+            default -> -1;
+        };
+        return skip(p, pos, len);
+    }
+
+    private static boolean skip(Packet p, int[] pos, long len) {
+        if (len < 0 || len > p.length - pos[0]) return false;
+        pos[0] += (int) len;
+        return true;
+    }
+
+    /** ERR 패킷(protocol 41: '#' + SQLSTATE 포함) */
+    static byte[] error(int seq, int code, String sqlState, String message) {
+        byte[] msg = message.getBytes(StandardCharsets.UTF_8);
+        int len = 1 + 2 + 1 + 5 + msg.length;
+        byte[] out = new byte[HEADER + len];
+        out[0] = (byte) len;
+        out[1] = (byte) (len >>> 8);
+        out[2] = (byte) (len >>> 16);
+        out[3] = (byte) seq;
+        out[4] = (byte) 0xFF;
+        out[5] = (byte) code;
+        out[6] = (byte) (code >>> 8);
+        out[7] = '#';
+        System.arraycopy(sqlState.getBytes(StandardCharsets.US_ASCII), 0, out, 8, 5);
+        System.arraycopy(msg, 0, out, 13, msg.length);
+        return out;
+    }
+
+    private static String cString(Packet p, int payloadOff) {
+        int start = HEADER + payloadOff, end = HEADER + p.length;
+        if (start >= end) return null;
+        int i = start;
+        while (i < end && p.buf[i] != 0) i++;
+        return new String(p.buf, start, i - start, StandardCharsets.UTF_8);
+    }
+
+    /** length-encoded integer. pos[0] 은 페이로드 오프셋이며 읽은 만큼 전진. 잘렸거나 NULL/ERR 표식이면 -1 */
+    private static long lenenc(Packet p, int[] pos) {
+        if (pos[0] >= p.length) return -1;
+        int first = p.u8(pos[0]++);
+        int bytes = switch (first) {
+            case 0xFC -> 2;
+            case 0xFD -> 3;
+            case 0xFE -> 8;
+            case 0xFB, 0xFF -> -1;
+            default -> 0;
+        };
+        if (bytes == 0) return first;
+        if (bytes < 0 || pos[0] + bytes > p.length) return -1;
+        long v = 0;
+        for (int k = 0; k < bytes; k++) v |= (long) p.u8(pos[0]++) << (8 * k);
+        return v;                                        // 8바이트 값이 음수로 보이면 호출 측 범위 검사에서 걸러짐
+    }
+
+    private static int u16(byte[] b, int i) {
+        return (b[i] & 0xFF) | (b[i + 1] & 0xFF) << 8;
+    }
+
+    private static int u32(byte[] b, int i) {
+        return u16(b, i) | u16(b, i + 2) << 16;
+    }
+}
@@ -0,0 +1,293 @@
+package com.example.dbids.modules.proxy;
+
+import com.example.dbids.modules.ingest.VerdictService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * MySQL 앞단 TCP 프록시. 연결마다 가상 스레드 2개(클라이언트→서버 파서, 서버→클라이언트 바이트 복사).
+ * - 클라이언트→서버: 패킷 경계만 읽어 같은 버퍼를 그대로 전달하고, COM_QUERY/COM_STMT_PREPARE 의 SQL 은
+ *   버퍼 범위를 그대로 인라인 판정(VerdictService)에 넘긴다 → 기록은 수집 파이프라인이 응답 뒤에 처리
+ * - enforce=true 면 DENY 쿼리는 MySQL 로 보내지 않고 ERR 패킷으로 응답
+ * - TLS/압축 프로토콜 위로는 SQL 을 볼 수 없으므로 서버 핸드셰이크에서 CLIENT_SSL/CLIENT_COMPRESS 를 지워
+ *   평문으로 협상시킨다(ssl-mode=PREFERRED 클라이언트는 평문으로 내려옴, REQUIRED 는 접속 실패).
+ *   caching_sha2_password 전체 인증은 평문에서 서버 공개키가 필요(클라이언트 get-server-public-key 옵션)
+ * - 그래도 SSLRequest/압축을 보내는 클라이언트는 enforce=true 면 ERR 로 거부, 아니면 판정 없이 중계(opaque)
+ * - 판정하지 못한 쿼리(쿼리 속성 블록 해석 불가, 비 UTF-8 텍스트 등 판정 예외)는 unscreened 로 집계:
+ *   enforce=true 면 ERR 로 거부(fail-closed), 아니면 서버가 처리하도록 그대로 전달(fail-open)
+ */
+@Component
+public class MySqlProxy {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MySqlProxy.class);
+
+    private static final int PUMP_BUFFER = 64 * 1024;
+    private static final int PACKET_BUFFER_KEEP = 1 << 20;
+    private static final Duration PUMP_JOIN = Duration.ofSeconds(5);
+    private static final long ACCEPT_BACKOFF_MS = 100;
+    // ER_SPECIFIC_ACCESS_DENIED_ERROR
+    private static final int DENIED_CODE = 1227;
+    private static final String DENIED_STATE = "42000";
+    private static final String DENIED_MESSAGE = "Query denied by DB-IDS policy";
+    private static final String UNSCREENED_MESSAGE = "Query could not be screened by DB-IDS";
+    private static final String OPAQUE_MESSAGE = "TLS/compressed sessions are not allowed through DB-IDS";
+    private static final int HIDDEN_CAPABILITIES = MySqlPackets.CLIENT_SSL | MySqlPackets.CLIENT_COMPRESS;
+
+    private final MySqlProxyProperties props;
+    private final VerdictService verdicts;
+    private final Set<Socket> open = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder connections = new LongAdder();
+    private final LongAdder queries     = new LongAdder();
+    private final LongAdder denied      = new LongAdder();
+    private final LongAdder opaque      = new LongAdder();
+    private final LongAdder unscreened  = new LongAdder();
+
+    private volatile ServerSocket server;
+
+    public MySqlProxy(MySqlProxyProperties props, VerdictService verdicts) {
+        this.props = props;
+        this.verdicts = verdicts;
+    }
+
+    @PostConstruct
+    public synchronized void start() throws IOException {
+        if (!props.isEnabled() || server != null) return;
+        ServerSocket ss = new ServerSocket();
+        ss.bind(new InetSocketAddress(props.getListenHost(), props.getListenPort()));
+        server = ss;
+        Thread.ofVirtual().name("mysql-proxy-accept").start(() -> acceptLoop(ss));
+        LOG.info("mysql proxy listening on {}:{} → {}:{} (enforce={})", props.getListenHost(), ss.getLocalPort(),
+                props.getUpstreamHost(), props.getUpstreamPort(), props.isEnforce());
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        ServerSocket ss = server;
+        if (ss == null) return;
+        server = null;
+        closeQuietly(ss);
+        for (Socket s : open) closeQuietly(s);
+        open.clear();
+    }
+
+    /** 실제 리슨 포트(listenPort=0 일 때 확인용). 꺼져 있으면 -1 */
+    public int port() {
+        ServerSocket ss = server;
+        return ss == null ? -1 : ss.getLocalPort();
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("enabled", server != null);
+        m.put("openSockets", open.size());
+        m.put("connections", connections.sum());
+        m.put("queries", queries.sum());
+        m.put("denied", denied.sum());
+        m.put("opaque", opaque.sum());
+        m.put("unscreened", unscreened.sum());
+        return m;
+    }
+
+    private void acceptLoop(ServerSocket ss) {
+        long n = 0;
+        while (!ss.isClosed()) {
+            Socket client;
+            try {
+                client = ss.accept();
+            } catch (IOException e) {
+                if (ss.isClosed()) break;
+                LOG.warn("mysql proxy accept failed: {}", e.toString());
+                try { Thread.sleep(ACCEPT_BACKOFF_MS); } catch (InterruptedException ie) { break; }   // fd 고갈 등 → 잠깐 쉬고 재시도
+                continue;
+            }
+            connections.increment();
+            Thread.ofVirtual().name("mysql-proxy-" + (n++)).start(() -> serve(client));
+        }
+    }
+
+    private void serve(Socket client) {
+        Socket upstream = new Socket();
+        open.add(client);
+        open.add(upstream);
+        try {
+            client.setTcpNoDelay(true);
+            upstream.setTcpNoDelay(true);
+            upstream.connect(new InetSocketAddress(props.getUpstreamHost(), props.getUpstreamPort()),
+                    props.getConnectTimeoutMs());
+            new Session(client, upstream).run();
+        } catch (IOException e) {
+            // 연결 종료/리셋은 정상 경로
+        } finally {
+            closeQuietly(client);
+            closeQuietly(upstream);
+            open.remove(client);
+            open.remove(upstream);
+        }
+    }
+
+    /** 연결 1개: 서버 핸드셰이크 → 클라이언트 응답(사용자) → 커맨드 단계 */
+    private final class Session {
+        private final Socket client;
+        private final Socket upstream;
+        private final InputStream clientIn;
+        private final OutputStream clientOut;
+        private final InputStream serverIn;
+        private final OutputStream serverOut;
+        // 서버→클라이언트 복사와 ERR 응답이 섞이지 않도록(가상 스레드를 고정하지 않는 락)
+        private final ReentrantLock clientWrite = new ReentrantLock();
+
+        private String user;
+        private boolean queryAttributes;
+
+        Session(Socket client, Socket upstream) throws IOException {
+            this.client = client;
+            this.upstream = upstream;
+            this.clientIn = new BufferedInputStream(client.getInputStream(), PUMP_BUFFER);
+            this.clientOut = client.getOutputStream();
+            this.serverIn = upstream.getInputStream();
+            this.serverOut = upstream.getOutputStream();
+        }
+
+        void run() throws IOException {
+            MySqlPackets.Packet p = new MySqlPackets.Packet();
+
+            // 1) 서버 초기 핸드셰이크: TLS/압축 광고를 지운 뒤 전달
+            if (!MySqlPackets.read(serverIn, p)) return;
+            MySqlPackets.clearServerCapabilities(p, HIDDEN_CAPABILITIES);
+            int serverCaps = MySqlPackets.serverCapabilities(p);
+            toClient(p.buf, 0, p.size());
+            Thread pump = Thread.ofVirtual().name(Thread.currentThread().getName() + "-down").start(this::pumpDown);
+
+            try {
+                // 2) 클라이언트 핸드셰이크 응답: 사용자/협상 결과
+                if (!MySqlPackets.read(clientIn, p)) return;
+                // 광고하지 않은 TLS/압축을 요청하면 그 뒤 바이트는 해석 불가 → 실제 서버 capability 로 판단
+                int caps = MySqlPackets.clientCapabilities(p);
+                if ((caps & MySqlPackets.CLIENT_SSL) != 0 && p.length == MySqlPackets.SSL_REQUEST_LEN
+                        || (caps & MySqlPackets.CLIENT_COMPRESS) != 0) {
+                    opaque.increment();
+                    if (props.isEnforce()) {
+                        LOG.warn("mysql proxy: refused TLS/compressed session from {}", client.getRemoteSocketAddress());
+                        refuse(p, OPAQUE_MESSAGE);
+                        return;
+                    }
+                    serverOut.write(p.buf, 0, p.size());
+                    clientIn.transferTo(serverOut);
+                    return;
+                }
+                caps &= serverCaps == 0 ? -1 : serverCaps;
+                serverOut.write(p.buf, 0, p.size());
+                user = MySqlPackets.handshakeUser(p);
+                queryAttributes = (caps & MySqlPackets.CLIENT_QUERY_ATTRIBUTES) != 0;
+
+                // 3) 커맨드 단계: 시퀀스 0 패킷만 커맨드(인증 교환은 그대로).
+                //    16MiB 이상 커맨드는 이어지는 패킷까지 합쳐 전체 SQL 을 판정(첫 조각만 보면 뒤에 숨긴 SQL 이 통과)
+                while (true) {
+                    if (p.buf.length > PACKET_BUFFER_KEEP) p = new MySqlPackets.Packet();   // 큰 커맨드 버퍼는 연결 내내 잡지 않음
+                    if (!MySqlPackets.read(clientIn, p)) break;
+                    int first = p.seq;
+                    boolean command = first == 0 && p.length > 0;
+                    boolean split = p.length == MySqlPackets.MAX_PAYLOAD;
+                    if (split) MySqlPackets.readContinuation(clientIn, p, props.getMaxPacketBytes());
+                    if (command && !screen(p)) continue;
+                    if (split) MySqlPackets.write(serverOut, p, first);
+                    else serverOut.write(p.buf, 0, p.size());
+                    if (command && p.u8(0) == MySqlPackets.COM_QUIT) return;
+                }
+            } finally {
+                // 서버가 EOF 를 보고 닫으면 복사 스레드도 끝남. 응답 없는 서버는 소켓 닫기로 정리
+                upstream.shutdownOutput();
+                try { pump.join(PUMP_JOIN); } catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+            }
+        }
+
+        /** 커맨드 검사. false 면 전달하지 않음(ERR 응답 완료) */
+        private boolean screen(MySqlPackets.Packet p) throws IOException {
+            int cmd = p.u8(0);
+            if (cmd == MySqlPackets.COM_CHANGE_USER) {
+                String u = MySqlPackets.changeUser(p);
+                if (u != null) user = u;
+                return true;
+            }
+            int off;
+            if (cmd == MySqlPackets.COM_QUERY) off = MySqlPackets.queryTextOffset(p, queryAttributes);
+            else if (cmd == MySqlPackets.COM_STMT_PREPARE) off = 1;
+            else return true;
+            if (off < 0) return unscreened(p, "unparseable query attributes");
+
+            queries.increment();
+            VerdictService.Verdict v;
+            try {
+                v = verdicts.check(p.buf, MySqlPackets.HEADER + off, p.length - off, user == null ? "-" : user);
+            } catch (RuntimeException e) {
+                // 예: character_set_client=latin1 의 0x80 이상 바이트 → 판정 없이 통과시키면 DENY 우회
+                return unscreened(p, e.getMessage());
+            }
+            if (v.decision() != VerdictService.Decision.DENY) return true;
+            denied.increment();
+            if (!props.isEnforce()) return true;
+            refuse(p, DENIED_MESSAGE);
+            return false;
+        }
+
+        // 판정 없이 통과시키면 DENY 우회가 되므로 차단 모드에서는 거부
+        private boolean unscreened(MySqlPackets.Packet p, String reason) throws IOException {
+            unscreened.increment();
+            LOG.warn("mysql proxy: query from {} not screened ({}, {} bytes){}",
+                    user, reason, p.length, props.isEnforce() ? ", refused" : ", forwarded unscreened");
+            if (!props.isEnforce()) return true;
+            refuse(p, UNSCREENED_MESSAGE);
+            return false;
+        }
+
+        private void refuse(MySqlPackets.Packet p, String message) throws IOException {
+            byte[] err = MySqlPackets.error(p.seq + 1, DENIED_CODE, DENIED_STATE, message);
+            toClient(err, 0, err.length);
+        }
+
+        /** 서버→클라이언트: 응답은 해석하지 않고 그대로 복사 */
+        private void pumpDown() {
+            byte[] buf = new byte[PUMP_BUFFER];
+            try {
+                int n;
+                while ((n = serverIn.read(buf)) >= 0) toClient(buf, 0, n);
+            } catch (IOException ignore) {
+                // 한쪽이 닫히면 종료
+            } finally {
+                try { client.shutdownOutput(); } catch (IOException ignore) {}
+            }
+        }
+
+        private void toClient(byte[] b, int off, int len) throws IOException {
+            clientWrite.lock();
+            try {
+                clientOut.write(b, off, len);
+            } finally {
+                clientWrite.unlock();
+            }
+        }
+    }
+
+    private static void closeQuietly(AutoCloseable c) {
+        try { c.close(); } catch (Exception ignore) {}
+    }
+}
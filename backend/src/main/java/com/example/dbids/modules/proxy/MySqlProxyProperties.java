@@ -0,0 +1,53 @@
+package com.example.dbids.modules.proxy;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "dbids.proxy")
+public class MySqlProxyProperties {
+
+    /** MySQL 앞단 TCP 프록시 실행 여부(기본 꺼짐) */
+    private boolean enabled = false;
+
+    /** 클라이언트가 접속할 주소/포트. 0 이면 임의 포트 */
+    private String listenHost = "127.0.0.1";
+    private int listenPort = 3308;
+
+    /** 실제 MySQL (infra/docker-compose.yml 의 mysql 은 호스트 3307) */
+    private String upstreamHost = "127.0.0.1";
+    private int upstreamPort = 3307;
+
+    private int connectTimeoutMs = 3_000;
+
+    /** true 면 DENY 판정 쿼리를 MySQL 로 보내지 않고 ERR 패킷으로 응답. false 는 감시만(판정/기록 후 그대로 전달) */
+    private boolean enforce = false;
+
+    /** 여러 패킷으로 나뉜 커맨드를 합쳐 판정할 때의 상한(MySQL 8 기본 max_allowed_packet). 넘으면 연결 종료 */
+    private long maxPacketBytes = 64L * 1024 * 1024;
+
+    // getters / setters
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public String getListenHost() { return listenHost; }
+    public void setListenHost(String listenHost) { this.listenHost = listenHost; }
+
+    public int getListenPort() { return listenPort; }
+    public void setListenPort(int listenPort) { this.listenPort = listenPort; }
+
+    public String getUpstreamHost() { return upstreamHost; }
+    public void setUpstreamHost(String upstreamHost) { this.upstreamHost = upstreamHost; }
+
+    public int getUpstreamPort() { return upstreamPort; }
+    public void setUpstreamPort(int upstreamPort) { this.upstreamPort = upstreamPort; }
+
+    public int getConnectTimeoutMs() { return connectTimeoutMs; }
+    public void setConnectTimeoutMs(int connectTimeoutMs) { this.connectTimeoutMs = connectTimeoutMs; }
+
+    public boolean isEnforce() { return enforce; }
+    public void setEnforce(boolean enforce) { this.enforce = enforce; }
+
+    public long getMaxPacketBytes() { return maxPacketBytes; }
+    public void setMaxPacketBytes(long maxPacketBytes) { this.maxPacketBytes = maxPacketBytes; }
+}
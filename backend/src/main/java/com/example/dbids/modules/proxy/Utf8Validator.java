@@ -4,12 +4,18 @@ import java.nio.ByteBuffer;
 import java.nio.charset.*;
 
 public class Utf8Validator {
-    private static final CharsetDecoder DECODER = StandardCharsets.UTF_8
+    // CharsetDecoder 는 상태를 가지므로 스레드마다 하나씩
+    private static final ThreadLocal<CharsetDecoder> DECODER = ThreadLocal.withInitial(() -> StandardCharsets.UTF_8
             .newDecoder().onMalformedInput(CodingErrorAction.REPORT)
-            .onUnmappableCharacter(CodingErrorAction.REPORT);
+            .onUnmappableCharacter(CodingErrorAction.REPORT));
 
     public static void ensureUtf8(byte[] bytes) {
-        try { DECODER.decode(ByteBuffer.wrap(bytes)); }
+        decode(bytes, 0, bytes.length);
+    }
+
+    /** 검증과 디코딩을 한 번에(인라인 판정 경로): 비정상 인코딩이면 IllegalArgumentException */
+    public static String decode(byte[] bytes, int off, int len) {
+        try { return DECODER.get().decode(ByteBuffer.wrap(bytes, off, len)).toString(); }
         catch (CharacterCodingException e) {
             throw new IllegalArgumentException("invalid UTF-8");
         }
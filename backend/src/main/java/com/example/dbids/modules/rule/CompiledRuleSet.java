@@ -0,0 +1,180 @@
+package com.example.dbids.modules.rule;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+
+/**
+ * 룰 집합을 하나의 오토마톤으로 컴파일한 결과.
+ * - 1단계: 모든 룰 키워드를 Aho-Corasick DFA(ASCII 대소문자 무시)로 합쳐 정규화 SQL을 한 번만 스캔
+ * - 2단계: 키워드가 등장한 룰만 정규식으로 검증
+ *          (접두 리터럴 룰은 키워드 위치에서 lookingAt(), 그 외는 find() 1회)
+ * 룰 수가 늘어도 스캔 비용은 입력 길이에 비례하고, 정규식 검증은 후보 룰로 한정된다.
+ */
+public final class CompiledRuleSet {
+
+    private static final int ALPHABET = 128;
+
+    private final Rule[] rules;
+    private final int[][] delta;        // state × ASCII(대문자 폴딩) → next state
+    private final int[][] outputs;      // state → 끝나는 키워드 인덱스들(fail 링크 병합)
+    private final int[] keywordLength;
+    private final int[][] keywordRules; // 키워드 → 룰 인덱스들
+    private final int[] unkeyed;        // 키워드 없는 룰(항상 검증)
+
+    private CompiledRuleSet(Rule[] rules, int[][] delta, int[][] outputs,
+            int[] keywordLength, int[][] keywordRules, int[] unkeyed) {
+        this.rules = rules;
+        this.delta = delta;
+        this.outputs = outputs;
+        this.keywordLength = keywordLength;
+        this.keywordRules = keywordRules;
+        this.unkeyed = unkeyed;
+    }
+
+    public static CompiledRuleSet compile(List<Rule> ruleList) {
+        Rule[] rules = ruleList.toArray(new Rule[0]);
+
+        // 키워드 → 룰 묶기 (같은 키워드를 쓰는 룰은 하나의 출력으로)
+        Map<String, List<Integer>> byKeyword = new LinkedHashMap<>();
+        List<Integer> unkeyed = new ArrayList<>();
+        for (int r = 0; r < rules.length; r++) {
+            String kw = rules[r].keyword;
+            if (kw == null) unkeyed.add(r);
+            else byKeyword.computeIfAbsent(kw, k -> new ArrayList<>()).add(r);
+        }
+        String[] keywords = byKeyword.keySet().toArray(new String[0]);
+        int[] keywordLength = new int[keywords.length];
+        int[][] keywordRules = new int[keywords.length][];
+        for (int k = 0; k < keywords.length; k++) {
+            keywordLength[k] = keywords[k].length();
+            keywordRules[k] = toArray(byKeyword.get(keywords[k]));
+        }
+
+        // trie
+        List<int[]> go = new ArrayList<>();
+        List<List<Integer>> out = new ArrayList<>();
+        go.add(newRow());
+        out.add(new ArrayList<>());
+        for (int k = 0; k < keywords.length; k++) {
+            int s = 0;
+            for (char c : keywords[k].toCharArray()) {
+                int sym = fold(c);
+                if (go.get(s)[sym] < 0) {
+                    go.get(s)[sym] = go.size();
+                    go.add(newRow());
+                    out.add(new ArrayList<>());
+                }
+                s = go.get(s)[sym];
+            }
+            out.get(s).add(k);
+        }
+
+        // BFS로 fail 링크 계산 → 완전 전이표(DFA)로 변환
+        int n = go.size();
+        int[] fail = new int[n];
+        int[][] delta = new int[n][];
+        for (int s = 0; s < n; s++) delta[s] = go.get(s);
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int c = 0; c < ALPHABET; c++) {
+            int t = delta[0][c];
+            if (t < 0) delta[0][c] = 0;
+            else { fail[t] = 0; queue.add(t); }
+        }
+        while (!queue.isEmpty()) {
+            int s = queue.poll();
+            out.get(s).addAll(out.get(fail[s]));
+            for (int c = 0; c < ALPHABET; c++) {
+                int t = delta[s][c];
+                if (t < 0) {
+                    delta[s][c] = delta[fail[s]][c];
+                } else {
+                    fail[t] = delta[fail[s]][c];
+                    queue.add(t);
+                }
+            }
+        }
+
+        int[][] outputs = new int[n][];
+        for (int s = 0; s < n; s++) outputs[s] = out.get(s).isEmpty() ? null : toArray(out.get(s));
+
+        return new CompiledRuleSet(rules, delta, outputs, keywordLength, keywordRules, toArray(unkeyed));
+    }
+
+    public int size() { return rules.length; }
+
+    public Rule rule(int index) { return rules[index]; }
+
+    /** 한 번의 스캔으로 매칭된 모든 룰 인덱스를 반환(룰 선언 순서). */
+    public BitSet scan(CharSequence sql) {
+        BitSet matched = new BitSet(rules.length);
+        BitSet candidate = null;
+        Matcher[] matchers = null;
+
+        int state = 0;
+        for (int i = 0, len = sql.length(); i < len; i++) {
+            char c = sql.charAt(i);
+            state = c < ALPHABET ? delta[state][fold(c)] : 0;
+            int[] hits = outputs[state];
+            if (hits == null) continue;
+
+            for (int k : hits) {
+                int start = i - keywordLength[k] + 1;
+                for (int r : keywordRules[k]) {
+                    if (matched.get(r)) continue;
+                    Rule rule = rules[r];
+                    if (rule.anchored) {
+                        if (matchers == null) matchers = new Matcher[rules.length];
+                        if (matchesAt(matchers, r, sql, start)) matched.set(r);
+                    } else {
+                        if (candidate == null) candidate = new BitSet(rules.length);
+                        candidate.set(r);
+                    }
+                }
+            }
+        }
+
+        if (candidate != null) {
+            for (int r = candidate.nextSetBit(0); r >= 0; r = candidate.nextSetBit(r + 1)) {
+                if (!matched.get(r) && rules[r].pattern().matcher(sql).find()) matched.set(r);
+            }
+        }
+        for (int r : unkeyed) {
+            if (rules[r].pattern().matcher(sql).find()) matched.set(r);
+        }
+        return matched;
+    }
+
+    private boolean matchesAt(Matcher[] matchers, int r, CharSequence sql, int start) {
+        Matcher m = matchers[r];
+        if (m == null) {
+            m = rules[r].pattern().matcher(sql);
+            m.useTransparentBounds(true);   // \b 가 region 앞 글자를 볼 수 있도록
+            m.useAnchoringBounds(false);
+            matchers[r] = m;
+        }
+        m.region(start, sql.length());
+        return m.lookingAt();
+    }
+
+    private static int fold(char c) {
+        return (c >= 'a' && c <= 'z') ? c - 32 : c;
+    }
+
+    private static int[] newRow() {
+        int[] row = new int[ALPHABET];
+        Arrays.fill(row, -1);
+        return row;
+    }
+
+    private static int[] toArray(List<Integer> list) {
+        int[] a = new int[list.size()];
+        for (int i = 0; i < a.length; i++) a[i] = list.get(i);
+        return a;
+    }
+}
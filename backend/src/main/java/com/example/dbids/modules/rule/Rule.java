@@ -1,6 +1,7 @@
 package com.example.dbids.modules.rule;
 
 import com.example.dbids.sqlite.model.DetectionEvent;
+import java.util.Locale;
 import java.util.regex.Pattern;
 
 public class Rule {
@@ -8,13 +9,81 @@ public class Rule {
     public final DetectionEvent.Severity severity;
     private final Pattern pattern;
 
+    /** 다중 패턴 스캔(Aho-Corasick)에 쓰는 리터럴 키워드. null이면 매 스캔마다 정규식으로 검증 */
+    final String keyword;
+    /** keyword가 정규식의 접두 리터럴이면 true → 키워드 위치에서 lookingAt()으로만 검증 */
+    final boolean anchored;
+
     public Rule(String id, DetectionEvent.Severity severity, String regex) {
         this.id = id;
         this.severity = severity;
         this.pattern = Pattern.compile(regex, Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+        this.keyword = prefixLiteral(regex);
+        this.anchored = keyword != null;
+    }
+
+    /**
+     * 접두 리터럴을 자동 추출할 수 없는 정규식용: 매칭 시 반드시 등장하는 키워드를 직접 지정.
+     * (키워드가 보이면 정규식 전체 find()로 검증)
+     */
+    public Rule(String id, DetectionEvent.Severity severity, String regex, String keyword) {
+        this.id = id;
+        this.severity = severity;
+        this.pattern = Pattern.compile(regex, Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+        String own = prefixLiteral(regex);
+        boolean usable = keyword != null && keyword.length() >= 2 && isAsciiWord(keyword);
+        this.keyword = usable ? keyword.toUpperCase(Locale.ROOT) : own;
+        this.anchored = !usable && own != null;
     }
 
     public boolean matches(String normalizedSql) {
         return pattern.matcher(normalizedSql).find();
     }
+
+    Pattern pattern() { return pattern; }
+
+    /**
+     * "\bDROP\s+TABLE\b" → "DROP" 처럼 정규식 맨 앞의 필수 리터럴(영숫자 2자 이상)을 대문자로 추출.
+     * 대문자 변환은 Locale.ROOT: 터키어 로케일의 'i' → 'İ' 는 ASCII 전이표(CompiledRuleSet)에 들어갈 수 없음.
+     * 최상위 '|' 가 있거나 리터럴로 시작하지 않으면 null.
+     */
+    static String prefixLiteral(String regex) {
+        if (regex == null || hasTopLevelAlternation(regex)) return null;
+        int i = 0;
+        if (regex.startsWith("\\b")) i = 2;
+        int start = i;
+        while (i < regex.length() && isWordChar(regex.charAt(i))) i++;
+        int end = i;
+        // 바로 뒤 수량자(?,*,{)는 마지막 글자를 선택적으로 만든다
+        if (end < regex.length() && end > start) {
+            char q = regex.charAt(end);
+            if (q == '?' || q == '*' || q == '{') end--;
+        }
+        if (end - start < 2) return null;
+        return regex.substring(start, end).toUpperCase(Locale.ROOT);
+    }
+
+    private static boolean hasTopLevelAlternation(String regex) {
+        int depth = 0;
+        boolean inClass = false;
+        for (int i = 0; i < regex.length(); i++) {
+            char c = regex.charAt(i);
+            if (c == '\\') { i++; continue; }
+            if (inClass) { if (c == ']') inClass = false; continue; }
+            if (c == '[') inClass = true;
+            else if (c == '(') depth++;
+            else if (c == ')') depth--;
+            else if (c == '|' && depth == 0) return true;
+        }
+        return false;
+    }
+
+    private static boolean isAsciiWord(String s) {
+        for (int i = 0; i < s.length(); i++) if (!isWordChar(s.charAt(i))) return false;
+        return true;
+    }
+
+    private static boolean isWordChar(char c) {
+        return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '_';
+    }
 }
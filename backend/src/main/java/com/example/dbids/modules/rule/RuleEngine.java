@@ -1,7 +1,8 @@
 package com.example.dbids.modules.rule;
 
 import com.example.dbids.sqlite.model.DetectionEvent;
-import java.util.Comparator;
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,19 +17,31 @@ public class RuleEngine {
         }
     }
 
-    private final List<Rule> rules;
+    private final CompiledRuleSet compiled;
 
     public RuleEngine(List<Rule> rules) {
-        this.rules = rules;
+        this.compiled = CompiledRuleSet.compile(rules);
     }
 
     /**
      * 여러 룰이 동시에 매칭되면 severity가 가장 높은 것 1건만 채택.
+     * (동률이면 먼저 선언된 룰)
      */
     public Optional<Match> evaluate(String normalizedSql) {
-        return rules.stream()
-                .filter(r -> r.matches(normalizedSql))
-                .map(r -> new Match(r.id, r.severity))
-                .max(Comparator.comparing(m -> m.severity)); // enum 순서: LOW < MEDIUM < HIGH
+        BitSet hits = compiled.scan(normalizedSql);
+        Rule best = null;
+        for (int r = hits.nextSetBit(0); r >= 0; r = hits.nextSetBit(r + 1)) {
+            Rule rule = compiled.rule(r);
+            if (best == null || rule.severity.compareTo(best.severity) > 0) best = rule; // enum 순서: LOW < MEDIUM < HIGH
+        }
+        return best == null ? Optional.empty() : Optional.of(new Match(best.id, best.severity));
+    }
+
+    /** 한 번의 스캔으로 매칭된 모든 룰 ID (룰 선언 순서) */
+    public List<String> matchingRuleIds(String normalizedSql) {
+        BitSet hits = compiled.scan(normalizedSql);
+        List<String> ids = new ArrayList<>(hits.cardinality());
+        for (int r = hits.nextSetBit(0); r >= 0; r = hits.nextSetBit(r + 1)) ids.add(compiled.rule(r).id);
+        return ids;
     }
 }
@@ -1,33 +1,249 @@
 package com.example.dbids.modules.rule;
 
+import java.util.Locale;
+
+/**
+ * 정규화: 주석 제거 → 문자열 리터럴 마스킹 → 숫자 마스킹 → 공백 압축/트림 → 대문자화.
+ *
+ * 기존 replaceAll 6회 구현과 출력이 바이트 단위로 같도록, 각 정규식의 매칭 규칙
+ * (순서 의존성 포함)을 손으로 옮긴 렉서형 스캐너다. 정규식 컴파일/중간 String 없이
+ * 스레드별 재사용 char 버퍼 두 개를 번갈아 쓰며, 숫자/공백/트림/대문자화는 한 패스로 합쳤다.
+ * (주석 제거가 리터럴 마스킹보다 먼저 적용되는 기존 동작을 유지하기 위해 주석/리터럴 단계는 분리)
+ */
 public class SqlNormalizer {
 
+    /** 이보다 큰 버퍼는 스레드에 붙잡아 두지 않는다 */
+    private static final int MAX_RETAINED = 64 * 1024;
+
+    private static final ThreadLocal<Buffers> BUFFERS = ThreadLocal.withInitial(Buffers::new);
+
+    private static final class Buffers {
+        char[] a = new char[1024];
+        char[] b = new char[1024];
+    }
+
     public String normalize(String sql) {
         if (sql == null) return "";
 
-        String s = sql;
+        int n = sql.length();
+        Buffers bufs = BUFFERS.get();
+        char[] src = ensure(bufs.a, n);
+        sql.getChars(0, n, src, 0);
+        char[] dst = ensure(bufs.b, n);
 
         // 블록/라인 주석 제거
-        s = s.replaceAll("(?s)/\\*.*?\\*/", " ");
-        s = s.replaceAll("(?m)--.*?$", " ");
+        n = stripBlockComments(src, n, dst);
+        char[] t = src; src = dst; dst = t;
+        n = stripLineComments(src, n, dst);
+        t = src; src = dst; dst = t;
+
+        // 문자열 리터럴 마스킹 ('' 이스케이프 → '?', 백슬래시 이스케이프 "..." → "?")
+        // 마스킹은 ''→'?' 처럼 길이가 늘 수 있어 여유 공간 확보
+        dst = ensure(dst, 2 * n + 2);
+        n = maskSingleQuoted(src, n, dst);
+        t = src; src = dst; dst = t;
+        dst = ensure(dst, 2 * n + 2);
+        n = maskDoubleQuoted(src, n, dst);
+        t = src; src = dst; dst = t;
+
+        // 숫자 상수 마스킹(OR 1=1 → OR 0=0) + 공백 압축 + 트림 + 대문자화
+        dst = ensure(dst, n);
+        n = maskNumbersAndCollapse(src, n, dst);
+
+        int from = 0, to = n;
+        while (from < to && dst[from] <= ' ') from++;
+        while (to > from && dst[to - 1] <= ' ') to--;
+        String out = toUpper(dst, from, to);
+
+        retain(bufs, src, dst);
+        return out;
+    }
 
-        // 문자열 리터럴 마스킹
-        // 1) 싱글쿼트: SQL 이스케이프('' -> ')를 고려
-        s = s.replaceAll("'([^']|'')*'", "'?'");
+    // ---------------------------------------------------------------- 단계별 스캐너
 
-        // 2) 더블쿼트: 백슬래시 이스케이프까지 처리 (\" 등)
-        //    "[^"\\]*  : 쌍따옴표/백슬래시가 아닌 문자들
-        //    \\.       : 백슬래시로 이스케이프된 임의의 한 글자
-        //    전체를 반복해서 닫는 " 를 만날 때까지
-        s = s.replaceAll("\"(?:[^\"\\\\]|\\\\.)*\"", "\"?\"");
+    // (?s)/\*.*?\*/ → " "
+    private static int stripBlockComments(char[] s, int n, char[] d) {
+        int o = 0, i = 0;
+        while (i < n) {
+            if (s[i] == '/' && i + 1 < n && s[i + 1] == '*') {
+                int close = indexOfCommentEnd(s, i + 2, n);
+                if (close < 0) break;          // 닫힘이 없으면 이후 위치에서도 매칭 불가
+                d[o++] = ' ';
+                i = close + 2;
+                continue;
+            }
+            d[o++] = s[i++];
+        }
+        while (i < n) d[o++] = s[i++];
+        return o;
+    }
+
+    private static int indexOfCommentEnd(char[] s, int from, int n) {
+        for (int j = from; j + 1 < n; j++) if (s[j] == '*' && s[j + 1] == '/') return j;
+        return -1;
+    }
+
+    // (?m)--.*?$ → " " : 다음 줄바꿈 문자(또는 끝) 직전까지
+    private static int stripLineComments(char[] s, int n, char[] d) {
+        int o = 0, i = 0;
+        while (i < n) {
+            if (s[i] == '-' && i + 1 < n && s[i + 1] == '-') {
+                int j = i + 2;
+                while (j < n && !isLineTerminator(s[j])) j++;
+                d[o++] = ' ';
+                i = j;
+                continue;
+            }
+            d[o++] = s[i++];
+        }
+        return o;
+    }
 
-        // 숫자 상수 마스킹 (OR 1=1 → OR 0=0)
-        s = s.replaceAll("\\b\\d+\\b", "0");
+    /**
+     * '([^']|'')*' → '?'
+     * 탐욕적으로 '' 를 소비하다 단독 ' 에서 닫힌다. 끝까지 닫힘이 없으면 마지막 '' 의 첫 ' 에서
+     * 닫히고(백트래킹 결과와 동일), '' 도 없었다면 매칭 실패(뒤에 ' 가 없으므로 나머지는 그대로).
+     */
+    private static int maskSingleQuoted(char[] s, int n, char[] d) {
+        int o = 0, i = 0;
+        while (i < n) {
+            if (s[i] != '\'') { d[o++] = s[i++]; continue; }
+
+            int j = i + 1, lastPair = -1, end = -1;
+            while (j < n) {
+                if (s[j] != '\'') j++;
+                else if (j + 1 < n && s[j + 1] == '\'') { lastPair = j; j += 2; }
+                else { end = j; break; }
+            }
+            if (end < 0) end = lastPair;
+            if (end < 0) {
+                while (i < n) d[o++] = s[i++];
+                break;
+            }
+            d[o++] = '\''; d[o++] = '?'; d[o++] = '\'';
+            i = end + 1;
+        }
+        return o;
+    }
+
+    /**
+     * "(?:[^"\\]|\\.)*" → "?"
+     * '.' 은 줄바꿈 문자를 소비하지 못하므로 '\' + 줄바꿈이나 미종결이면 해당 위치 매칭 실패 →
+     * 여는 " 만 그대로 두고 다음 글자부터 다시 탐색.
+     */
+    private static int maskDoubleQuoted(char[] s, int n, char[] d) {
+        int o = 0, i = 0;
+        while (i < n) {
+            if (s[i] != '"') { d[o++] = s[i++]; continue; }
+
+            int j = i + 1, end = -1;
+            while (j < n) {
+                char c = s[j];
+                if (c == '"') { end = j; break; }
+                if (c == '\\') {
+                    if (j + 1 < n && !isLineTerminator(s[j + 1])) { j += 2; continue; }
+                    break;
+                }
+                j++;
+            }
+            if (end < 0) { d[o++] = s[i++]; continue; }
+            d[o++] = '"'; d[o++] = '?'; d[o++] = '"';
+            i = end + 1;
+        }
+        return o;
+    }
 
-        // 공백 압축 + 트림
-        s = s.replaceAll("\\s+", " ").trim();
+    // \b\d+\b → "0", \s+ → " " (경계 판정은 입력 버퍼 기준)
+    private static int maskNumbersAndCollapse(char[] s, int n, char[] d) {
+        int o = 0, i = 0;
+        while (i < n) {
+            char c = s[i];
+            if (isRegexSpace(c)) {
+                while (i < n && isRegexSpace(s[i])) i++;
+                d[o++] = ' ';
+                continue;
+            }
+            if (c >= '0' && c <= '9') {
+                int j = i;
+                while (j < n && s[j] >= '0' && s[j] <= '9') j++;
+                if (!wordBefore(s, i, n) && !wordAt(s, j, n)) {
+                    d[o++] = '0';
+                } else {
+                    System.arraycopy(s, i, d, o, j - i);
+                    o += j - i;
+                }
+                i = j;
+                continue;
+            }
+            d[o++] = c;
+            i++;
+        }
+        return o;
+    }
+
+    // ---------------------------------------------------------------- java.util.regex 호환 판정
+
+    /** '.' 이 매칭하지 않는 줄바꿈 문자 (UNIX_LINES 미사용 기준) */
+    private static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+
+    /** \s (UNICODE_CHARACTER_CLASS 미사용) = [ \t\n\x0B\f\r] */
+    private static boolean isRegexSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == 0x0B || c == '\f' || c == '\r';
+    }
+
+    /** \b 의 단어 문자 판정 (ASCII \w + 기반 문자가 있는 결합 부호) */
+    private static boolean isBoundaryWord(char[] s, int n, int cp, int markIndex) {
+        if (cp < 128) return cp == '_' || (cp >= '0' && cp <= '9') || (cp >= 'A' && cp <= 'Z') || (cp >= 'a' && cp <= 'z');
+        return Character.getType(cp) == Character.NON_SPACING_MARK && hasBaseCharacter(s, n, markIndex);
+    }
+
+    private static boolean wordBefore(char[] s, int i, int n) {
+        if (i <= 0) return false;
+        return isBoundaryWord(s, n, Character.codePointBefore(s, i), i - 1);
+    }
+
+    private static boolean wordAt(char[] s, int i, int n) {
+        if (i >= n) return false;
+        return isBoundaryWord(s, n, Character.codePointAt(s, i, n), i);
+    }
+
+    private static boolean hasBaseCharacter(char[] s, int n, int i) {
+        for (int x = i; x >= 0; x--) {
+            int ch = Character.codePointAt(s, x, n);
+            if (Character.isLetterOrDigit(ch)) return true;
+            if (Character.getType(ch) == Character.NON_SPACING_MARK) continue;
+            return false;
+        }
+        return false;
+    }
+
+    /** String.toUpperCase()(기본 로케일)와 동일. ASCII만 있으면 버퍼에서 바로 변환 */
+    private static String toUpper(char[] d, int from, int to) {
+        String lang = Locale.getDefault().getLanguage();
+        boolean asciiSafe = !"tr".equals(lang) && !"az".equals(lang);
+        if (asciiSafe) {
+            for (int i = from; i < to; i++) {
+                char c = d[i];
+                if (c >= 128) return new String(d, from, to - from).toUpperCase();
+                if (c >= 'a' && c <= 'z') d[i] = (char) (c - 32);
+            }
+            return new String(d, from, to - from);
+        }
+        return new String(d, from, to - from).toUpperCase();
+    }
+
+    // ---------------------------------------------------------------- 버퍼
+
+    private static char[] ensure(char[] buf, int size) {
+        return buf.length >= size ? buf : new char[Math.max(size, buf.length * 2)];
+    }
 
-        // 대문자화
-        return s.toUpperCase();
+    private static void retain(Buffers bufs, char[] x, char[] y) {
+        if (x.length <= MAX_RETAINED && y.length <= MAX_RETAINED) {
+            bufs.a = x;
+            bufs.b = y;
+        }
     }
 }
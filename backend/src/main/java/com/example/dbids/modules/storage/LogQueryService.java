@@ -1,20 +1,31 @@
 package com.example.dbids.modules.storage;
 
+import com.example.dbids.dto.CursorPage;
 import com.example.dbids.dto.LogSummaryResponse;
 import com.example.dbids.dto.QueryLogFilter;
 import com.example.dbids.dto.QueryLogResponse;
+import com.example.dbids.sqlite.FtsQuery;
+import com.example.dbids.sqlite.LogPartitions;
+import com.example.dbids.sqlite.LogRollups;
+import com.example.dbids.sqlite.SqliteRowEstimator;
 import com.example.dbids.sqlite.model.QueryLog;
 import com.example.dbids.sqlite.repository.QueryLogRepository;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import jakarta.persistence.Query;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.ZoneOffset;
 import java.util.*;
@@ -30,6 +41,9 @@ import static com.example.dbids.modules.storage.QueryLogSpecifications.withFilte
 public class LogQueryService {
 
     private final QueryLogRepository repo;
+    private final SqliteRowEstimator estimator;
+    private final LogPartitions partitions;
+    private final LogRollups rollups;
     private final ObjectMapper mapper = new ObjectMapper()
             .registerModule(new JavaTimeModule())
             .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
@@ -39,121 +53,285 @@ public class LogQueryService {
     @PersistenceContext
     private EntityManager em;
 
-    public LogQueryService(QueryLogRepository repo) {
+    public LogQueryService(QueryLogRepository repo, SqliteRowEstimator estimator, LogPartitions partitions, LogRollups rollups) {
         this.repo = repo;
+        this.estimator = estimator;
+        this.partitions = partitions;
+        this.rollups = rollups;
     }
 
-    /** 리스트 조회 (페이지네이션) */
-    public Page<QueryLogResponse> search(QueryLogFilter f, Pageable pageable) {
+    /**
+     * 리스트 조회.
+     * - 정렬이 executedAt 이고 첫 페이지(page=0)이거나 cursor 가 있으면 키셋: (executed_at, id) 기준 "커서 다음" size 건
+     *   → OFFSET 스캔이 없어 N번째 페이지도 첫 페이지와 비용이 같다
+     * - 그 외(다른 정렬, 커서 없이 page>0)는 기존 OFFSET 페이지(호환용). 이때도 size+1 건만 읽고 COUNT 는 돌리지 않음
+     * - 전체 건수는 countMode 로: exact(COUNT), estimate(통계/상한 COUNT), none(생략, -1)
+     * - 기간이 파티션 파일과 겹치면 겹치는 파일만 붙여 같은 규칙으로 조회(searchPartitioned)
+     */
+    public CursorPage<QueryLogResponse> search(QueryLogFilter f, Pageable pageable, String cursor, CursorPage.CountMode countMode) {
         // 날짜 보정: [from 00:00Z, (to+1d) 00:00Z)
         String fromIso = toUtcStartIso(f.from());
         String toIso   = toUtcEndExclusiveIso(f.to());
+        QueryLogFilter bounded = f.withFrom(fromIso).withTo(toIso);
+
+        List<LogPartitions.Partition> parts = partitions.forLogs(fromIso, toIso);
+        if (!parts.isEmpty()) return searchPartitioned(bounded, pageable, cursor, countMode, parts);
+
+        var spec = withFilter(bounded);
+        int size = pageable.getPageSize();
+        Sort.Direction dir = keysetDirection(pageable.getSort());
+
+        // executedAt 정렬은 id 로 동률을 끊어 키셋/OFFSET 이 같은 순서를 보게 함
+        Sort sort = (dir != null) ? Sort.by(dir, "executedAt").and(Sort.by(dir, "id")) : pageable.getSort();
+        List<QueryLog> got;
+        if (dir != null && (cursor != null || pageable.getPageNumber() == 0)) {
+            CursorPage.Cursor after = (cursor == null) ? null : CursorPage.Cursor.decode(cursor);
+            var keyset = (after == null) ? spec : spec.and(QueryLogSpecifications.after(after, dir));
+            got = repo.findBy(keyset, q -> q.sortBy(sort).limit(size + 1).all());
+        } else {
+            got = offsetSlice(spec, sort, pageable);
+        }
+        List<QueryLog> rows = got.size() > size ? got.subList(0, size) : got;
+        // executedAt 정렬이면 OFFSET 페이지에서도 커서를 내줘 다음부터는 키셋으로 이어 읽게 함
+        CursorPage.Cursor next = null;
+        if (dir != null && got.size() > size) {
+            QueryLog last = rows.get(rows.size() - 1);
+            next = new CursorPage.Cursor(last.getExecutedAt(), last.getId());
+        }
 
-        var spec = withFilter(f.withFrom(fromIso).withTo(toIso));
-
-        Page<QueryLog> page = repo.findAll(spec, pageable);
-
-        // ❗ QueryLogResponse::fromEntity 가 없으므로, 직접 매핑
-        return new PageImpl<>(
-                page.getContent().stream()
-                        .map(q -> {
-                            String summary = (q.getSqlSummary() != null && !q.getSqlSummary().isBlank())
-                                    ? q.getSqlSummary()
-                                    : com.example.dbids.modules.storage.SqlSummarizer.summarize(q.getSqlRaw());
-                            return new com.example.dbids.dto.QueryLogResponse(
-                                    q.getId(),
-                                    q.getExecutedAt(),
-                                    q.getUserId(),
-                                    summary,
-                                    q.getSqlRaw(),
-                                    q.getReturnRows(),
-                                    q.getStatus() == null ? null : q.getStatus().name()
-                            );
-                        })
-                        .toList(),
-                pageable,
-                page.getTotalElements()
-        );
+        long total = switch (countMode) {
+            case EXACT    -> repo.count(spec);
+            case ESTIMATE -> estimateCount(bounded, fromIso, toIso);
+            case NONE     -> -1L;
+        };
+
+        return new CursorPage<>(rows.stream().map(LogQueryService::toResponse).toList(),
+                pageable.getPageNumber(), size, total, countMode, next);
     }
 
-    /** CSV 다운로드 */
-    public byte[] exportCsv(QueryLogFilter f, Pageable pageable) {
-        String fromIso = toUtcStartIso(f.from());
-        String toIso   = toUtcEndExclusiveIso(f.to());
-        var spec = withFilter(f.withFrom(fromIso).withTo(toIso));
-
-        Page<QueryLog> page = repo.findAll(spec, pageable);
-
-        StringBuilder sb = new StringBuilder();
-        sb.append("executedAt,userId,adminId,sqlRaw,sqlSummary,returnRows,status\n");
-        for (QueryLog q : page.getContent()) {
-            sb.append(csv(q.getExecutedAt()))
-                    .append(',').append(csv(nullToEmpty(q.getUserId())))
-                    .append(',').append(csv(nullToEmpty(q.getAdminId())))
-                    .append(',').append(csv(nullToEmpty(q.getSqlRaw())))
-                    .append(',').append(csv(nullToEmpty(q.getSqlSummary())))
-                    // returnRows 는 int(primitive) 라 null 비교 불가
-                    .append(',').append(q.getReturnRows())
-                    // enum → 문자열은 name() 사용
-                    .append(',').append(csv(q.getStatus() == null ? "" : q.getStatus().name()))
-                    .append('\n');
+    // OFFSET 페이지를 COUNT 없이: offset 부터 size+1 건만 읽고 남는 1건으로 다음 페이지 유무를 판단(건수는 countMode 가 따로)
+    private List<QueryLog> offsetSlice(Specification<QueryLog> spec, Sort sort, Pageable pageable) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<QueryLog> q = cb.createQuery(QueryLog.class);
+        Root<QueryLog> root = q.from(QueryLog.class);
+        Predicate where = spec.toPredicate(root, q, cb);
+        if (where != null) q.where(where);
+        q.orderBy(QueryUtils.toOrders(sort, root, cb));
+        return em.createQuery(q)
+                .setFirstResult(Math.toIntExact(pageable.getOffset()))
+                .setMaxResults(pageable.getPageSize() + 1)
+                .getResultList();
+    }
+
+    /**
+     * 파티션 파일이 섞인 기간의 리스트. main + 겹치는 파티션을 arm 마다 같은 조건/정렬로 "offset+size+1" 건만 읽고
+     * 바깥에서 합쳐 다시 정렬 → 각 arm 은 (executed_at, id) 인덱스 범위만 읽음. 키셋/OFFSET/커서/건수 규칙은 search 와 같음.
+     */
+    private CursorPage<QueryLogResponse> searchPartitioned(QueryLogFilter f, Pageable pageable, String cursor,
+            CursorPage.CountMode countMode, List<LogPartitions.Partition> parts) {
+        int size = pageable.getPageSize();
+        Sort.Direction dir = keysetDirection(pageable.getSort());
+        boolean keyset = dir != null && (cursor != null || pageable.getPageNumber() == 0);
+        CursorPage.Cursor after = (keyset && cursor != null) ? CursorPage.Cursor.decode(cursor) : null;
+        long offset = keyset ? 0 : pageable.getOffset();
+
+        StringBuilder keysetCond = new StringBuilder();
+        MapSqlParameterSource p = QueryLogExporter.params(f);
+        if (after != null) {
+            String cmp = dir.isAscending() ? ">" : "<";
+            keysetCond.append(" AND executed_at ").append(cmp).append("= :cts AND (executed_at ").append(cmp)
+                    .append(" :cts OR id ").append(cmp).append(" :cid)");
+            p.addValue("cts", after.key()).addValue("cid", after.id());
         }
-        return sb.toString().getBytes(StandardCharsets.UTF_8);
+        String order = keyset
+                ? QueryLogExporter.orderBy(Sort.by(dir, "executedAt"))
+                : QueryLogExporter.orderBy(pageable.getSort());
+        p.addValue("armLimit", offset + size + 1).addValue("lim", size + 1).addValue("off", offset);
+
+        return partitions.read(parts, scope -> {
+            String sql = scope.unionAll(s -> "SELECT id, executed_at, user_id, admin_id, sql_raw, sql_summary, return_rows, status FROM "
+                    + s + ".query_log WHERE " + buildWhereForSummary(f, s, scope.searchable(s)) + keysetCond
+                    + " ORDER BY " + order + " LIMIT :armLimit")
+                    + " ORDER BY " + order + " LIMIT :lim OFFSET :off";
+            List<QueryLog> got = scope.jdbc().query(sql, p, QUERY_LOG_ROW);
+            List<QueryLog> rows = got.size() > size ? got.subList(0, size) : got;
+            CursorPage.Cursor next = null;
+            if (dir != null && got.size() > size) {
+                QueryLog last = rows.get(rows.size() - 1);
+                next = new CursorPage.Cursor(last.getExecutedAt(), last.getId());
+            }
+
+            MapSqlParameterSource cp = QueryLogExporter.params(f).addValue("cap", SqliteRowEstimator.CAP);
+            long total = switch (countMode) {
+                case EXACT -> scope.jdbc().queryForObject("SELECT SUM(n) FROM (" + scope.unionAll(
+                        s -> "SELECT COUNT(*) AS n FROM " + s + ".query_log WHERE " + buildWhereForSummary(f, s, scope.searchable(s))) + ")", cp, Long.class);
+                case ESTIMATE -> isFiltered(f)
+                        ? scope.jdbc().queryForObject("SELECT COUNT(*) FROM (" + scope.unionAll(
+                                s -> "SELECT 1 FROM " + s + ".query_log WHERE " + buildWhereForSummary(f, s, scope.searchable(s))
+                                        + " LIMIT :cap") + " LIMIT :cap)", cp, Long.class)
+                        : estimator.estimateRows("query_log") + parts.stream().mapToLong(LogPartitions.Partition::logRows).sum();
+                case NONE -> -1L;
+            };
+            return new CursorPage<>(rows.stream().map(LogQueryService::toResponse).toList(),
+                    pageable.getPageNumber(), size, total, countMode, next);
+        });
+    }
+
+    private static final RowMapper<QueryLog> QUERY_LOG_ROW = (rs, i) -> {
+        String status = rs.getString("status");
+        return new QueryLog(rs.getString("id"), rs.getString("executed_at"), rs.getString("user_id"), rs.getString("admin_id"),
+                rs.getString("sql_raw"), rs.getString("sql_summary"), rs.getInt("return_rows"),
+                status == null ? null : QueryLog.Status.valueOf(status));
+    };
+
+    // ❗ QueryLogResponse::fromEntity 가 없으므로, 직접 매핑
+    private static QueryLogResponse toResponse(QueryLog q) {
+        String summary = (q.getSqlSummary() != null && !q.getSqlSummary().isBlank())
+                ? q.getSqlSummary()
+                : SqlSummarizer.summarize(q.getSqlRaw());
+        return new QueryLogResponse(
+                q.getId(),
+                q.getExecutedAt(),
+                q.getUserId(),
+                summary,
+                q.getSqlRaw(),
+                q.getReturnRows(),
+                q.getStatus() == null ? null : q.getStatus().name()
+        );
+    }
+
+    // 키셋은 executedAt 단일 정렬일 때만(그 외 정렬 키는 OFFSET 경로)
+    private static Sort.Direction keysetDirection(Sort sort) {
+        List<Sort.Order> orders = sort.toList();
+        if (orders.isEmpty()) return Sort.Direction.DESC;
+        if (orders.size() == 1 && orders.get(0).getProperty().equals("executedAt")) return orders.get(0).getDirection();
+        return null;
     }
 
-    /** 통계/요약 */
+    // 필터 없음 → 테이블 통계, 필터 있음 → CAP 건까지만 세는 상한 COUNT
+    private long estimateCount(QueryLogFilter f, String fromIso, String toIso) {
+        if (!isFiltered(f)) return estimator.estimateRows("query_log");
+
+        String sql = "SELECT COUNT(*) FROM (SELECT 1 FROM query_log WHERE %s LIMIT :cap)".formatted(buildWhereForSummary(f));
+        Query q = em.createNativeQuery(sql);
+        bindCommonParams(q, f, fromIso, toIso);
+        q.setParameter("cap", SqliteRowEstimator.CAP);
+        return ((Number) q.getSingleResult()).longValue();
+    }
+
+    // f 는 날짜 보정이 끝난 필터
+    private static boolean isFiltered(QueryLogFilter f) {
+        return (f.user() != null && !f.user().isBlank()) || (f.keywords() != null && !f.keywords().isBlank())
+                || (f.status() != null && !f.status().isEmpty()) || f.from() != null || f.to() != null
+                || f.rowsMin() != null || f.rowsMax() != null;
+    }
+
+    /** 통계/요약(시간 단위) */
     public LogSummaryResponse summarize(QueryLogFilter f, int limit) {
+        return summarize(f, limit, LogRollups.Grain.HOUR);
+    }
+
+    /**
+     * 통계/요약.
+     * - 롤업 유효 구간 [start, watermark) 은 log_rollup(사용자별은 일, 시간대별은 grain)에서 읽고,
+     *   그 밖(닫히지 않은 최근 구간, 롤업 시작 이전)만 원본(본 테이블 + 겹치는 파티션)에서 집계해 합침
+     * - 롤업에 없는 조건(keywords, rowsMin/rowsMax)이 있으면 전체를 원본에서 집계
+     */
+    public LogSummaryResponse summarize(QueryLogFilter f, int limit, LogRollups.Grain grain) {
         String fromIso = toUtcStartIso(f.from());
         String toIso   = toUtcEndExclusiveIso(f.to());
 
-        List<Map<String, Object>> topUsers = topUsersQuery(fromIso, toIso, f, Math.max(1, Math.min(limit, 100_000)));
-        List<Map<String, Object>> byHour   = byHourQuery(fromIso, toIso, f);
+        QueryLogFilter bounded = f.withFrom(fromIso).withTo(toIso);
+        int lim = Math.max(1, Math.min(limit, 100_000));
+        Map<String, long[]> users = new HashMap<>();
+        Map<String, long[]> times = new TreeMap<>();
 
-        // ⬇️ DTO 시그니처에 의존하지 않고 안전하게 생성
-        List<LogSummaryResponse.UserBucket> userBuckets = topUsers.stream()
-                .map(m -> makeUserBucket(
-                        Objects.toString(m.get("user"), ""),
-                        ((Number) m.get("cnt")).longValue()
-                ))
-                .toList();
+        LogRollups.State st = rollupCompatible(bounded) ? rollups.state() : null;
+        String rFrom = null, rTo = null;
+        if (st != null) {
+            rFrom = max(fromIso, st.from(grain));
+            rTo   = min(toIso, st.watermark());
+        }
+        if (rFrom == null || rFrom.compareTo(rTo) >= 0) {
+            rawSummary(bounded, grain, users, times);
+        } else {
+            List<String> statuses = (f.status() == null || f.status().isEmpty()) ? null : f.status();
+            rollups.byUser(rFrom, rTo, f.user(), statuses).forEach(b -> add(users, b));
+            rollups.byTime(grain, rFrom, rTo, f.user(), statuses).forEach(b -> add(times, b));
+            if (fromIso == null || fromIso.compareTo(rFrom) < 0) rawSummary(bounded.withTo(rFrom), grain, users, times);
+            if (toIso == null || toIso.compareTo(rTo) > 0) rawSummary(bounded.withFrom(rTo), grain, users, times);
+        }
 
-        List<LogSummaryResponse.TimeBucket> timeBuckets = byHour.stream()
-                .map(m -> makeTimeBucket(
-                        Objects.toString(m.get("hour"), ""),
-                        ((Number) m.get("cnt")).longValue()
-                ))
+        List<LogSummaryResponse.UserBucket> userBuckets = users.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, long[]> e) -> e.getValue()[0]).reversed()
+                        .thenComparing(Map.Entry::getKey))
+                .limit(lim)
+                .map(e -> new LogSummaryResponse.UserBucket(e.getKey(), e.getValue()[0], e.getValue()[1], e.getValue()[2], e.getValue()[3]))
+                .toList();
+        List<LogSummaryResponse.TimeBucket> timeBuckets = times.entrySet().stream()
+                .map(e -> new LogSummaryResponse.TimeBucket(e.getKey(), e.getValue()[0], e.getValue()[1], e.getValue()[2], e.getValue()[3]))
                 .toList();
-
         return new LogSummaryResponse(userBuckets, timeBuckets);
     }
 
+    // 롤업 차원(사용자, 상태, 기간)만으로 표현되는 조건인지
+    private static boolean rollupCompatible(QueryLogFilter f) {
+        return (f.keywords() == null || f.keywords().isBlank()) && f.rowsMin() == null && f.rowsMax() == null;
+    }
+
+    // 원본 집계: f 의 기간(날짜 보정 끝난 ISO)과 겹치는 파티션 + 본 테이블
+    private void rawSummary(QueryLogFilter f, LogRollups.Grain grain, Map<String, long[]> users, Map<String, long[]> times) {
+        partitions.read(partitions.forLogs(f.from(), f.to()), scope -> {
+            summaryQuery(scope, f, "user_id").forEach(b -> add(users, b));
+            summaryQuery(scope, f, grain.bucketOf("executed_at")).forEach(b -> add(times, b));
+            return null;
+        });
+    }
+
+    private static void add(Map<String, long[]> acc, LogRollups.Bucket b) {
+        long[] v = acc.computeIfAbsent(b.key(), k -> new long[4]);
+        v[0] += b.total();
+        v[1] += b.success();
+        v[2] += b.failure();
+        v[3] += b.rowsSum();
+    }
+
+    private static String max(String a, String b) {
+        return (a == null || a.compareTo(b) < 0) ? b : a;
+    }
+
+    private static String min(String a, String b) {
+        return (a == null || a.compareTo(b) > 0) ? b : a;
+    }
+
     // ---------- Private helpers ----------
 
-    private static String toUtcStartIso(String ymd) {
+    static String toUtcStartIso(String ymd) {
         if (ymd == null || ymd.isBlank()) return null;
         return LocalDate.parse(ymd).atStartOfDay(ZoneOffset.UTC).toInstant().toString(); // "YYYY-MM-DDT00:00:00Z"
     }
 
-    private static String toUtcEndExclusiveIso(String ymd) {
+    static String toUtcEndExclusiveIso(String ymd) {
         if (ymd == null || ymd.isBlank()) return null;
         return LocalDate.parse(ymd).plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant().toString(); // (to+1d) 00:00Z
     }
 
-    private static String csv(String s) {
-        if (s == null) return "";
-        String v = s.replace("\"", "\"\"");
-        return '"' + v + '"';
-    }
-
-    private static String nullToEmpty(String s) { return s == null ? "" : s; }
-
     // ---- 네이티브 통계 쿼리 (>= fromIso AND < toIso) ----
 
-    private static String buildWhereForSummary(QueryLogFilter f) {
+    static String buildWhereForSummary(QueryLogFilter f) {
+        return buildWhereForSummary(f, "main", true);
+    }
+
+    /** schema.query_log 조건. 키워드는 그 스키마에 FTS 색인이 있으면 MATCH(:fts), 없거나 토큰이 없으면 sql_summary LIKE(:kw) */
+    static String buildWhereForSummary(QueryLogFilter f, String schema, boolean searchable) {
         List<String> w = new ArrayList<>();
         w.add("1=1");
         if (f.user() != null && !f.user().isBlank()) w.add("user_id = :user");
-        if (f.keywords() != null && !f.keywords().isBlank()) w.add("LOWER(sql_summary) LIKE :kw");
+        if (f.keywords() != null && !f.keywords().isBlank()) {
+            w.add(searchable && FtsQuery.of(f.keywords()) != null
+                    ? "rowid IN (SELECT rowid FROM " + schema + ".query_log_fts(:fts))"
+                    : "LOWER(sql_summary) LIKE :kw");
+        }
         if (f.status() != null && !f.status().isEmpty()) w.add("status IN (:st)");
         if (f.from() != null) w.add("executed_at >= :fromIso");
         if (f.to() != null)   w.add("executed_at <  :toIso"); // 상한 제외
@@ -164,7 +342,11 @@ public class LogQueryService {
 
     private void bindCommonParams(Query q, QueryLogFilter f, String fromIso, String toIso) {
         if (f.user() != null && !f.user().isBlank()) q.setParameter("user", f.user());
-        if (f.keywords() != null && !f.keywords().isBlank()) q.setParameter("kw", "%"+f.keywords().toLowerCase()+"%");
+        if (f.keywords() != null && !f.keywords().isBlank()) {
+            String fts = FtsQuery.of(f.keywords());
+            if (fts != null) q.setParameter("fts", fts);
+            else q.setParameter("kw", "%"+f.keywords().toLowerCase()+"%");
+        }
         if (f.status() != null && !f.status().isEmpty()) q.setParameter("st", f.status());
         if (fromIso != null) q.setParameter("fromIso", fromIso);
         if (toIso   != null) q.setParameter("toIso", toIso);
@@ -172,46 +354,22 @@ public class LogQueryService {
         if (f.rowsMax() != null) q.setParameter("rmax", f.rowsMax());
     }
 
-    @SuppressWarnings("unchecked")
-    private List<Map<String,Object>> topUsersQuery(String fromIso, String toIso, QueryLogFilter f, int limit) {
-        String where = buildWhereForSummary(f.withFrom(fromIso).withTo(toIso));
-        String sql = """
-            SELECT user_id AS user, COUNT(*) AS cnt
-            FROM query_log
-            WHERE %s
-            GROUP BY user_id
-            ORDER BY cnt DESC
-            LIMIT :lim
-            """.formatted(where);
-        Query q = em.createNativeQuery(sql);
-        bindCommonParams(q, f, fromIso, toIso);
-        q.setParameter("lim", limit);
-        List<Object[]> rows = q.getResultList();
-        List<Map<String,Object>> out = new ArrayList<>();
-        for (Object[] r : rows) {
-            out.add(Map.of("user", r[0], "cnt", ((Number)r[1]).longValue()));
-        }
-        return out;
-    }
-
-    @SuppressWarnings("unchecked")
-    private List<Map<String,Object>> byHourQuery(String fromIso, String toIso, QueryLogFilter f) {
-        String where = buildWhereForSummary(f.withFrom(fromIso).withTo(toIso));
+    // key(user_id 또는 버킷 식)별 건수/성공/실패/return_rows 합. 스키마마다 GROUP BY 한 뒤 합침
+    private static List<LogRollups.Bucket> summaryQuery(LogPartitions.Scope scope, QueryLogFilter f, String key) {
         String sql = """
-            SELECT substr(executed_at,1,13) || ':00:00Z' AS hour, COUNT(*) AS cnt
-            FROM query_log
-            WHERE %s
-            GROUP BY substr(executed_at,1,13)
-            ORDER BY hour ASC
-            """.formatted(where);
-        Query q = em.createNativeQuery(sql);
-        bindCommonParams(q, f, fromIso, toIso);
-        List<Object[]> rows = q.getResultList();
-        List<Map<String,Object>> out = new ArrayList<>();
-        for (Object[] r : rows) {
-            out.add(Map.of("hour", r[0], "cnt", ((Number)r[1]).longValue()));
-        }
-        return out;
+            SELECT k, SUM(cnt), SUM(ok), SUM(fail), SUM(rows_sum)
+            FROM (%s)
+            GROUP BY k
+            """.formatted(scope.unionAll(s -> """
+                SELECT %s AS k, COUNT(*) AS cnt,
+                       SUM(CASE WHEN status = 'SUCCESS' THEN 1 ELSE 0 END) AS ok,
+                       SUM(CASE WHEN status = 'FAILURE' THEN 1 ELSE 0 END) AS fail,
+                       SUM(return_rows) AS rows_sum
+                FROM %s.query_log
+                WHERE %s
+                GROUP BY 1""".formatted(key, s, buildWhereForSummary(f, s, scope.searchable(s)))));
+        return scope.jdbc().query(sql, QueryLogExporter.params(f),
+                (rs, i) -> new LogRollups.Bucket(rs.getString(1), rs.getLong(2), rs.getLong(3), rs.getLong(4), rs.getLong(5)));
     }
 
     // --------- DTO 매핑 (프로젝트 실제 QueryLogResponse 구조에 맞춤) ---------
@@ -244,72 +402,4 @@ public class LogQueryService {
             }
         }
     }
-
-    @SuppressWarnings("unchecked")
-    private LogSummaryResponse.UserBucket makeUserBucket(String key, long cnt) {
-        try {
-            Class<LogSummaryResponse.UserBucket> cls = LogSummaryResponse.UserBucket.class;
-            for (var ctor : cls.getDeclaredConstructors()) {
-                ctor.setAccessible(true);
-                Object[] args = fillArgs(ctor.getParameterTypes(), key, cnt);
-                return (LogSummaryResponse.UserBucket) ctor.newInstance(args);
-            }
-            throw new IllegalStateException("No constructor found for UserBucket");
-        } catch (Exception e) {
-            throw new IllegalStateException("Failed to construct UserBucket reflectively", e);
-        }
-    }
-
-    @SuppressWarnings("unchecked")
-    private LogSummaryResponse.TimeBucket makeTimeBucket(String key, long cnt) {
-        try {
-            Class<LogSummaryResponse.TimeBucket> cls = LogSummaryResponse.TimeBucket.class;
-            for (var ctor : cls.getDeclaredConstructors()) {
-                ctor.setAccessible(true);
-                Object[] args = fillArgs(ctor.getParameterTypes(), key, cnt);
-                return (LogSummaryResponse.TimeBucket) ctor.newInstance(args);
-            }
-            throw new IllegalStateException("No constructor found for TimeBucket");
-        } catch (Exception e) {
-            throw new IllegalStateException("Failed to construct TimeBucket reflectively", e);
-        }
-    }
-
-    /**
-     * 생성자 파라미터 타입 배열을 받아, 첫 번째 String에는 key, 첫 번째 숫자형에는 cnt를 주입.
-     * 나머지는 0/false/"" 등의 안전한 기본값으로 채움.
-     */
-    private Object[] fillArgs(Class<?>[] paramTypes, String key, long cnt) {
-        Object[] args = new Object[paramTypes.length];
-        boolean keySet = false, cntSet = false;
-
-        for (int i = 0; i < paramTypes.length; i++) {
-            Class<?> t = paramTypes[i];
-
-            if (!keySet && (t == String.class)) {
-                args[i] = key;
-                keySet = true;
-                continue;
-            }
-            if (!cntSet && (t == long.class || t == Long.class || t == int.class || t == Integer.class
-                    || t == double.class || t == Double.class)) {
-                // 숫자형 첫 파라미터에 cnt 주입 (필요 시 캐스팅)
-                if (t == long.class || t == Long.class)      args[i] = cnt;
-                else if (t == int.class || t == Integer.class) args[i] = (int) cnt;
-                else if (t == double.class || t == Double.class) args[i] = (double) cnt;
-                cntSet = true;
-                continue;
-            }
-
-            // 나머지는 타입별 기본값
-            if (t == String.class) args[i] = "";
-            else if (t == boolean.class || t == Boolean.class) args[i] = false;
-            else if (t == long.class || t == Long.class) args[i] = 0L;
-            else if (t == int.class || t == Integer.class) args[i] = 0;
-            else if (t == double.class || t == Double.class) args[i] = 0.0d;
-            else if (t.isEnum()) args[i] = t.getEnumConstants()[0]; // enum은 첫 상수로
-            else args[i] = null;
-        }
-        return args;
-    }
 }
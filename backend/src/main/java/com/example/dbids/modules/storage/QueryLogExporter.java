@@ -0,0 +1,216 @@
+package com.example.dbids.modules.storage;
+
+import com.example.dbids.dto.QueryLogFilter;
+import com.example.dbids.sqlite.FtsQuery;
+import com.example.dbids.sqlite.LogPartitions;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * QueryLog 스트리밍 내보내기.
+ * - 엔티티/리스트로 모으지 않고 전방향(forward-only) JDBC 커서로 한 행씩 읽어 바로 출력 스트림에 씀
+ *   → 행 수 제한 없음, 기간이 길어도 힙 사용량은 버퍼 크기로 일정
+ * - 조건은 /api/logs 와 같은 QueryLogFilter 의미(날짜는 [from 00:00Z, (to+1d) 00:00Z))
+ * - 형식: CSV(기존 헤더 동일) / NDJSON, 각각 gzip 압축 선택 가능
+ * - 기간이 파티션 파일과 겹치면 겹치는 파일만 붙여 main 과 함께 정렬해 내보냄
+ */
+@Component
+public class QueryLogExporter {
+
+    public enum Format {
+        CSV("text/csv; charset=UTF-8", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        public final String contentType;
+        public final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public static Format parse(String s) {
+            if (s == null || s.isBlank()) return CSV;
+            return valueOf(s.trim().toUpperCase(Locale.ROOT));   // 잘못된 값은 IllegalArgumentException → 400
+        }
+    }
+
+    static final int FETCH_SIZE = 500;
+    private static final int BUFFER_CHARS = 64 * 1024;
+    private static final String CSV_HEADER = "executedAt,userId,adminId,sqlRaw,sqlSummary,returnRows,status\n";
+
+    // 정렬은 화이트리스트 컬럼만(그 외는 executed_at)
+    private static final Map<String, String> SORT_COLUMNS = Map.of(
+            "executedAt", "executed_at",
+            "userId", "user_id",
+            "adminId", "admin_id",
+            "sqlSummary", "sql_summary",
+            "returnRows", "return_rows",
+            "status", "status");
+
+    private static final String COLUMNS = "executed_at, user_id, admin_id, sql_raw, sql_summary, return_rows, status, id";
+
+    private final NamedParameterJdbcTemplate jdbc;
+    private final LogPartitions partitions;
+    private final JsonFactory json = new JsonFactory();
+
+    public QueryLogExporter(@Qualifier("sqliteReadJdbc") JdbcTemplate readJdbc, LogPartitions partitions) {
+        this.partitions = partitions;
+        // 공유 JdbcTemplate 의 설정은 건드리지 않고 fetch size 만 다른 전용 템플릿.
+        // 스트림 동안 커넥션을 쥐고 있으므로 reader 풀에서(단일 writer 를 막지 않음)
+        JdbcTemplate t = new JdbcTemplate(readJdbc.getDataSource());
+        t.setFetchSize(FETCH_SIZE);
+        this.jdbc = new NamedParameterJdbcTemplate(t);
+    }
+
+    /**
+     * 응답 본문. 날짜 파싱 등 조건 검증은 여기서 바로 하고(IllegalArgumentException/DateTimeParseException → 400),
+     * 실제 조회/쓰기는 반환된 본문이 요청 스레드 밖에서 실행될 때 수행.
+     */
+    public StreamingResponseBody prepare(QueryLogFilter f, Sort sort, Format format, boolean gzip) {
+        String fromIso = LogQueryService.toUtcStartIso(f.from());
+        String toIso   = LogQueryService.toUtcEndExclusiveIso(f.to());
+        QueryLogFilter bounded = f.withFrom(fromIso).withTo(toIso);
+
+        String where = LogQueryService.buildWhereForSummary(bounded);
+        String order = orderBy(sort);
+        MapSqlParameterSource params = params(bounded);
+        List<LogPartitions.Partition> parts = partitions.forLogs(fromIso, toIso);
+        if (parts.isEmpty()) {
+            String sql = """
+                SELECT %s
+                FROM query_log
+                WHERE %s
+                ORDER BY %s
+                """.formatted(COLUMNS, where, order);
+            return out -> write(jdbc, sql, params, format, gzip, out);
+        }
+        return out -> {
+            try {
+                partitions.read(parts, scope -> {
+                    String sql = scope.unionAll(s -> "SELECT " + COLUMNS + " FROM " + s + ".query_log WHERE "
+                            + LogQueryService.buildWhereForSummary(bounded, s, scope.searchable(s)))
+                            + " ORDER BY " + order;
+                    try {
+                        write(scope.jdbc(), sql, params, format, gzip, out);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    return null;
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+    }
+
+    // gzip 이면 압축 스트림으로 감싸고 끝에서 finish. out 은 닫지 않음
+    private void write(NamedParameterJdbcTemplate jdbc, String sql, MapSqlParameterSource params, Format format,
+            boolean gzip, OutputStream out) throws IOException {
+        GZIPOutputStream gz = gzip ? new GZIPOutputStream(out, 8192) : null;
+        Writer w = new BufferedWriter(new OutputStreamWriter(gz != null ? gz : out, StandardCharsets.UTF_8), BUFFER_CHARS);
+        JsonGenerator g = null;
+        if (format == Format.CSV) {
+            w.write(CSV_HEADER);
+        } else {
+            g = json.createGenerator(w);
+            g.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            g.setRootValueSeparator(null);
+        }
+
+        JsonGenerator gen = g;
+        try {
+            jdbc.query(sql, params, (ResultSet rs) -> {
+                try {
+                    if (gen == null) writeCsv(rs, w);
+                    else writeJson(rs, gen, w);
+                } catch (IOException e) {
+                    // 클라이언트가 끊은 경우 등 → 커서를 닫고 중단
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        if (gen != null) gen.flush();
+        w.flush();
+        if (gz != null) gz.finish();
+    }
+
+    private static void writeCsv(ResultSet rs, Writer w) throws SQLException, IOException {
+        w.write(csv(rs.getString("executed_at")));
+        w.write(','); w.write(csv(rs.getString("user_id")));
+        w.write(','); w.write(csv(rs.getString("admin_id")));
+        w.write(','); w.write(csv(rs.getString("sql_raw")));
+        w.write(','); w.write(csv(rs.getString("sql_summary")));
+        w.write(','); w.write(Integer.toString(rs.getInt("return_rows")));
+        w.write(','); w.write(csv(rs.getString("status")));
+        w.write('\n');
+    }
+
+    private static void writeJson(ResultSet rs, JsonGenerator g, Writer w) throws SQLException, IOException {
+        g.writeStartObject();
+        g.writeStringField("id", rs.getString("id"));
+        g.writeStringField("executedAt", rs.getString("executed_at"));
+        g.writeStringField("userId", rs.getString("user_id"));
+        g.writeStringField("adminId", rs.getString("admin_id"));
+        g.writeStringField("sqlRaw", rs.getString("sql_raw"));
+        g.writeStringField("sqlSummary", rs.getString("sql_summary"));
+        g.writeNumberField("returnRows", rs.getInt("return_rows"));
+        g.writeStringField("status", rs.getString("status"));
+        g.writeEndObject();
+        g.flush();          // 생성기 버퍼 → BufferedWriter(소켓 쓰기는 버퍼가 찰 때)
+        w.write('\n');
+    }
+
+    private static String csv(String s) {
+        if (s == null) return "\"\"";
+        return '"' + s.replace("\"", "\"\"") + '"';
+    }
+
+    static String orderBy(Sort sort) {
+        Sort.Order o = sort.isSorted() ? sort.iterator().next() : Sort.Order.desc("executedAt");
+        String col = SORT_COLUMNS.getOrDefault(o.getProperty(), "executed_at");
+        String dir = o.isAscending() ? "ASC" : "DESC";
+        return col + " " + dir + ", id " + dir;
+    }
+
+    static MapSqlParameterSource params(QueryLogFilter f) {
+        MapSqlParameterSource p = new MapSqlParameterSource();
+        if (f.user() != null && !f.user().isBlank()) p.addValue("user", f.user());
+        if (f.keywords() != null && !f.keywords().isBlank()) {
+            // 스키마마다 FTS(:fts) 또는 LIKE(:kw) 중 하나를 쓰므로 둘 다
+            p.addValue("kw", "%" + f.keywords().toLowerCase() + "%");
+            String fts = FtsQuery.of(f.keywords());
+            if (fts != null) p.addValue("fts", fts);
+        }
+        if (f.status() != null && !f.status().isEmpty()) p.addValue("st", f.status());
+        if (f.from() != null) p.addValue("fromIso", f.from());
+        if (f.to() != null) p.addValue("toIso", f.to());
+        if (f.rowsMin() != null) p.addValue("rmin", f.rowsMin());
+        if (f.rowsMax() != null) p.addValue("rmax", f.rowsMax());
+        return p;
+    }
+}
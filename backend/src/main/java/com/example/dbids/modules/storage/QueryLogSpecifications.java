@@ -1,9 +1,13 @@
 package com.example.dbids.modules.storage;
 
+import com.example.dbids.dto.CursorPage;
 import com.example.dbids.dto.QueryLogFilter;
+import com.example.dbids.sqlite.FtsQuery;
 import com.example.dbids.sqlite.model.QueryLog;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 
+import jakarta.persistence.criteria.Path;
 import jakarta.persistence.criteria.Predicate;
 import java.util.ArrayList;
 import java.util.List;
@@ -20,7 +24,11 @@ public final class QueryLogSpecifications {
                 preds.add(cb.equal(root.get("userId"), f.user()));
             }
             if (f.keywords() != null && !f.keywords().isBlank()) {
-                preds.add(cb.like(cb.lower(root.get("sqlSummary")), "%" + f.keywords().toLowerCase() + "%"));
+                // FTS 색인(토큰/접두어). 토큰이 없는 입력(기호만)은 기존 LIKE
+                String fts = FtsQuery.of(f.keywords());
+                preds.add(fts != null
+                        ? cb.isTrue(cb.function("log_fts_match", Boolean.class, root.get("id"), cb.literal(fts)))
+                        : cb.like(cb.lower(root.get("sqlSummary")), "%" + f.keywords().toLowerCase() + "%"));
             }
             if (f.status() != null && !f.status().isEmpty()) {
                 preds.add(root.get("status").in(f.status()));
@@ -44,4 +52,21 @@ public final class QueryLogSpecifications {
             return cb.and(preds.toArray(new Predicate[0]));
         };
     }
+
+    /**
+     * 키셋 조건: 정렬 (executedAt, id) 에서 커서 행 "다음" 행들.
+     * DESC 기준 executed_at <= :ts AND (executed_at < :ts OR id < :id) — 앞의 범위 조건으로 (executed_at, id) 인덱스를 탄다.
+     */
+    public static Specification<QueryLog> after(CursorPage.Cursor c, Sort.Direction dir) {
+        return (root, query, cb) -> {
+            Path<String> ts = root.get("executedAt");
+            Path<String> id = root.get("id");
+            if (dir == Sort.Direction.ASC) {
+                return cb.and(cb.greaterThanOrEqualTo(ts, c.key()),
+                        cb.or(cb.greaterThan(ts, c.key()), cb.greaterThan(id, c.id())));
+            }
+            return cb.and(cb.lessThanOrEqualTo(ts, c.key()),
+                    cb.or(cb.lessThan(ts, c.key()), cb.lessThan(id, c.id())));
+        };
+    }
 }
@@ -1,44 +1,55 @@
 package com.example.dbids.modules.storage;
 
-import com.example.dbids.sqlite.model.QueryLog;
-import com.example.dbids.sqlite.repository.QueryLogRepository;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
+/**
+ * 기동 시 sql_summary 가 빈 행만 채움.
+ * - 대상은 V3 부분 인덱스(idx_query_log_summary_missing)로 찾고 id 키셋으로 BATCH 건씩 → 전체 로그를 엔티티로 읽지 않음
+ * - 파티션 파일로 옮겨진 행은 적재 시점에 이미 요약이 있으므로 본 테이블(핫 구간)만
+ */
 @Component
 @Order(20) // 다른 초기화 이후
 public class SqlSummaryBackfillRunner implements CommandLineRunner {
 
-    private final QueryLogRepository repo;
+    static final int BATCH = 500;
 
-    public SqlSummaryBackfillRunner(QueryLogRepository repo) {
-        this.repo = repo;
+    private final JdbcTemplate jdbc;
+
+    public SqlSummaryBackfillRunner(@Qualifier("sqliteJdbc") JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
     }
 
     @Override
     @Transactional
     public void run(String... args) {
-        List<QueryLog> all = repo.findAll(); // 데이터 많으면 페이징으로
-        List<QueryLog> dirty = new ArrayList<>();
-        for (QueryLog q : all) {
-            if (q.getSqlSummary() == null || q.getSqlSummary().isBlank()) {
-                String s = SqlSummarizer.summarize(q.getSqlRaw());
-                // 엔티티에 setter가 없으면 새로운 인스턴스를 만들거나, setter 추가
-                // 지금은 생성자만 있으니 setter를 하나 추가하는 걸 권장
-                // 예: q.setSqlSummary(s);
-                try {
-                    var f = QueryLog.class.getDeclaredField("sqlSummary");
-                    f.setAccessible(true);
-                    f.set(q, s);
-                } catch (Exception ignore) {}
-                dirty.add(q);
-            }
+        backfill();
+    }
+
+    /** 채운 행 수 반환 */
+    int backfill() {
+        int updated = 0;
+        String after = "";
+        while (true) {
+            List<Map<String, Object>> rows = jdbc.queryForList(
+                    "SELECT id, sql_raw FROM query_log WHERE (sql_summary IS NULL OR sql_summary = '') AND id > ? ORDER BY id LIMIT ?",
+                    after, BATCH);
+            if (rows.isEmpty()) break;
+            List<Object[]> args = rows.stream()
+                    .map(r -> new Object[]{ SqlSummarizer.summarize((String) r.get("sql_raw")), r.get("id") })
+                    .toList();
+            jdbc.batchUpdate("UPDATE query_log SET sql_summary = ? WHERE id = ?", args);
+            updated += rows.size();
+            if (rows.size() < BATCH) break;
+            after = (String) rows.get(rows.size() - 1).get("id");
         }
-        if (!dirty.isEmpty()) repo.saveAll(dirty);
+        return updated;
     }
 }
@@ -1,14 +1,18 @@
 package com.example.dbids.modules.storage;
 
 import com.example.dbids.dto.QueryLogDTO;
+import com.example.dbids.sqlite.model.DetectionEvent;
 import com.example.dbids.sqlite.model.QueryLog;
 import com.example.dbids.sqlite.repository.AdminUserRepository;
 import com.example.dbids.sqlite.repository.QueryLogRepository;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
 import java.time.format.DateTimeParseException;
+import java.util.List;
 import java.util.UUID;
 import java.util.regex.Pattern;
 
@@ -19,12 +23,23 @@ public class StorageService {
     private static final Pattern EMAIL =
             Pattern.compile("^[A-Za-z0-9._%+-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,63}$");
 
+    private static final int JDBC_BATCH = 500;
+    private static final String INSERT_SQL =
+            "INSERT INTO query_log (id, executed_at, user_id, admin_id, sql_raw, sql_summary, return_rows, status) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String EVENT_INSERT_SQL =
+            "INSERT INTO detection_event (id, log_id, event_type, severity, occurred_at, sql_raw) "
+                    + "VALUES (?, ?, ?, ?, ?, ?)";
+
     private final QueryLogRepository repo;
     private final AdminUserRepository adminRepo;
+    private final JdbcTemplate jdbc;
 
-    public StorageService(QueryLogRepository repo, AdminUserRepository adminRepo) {
+    public StorageService(QueryLogRepository repo, AdminUserRepository adminRepo,
+            @Qualifier("sqliteJdbc") JdbcTemplate jdbc) {
         this.repo = repo;
         this.adminRepo = adminRepo;
+        this.jdbc = jdbc;
     }
 
     @Transactional
@@ -42,6 +57,60 @@ public class StorageService {
 
     @Transactional("sqliteTx")
     public String saveQueryLog(QueryLogDTO d) {
+        return persist(toEntity(d)).getId();
+    }
+
+    /** 수집 파이프라인 저장 스테이지에서 호출: 검증이 끝난 엔티티를 그대로 기록 */
+    @Transactional("sqliteTx")
+    public QueryLog persist(QueryLog entity) {
+        repo.save(entity);
+        return entity;
+    }
+
+    /**
+     * 그룹 커밋 경로: 여러 행을 하나의 sqliteTx 트랜잭션 + JDBC batch insert로 기록.
+     * 행마다 트랜잭션(=fsync)을 여는 repo.save 대비 쓰기 비용을 배치 단위로 분산한다.
+     */
+    @Transactional("sqliteTx")
+    public int persistAll(List<QueryLog> logs) {
+        return persistAll(logs, List.of());
+    }
+
+    /**
+     * 수집 단위 작업: 로그(탐지로 정해진 최종 status)와 그 로그의 PATTERN/AUTHZ 이벤트를
+     * 같은 트랜잭션에 기록한다. 저장 후 다시 읽거나 status 를 고쳐 쓰는 왕복이 없다.
+     */
+    @Transactional("sqliteTx")
+    public int persistAll(List<QueryLog> logs, List<DetectionEvent> events) {
+        if (logs == null || logs.isEmpty()) return 0;
+        jdbc.batchUpdate(INSERT_SQL, logs, JDBC_BATCH, (ps, q) -> {
+            ps.setString(1, q.getId());
+            ps.setString(2, q.getExecutedAt());
+            ps.setString(3, q.getUserId());
+            ps.setString(4, q.getAdminId());
+            ps.setString(5, q.getSqlRaw());
+            ps.setString(6, q.getSqlSummary());
+            ps.setInt(7, q.getReturnRows());
+            ps.setString(8, q.getStatus() == null ? null : q.getStatus().name());
+        });
+        if (events != null && !events.isEmpty()) {
+            jdbc.batchUpdate(EVENT_INSERT_SQL, events, JDBC_BATCH, (ps, e) -> {
+                ps.setString(1, e.getId());
+                ps.setString(2, e.getLogId());
+                ps.setString(3, e.getEventType().name());
+                ps.setString(4, e.getSeverity().name());
+                ps.setString(5, e.getOccurredAt());
+                ps.setString(6, e.getSqlRaw());
+            });
+        }
+        return logs.size();
+    }
+
+    /**
+     * DTO 검증 + 엔티티 변환(저장은 하지 않음).
+     * 검증 실패는 IllegalArgumentException → 컨트롤러에서 400.
+     */
+    public QueryLog toEntity(QueryLogDTO d) {
         if (d == null) throw new IllegalArgumentException("null dto");
 
         // --- 필수값 검증: userId(이메일), adminId(UUID+존재), sqlRaw, returnRows, status ---
@@ -77,7 +146,7 @@ public class StorageService {
 
         // --- 저장: user_id=이메일 문자열, admin_id=UUID(FK) ---
         String logId = UUID.randomUUID().toString();
-        QueryLog entity = new QueryLog(
+        return new QueryLog(
                 logId,
                 executedIso,
                 d.userId,      // 이메일
@@ -87,8 +156,6 @@ public class StorageService {
                 d.returnRows,
                 st
         );
-        repo.save(entity);
-        return logId;
     }
 
     private static boolean blank(String s) { return s == null || s.trim().isEmpty(); }
@@ -0,0 +1,36 @@
+package com.example.dbids.sqlite;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 검색어 → FTS5 MATCH 식(V5 query_log_fts / detection_event_fts).
+ * - 공백으로 나눈 단어는 모두 포함(AND). 단어는 토큰 접두어 일치: ord → orders, order_items
+ * - "따옴표" 로 묶으면 정확한 토큰/구: "orders" 는 orders 만, "from orders" 는 연속한 두 토큰
+ * - 끝의 * 는 접두어 표시로 받아들이고(ord* = ord), FTS 연산자/특수문자는 모두 리터럴로 인용
+ * 글자/숫자가 하나도 없는 입력은 토큰이 없으므로 null → 호출 측은 LIKE 로 대체.
+ */
+public final class FtsQuery {
+
+    private FtsQuery() {}
+
+    private static final Pattern TERM = Pattern.compile("\"([^\"]*)\"|(\\S+)");
+
+    public static String of(String keywords) {
+        if (keywords == null || keywords.isBlank()) return null;
+        List<String> out = new ArrayList<>();
+        Matcher m = TERM.matcher(keywords);
+        while (m.find()) {
+            boolean exact = m.group(1) != null;
+            String term = exact ? m.group(1) : m.group(2);
+            if (!exact) {
+                while (term.endsWith("*")) term = term.substring(0, term.length() - 1);
+            }
+            if (term.codePoints().noneMatch(Character::isLetterOrDigit)) continue;
+            out.add("\"" + term.replace("\"", "\"\"") + "\"" + (exact ? "" : "*"));
+        }
+        return out.isEmpty() ? null : String.join(" ", out);
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.dbids.sqlite;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "dbids.partition")
+public class LogPartitionProperties {
+
+    /** 파티션 기간 단위. WEEK 는 월요일 00:00Z 시작 */
+    public enum Granularity { DAY, WEEK }
+
+    /** 보존 기간이 지난 파티션 처리: DROP(파일 삭제) | ARCHIVE(archiveDir 로 이동, 조회 대상에서 제외) */
+    public enum RetentionAction { DROP, ARCHIVE }
+
+    /** 백그라운드 정리(롤오버 + 보존) 실행 여부. 꺼도 이미 만든 파티션은 조회에 포함 */
+    private boolean enabled = true;
+
+    private Granularity granularity = Granularity.WEEK;
+
+    /** 본 DB 에 남길 최근 기간 수(현재 기간 포함). 그보다 오래된 기간은 파티션 파일로 이동 */
+    private int hotPeriods = 2;
+
+    /** 파티션으로 보관할 기간 수. 0 = 무기한 */
+    private int retentionPeriods = 12;
+
+    private RetentionAction retentionAction = RetentionAction.DROP;
+
+    /** 파티션 파일 디렉터리 */
+    private String dir = "./data/partitions";
+
+    /** ARCHIVE 처리 시 옮길 디렉터리 */
+    private String archiveDir = "./data/partitions/archive";
+
+    /** 정리 주기(분). 첫 실행은 기동 후 한 주기 뒤 */
+    private int intervalMinutes = 60;
+
+    /** 롤오버 트랜잭션당 옮기는 query_log 행 수(단일 writer 를 오래 잡지 않도록) */
+    private int batchRows = 5_000;
+
+    // getters / setters
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public Granularity getGranularity() { return granularity; }
+    public void setGranularity(Granularity granularity) { this.granularity = granularity; }
+
+    public int getHotPeriods() { return hotPeriods; }
+    public void setHotPeriods(int hotPeriods) { this.hotPeriods = hotPeriods; }
+
+    public int getRetentionPeriods() { return retentionPeriods; }
+    public void setRetentionPeriods(int retentionPeriods) { this.retentionPeriods = retentionPeriods; }
+
+    public RetentionAction getRetentionAction() { return retentionAction; }
+    public void setRetentionAction(RetentionAction retentionAction) { this.retentionAction = retentionAction; }
+
+    public String getDir() { return dir; }
+    public void setDir(String dir) { this.dir = dir; }
+
+    public String getArchiveDir() { return archiveDir; }
+    public void setArchiveDir(String archiveDir) { this.archiveDir = archiveDir; }
+
+    public int getIntervalMinutes() { return intervalMinutes; }
+    public void setIntervalMinutes(int intervalMinutes) { this.intervalMinutes = intervalMinutes; }
+
+    public int getBatchRows() { return batchRows; }
+    public void setBatchRows(int batchRows) { this.batchRows = batchRows; }
+}
@@ -0,0 +1,504 @@
+package com.example.dbids.sqlite;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * query_log/detection_event 기간 파티션.
+ * - 핫 구간(최근 hotPeriods 기간)은 본 DB 테이블에 그대로 두고(적재/JPA 경로 변경 없음),
+ *   그보다 오래된 기간은 기간별 SQLite 파일(dbids-YYYY-MM-DD.sqlite)로 옮김. 이벤트는 자기 로그와 같은 파일로
+ * - 조회는 요청 기간과 겹치는 파일만 읽기 커넥션에 ATTACH 해서 main + 파티션을 UNION ALL
+ *   → 조회 비용이 전체 이력이 아니라 요청 기간(겹치는 파일 수)에 비례
+ * - 보존 기간이 지난 파티션은 카탈로그 행 삭제 + 파일 삭제/이동 한 번(행 단위 DELETE 없음)
+ * - 파일마다 키워드 검색 FTS 색인(V5 와 같은 정의)을 두고 옮길 때 새 행만 색인
+ * 카탈로그: log_partition(V3). 정리 작업 실패는 로그만 남기고 다음 주기에 재시도.
+ */
+@Component
+public class LogPartitions {
+
+    private static final Logger LOG = LoggerFactory.getLogger(LogPartitions.class);
+
+    /** 한 커넥션에 ATTACH 할 파티션 상한(SQLite 컴파일 상한 125 에서 여유를 둠) */
+    static final int MAX_ATTACHED = 120;
+    private static final int FETCH_SIZE = 500;
+    private static final String ARCH = "arch";
+
+    static final String LOG_COLUMNS = "id, executed_at, user_id, admin_id, sql_raw, sql_summary, return_rows, status";
+    static final String EVENT_COLUMNS = "id, log_id, event_type, severity, occurred_at, sql_raw";
+
+    // 파티션 파일 스키마: 본 테이블과 같은 컬럼/조회 인덱스(FK 는 파일 밖을 가리키므로 생략)
+    private static final List<String> ARCHIVE_DDL = List.of(
+            "CREATE TABLE IF NOT EXISTS arch.query_log (id TEXT PRIMARY KEY, executed_at TEXT NOT NULL, user_id TEXT NOT NULL, "
+                    + "admin_id TEXT, sql_raw TEXT NOT NULL, sql_summary TEXT, return_rows INTEGER NOT NULL DEFAULT 0, status TEXT NOT NULL)",
+            "CREATE TABLE IF NOT EXISTS arch.detection_event (id TEXT PRIMARY KEY, log_id TEXT NOT NULL, event_type TEXT NOT NULL, "
+                    + "severity TEXT NOT NULL, occurred_at TEXT NOT NULL, sql_raw TEXT NOT NULL)",
+            "CREATE INDEX IF NOT EXISTS arch.idx_query_log_exec_id ON query_log(executed_at, id)",
+            "CREATE INDEX IF NOT EXISTS arch.idx_query_log_user_exec ON query_log(user_id, executed_at, id)",
+            "CREATE INDEX IF NOT EXISTS arch.idx_query_log_status_exec ON query_log(status, executed_at, id)",
+            "CREATE INDEX IF NOT EXISTS arch.idx_event_occurred_id ON detection_event(occurred_at, id)",
+            "CREATE INDEX IF NOT EXISTS arch.idx_event_type_occ ON detection_event(event_type, occurred_at, id)",
+            "CREATE INDEX IF NOT EXISTS arch.idx_event_log ON detection_event(log_id)");
+
+    // 파티션 파일의 키워드 검색 색인(V5 와 같은 정의). 파일에는 트리거 없이 옮길 때 새 행만 색인
+    private static final List<String> ARCHIVE_SEARCH_DDL = List.of(
+            "CREATE VIRTUAL TABLE IF NOT EXISTS arch.query_log_fts USING fts5(sql_summary, sql_raw, "
+                    + "content='query_log', content_rowid='rowid', prefix='2 3')",
+            "CREATE VIRTUAL TABLE IF NOT EXISTS arch.detection_event_fts USING fts5(sql_raw, "
+                    + "content='detection_event', content_rowid='rowid', prefix='2 3')");
+
+    // 한 번에 옮길 로그 묶음. 같은 커넥션에서 마지막 DELETE 전까지 결과가 같음
+    private static final String PICK =
+            "SELECT id FROM main.query_log WHERE executed_at >= ? AND executed_at < ? ORDER BY executed_at, id LIMIT ?";
+
+    private static final String UPSERT_CATALOG = """
+            INSERT INTO main.log_partition(name, period_start, period_end, path, log_rows, event_rows, event_min, event_max, updated_at)
+            SELECT ?, ?, ?, ?,
+                   (SELECT COUNT(*) FROM arch.query_log), (SELECT COUNT(*) FROM arch.detection_event),
+                   (SELECT MIN(occurred_at) FROM arch.detection_event), (SELECT MAX(occurred_at) FROM arch.detection_event), ?
+            WHERE 1
+            ON CONFLICT(name) DO UPDATE SET path = excluded.path, log_rows = excluded.log_rows, event_rows = excluded.event_rows,
+                   event_min = excluded.event_min, event_max = excluded.event_max, updated_at = excluded.updated_at""";
+
+    /** 카탈로그 한 행. 로그는 [periodStart, periodEnd), 이벤트는 [eventMin, eventMax] */
+    public record Partition(String name, String periodStart, String periodEnd, Path path,
+                            long logRows, long eventRows, String eventMin, String eventMax) {
+
+        /** ATTACH 별칭 */
+        public String alias() { return "p_" + name.replace("-", ""); }
+
+        boolean overlapsLogs(String fromIso, String toIso) {
+            return (toIso == null || periodStart.compareTo(toIso) < 0)
+                    && (fromIso == null || periodEnd.compareTo(fromIso) > 0);
+        }
+
+        boolean overlapsEvents(String fromIso, String toIso) {
+            if (eventMin == null) return false;
+            return (toIso == null || eventMin.compareTo(toIso) < 0)
+                    && (fromIso == null || eventMax.compareTo(fromIso) >= 0);
+        }
+    }
+
+    /** ATTACH 된 읽기 커넥션: 조회할 스키마(main + 파티션 별칭)와 그 커넥션에 묶인 템플릿 */
+    public static final class Scope {
+        private final List<String> schemas;
+        private final Set<String> searchable;
+        private final NamedParameterJdbcTemplate jdbc;
+
+        Scope(List<String> schemas, Set<String> searchable, NamedParameterJdbcTemplate jdbc) {
+            this.schemas = schemas;
+            this.searchable = searchable;
+            this.jdbc = jdbc;
+        }
+
+        public List<String> schemas() { return schemas; }
+        public NamedParameterJdbcTemplate jdbc() { return jdbc; }
+
+        /** 스키마에 FTS 색인이 있는지. 색인 도입 전 파티션 파일은 다음 정리 주기에 색인될 때까지 false */
+        public boolean searchable(String schema) { return searchable.contains(schema); }
+
+        /** 스키마마다 arm 을 만들어 UNION ALL. arm 은 서브쿼리로 감싸므로 각자 ORDER BY/LIMIT 를 가질 수 있음 */
+        public String unionAll(Function<String, String> arm) {
+            return schemas.stream()
+                    .map(s -> "SELECT * FROM (" + arm.apply(s) + ")")
+                    .collect(Collectors.joining(" UNION ALL "));
+        }
+    }
+
+    private final DataSource ds;
+    private final LogPartitionProperties props;
+    private volatile List<Partition> catalog;
+    private ScheduledExecutorService ticker;
+
+    public LogPartitions(@Qualifier("sqliteDataSource") DataSource ds, LogPartitionProperties props) {
+        this.ds = ds;
+        this.props = props;
+    }
+
+    @PostConstruct
+    public synchronized void start() {
+        if (!props.isEnabled() || ticker != null) return;
+        ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "log-partition");
+            t.setDaemon(true);
+            return t;
+        });
+        long every = Math.max(1, props.getIntervalMinutes());
+        ticker.scheduleWithFixedDelay(() -> maintain(Instant.now()), every, every, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        if (ticker == null) return;
+        ticker.shutdownNow();
+        ticker = null;
+    }
+
+    // ---------- 카탈로그 ----------
+
+    /** 전체 파티션(최신 기간 먼저) */
+    public List<Partition> all() {
+        List<Partition> c = catalog;
+        return c != null ? c : reload();
+    }
+
+    /** query_log 조회 기간 [fromIso, toIso) 과 겹치는 파티션. null 은 열린 구간 */
+    public List<Partition> forLogs(String fromIso, String toIso) {
+        return limit(all().stream().filter(p -> p.overlapsLogs(fromIso, toIso)).toList());
+    }
+
+    /** detection_event 조회 기간 [fromIso, toIso) 과 겹치는 파티션 */
+    public List<Partition> forEvents(String fromIso, String toIso) {
+        return limit(all().stream().filter(p -> p.overlapsEvents(fromIso, toIso)).toList());
+    }
+
+    private static List<Partition> limit(List<Partition> parts) {
+        if (parts.size() <= MAX_ATTACHED) return parts;
+        LOG.warn("{} partitions overlap the requested range; reading the newest {} only", parts.size(), MAX_ATTACHED);
+        return parts.subList(0, MAX_ATTACHED);
+    }
+
+    List<Partition> reload() {
+        List<Partition> out = new ArrayList<>();
+        try (Connection c = reader().getConnection();
+             Statement st = c.createStatement();
+             ResultSet rs = st.executeQuery("SELECT name, period_start, period_end, path, log_rows, event_rows, event_min, event_max "
+                     + "FROM log_partition ORDER BY period_start DESC")) {
+            while (rs.next()) {
+                out.add(new Partition(rs.getString(1), rs.getString(2), rs.getString(3), Path.of(rs.getString(4)),
+                        rs.getLong(5), rs.getLong(6), rs.getString(7), rs.getString(8)));
+            }
+        } catch (SQLException e) {
+            // 마이그레이션 전(log_partition 없음) 등 → 파티션 없이 본 테이블만 조회, 캐시하지 않음
+            LOG.debug("log_partition unavailable: {}", e.getMessage());
+            return List.of();
+        }
+        catalog = List.copyOf(out);
+        return catalog;
+    }
+
+    // ---------- 조회 ----------
+
+    /**
+     * 읽기 커넥션(WAL 이면 reader 풀)에 parts 를 ATTACH 한 뒤 action 실행, 끝나면 DETACH.
+     * ATTACH 는 트랜잭션 안에서 할 수 없으므로 호출 측 트랜잭션과 별개인 autocommit 커넥션을 씀.
+     */
+    public <T> T read(List<Partition> parts, Function<Scope, T> action) {
+        DataSource src = reader();
+        try (Connection c = src.getConnection()) {
+            List<String> attached = new ArrayList<>();
+            try {
+                Set<String> searchable = new HashSet<>();
+                searchable.add("main");
+                for (Partition p : parts) {
+                    if (!Files.exists(p.path())) continue;       // 보존 정리와 엇갈린 경우 → 건너뜀
+                    attach(c, p.path(), p.alias());
+                    attached.add(p.alias());
+                    if (hasSearchIndex(c, p.alias())) searchable.add(p.alias());
+                }
+                List<String> schemas = new ArrayList<>(attached.size() + 1);
+                schemas.add("main");
+                schemas.addAll(attached);
+                JdbcTemplate t = new JdbcTemplate(new SingleConnectionDataSource(c, true));
+                t.setFetchSize(FETCH_SIZE);
+                return action.apply(new Scope(List.copyOf(schemas), Set.copyOf(searchable), new NamedParameterJdbcTemplate(t)));
+            } finally {
+                if (!detachAll(c, attached) && src instanceof HikariDataSource pool) {
+                    pool.evictConnection(c);                      // 별칭이 남은 커넥션은 풀로 돌려보내지 않음
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("partition read failed: " + e.getMessage(), e);
+        }
+    }
+
+    // ---------- 정리(롤오버 + 보존) ----------
+
+    /** 주기 작업: 핫 구간 밖 행을 파티션으로 옮기고 보존 기간이 지난 파티션 정리. 실패는 다음 주기에 재시도 */
+    public void maintain(Instant now) {
+        try {
+            ensureSearchIndexes();
+            int moved = rollover(now);
+            int dropped = enforceRetention(now);
+            if (moved > 0 || dropped > 0) {
+                LOG.info("log partitions: moved {} query_log rows, retired {} partitions", moved, dropped);
+            }
+        } catch (RuntimeException e) {
+            LOG.warn("log partition maintenance failed: {}", e.toString());
+        }
+    }
+
+    /** 핫 구간 시작 이전의 query_log 행(과 그 이벤트)을 기간별 파일로 옮김. 옮긴 로그 행 수 반환 */
+    public synchronized int rollover(Instant now) {
+        String hotStart = iso(minus(periodStart(now), Math.max(1, props.getHotPeriods()) - 1));
+        int moved = 0;
+        try {
+            while (true) {
+                String oldest;
+                try (Connection c = writer().getConnection();
+                     Statement st = c.createStatement();
+                     ResultSet rs = st.executeQuery("SELECT MIN(executed_at) FROM query_log")) {
+                    oldest = rs.next() ? rs.getString(1) : null;
+                }
+                if (oldest == null || oldest.compareTo(hotStart) >= 0) break;
+                LocalDate start;
+                try {
+                    start = periodStart(Instant.parse(oldest));
+                } catch (DateTimeParseException e) {
+                    LOG.warn("query_log.executed_at not ISO-8601 ({}); rollover stopped", oldest);
+                    break;
+                }
+                int n = moveChunk(start);
+                if (n == 0) break;
+                moved += n;
+            }
+        } catch (SQLException | IOException e) {
+            throw new IllegalStateException("partition rollover failed: " + e.getMessage(), e);
+        } finally {
+            if (moved > 0) reload();
+        }
+        return moved;
+    }
+
+    // 기간 하나에서 batchRows 건을 두 트랜잭션으로 옮김.
+    // ATTACH 한 파일 간 커밋은 main 이 WAL 이면 파일별로만 원자적이라, 한 트랜잭션으로 묶으면 장애 시 main 삭제만 커밋되고
+    // 파일 쪽 복사가 사라질 수 있음 → ① 파티션 파일에 복사/색인 커밋 ② 파일에 있는 행만 main 에서 삭제 + 카탈로그 갱신 커밋.
+    // ① 뒤 장애면 행이 양쪽에 남고(새 파티션은 카탈로그에 없어 조회에 안 보임) 다음 실행의 INSERT OR IGNORE 가 중복을 흡수
+    private int moveChunk(LocalDate start) throws SQLException, IOException {
+        String name = start.toString();
+        String from = iso(start), to = iso(next(start));
+        Path dir = Path.of(props.getDir()).toAbsolutePath();
+        Files.createDirectories(dir);
+        Path file = dir.resolve("dbids-" + name + ".sqlite");
+        int batch = Math.max(1, props.getBatchRows());
+
+        // 두 단계를 같은 커넥션으로(WAL 이면 단일 writer) → 그 사이에 다른 쓰기가 끼어 PICK 결과가 바뀌지 않음
+        try (Connection c = writer().getConnection()) {
+            attach(c, file, ARCH);
+            try {
+                c.setAutoCommit(false);
+                try {
+                    try (Statement st = c.createStatement()) {
+                        for (String ddl : ARCHIVE_DDL) st.execute(ddl);
+                        for (String ddl : ARCHIVE_SEARCH_DDL) st.execute(ddl);
+                    }
+                    long logMark = maxRowid(c, "arch.query_log"), eventMark = maxRowid(c, "arch.detection_event");
+                    update(c, "INSERT OR IGNORE INTO arch.query_log(" + LOG_COLUMNS + ") SELECT " + LOG_COLUMNS
+                            + " FROM main.query_log WHERE id IN (" + PICK + ")", from, to, batch);
+                    update(c, "INSERT OR IGNORE INTO arch.detection_event(" + EVENT_COLUMNS + ") SELECT " + EVENT_COLUMNS
+                            + " FROM main.detection_event WHERE log_id IN (" + PICK + ")", from, to, batch);
+                    // 이번에 추가된 행(rowid 가 표시 이후)만 색인. 이미 있던 행(OR IGNORE)은 색인에도 이미 있음
+                    index(c, "INSERT INTO arch.query_log_fts(rowid, sql_summary, sql_raw) "
+                            + "SELECT rowid, sql_summary, sql_raw FROM arch.query_log WHERE rowid > ?", logMark);
+                    index(c, "INSERT INTO arch.detection_event_fts(rowid, sql_raw) "
+                            + "SELECT rowid, sql_raw FROM arch.detection_event WHERE rowid > ?", eventMark);
+                    c.commit();
+
+                    // 파일에 커밋된 행만 삭제 → 어느 시점에 실패해도 main 에서만 사라지는 행은 없음
+                    update(c, "DELETE FROM main.detection_event WHERE log_id IN (" + PICK + ") AND EXISTS "
+                            + "(SELECT 1 FROM arch.detection_event a WHERE a.id = main.detection_event.id)", from, to, batch);
+                    int moved = update(c, "DELETE FROM main.query_log WHERE id IN (" + PICK + ") AND EXISTS "
+                            + "(SELECT 1 FROM arch.query_log a WHERE a.id = main.query_log.id)", from, to, batch);
+                    try (PreparedStatement ps = c.prepareStatement(UPSERT_CATALOG)) {
+                        ps.setString(1, name);
+                        ps.setString(2, from);
+                        ps.setString(3, to);
+                        ps.setString(4, file.toString());
+                        ps.setString(5, Instant.now().toString());
+                        ps.executeUpdate();
+                    }
+                    c.commit();
+                    return moved;
+                } catch (SQLException | RuntimeException e) {
+                    c.rollback();
+                    throw e;
+                } finally {
+                    c.setAutoCommit(true);
+                }
+            } finally {
+                detachAll(c, List.of(ARCH));
+            }
+        }
+    }
+
+    /** 색인 도입(V5) 전에 만든 파티션 파일에 FTS 색인 생성. 색인한 파일 수 반환 */
+    public synchronized int ensureSearchIndexes() {
+        int built = 0;
+        for (Partition p : all()) {
+            if (!Files.exists(p.path())) continue;
+            try (Connection c = writer().getConnection()) {
+                attach(c, p.path(), ARCH);
+                try {
+                    if (hasSearchIndex(c, ARCH)) continue;
+                    try (Statement st = c.createStatement()) {
+                        for (String ddl : ARCHIVE_SEARCH_DDL) st.execute(ddl);
+                        st.execute("INSERT INTO arch.query_log_fts(query_log_fts) VALUES ('rebuild')");
+                        st.execute("INSERT INTO arch.detection_event_fts(detection_event_fts) VALUES ('rebuild')");
+                    }
+                    built++;
+                } finally {
+                    detachAll(c, List.of(ARCH));
+                }
+            } catch (SQLException e) {
+                throw new IllegalStateException("partition search index failed: " + e.getMessage(), e);
+            }
+        }
+        return built;
+    }
+
+    /** 보존 기간(핫 구간 + retentionPeriods)이 지난 파티션을 카탈로그에서 빼고 파일 삭제/이동. 정리한 파티션 수 반환 */
+    public synchronized int enforceRetention(Instant now) {
+        if (props.getRetentionPeriods() <= 0) return 0;
+        int keep = Math.max(1, props.getHotPeriods()) - 1 + props.getRetentionPeriods();
+        String cutoff = iso(minus(periodStart(now), keep));
+
+        List<Partition> expired = reload().stream().filter(p -> p.periodEnd().compareTo(cutoff) <= 0).toList();
+        if (expired.isEmpty()) return 0;
+        try (Connection c = writer().getConnection();
+             PreparedStatement ps = c.prepareStatement("DELETE FROM log_partition WHERE name = ?")) {
+            for (Partition p : expired) {
+                ps.setString(1, p.name());
+                ps.executeUpdate();
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("partition retention failed: " + e.getMessage(), e);
+        }
+        reload();   // 이후 조회는 만료 파티션을 ATTACH 하지 않음
+
+        for (Partition p : expired) {
+            try {
+                if (props.getRetentionAction() == LogPartitionProperties.RetentionAction.ARCHIVE) archive(p.path());
+                else Files.deleteIfExists(p.path());
+            } catch (IOException e) {
+                // 이미 ATTACH 한 조회가 파일을 잡고 있는 OS 등 → 카탈로그에서는 빠졌으므로 조회에는 영향 없음
+                LOG.warn("could not {} partition file {}: {}", props.getRetentionAction(), p.path(), e.toString());
+            }
+        }
+        return expired.size();
+    }
+
+    private void archive(Path file) throws IOException {
+        if (!Files.exists(file)) return;
+        Path dir = Path.of(props.getArchiveDir()).toAbsolutePath();
+        Files.createDirectories(dir);
+        Path target = dir.resolve(file.getFileName());
+        try {
+            Files.move(file, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(file, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    // ---------- helpers ----------
+
+    private DataSource reader() {
+        return SqliteDataSources.reader(ds);
+    }
+
+    private DataSource writer() {
+        return (ds instanceof SqliteDataSources.ReadWriteSplit split) ? split.writer() : ds;
+    }
+
+    static void attach(Connection c, Path file, String alias) throws SQLException {
+        try (PreparedStatement ps = c.prepareStatement("ATTACH DATABASE ? AS " + alias)) {
+            ps.setString(1, file.toString());
+            ps.execute();
+        }
+    }
+
+    static boolean detachAll(Connection c, List<String> aliases) {
+        boolean ok = true;
+        for (String a : aliases) {
+            try (Statement st = c.createStatement()) {
+                st.execute("DETACH DATABASE " + a);
+            } catch (SQLException e) {
+                LOG.warn("detach {} failed: {}", a, e.getMessage());
+                ok = false;
+            }
+        }
+        return ok;
+    }
+
+    private static boolean hasSearchIndex(Connection c, String schema) throws SQLException {
+        try (Statement st = c.createStatement();
+             ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM " + schema + ".sqlite_master WHERE name = 'query_log_fts'")) {
+            return rs.next() && rs.getInt(1) > 0;
+        }
+    }
+
+    private static long maxRowid(Connection c, String table) throws SQLException {
+        try (Statement st = c.createStatement();
+             ResultSet rs = st.executeQuery("SELECT COALESCE(MAX(rowid), 0) FROM " + table)) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    private static void index(Connection c, String sql, long afterRowid) throws SQLException {
+        try (PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setLong(1, afterRowid);
+            ps.executeUpdate();
+        }
+    }
+
+    private static int update(Connection c, String sql, String from, String to, int limit) throws SQLException {
+        try (PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setString(1, from);
+            ps.setString(2, to);
+            ps.setInt(3, limit);
+            return ps.executeUpdate();
+        }
+    }
+
+    LocalDate periodStart(Instant t) {
+        LocalDate d = LocalDate.ofInstant(t, ZoneOffset.UTC);
+        return props.getGranularity() == LogPartitionProperties.Granularity.WEEK
+                ? d.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY))
+                : d;
+    }
+
+    private LocalDate next(LocalDate start) {
+        return props.getGranularity() == LogPartitionProperties.Granularity.WEEK ? start.plusWeeks(1) : start.plusDays(1);
+    }
+
+    private LocalDate minus(LocalDate start, int periods) {
+        return props.getGranularity() == LogPartitionProperties.Granularity.WEEK ? start.minusWeeks(periods) : start.minusDays(periods);
+    }
+
+    private static String iso(LocalDate d) {
+        return d.atStartOfDay(ZoneOffset.UTC).toInstant().toString();
+    }
+}
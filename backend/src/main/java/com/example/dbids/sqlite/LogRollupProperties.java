@@ -0,0 +1,40 @@
+package com.example.dbids.sqlite;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "dbids.rollup")
+public class LogRollupProperties {
+
+    /** 백그라운드 압축 실행 여부. 꺼도 이미 만든 롤업 + 늦은 행 트리거는 유지되고, 워터마크 이후는 원본에서 집계 */
+    private boolean enabled = true;
+
+    /** 압축 주기(초) */
+    private int intervalSeconds = 10;
+
+    /** 닫힌 버킷으로 볼 지연(초). 워터마크는 (now - lag) 의 분 경계까지만 전진 */
+    private int lagSeconds = 60;
+
+    /** 압축 트랜잭션 하나가 다루는 기간(분). 단일 writer 를 오래 잡지 않도록 */
+    private int stepMinutes = 60;
+
+    /** 분 단위 롤업 보존 일수. 0 = 무기한(시/일 롤업은 항상 유지) */
+    private int minuteRetentionDays = 7;
+
+    // getters / setters
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public int getIntervalSeconds() { return intervalSeconds; }
+    public void setIntervalSeconds(int intervalSeconds) { this.intervalSeconds = intervalSeconds; }
+
+    public int getLagSeconds() { return lagSeconds; }
+    public void setLagSeconds(int lagSeconds) { this.lagSeconds = lagSeconds; }
+
+    public int getStepMinutes() { return stepMinutes; }
+    public void setStepMinutes(int stepMinutes) { this.stepMinutes = stepMinutes; }
+
+    public int getMinuteRetentionDays() { return minuteRetentionDays; }
+    public void setMinuteRetentionDays(int minuteRetentionDays) { this.minuteRetentionDays = minuteRetentionDays; }
+}
@@ -0,0 +1,395 @@
+package com.example.dbids.sqlite;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 요약용 사전 집계(log_rollup, V4).
+ * - 분/시/일 버킷 × (사용자, 상태, 문장 종류)별 건수와 return_rows 합. [start, watermark) 구간에서만 유효
+ * - 백그라운드 압축: 닫힌 분 버킷(now - lag)까지 워터마크를 밀면서 그 구간 원본을 SQL GROUP BY 로 한 번에 더함
+ *   (행마다 롤업을 갱신하지 않으므로 적재 경로 쓰기량이 늘지 않음)
+ * - 워터마크 이전 시각으로 늦게 들어온 행은 query_log INSERT 트리거가 같은 트랜잭션에서 더함 → 롤업 구간은 항상 정확
+ * - 조회 측(LogQueryService)은 [start, watermark) 를 롤업에서, 나머지(닫히지 않은 최근 구간, start 이전)만 원본에서 집계
+ * 롤업은 파티션 보존 정리와 무관하게 남음(시/일). 압축 실패는 로그만 남기고 다음 주기에 재시도.
+ */
+@Component
+public class LogRollups {
+
+    private static final Logger LOG = LoggerFactory.getLogger(LogRollups.class);
+
+    /** 버킷 단위. bucket 값은 버킷 시작 ISO8601(UTC) */
+    public enum Grain {
+        MINUTE("substr(%s, 1, 16) || ':00Z'"),
+        HOUR("substr(%s, 1, 13) || ':00:00Z'"),
+        DAY("substr(%s, 1, 10) || 'T00:00:00Z'");
+
+        private final String bucketSql;
+
+        Grain(String bucketSql) { this.bucketSql = bucketSql; }
+
+        /** executed_at 컬럼 → 버킷 시작 문자열 SQL 식 */
+        public String bucketOf(String col) { return bucketSql.formatted(col); }
+
+        public static Grain parse(String s) {
+            if (s == null || s.isBlank()) return HOUR;
+            return valueOf(s.trim().toUpperCase(Locale.ROOT));   // 잘못된 값은 IllegalArgumentException → 400
+        }
+    }
+
+    /** 롤업 유효 구간. 분 롤업은 보존 정리 후 minuteStart 부터 */
+    public record State(String start, String minuteStart, String watermark) {
+        public String from(Grain g) { return g == Grain.MINUTE ? minuteStart : start; }
+    }
+
+    /** 조회 결과 한 버킷(key = user_id 또는 버킷 시작) */
+    public record Bucket(String key, long total, long success, long failure, long rowsSum) {}
+
+    private final DataSource ds;
+    private final LogRollupProperties props;
+    private final LogPartitions partitions;
+    private ScheduledExecutorService ticker;
+
+    public LogRollups(@Qualifier("sqliteDataSource") DataSource ds, LogRollupProperties props, LogPartitions partitions) {
+        this.ds = ds;
+        this.props = props;
+        this.partitions = partitions;
+    }
+
+    @PostConstruct
+    public synchronized void start() {
+        if (!props.isEnabled() || ticker != null) return;
+        ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "log-rollup");
+            t.setDaemon(true);
+            return t;
+        });
+        long every = Math.max(1, props.getIntervalSeconds());
+        ticker.scheduleWithFixedDelay(() -> maintain(Instant.now()), every, every, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        if (ticker == null) return;
+        ticker.shutdownNow();
+        ticker = null;
+    }
+
+    // ---------- 조회 ----------
+
+    /** 현재 유효 구간. 마이그레이션 전이거나 아직 압축 전이면 null(→ 호출 측은 원본 집계) */
+    public State state() {
+        try (Connection c = reader().getConnection()) {
+            return readState(c);
+        } catch (SQLException e) {
+            LOG.debug("log_rollup_state unavailable: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /** 사용자별 합계. 일 롤업에서 [fromIso, toIso) — 두 경계는 일 경계이거나 워터마크여야 함 */
+    public List<Bucket> byUser(String fromIso, String toIso, String user, List<String> statuses) {
+        return query(Grain.DAY, "user_id", fromIso, toIso, user, statuses);
+    }
+
+    /** 버킷별 합계(버킷 시작 오름차순) */
+    public List<Bucket> byTime(Grain grain, String fromIso, String toIso, String user, List<String> statuses) {
+        return query(grain, "bucket", fromIso, toIso, user, statuses);
+    }
+
+    private List<Bucket> query(Grain grain, String key, String fromIso, String toIso, String user, List<String> statuses) {
+        MapSqlParameterSource p = new MapSqlParameterSource()
+                .addValue("grain", grain.name()).addValue("from", fromIso).addValue("to", toIso);
+        StringBuilder where = new StringBuilder("grain = :grain AND bucket >= :from AND bucket < :to");
+        if (user != null && !user.isBlank()) {
+            where.append(" AND user_id = :user");
+            p.addValue("user", user);
+        }
+        if (statuses != null && !statuses.isEmpty()) {
+            where.append(" AND status IN (:st)");
+            p.addValue("st", statuses);
+        }
+        String sql = """
+                SELECT %1$s, SUM(cnt), SUM(CASE WHEN status = 'SUCCESS' THEN cnt ELSE 0 END),
+                       SUM(CASE WHEN status = 'FAILURE' THEN cnt ELSE 0 END), SUM(rows_sum)
+                FROM log_rollup
+                WHERE %2$s
+                GROUP BY %1$s
+                ORDER BY %1$s""".formatted(key, where);
+        return new NamedParameterJdbcTemplate(reader()).query(sql, p,
+                (rs, i) -> new Bucket(rs.getString(1), rs.getLong(2), rs.getLong(3), rs.getLong(4), rs.getLong(5)));
+    }
+
+    // ---------- 압축 ----------
+
+    /** 주기 작업: 워터마크 전진 + 분 롤업 보존 정리. 실패는 다음 주기에 재시도 */
+    public void maintain(Instant now) {
+        try {
+            compact(now);
+            pruneMinutes(now);
+        } catch (RuntimeException e) {
+            LOG.warn("log rollup compaction failed: {}", e.toString());
+        }
+    }
+
+    /**
+     * 워터마크를 (now - lag) 의 분 경계까지 전진. 구간당 한 트랜잭션(stepMinutes), 빈 구간은 다음 행 시각으로 건너뜀.
+     * 아직 롤업하지 못한 구간이 롤오버로 파티션 파일에 옮겨졌으면 그 파일도 붙여 함께 집계.
+     * 갱신한 분 롤업 행 수 반환.
+     */
+    public synchronized int compact(Instant now) {
+        String target = iso(now.minusSeconds(Math.max(0, props.getLagSeconds())).truncatedTo(ChronoUnit.MINUTES));
+        DataSource src = writer();
+        int written = 0;
+        try (Connection c = src.getConnection()) {
+            State st = readState(c);
+            if (st == null) st = init(c, target);
+            if (st.watermark().compareTo(target) >= 0) return 0;
+
+            // writer 를 잡은 뒤 카탈로그를 다시 읽음 → 그 사이 롤오버가 옮긴 행을 놓치지 않음
+            partitions.reload();
+            List<String> attached = new ArrayList<>();
+            try {
+                for (LogPartitions.Partition part : partitions.forLogs(st.watermark(), null)) {
+                    if (!Files.exists(part.path())) continue;
+                    LogPartitions.attach(c, part.path(), part.alias());
+                    attached.add(part.alias());
+                }
+                List<String> schemas = new ArrayList<>(attached.size() + 1);
+                schemas.add("main");
+                schemas.addAll(attached);
+
+                String wm = st.watermark();
+                while (wm.compareTo(target) < 0) {
+                    String end = nextWindowEnd(c, schemas, wm, target);
+                    written += window(c, schemas, wm, end);
+                    wm = end;
+                }
+            } finally {
+                if (!LogPartitions.detachAll(c, attached) && src instanceof HikariDataSource pool) {
+                    pool.evictConnection(c);
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("log rollup compaction failed: " + e.getMessage(), e);
+        }
+        return written;
+    }
+
+    /** 분 롤업 중 보존 기간이 지난 버킷 삭제. 삭제한 행 수 반환 */
+    public synchronized int pruneMinutes(Instant now) {
+        if (props.getMinuteRetentionDays() <= 0) return 0;
+        String cutoff = iso(LocalDate.ofInstant(now, ZoneOffset.UTC).minusDays(props.getMinuteRetentionDays()));
+        try (Connection c = writer().getConnection()) {
+            c.setAutoCommit(false);
+            try {
+                int n;
+                try (PreparedStatement ps = c.prepareStatement("DELETE FROM log_rollup WHERE grain = 'MINUTE' AND bucket < ?")) {
+                    ps.setString(1, cutoff);
+                    n = ps.executeUpdate();
+                }
+                try (PreparedStatement ps = c.prepareStatement(
+                        "UPDATE log_rollup_state SET minute_start_at = MAX(minute_start_at, ?) WHERE id = 1")) {
+                    ps.setString(1, cutoff);
+                    ps.executeUpdate();
+                }
+                c.commit();
+                return n;
+            } catch (SQLException | RuntimeException e) {
+                c.rollback();
+                throw e;
+            } finally {
+                c.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("log rollup prune failed: " + e.getMessage(), e);
+        }
+    }
+
+    // 첫 압축: 본 테이블의 가장 이른 날부터(이미 파티션으로 옮긴 기간 이후). 그 이전은 계속 원본에서 집계
+    private State init(Connection c, String target) throws SQLException {
+        String start = floorDay(target);
+        try (Statement s = c.createStatement();
+             ResultSet rs = s.executeQuery("SELECT MIN(executed_at) FROM main.query_log")) {
+            String min = rs.next() ? rs.getString(1) : null;
+            if (min != null) start = floorDay(min);
+        }
+        String moved = partitions.reload().stream().map(LogPartitions.Partition::periodEnd).max(String::compareTo).orElse(null);
+        if (moved != null && moved.compareTo(start) > 0) start = moved;
+
+        try (PreparedStatement ps = c.prepareStatement("INSERT OR IGNORE INTO log_rollup_state"
+                + "(id, start_at, minute_start_at, watermark, updated_at) VALUES (1, ?, ?, ?, ?)")) {
+            ps.setString(1, start);
+            ps.setString(2, start);
+            ps.setString(3, start);
+            ps.setString(4, Instant.now().toString());
+            ps.executeUpdate();
+        }
+        return readState(c);
+    }
+
+    // 다음 구간 끝: wm 이후 첫 행이 있는 분부터 stepMinutes. 행이 없으면 target 까지 한 번에
+    private String nextWindowEnd(Connection c, List<String> schemas, String wm, String target) throws SQLException {
+        String sql = "SELECT MIN(m) FROM (" + schemas.stream()
+                .map(s -> "SELECT MIN(executed_at) AS m FROM " + s + ".query_log WHERE executed_at >= ?")
+                .collect(Collectors.joining(" UNION ALL ")) + ")";
+        String next;
+        try (PreparedStatement ps = c.prepareStatement(sql)) {
+            for (int i = 1; i <= schemas.size(); i++) ps.setString(i, wm);
+            try (ResultSet rs = ps.executeQuery()) {
+                next = rs.next() ? rs.getString(1) : null;
+            }
+        }
+        if (next == null || next.compareTo(target) >= 0) return target;
+        try {
+            String end = iso(Instant.parse(next).truncatedTo(ChronoUnit.MINUTES).plus(Math.max(1, props.getStepMinutes()), ChronoUnit.MINUTES));
+            return end.compareTo(target) < 0 ? end : target;
+        } catch (DateTimeParseException e) {
+            return target;
+        }
+    }
+
+    // [from, to) 원본 → 세 단위 롤업에 더하고 워터마크 전진, 한 트랜잭션.
+    // 첫 문장을 쓰기로 시작해 writer 잠금을 먼저 잡음 → 집계와 워터마크 사이에 다른 적재가 끼지 않음
+    private int window(Connection c, List<String> schemas, String from, String to) throws SQLException {
+        String source = schemas.stream()
+                .map(s -> "SELECT executed_at, user_id, status, return_rows, " + kindOf("sql_raw") + " AS kind FROM "
+                        + s + ".query_log WHERE executed_at >= ? AND executed_at < ?")
+                .collect(Collectors.joining(" UNION ALL "));
+        c.setAutoCommit(false);
+        try {
+            try (PreparedStatement ps = c.prepareStatement("UPDATE log_rollup_state SET updated_at = ? WHERE id = 1")) {
+                ps.setString(1, Instant.now().toString());
+                ps.executeUpdate();
+            }
+            int written = 0;
+            for (Grain g : Grain.values()) {
+                String sql = """
+                        INSERT INTO main.log_rollup(grain, bucket, user_id, status, kind, cnt, rows_sum)
+                        SELECT '%s', %s, user_id, status, kind, COUNT(*), SUM(return_rows)
+                        FROM (%s)
+                        WHERE 1
+                        GROUP BY 2, 3, 4, 5
+                        ON CONFLICT(grain, bucket, user_id, status, kind)
+                        DO UPDATE SET cnt = cnt + excluded.cnt, rows_sum = rows_sum + excluded.rows_sum"""
+                        .formatted(g.name(), g.bucketOf("executed_at"), source);
+                try (PreparedStatement ps = c.prepareStatement(sql)) {
+                    for (int i = 0; i < schemas.size(); i++) {
+                        ps.setString(2 * i + 1, from);
+                        ps.setString(2 * i + 2, to);
+                    }
+                    int n = ps.executeUpdate();
+                    if (g == Grain.MINUTE) written = n;
+                }
+            }
+            try (PreparedStatement ps = c.prepareStatement("UPDATE log_rollup_state SET watermark = ? WHERE id = 1")) {
+                ps.setString(1, to);
+                ps.executeUpdate();
+            }
+            c.commit();
+            return written;
+        } catch (SQLException | RuntimeException e) {
+            c.rollback();
+            throw e;
+        } finally {
+            c.setAutoCommit(true);
+        }
+    }
+
+    // ---------- 스키마(V4 보강 단계) ----------
+
+    /**
+     * 문장 종류 SQL 식. SqlStatementParser 의 첫 키워드 분류와 같은 표(WITH 는 본문을 보지 않고 SELECT 로).
+     * 앞 공백/괄호만 건너뛰므로 주석으로 시작하는 문장은 OTHER.
+     */
+    static String kindOf(String col) {
+        String t = "ltrim(" + col + ", ' ' || char(9, 10, 13) || '(')";
+        return ("CASE WHEN %1$s LIKE 'SELECT%%' OR %1$s LIKE 'WITH%%' OR %1$s LIKE 'VALUES%%' THEN 'SELECT'"
+                + " WHEN %1$s LIKE 'INSERT%%' OR %1$s LIKE 'REPLACE%%' THEN 'INSERT'"
+                + " WHEN %1$s LIKE 'UPDATE%%' THEN 'UPDATE'"
+                + " WHEN %1$s LIKE 'DELETE%%' THEN 'DELETE'"
+                + " WHEN %1$s LIKE 'CREATE%%' OR %1$s LIKE 'ALTER%%' OR %1$s LIKE 'DROP%%'"
+                + " OR %1$s LIKE 'TRUNCATE%%' OR %1$s LIKE 'RENAME%%' THEN 'DDL'"
+                + " ELSE 'OTHER' END").formatted(t);
+    }
+
+    /** 워터마크 이전 시각의 늦은 행 → 같은 트랜잭션에서 롤업에 더하는 트리거(분 롤업은 보존 구간 안일 때만) */
+    static String lateRowTrigger() {
+        StringBuilder sb = new StringBuilder("""
+                CREATE TRIGGER IF NOT EXISTS trg_query_log_rollup_late AFTER INSERT ON query_log
+                WHEN NEW.executed_at >= (SELECT start_at FROM log_rollup_state WHERE id = 1)
+                 AND NEW.executed_at <  (SELECT watermark FROM log_rollup_state WHERE id = 1)
+                BEGIN
+                """);
+        for (Grain g : Grain.values()) {
+            sb.append("  INSERT INTO log_rollup(grain, bucket, user_id, status, kind, cnt, rows_sum)\n")
+              .append("  SELECT '").append(g.name()).append("', ").append(g.bucketOf("NEW.executed_at"))
+              .append(", NEW.user_id, NEW.status, ").append(kindOf("NEW.sql_raw")).append(", 1, NEW.return_rows\n")
+              .append(g == Grain.MINUTE
+                      ? "  WHERE NEW.executed_at >= (SELECT minute_start_at FROM log_rollup_state WHERE id = 1)\n"
+                      : "  WHERE 1\n")
+              .append("  ON CONFLICT(grain, bucket, user_id, status, kind)\n")
+              .append("  DO UPDATE SET cnt = cnt + 1, rows_sum = rows_sum + excluded.rows_sum;\n");
+        }
+        return sb.append("END").toString();
+    }
+
+    // ---------- helpers ----------
+
+    private static State readState(Connection c) throws SQLException {
+        try (Statement s = c.createStatement();
+             ResultSet rs = s.executeQuery("SELECT start_at, minute_start_at, watermark FROM log_rollup_state WHERE id = 1")) {
+            return rs.next() ? new State(rs.getString(1), rs.getString(2), rs.getString(3)) : null;
+        }
+    }
+
+    private DataSource reader() {
+        return SqliteDataSources.reader(ds);
+    }
+
+    private DataSource writer() {
+        return (ds instanceof SqliteDataSources.ReadWriteSplit split) ? split.writer() : ds;
+    }
+
+    private static String floorDay(String iso) {
+        try {
+            return iso(LocalDate.ofInstant(Instant.parse(iso), ZoneOffset.UTC));
+        } catch (DateTimeParseException e) {
+            return iso.length() >= 10 ? iso.substring(0, 10) + "T00:00:00Z" : iso;
+        }
+    }
+
+    private static String iso(LocalDate d) {
+        return d.atStartOfDay(ZoneOffset.UTC).toInstant().toString();
+    }
+
+    private static String iso(Instant t) {
+        return t.toString();
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.dbids.sqlite;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.sqlite.SQLiteConfig;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.sql.Connection;
+import java.util.Locale;
+
+/**
+ * SqliteStorageProperties 프로파일대로 SQLite DataSource 구성.
+ * WAL: 쓰기 커넥션 1개(단일 writer) + 읽기 전용 풀을 LazyConnectionDataSourceProxy 로 묶음.
+ *   - 읽기 전용 트랜잭션(@Transactional(readOnly = true))은 첫 SQL 시점에 reader 풀에서 커넥션을 받음
+ *   - 그 외(쓰기 트랜잭션, 트랜잭션 밖 JdbcTemplate)는 writer
+ *   - WAL 이라 reader 는 writer 를 막지 않고, writer 도 reader 를 막지 않음
+ * 트랜잭션 밖에서 읽기만 하는 경로(내보내기 스트림, 근사 행 수 등)는 reader(ds) 로 받은 풀을 직접 써야
+ * 단일 writer 커넥션을 붙잡지 않는다(sqliteReadJdbc).
+ */
+public final class SqliteDataSources {
+
+    private static final String DRIVER = "org.sqlite.JDBC";
+
+    private SqliteDataSources() {}
+
+    public static DataSource create(String jdbcUrl, SqliteStorageProperties p) {
+        if (p.getProfile() == SqliteStorageProperties.Profile.LEGACY) {
+            HikariDataSource ds = new HikariDataSource();
+            ds.setPoolName("sqlite");
+            ds.setDriverClassName(DRIVER);
+            ds.setJdbcUrl(jdbcUrl);
+            ds.setMaximumPoolSize(Math.max(1, p.getLegacyPoolSize()));
+            return ds;
+        }
+        HikariDataSource writer = pool("sqlite-writer", jdbcUrl, 1, writerConfig(p));
+        HikariDataSource reader = pool("sqlite-reader", jdbcUrl, Math.max(1, p.getReaderPoolSize()), readerConfig(p));
+        return new ReadWriteSplit(writer, reader);
+    }
+
+    /** 트랜잭션 밖 읽기 전용 경로용 DataSource: WAL 이면 reader 풀, LEGACY 면 그대로 */
+    public static DataSource reader(DataSource ds) {
+        return (ds instanceof ReadWriteSplit split) ? split.reader() : ds;
+    }
+
+    static SQLiteConfig writerConfig(SqliteStorageProperties p) {
+        SQLiteConfig c = common(p);
+        c.setJournalMode(SQLiteConfig.JournalMode.WAL);
+        c.setSynchronous(SQLiteConfig.SynchronousMode.valueOf(p.getSynchronous().trim().toUpperCase(Locale.ROOT)));
+        return c;
+    }
+
+    // journal_mode 는 DB 파일에 기록되는 설정이라 writer 가 한 번 바꾸면 reader 에도 적용(읽기 전용 연결에서는 바꿀 수 없음)
+    static SQLiteConfig readerConfig(SqliteStorageProperties p) {
+        SQLiteConfig c = common(p);
+        c.setReadOnly(true);
+        // 트랜잭션 관리자가 Connection.setReadOnly 를 호출해도 예외 대신 받아들이도록
+        c.setExplicitReadOnly(true);
+        return c;
+    }
+
+    private static SQLiteConfig common(SqliteStorageProperties p) {
+        SQLiteConfig c = new SQLiteConfig();
+        c.setBusyTimeout(Math.max(0, p.getBusyTimeoutMs()));
+        c.setCacheSize(-Math.max(0, p.getCacheSizeKb()));          // 음수 = KB 단위
+        c.setPragma(SQLiteConfig.Pragma.MMAP_SIZE, Long.toString(Math.max(0, p.getMmapSizeMb()) * 1024L * 1024L));
+        return c;
+    }
+
+    private static HikariDataSource pool(String name, String jdbcUrl, int size, SQLiteConfig cfg) {
+        HikariDataSource ds = new HikariDataSource();
+        ds.setPoolName(name);
+        ds.setDriverClassName(DRIVER);
+        ds.setJdbcUrl(jdbcUrl);
+        ds.setMaximumPoolSize(size);
+        ds.setMinimumIdle(Math.min(1, size));
+        ds.setDataSourceProperties(cfg.toProperties());
+        return ds;
+    }
+
+    /** writer 기본 + 읽기 전용 커넥션이면 reader. 종료 시 두 풀을 모두 닫음 */
+    public static final class ReadWriteSplit extends LazyConnectionDataSourceProxy implements Closeable {
+        private final HikariDataSource writer;
+        private final HikariDataSource reader;
+
+        ReadWriteSplit(HikariDataSource writer, HikariDataSource reader) {
+            super(writer);
+            setReadOnlyDataSource(reader);
+            // 대상 기본값(autoCommit/격리 수준)을 미리 정해 첫 호출 때 writer 커넥션을 따로 잡지 않게 함
+            setDefaultAutoCommit(true);
+            setDefaultTransactionIsolation(Connection.TRANSACTION_SERIALIZABLE);
+            this.writer = writer;
+            this.reader = reader;
+        }
+
+        public HikariDataSource writer() { return writer; }
+        public HikariDataSource reader() { return reader; }
+
+        @Override
+        public void close() {
+            reader.close();
+            writer.close();
+        }
+    }
+}
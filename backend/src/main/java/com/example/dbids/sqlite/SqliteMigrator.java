@@ -0,0 +1,253 @@
+package com.example.dbids.sqlite;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * SQLite 버전 마이그레이션.
+ * - schema_version 에 적용된 버전을 기록하고, 아직 적용하지 않은 버전만 순서대로 한 번씩 실행
+ *   (예전 schema-sqlite.sql 처럼 매 기동마다 query_log 를 새로 만들어 복사하지 않음)
+ * - 버전마다 하나의 트랜잭션: 스크립트 + 보강 단계 + schema_version 기록이 함께 커밋/롤백
+ * - 스크립트는 classpath:db/sqlite/V{n}__{설명}.sql. 적용 후 내용이 바뀌면 체크섬 경고만 남김(재실행하지 않음)
+ */
+public class SqliteMigrator {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SqliteMigrator.class);
+
+    /** 스크립트 앞/뒤에 같은 트랜잭션에서 돌릴 보강 단계(컬럼 존재 여부 등 SQL 로 조건을 걸 수 없는 작업) */
+    @FunctionalInterface
+    interface Step {
+        void apply(Connection c) throws SQLException;
+    }
+
+    record Migration(int version, String script, Step before, Step after) {
+        String description() {
+            return script.substring(script.indexOf("__") + 2, script.lastIndexOf('.')).replace('_', ' ');
+        }
+    }
+
+    static final List<Migration> MIGRATIONS = List.of(
+            new Migration(1, "V1__baseline.sql", SqliteMigrator::rebuildLegacyQueryLog, SqliteMigrator::addNotifierColumns),
+            new Migration(2, "V2__hot_path_indexes.sql", null, null),
+            new Migration(3, "V3__log_partitions.sql", null, null),
+            new Migration(4, "V4__log_rollups.sql", null, SqliteMigrator::createRollupTrigger),
+            new Migration(5, "V5__full_text_search.sql", null, SqliteMigrator::createSearchTriggers)
+    );
+
+    private final DataSource ds;
+
+    public SqliteMigrator(DataSource ds) {
+        this.ds = ds;
+    }
+
+    /** 대기 중인 버전을 모두 적용하고 적용한 개수를 반환 */
+    public int migrate() {
+        try (Connection c = ds.getConnection()) {
+            boolean autoCommit = c.getAutoCommit();
+            boolean foreignKeys;
+            try (Statement st = c.createStatement()) {
+                try (ResultSet rs = st.executeQuery("PRAGMA foreign_keys")) {
+                    foreignKeys = rs.next() && rs.getInt(1) == 1;
+                }
+                // 테이블 재작성 중 FK 검사를 끔(트랜잭션 안에서는 바꿀 수 없으므로 먼저)
+                st.execute("PRAGMA foreign_keys=OFF");
+                st.execute("""
+                    CREATE TABLE IF NOT EXISTS schema_version (
+                      version     INTEGER PRIMARY KEY,
+                      description TEXT    NOT NULL,
+                      checksum    TEXT    NOT NULL,
+                      applied_at  TEXT    NOT NULL
+                    )""");
+            }
+            int applied = 0;
+            try {
+                for (Migration m : MIGRATIONS) {
+                    Resource script = new ClassPathResource("db/sqlite/" + m.script());
+                    String checksum = checksum(script);
+                    String recorded = recordedChecksum(c, m.version());
+                    if (recorded != null) {
+                        if (!recorded.equals(checksum)) {
+                            LOG.warn("sqlite migration V{} changed after it was applied (checksum {} -> {}); not re-running",
+                                    m.version(), recorded, checksum);
+                        }
+                        continue;
+                    }
+                    apply(c, m, script, checksum);
+                    applied++;
+                }
+            } finally {
+                c.setAutoCommit(autoCommit);
+                // 풀에 돌아갈 커넥션이므로 원래 설정으로 복구
+                try (Statement st = c.createStatement()) {
+                    st.execute("PRAGMA foreign_keys=" + (foreignKeys ? "ON" : "OFF"));
+                }
+            }
+            return applied;
+        } catch (SQLException | IOException e) {
+            throw new IllegalStateException("sqlite migration failed: " + e.getMessage(), e);
+        }
+    }
+
+    private static void apply(Connection c, Migration m, Resource script, String checksum) throws SQLException {
+        long t0 = System.nanoTime();
+        c.setAutoCommit(false);
+        try {
+            if (m.before() != null) m.before().apply(c);
+            ScriptUtils.executeSqlScript(c, script);
+            if (m.after() != null) m.after().apply(c);
+            try (PreparedStatement ps = c.prepareStatement(
+                    "INSERT INTO schema_version(version, description, checksum, applied_at) VALUES (?,?,?,?)")) {
+                ps.setInt(1, m.version());
+                ps.setString(2, m.description());
+                ps.setString(3, checksum);
+                ps.setString(4, Instant.now().toString());
+                ps.executeUpdate();
+            }
+            c.commit();
+        } catch (SQLException | RuntimeException e) {
+            c.rollback();
+            throw e;
+        }
+        LOG.info("sqlite migration V{} ({}) applied in {} ms", m.version(), m.description(), (System.nanoTime() - t0) / 1_000_000);
+    }
+
+    private static String recordedChecksum(Connection c, int version) throws SQLException {
+        try (PreparedStatement ps = c.prepareStatement("SELECT checksum FROM schema_version WHERE version = ?")) {
+            ps.setInt(1, version);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getString(1) : null;
+            }
+        }
+    }
+
+    private static String checksum(Resource script) throws IOException {
+        CRC32 crc = new CRC32();
+        try (InputStream in = script.getInputStream()) {
+            crc.update(in.readAllBytes());
+        }
+        return Long.toHexString(crc.getValue());
+    }
+
+    // ---- V1 보강: schema_version 도입 전 DB 를 기준 스키마에 맞춤 ----
+
+    // admin_id 도입 전 query_log → 새 형태로 한 번만 재작성(스크립트의 admin_id 인덱스보다 먼저)
+    private static void rebuildLegacyQueryLog(Connection c) throws SQLException {
+        if (hasTable(c, "query_log") && !hasColumn(c, "query_log", "admin_id")) {
+            try (Statement st = c.createStatement()) {
+                st.execute("""
+                    CREATE TABLE query_log_new (
+                      id            TEXT    PRIMARY KEY,
+                      executed_at   TEXT    NOT NULL,
+                      user_id       TEXT    NOT NULL,
+                      admin_id      TEXT,
+                      sql_raw       TEXT    NOT NULL,
+                      sql_summary   TEXT,
+                      return_rows   INTEGER NOT NULL DEFAULT 0 CHECK (return_rows >= 0),
+                      status        TEXT    NOT NULL CHECK (status IN ('SUCCESS','FAILURE')),
+                      FOREIGN KEY (admin_id) REFERENCES admin_user(id)
+                    )""");
+                st.execute("""
+                    INSERT INTO query_log_new (id, executed_at, user_id, admin_id, sql_raw, sql_summary, return_rows, status)
+                    SELECT id, executed_at, user_id, NULL, sql_raw, sql_summary, return_rows, status FROM query_log""");
+                st.execute("DROP TABLE query_log");
+                st.execute("ALTER TABLE query_log_new RENAME TO query_log");
+            }
+        }
+    }
+
+    private static void addNotifierColumns(Connection c) throws SQLException {
+        // CREATE TABLE IF NOT EXISTS 는 기존 테이블에 컬럼을 추가하지 않으므로 알림 테이블 보강
+        ensureColumn(c, "notification_log", "digest_id", "TEXT");
+        ensureColumn(c, "notification_outbox", "digest_key", "TEXT");
+        ensureColumn(c, "notification_outbox", "event_count", "INTEGER NOT NULL DEFAULT 1");
+        ensureColumn(c, "notification_outbox", "scheduled_at", "INTEGER NOT NULL DEFAULT 0");
+        try (Statement st = c.createStatement()) {
+            st.execute("CREATE INDEX IF NOT EXISTS idx_outbox_digest ON notification_outbox(digest_key, channel, scheduled_at)");
+        }
+    }
+
+    // ---- V4 보강: 트리거 본문(BEGIN ... END)은 ';' 로 나누는 스크립트 실행기로 만들 수 없으므로 여기서 ----
+
+    private static void createRollupTrigger(Connection c) throws SQLException {
+        try (Statement st = c.createStatement()) {
+            st.execute(LogRollups.lateRowTrigger());
+        }
+    }
+
+    // ---- V5 보강: 외부 콘텐츠 FTS 색인 동기화(삽입/삭제/본문 수정) ----
+
+    private static final List<String> SEARCH_TRIGGERS = List.of(
+            """
+            CREATE TRIGGER IF NOT EXISTS trg_query_log_fts_ai AFTER INSERT ON query_log BEGIN
+              INSERT INTO query_log_fts(rowid, sql_summary, sql_raw) VALUES (NEW.rowid, NEW.sql_summary, NEW.sql_raw);
+            END""",
+            """
+            CREATE TRIGGER IF NOT EXISTS trg_query_log_fts_ad AFTER DELETE ON query_log BEGIN
+              INSERT INTO query_log_fts(query_log_fts, rowid, sql_summary, sql_raw) VALUES ('delete', OLD.rowid, OLD.sql_summary, OLD.sql_raw);
+            END""",
+            """
+            CREATE TRIGGER IF NOT EXISTS trg_query_log_fts_au AFTER UPDATE OF sql_summary, sql_raw ON query_log BEGIN
+              INSERT INTO query_log_fts(query_log_fts, rowid, sql_summary, sql_raw) VALUES ('delete', OLD.rowid, OLD.sql_summary, OLD.sql_raw);
+              INSERT INTO query_log_fts(rowid, sql_summary, sql_raw) VALUES (NEW.rowid, NEW.sql_summary, NEW.sql_raw);
+            END""",
+            """
+            CREATE TRIGGER IF NOT EXISTS trg_event_fts_ai AFTER INSERT ON detection_event BEGIN
+              INSERT INTO detection_event_fts(rowid, sql_raw) VALUES (NEW.rowid, NEW.sql_raw);
+            END""",
+            """
+            CREATE TRIGGER IF NOT EXISTS trg_event_fts_ad AFTER DELETE ON detection_event BEGIN
+              INSERT INTO detection_event_fts(detection_event_fts, rowid, sql_raw) VALUES ('delete', OLD.rowid, OLD.sql_raw);
+            END""",
+            """
+            CREATE TRIGGER IF NOT EXISTS trg_event_fts_au AFTER UPDATE OF sql_raw ON detection_event BEGIN
+              INSERT INTO detection_event_fts(detection_event_fts, rowid, sql_raw) VALUES ('delete', OLD.rowid, OLD.sql_raw);
+              INSERT INTO detection_event_fts(rowid, sql_raw) VALUES (NEW.rowid, NEW.sql_raw);
+            END""");
+
+    private static void createSearchTriggers(Connection c) throws SQLException {
+        try (Statement st = c.createStatement()) {
+            for (String ddl : SEARCH_TRIGGERS) st.execute(ddl);
+        }
+    }
+
+    static boolean hasTable(Connection c, String table) throws SQLException {
+        try (PreparedStatement ps = c.prepareStatement("SELECT COUNT(*) FROM sqlite_master WHERE type = 'table' AND name = ?")) {
+            ps.setString(1, table);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() && rs.getInt(1) > 0;
+            }
+        }
+    }
+
+    static boolean hasColumn(Connection c, String table, String column) throws SQLException {
+        try (PreparedStatement ps = c.prepareStatement("SELECT COUNT(*) FROM pragma_table_info(?) WHERE name = ?")) {
+            ps.setString(1, table);
+            ps.setString(2, column);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() && rs.getInt(1) > 0;
+            }
+        }
+    }
+
+    private static void ensureColumn(Connection c, String table, String column, String ddl) throws SQLException {
+        if (hasColumn(c, table, column)) return;
+        try (Statement st = c.createStatement()) {
+            st.execute("ALTER TABLE " + table + " ADD COLUMN " + column + " " + ddl);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.dbids.sqlite;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+/**
+ * 목록 화면용 근사 행 수(count=estimate). 전체 COUNT(*) 스캔 없이 rowid 범위(MAX - MIN + 1)로 센다.
+ * rowid B-tree 양 끝만 읽으므로 행 수와 무관하게 상수 시간이고, 적재 전용 + 앞쪽부터 지우는
+ * 보존 정책(파티션 이동) 테이블에서는 거의 정확하다.
+ * sqlite_stat1 은 ANALYZE 시점 값에 머물러(마이그레이션 V2 의 1회뿐) 이후 적재를 반영하지 못하므로 쓰지 않는다.
+ * 필터가 걸린 목록은 호출 측이 CAP 건까지만 세는 상한 COUNT 를 쓴다.
+ */
+@Component
+public class SqliteRowEstimator {
+
+    /** 필터 목록의 근사 COUNT 상한(이 이상은 "CAP 건 이상"으로 취급) */
+    public static final int CAP = 10_000;
+
+    private static final Set<String> TABLES = Set.of("query_log", "detection_event");
+
+    private final JdbcTemplate jdbc;
+
+    public SqliteRowEstimator(@Qualifier("sqliteReadJdbc") JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    public long estimateRows(String table) {
+        if (!TABLES.contains(table)) throw new IllegalArgumentException("unsupported table: " + table);
+        Long n = jdbc.queryForObject(
+                "SELECT COALESCE(MAX(rowid) - MIN(rowid) + 1, 0) FROM " + table, Long.class);
+        return n == null ? 0 : n;
+    }
+}
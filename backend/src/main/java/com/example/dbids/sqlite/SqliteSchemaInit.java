@@ -4,12 +4,11 @@ import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
-import org.springframework.core.io.ClassPathResource;
-import org.springframework.jdbc.datasource.init.*;
 import org.springframework.stereotype.Component;
 
 import javax.sql.DataSource;
 
+/** 기동 시 SQLite 스키마를 최신 버전으로(SqliteMigrator: 적용하지 않은 버전만 실행) */
 @Component
 @ConditionalOnBean(name = "sqliteDataSource")
 @ConditionalOnProperty(name = "app.sqlite.init-enabled", havingValue = "true", matchIfMissing = true)
@@ -22,8 +21,6 @@ public class SqliteSchemaInit {
 
     @PostConstruct
     public void init() {
-        ResourceDatabasePopulator pop = new ResourceDatabasePopulator(
-                new ClassPathResource("schema-sqlite.sql"));
-        DatabasePopulatorUtils.execute(pop, sqlite);
+        new SqliteMigrator(sqlite).migrate();
     }
 }
@@ -0,0 +1,24 @@
+package com.example.dbids.sqlite;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.type.BasicType;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * JPQL/Criteria 에서 쓰는 FTS5 검색 함수(V5 색인). META-INF/services 로 등록.
+ * - log_fts_match(q.id, :match)   → query_log_fts(sql_summary, sql_raw)
+ * - event_fts_match(e.id, :match) → detection_event_fts(sql_raw)
+ * :match 는 FtsQuery.of(...) 결과. 색인에서 rowid → PK 로 바꿔 id IN (...) 로 걸므로 LIKE 전체 스캔이 없음.
+ */
+public class SqliteSearchFunctions implements FunctionContributor {
+
+    @Override
+    public void contributeFunctions(FunctionContributions functions) {
+        BasicType<Boolean> bool = functions.getTypeConfiguration().getBasicTypeRegistry().resolve(StandardBasicTypes.BOOLEAN);
+        functions.getFunctionRegistry().registerPattern("log_fts_match",
+                "(?1 in (select id from query_log where rowid in (select rowid from query_log_fts(?2))))", bool);
+        functions.getFunctionRegistry().registerPattern("event_fts_match",
+                "(?1 in (select id from detection_event where rowid in (select rowid from detection_event_fts(?2))))", bool);
+    }
+}
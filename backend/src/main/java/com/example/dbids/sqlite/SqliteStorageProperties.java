@@ -0,0 +1,58 @@
+package com.example.dbids.sqlite;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "dbids.sqlite")
+public class SqliteStorageProperties {
+
+    /**
+     * 저장소 프로파일
+     * - WAL    : WAL 저널 + 쓰기 전용 커넥션 1개 + 읽기 전용 커넥션 풀(읽기가 쓰기를 막지 않음)
+     * - LEGACY : 롤백 저널, 프라그마 없는 단일 풀(이전 동작). journal_mode 는 DB 파일에 남으므로 WAL 로 쓰던 파일은 WAL 그대로
+     */
+    public enum Profile { WAL, LEGACY }
+
+    private Profile profile = Profile.WAL;
+
+    /** WAL 에서는 NORMAL 이면 커밋마다 fsync 하지 않아도 손상 없음(전원 장애 시 마지막 커밋만 유실 가능) */
+    private String synchronous = "NORMAL";
+
+    /** 커넥션당 메모리 맵 크기(MB). 0 = 사용 안 함 */
+    private int mmapSizeMb = 256;
+
+    /** 커넥션당 페이지 캐시(KB) */
+    private int cacheSizeKb = 16_384;
+
+    /** 잠금 대기 시간(ms). 체크포인트 등으로 잠깐 막혀도 SQLITE_BUSY 대신 대기 */
+    private int busyTimeoutMs = 5_000;
+
+    /** 읽기 전용 풀 크기(@Transactional(readOnly = true) 조회가 사용) */
+    private int readerPoolSize = 4;
+
+    /** LEGACY 프로파일의 풀 크기 */
+    private int legacyPoolSize = 3;
+
+    // getters / setters
+    public Profile getProfile() { return profile; }
+    public void setProfile(Profile profile) { this.profile = profile; }
+
+    public String getSynchronous() { return synchronous; }
+    public void setSynchronous(String synchronous) { this.synchronous = synchronous; }
+
+    public int getMmapSizeMb() { return mmapSizeMb; }
+    public void setMmapSizeMb(int mmapSizeMb) { this.mmapSizeMb = mmapSizeMb; }
+
+    public int getCacheSizeKb() { return cacheSizeKb; }
+    public void setCacheSizeKb(int cacheSizeKb) { this.cacheSizeKb = cacheSizeKb; }
+
+    public int getBusyTimeoutMs() { return busyTimeoutMs; }
+    public void setBusyTimeoutMs(int busyTimeoutMs) { this.busyTimeoutMs = busyTimeoutMs; }
+
+    public int getReaderPoolSize() { return readerPoolSize; }
+    public void setReaderPoolSize(int readerPoolSize) { this.readerPoolSize = readerPoolSize; }
+
+    public int getLegacyPoolSize() { return legacyPoolSize; }
+    public void setLegacyPoolSize(int legacyPoolSize) { this.legacyPoolSize = legacyPoolSize; }
+}
@@ -3,7 +3,13 @@ package com.example.dbids.sqlite.model;
 import jakarta.persistence.*;
 
 @Entity
-@Table(name = "detection_event")
+@Table(name = "detection_event", indexes = {
+        @Index(name = "idx_event_occurred_id", columnList = "occurred_at, id"),
+        @Index(name = "idx_event_type_sev_occ", columnList = "event_type, severity, occurred_at, id"),
+        @Index(name = "idx_event_type_occ", columnList = "event_type, occurred_at, id"),
+        @Index(name = "idx_event_sev_occ", columnList = "severity, occurred_at, id"),
+        @Index(name = "idx_event_log", columnList = "log_id")
+})
 public class DetectionEvent {
 
     public enum Type { PATTERN, BEHAVIOR, AUTHZ }
@@ -0,0 +1,33 @@
+package com.example.dbids.sqlite.model;
+
+import jakarta.persistence.*;
+
+/**
+ * 묶음 알림 구성원: 발송 대기 중인 아웃박스 행(outbox_id)에 합쳐진 이벤트.
+ * 발송 결과 기록 시 구성원마다 notification_log 1행(digest_id = outbox_id)을 남긴다.
+ */
+@Entity
+@Table(name = "notification_digest_member",
+        indexes = @Index(name = "idx_digest_member_outbox", columnList = "outbox_id"))
+public class NotificationDigestMember {
+
+    @Id
+    @Column(length = 36)
+    private String id;                   // UUID
+
+    @Column(name = "outbox_id", nullable = false, length = 36)
+    private String outboxId;             // FK -> notification_outbox.id
+
+    @Column(name = "event_id", nullable = false, length = 36)
+    private String eventId;              // FK -> detection_event.id
+
+    protected NotificationDigestMember() {}
+
+    public NotificationDigestMember(String id, String outboxId, String eventId) {
+        this.id = id; this.outboxId = outboxId; this.eventId = eventId;
+    }
+
+    public String getId() { return id; }
+    public String getOutboxId() { return outboxId; }
+    public String getEventId() { return eventId; }
+}
@@ -34,6 +34,9 @@ public class NotificationLog {
     @Column(name = "sent_at", nullable = false, length = 40)
     private String sentAt;               // ISO8601
 
+    @Column(name = "digest_id", length = 36)
+    private String digestId;             // nullable, 묶음 발송이면 notification_outbox.id
+
     protected NotificationLog() {}
 
     public NotificationLog(String id, String eventId, Channel channel,
@@ -43,6 +46,12 @@ public class NotificationLog {
         this.sentAt = sentAt;
     }
 
+    public NotificationLog(String id, String eventId, Channel channel,
+            Status status, String errorCode, String errorMessage, String sentAt, String digestId) {
+        this(id, eventId, channel, status, errorCode, errorMessage, sentAt);
+        this.digestId = digestId;
+    }
+
     // getters
     public String getId() { return id; }
     public String getEventId() { return eventId; }
@@ -51,4 +60,5 @@ public class NotificationLog {
     public String getErrorCode() { return errorCode; }
     public String getErrorMessage() { return errorMessage; }
     public String getSentAt() { return sentAt; }
+    public String getDigestId() { return digestId; }
 }
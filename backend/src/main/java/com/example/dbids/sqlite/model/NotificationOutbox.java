@@ -0,0 +1,108 @@
+package com.example.dbids.sqlite.model;
+
+import jakarta.persistence.*;
+
+/**
+ * 알림 아웃박스: 탐지 이벤트와 같은 트랜잭션에서 채널별 1행 기록 → 채널 워커가 비동기로 발송.
+ * 최종 결과(SENT / 재시도 소진 FAILED)는 notification_log 에 남긴다.
+ * 묶음(digest): 같은 digestKey 의 후속 이벤트는 발송 대기 중인 행에 합쳐지고(eventCount 증가,
+ * 첫 이벤트 외에는 notification_digest_member 에 연결) 창이 끝날 때 1건으로 발송된다.
+ */
+@Entity
+@Table(name = "notification_outbox",
+        indexes = {
+                @Index(name = "idx_outbox_due", columnList = "status, channel, next_attempt_at"),
+                @Index(name = "idx_outbox_digest", columnList = "digest_key, channel, scheduled_at")
+        })
+public class NotificationOutbox {
+
+    public enum Status { PENDING, SENT, FAILED }
+
+    @Id
+    @Column(length = 36)
+    private String id;                   // UUID
+
+    @Column(name = "event_id", nullable = false, length = 36)
+    private String eventId;              // FK -> detection_event.id
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "channel", nullable = false, length = 16)
+    private NotificationLog.Channel channel;
+
+    @Column(name = "recipient")
+    private String recipient;            // EMAIL 수신자(적재 시점에 결정, null 이면 기본 수신자)
+
+    @Column(name = "subject")
+    private String subject;              // EMAIL 제목(SLACK 은 null)
+
+    @Lob
+    @Column(name = "body", nullable = false)
+    private String body;                 // 적재 시점에 포맷한 본문(EMAIL 본문 / SLACK 텍스트)
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 16)
+    private Status status;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private long nextAttemptAt;          // epoch ms (문자열 ISO 는 소수부 자릿수에 따라 정렬이 어긋나므로 정수)
+
+    @Column(name = "last_error")
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false, length = 40)
+    private String createdAt;            // ISO8601
+
+    @Column(name = "digest_key")
+    private String digestKey;            // 유형|심각도|사용자|규칙 (null = 묶지 않음)
+
+    @Column(name = "event_count", nullable = false)
+    private int eventCount;              // 이 행이 대표하는 이벤트 수(event_id + 묶인 이벤트)
+
+    @Column(name = "scheduled_at", nullable = false)
+    private long scheduledAt;            // 최초 발송 예정 시각(epoch ms, 재시도로 바뀌지 않음) → 다음 창 계산 기준
+
+    protected NotificationOutbox() {}
+
+    public NotificationOutbox(String id, String eventId, NotificationLog.Channel channel,
+            String recipient, String subject, String body, long nextAttemptAt, String createdAt) {
+        this.id = id; this.eventId = eventId; this.channel = channel; this.recipient = recipient;
+        this.subject = subject; this.body = body;
+        this.status = Status.PENDING; this.attempts = 0;
+        this.nextAttemptAt = nextAttemptAt; this.createdAt = createdAt;
+        this.eventCount = 1; this.scheduledAt = nextAttemptAt;
+    }
+
+    public NotificationOutbox(String id, String eventId, NotificationLog.Channel channel,
+            String recipient, String subject, String body, long nextAttemptAt, String createdAt, String digestKey) {
+        this(id, eventId, channel, recipient, subject, body, nextAttemptAt, createdAt);
+        this.digestKey = digestKey;
+    }
+
+    public String getId() { return id; }
+    public String getEventId() { return eventId; }
+    public NotificationLog.Channel getChannel() { return channel; }
+    public String getRecipient() { return recipient; }
+    public String getSubject() { return subject; }
+    public String getBody() { return body; }
+    public Status getStatus() { return status; }
+    public int getAttempts() { return attempts; }
+    public long getNextAttemptAt() { return nextAttemptAt; }
+    public String getLastError() { return lastError; }
+    public String getCreatedAt() { return createdAt; }
+    public String getDigestKey() { return digestKey; }
+    public int getEventCount() { return eventCount; }
+    public long getScheduledAt() { return scheduledAt; }
+    public boolean isDigest() { return eventCount > 1; }
+
+    public void setStatus(Status status) { this.status = status; }
+    public void setAttempts(int attempts) { this.attempts = attempts; }
+    public void setNextAttemptAt(long nextAttemptAt) { this.nextAttemptAt = nextAttemptAt; }
+    public void setLastError(String lastError) { this.lastError = lastError; }
+    public void setEventCount(int eventCount) { this.eventCount = eventCount; }
+
+    /** 묶음으로 바뀔 때 본문 재작성(EMAIL 은 제목도) */
+    public void setContent(String subject, String body) { this.subject = subject; this.body = body; }
+}
@@ -4,7 +4,10 @@ import jakarta.persistence.*;
 
 @Entity
 @Table(name = "query_log", indexes = {
-        @Index(name = "idx_exec_time", columnList = "executed_at")
+        @Index(name = "idx_query_log_exec_id", columnList = "executed_at, id"),
+        @Index(name = "idx_query_log_user_exec", columnList = "user_id, executed_at, id"),
+        @Index(name = "idx_query_log_status_exec", columnList = "status, executed_at, id"),
+        @Index(name = "idx_query_log_admin", columnList = "admin_id")
 })
 public class QueryLog {
 
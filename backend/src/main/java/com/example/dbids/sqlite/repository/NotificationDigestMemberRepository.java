@@ -0,0 +1,15 @@
+package com.example.dbids.sqlite.repository;
+
+import com.example.dbids.sqlite.model.NotificationDigestMember;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface NotificationDigestMemberRepository extends JpaRepository<NotificationDigestMember, String> {
+
+    /** 아웃박스 행에 합쳐진 이벤트 ID(대표 event_id 제외) */
+    @Query("SELECT m.eventId FROM NotificationDigestMember m WHERE m.outboxId = :outboxId")
+    List<String> findEventIds(@Param("outboxId") String outboxId);
+}
@@ -0,0 +1,26 @@
+package com.example.dbids.sqlite.repository;
+
+import com.example.dbids.sqlite.model.NotificationLog;
+import com.example.dbids.sqlite.model.NotificationOutbox;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface NotificationOutboxRepository extends JpaRepository<NotificationOutbox, String> {
+
+    /** 채널별 발송 기한이 된 PENDING 행(오래된 순) */
+    @Query("SELECT o FROM NotificationOutbox o WHERE o.status = 'PENDING' AND o.channel = :channel "
+            + "AND o.nextAttemptAt <= :now ORDER BY o.nextAttemptAt")
+    List<NotificationOutbox> findDue(@Param("channel") NotificationLog.Channel channel,
+                                     @Param("now") long now, Pageable page);
+
+    /** 같은 묶음 키의 가장 최근 행(창 계산/합치기 대상) */
+    Optional<NotificationOutbox> findFirstByChannelAndDigestKeyOrderByScheduledAtDesc(
+            NotificationLog.Channel channel, String digestKey);
+
+    long countByStatus(NotificationOutbox.Status status);
+}
@@ -0,0 +1,90 @@
+-- V1: 기준 스키마 (이전 schema-sqlite.sql 의 최종 형태)
+-- 기존 DB 에서는 모두 IF NOT EXISTS 로 건너뛰고, 빠진 컬럼/구형 query_log 는 SqliteMigrator 의 V1 보강 단계에서 처리
+
+-- QueryLog: PK = UUID(TEXT)
+CREATE TABLE IF NOT EXISTS query_log (
+  id            TEXT    PRIMARY KEY,        -- UUID(LogID)
+  executed_at   TEXT    NOT NULL,           -- ISO8601
+  user_id       TEXT    NOT NULL,           -- 이메일 문자열
+  admin_id      TEXT,                       -- AdminUser FK (nullable)
+  sql_raw       TEXT    NOT NULL,
+  sql_summary   TEXT,
+  return_rows   INTEGER NOT NULL DEFAULT 0 CHECK (return_rows >= 0),
+  status        TEXT    NOT NULL CHECK (status IN ('SUCCESS','FAILURE')),
+  FOREIGN KEY (admin_id) REFERENCES admin_user(id)
+);
+
+-- DetectionEvent: FK = query_log.id(UUID)
+CREATE TABLE IF NOT EXISTS detection_event (
+  id             TEXT    PRIMARY KEY,       -- UUID(EventID)
+  log_id         TEXT    NOT NULL,          -- FK → query_log.id
+  event_type     TEXT    NOT NULL,          -- 'PATTERN' | 'BEHAVIOR' | 'AUTHZ'
+  severity       TEXT    NOT NULL,          -- 'LOW' | 'MEDIUM' | 'HIGH'
+  occurred_at    TEXT    NOT NULL,          -- ISO8601
+  sql_raw        TEXT    NOT NULL,          -- 마스킹/정규화된 SQL
+  FOREIGN KEY (log_id) REFERENCES query_log(id)
+);
+
+-- NotificationLog (SDS 4.2.3)
+CREATE TABLE IF NOT EXISTS notification_log (
+  id             TEXT    PRIMARY KEY,         -- UUID (NotifyID)
+  event_id       TEXT    NOT NULL,            -- FK -> detection_event.id
+  channel        TEXT    NOT NULL,            -- 'SLACK' | 'EMAIL'
+  status         TEXT    NOT NULL,            -- 'SENT'  | 'FAILED'
+  error_code     TEXT,                         -- nullable
+  error_message  TEXT,                         -- nullable
+  sent_at        TEXT    NOT NULL,            -- ISO8601
+  digest_id      TEXT,                         -- nullable, 묶음 발송이면 notification_outbox.id
+  FOREIGN KEY (event_id) REFERENCES detection_event(id)
+);
+
+-- 알림 아웃박스: 이벤트와 같은 트랜잭션에 적재 → 채널 워커가 재시도/백오프로 발송
+CREATE TABLE IF NOT EXISTS notification_outbox (
+  id              TEXT    PRIMARY KEY,        -- UUID
+  event_id        TEXT    NOT NULL,           -- FK -> detection_event.id
+  channel         TEXT    NOT NULL,           -- 'SLACK' | 'EMAIL'
+  recipient       TEXT,                       -- EMAIL 수신자(null = 기본 수신자)
+  subject         TEXT,                       -- EMAIL 제목
+  body            TEXT    NOT NULL,           -- 적재 시점에 포맷한 본문
+  status          TEXT    NOT NULL,           -- 'PENDING' | 'SENT' | 'FAILED'
+  attempts        INTEGER NOT NULL DEFAULT 0,
+  next_attempt_at INTEGER NOT NULL,           -- epoch ms
+  last_error      TEXT,
+  created_at      TEXT    NOT NULL,           -- ISO8601
+  digest_key      TEXT,                       -- 유형|심각도|사용자|규칙 (null = 묶지 않음)
+  event_count     INTEGER NOT NULL DEFAULT 1, -- 이 행이 대표하는 이벤트 수
+  scheduled_at    INTEGER NOT NULL DEFAULT 0, -- 최초 발송 예정 시각(epoch ms)
+  FOREIGN KEY (event_id) REFERENCES detection_event(id)
+);
+CREATE INDEX IF NOT EXISTS idx_outbox_due ON notification_outbox(status, channel, next_attempt_at);
+-- idx_outbox_digest 는 기존 DB 컬럼 보강 후 SqliteMigrator(V1 보강 단계)에서 생성
+
+-- 묶음 알림 구성원: 대기 중인 아웃박스 행에 합쳐진 이벤트(발송 결과는 이벤트별 notification_log 로)
+CREATE TABLE IF NOT EXISTS notification_digest_member (
+  id              TEXT    PRIMARY KEY,        -- UUID
+  outbox_id       TEXT    NOT NULL,           -- FK -> notification_outbox.id
+  event_id        TEXT    NOT NULL,           -- FK -> detection_event.id
+  FOREIGN KEY (outbox_id) REFERENCES notification_outbox(id),
+  FOREIGN KEY (event_id) REFERENCES detection_event(id)
+);
+CREATE INDEX IF NOT EXISTS idx_digest_member_outbox ON notification_digest_member(outbox_id);
+
+-- 행동 탐지 적응형 기준선 스냅샷 (사용자별 EWMA/P² 상태, 재기동 시 복원)
+CREATE TABLE IF NOT EXISTS behavior_baseline (
+  user_id        TEXT    PRIMARY KEY,
+  state          BLOB    NOT NULL,            -- BehaviorBaseline 직렬화(고정 길이)
+  samples        INTEGER NOT NULL DEFAULT 0,  -- 학습한 윈도우 수
+  updated_at     TEXT    NOT NULL             -- ISO8601
+);
+
+-- ========== FR-6: AdminUser ==========
+CREATE TABLE IF NOT EXISTS admin_user (
+  id             TEXT PRIMARY KEY,              -- AdminID(UUID)
+  email          TEXT NOT NULL UNIQUE,          -- 관리자 이메일(고유)
+  password_hash  TEXT NOT NULL,                 -- SHA-256 해시(hex)
+  role           TEXT NOT NULL,                 -- READER | WRITER | DBA
+  last_login     TEXT                           -- ISO-8601 문자열
+);
+
+CREATE INDEX IF NOT EXISTS idx_query_log_admin ON query_log(admin_id);
+CREATE INDEX IF NOT EXISTS idx_query_log_user  ON query_log(user_id);
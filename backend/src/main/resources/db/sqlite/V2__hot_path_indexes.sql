@@ -0,0 +1,28 @@
+-- V2: 대시보드/이벤트 조회 경로용 복합 인덱스
+-- 모든 목록은 (시각 DESC, id DESC) 로 정렬하므로 필터 컬럼 뒤에 (시각, id) 를 붙여 정렬용 임시 B-tree 를 없앤다.
+-- 검증: SqliteMigratorTest 의 EXPLAIN QUERY PLAN 회귀 테스트
+
+-- query_log ------------------------------------------------------------
+-- 기본 목록/키셋/기간 조건/시간대별 요약(커버링)
+CREATE INDEX IF NOT EXISTS idx_query_log_exec_id     ON query_log(executed_at, id);
+-- 사용자 필터 + 최신순, 사용자별 집계
+CREATE INDEX IF NOT EXISTS idx_query_log_user_exec   ON query_log(user_id, executed_at, id);
+-- 상태 필터 + 최신순
+CREATE INDEX IF NOT EXISTS idx_query_log_status_exec ON query_log(status, executed_at, id);
+
+-- 위 복합 인덱스의 앞부분과 겹치는 단일 컬럼 인덱스(쓰기 비용만 늘림)
+DROP INDEX IF EXISTS idx_query_log_user;
+DROP INDEX IF EXISTS idx_exec_time;
+
+-- detection_event ------------------------------------------------------
+-- 기본 목록/키셋/기간 조건
+CREATE INDEX IF NOT EXISTS idx_event_occurred_id     ON detection_event(occurred_at, id);
+-- 유형+심각도 / 유형만 필터 + 최신순
+CREATE INDEX IF NOT EXISTS idx_event_type_sev_occ    ON detection_event(event_type, severity, occurred_at, id);
+CREATE INDEX IF NOT EXISTS idx_event_type_occ        ON detection_event(event_type, occurred_at, id);
+-- 심각도만 필터 + 최신순
+CREATE INDEX IF NOT EXISTS idx_event_sev_occ         ON detection_event(severity, occurred_at, id);
+-- query_log 조인/로그별 이벤트 조회
+CREATE INDEX IF NOT EXISTS idx_event_log             ON detection_event(log_id);
+
+ANALYZE;
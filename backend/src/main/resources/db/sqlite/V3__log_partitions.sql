@@ -0,0 +1,18 @@
+-- V3: 기간 파티션 카탈로그
+-- 핫 구간(최근 N 기간)은 본 DB 의 query_log/detection_event 에 두고, 그보다 오래된 기간은 기간별 SQLite 파일로 옮김(LogPartitions).
+-- 조회는 요청 기간과 겹치는 파일만 ATTACH, 보존 기간이 지난 기간은 파일 단위로 삭제/보관.
+
+CREATE TABLE IF NOT EXISTS log_partition (
+  name          TEXT    PRIMARY KEY,        -- 기간 시작일(YYYY-MM-DD)
+  period_start  TEXT    NOT NULL,           -- ISO8601, query_log.executed_at >= period_start
+  period_end    TEXT    NOT NULL,           -- ISO8601, query_log.executed_at <  period_end
+  path          TEXT    NOT NULL,           -- 파티션 파일 경로
+  log_rows      INTEGER NOT NULL DEFAULT 0,
+  event_rows    INTEGER NOT NULL DEFAULT 0,
+  event_min     TEXT,                       -- 파일 안 detection_event.occurred_at 범위(이벤트 조회 가지치기)
+  event_max     TEXT,
+  updated_at    TEXT    NOT NULL
+);
+
+-- 요약 보강(SqlSummaryBackfillRunner) 대상만 담는 부분 인덱스: 기동 시 전체 스캔 대신 빈 요약 행만 읽음
+CREATE INDEX IF NOT EXISTS idx_query_log_summary_missing ON query_log(id) WHERE sql_summary IS NULL OR sql_summary = '';
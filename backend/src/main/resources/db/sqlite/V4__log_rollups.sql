@@ -0,0 +1,27 @@
+-- V4: 요약용 사전 집계(롤업)
+-- query_log 를 분/시/일 버킷 × (사용자, 상태, 문장 종류)로 미리 세어 둠 → /api/logs/summary 가 원본 행 대신 롤업을 읽음.
+-- 롤업은 [start_at, watermark) 구간에서만 유효: 백그라운드 압축(LogRollups)이 워터마크를 앞으로 밀고,
+-- 그보다 앞선 시각으로 늦게 들어온 행은 INSERT 트리거(V4 보강 단계)가 같은 트랜잭션에서 더함.
+
+CREATE TABLE IF NOT EXISTS log_rollup (
+  grain     TEXT    NOT NULL CHECK (grain IN ('MINUTE','HOUR','DAY')),
+  bucket    TEXT    NOT NULL,               -- 버킷 시작 ISO8601(UTC), 예: 2025-10-27T15:00:00Z
+  user_id   TEXT    NOT NULL,
+  status    TEXT    NOT NULL,
+  kind      TEXT    NOT NULL,               -- SELECT | INSERT | UPDATE | DELETE | DDL | OTHER
+  cnt       INTEGER NOT NULL DEFAULT 0,
+  rows_sum  INTEGER NOT NULL DEFAULT 0,     -- return_rows 합
+  PRIMARY KEY (grain, bucket, user_id, status, kind)
+) WITHOUT ROWID;
+
+-- 사용자 필터 요약(grain + user_id + 기간)
+CREATE INDEX IF NOT EXISTS idx_log_rollup_user ON log_rollup(grain, user_id, bucket);
+
+-- 단일 행(id = 1). minute_start_at 은 분 단위 보존 기간으로 잘라낸 뒤의 분 롤업 시작
+CREATE TABLE IF NOT EXISTS log_rollup_state (
+  id               INTEGER PRIMARY KEY CHECK (id = 1),
+  start_at         TEXT    NOT NULL,
+  minute_start_at  TEXT    NOT NULL,
+  watermark        TEXT    NOT NULL,
+  updated_at       TEXT    NOT NULL
+);
@@ -0,0 +1,17 @@
+-- V5: SQL 키워드 검색용 FTS5 색인
+-- 외부 콘텐츠(content=) 테이블이라 본문을 다시 저장하지 않고 토큰 색인만 둠. 행 연결은 rowid
+-- (VACUUM 은 명시 INTEGER PK 가 없는 테이블의 rowid 를 바꿀 수 있으므로 VACUUM 뒤에는 'rebuild' 필요).
+-- 본 테이블과의 동기화 트리거는 V5 보강 단계(SqliteMigrator), 파티션 파일은 LogPartitions 가 옮길 때 색인.
+-- prefix 색인(2, 3글자)으로 짧은 접두어 검색도 색인 범위 조회.
+
+CREATE VIRTUAL TABLE IF NOT EXISTS query_log_fts USING fts5(
+  sql_summary, sql_raw, content='query_log', content_rowid='rowid', prefix='2 3'
+);
+
+CREATE VIRTUAL TABLE IF NOT EXISTS detection_event_fts USING fts5(
+  sql_raw, content='detection_event', content_rowid='rowid', prefix='2 3'
+);
+
+-- 기존 행 색인
+INSERT INTO query_log_fts(query_log_fts) VALUES ('rebuild');
+INSERT INTO detection_event_fts(detection_event_fts) VALUES ('rebuild');
@@ -0,0 +1,88 @@
+package com.example.dbids.it;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+class IT10_BatchIngestIT extends ItBase {
+
+    private JsonNode postBatch(MediaType type, String body, int expectStatus) throws Exception {
+        var res = mvc.perform(post("/api/ingest/logs").contentType(type).content(body))
+                .andReturn().getResponse();
+        assertThat(res.getStatus()).isEqualTo(expectStatus);
+        return om.readTree(res.getContentAsString(StandardCharsets.UTF_8));
+    }
+
+    private void awaitPersisted(List<String> ids) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 3_000;
+        while (System.currentTimeMillis() < deadline) {
+            if (ids.stream().allMatch(id -> logRepo.existsById(id))) return;
+            Thread.sleep(20);
+        }
+        assertThat(ids).allMatch(id -> logRepo.existsById(id));
+    }
+
+    @Test @DisplayName("IT-10-A: JSON 배열 배치 → 유효 행만 적재, 불량 행은 index/사유 반환(207)")
+    void json_array_partial_success() throws Exception {
+        String now = Instant.now().toString();
+        String body = """
+        [
+          {"executedAt":"%s","userId":"it10a@example.com","sqlRaw":"SELECT 1","returnRows":1,"status":"SUCCESS"},
+          {"executedAt":"%s","userId":"not-an-email","sqlRaw":"SELECT 2","returnRows":1,"status":"SUCCESS"},
+          {"executedAt":"%s","userId":"it10a@example.com","sqlRaw":"SELECT 3","returnRows":0,"status":"FAILURE"}
+        ]
+        """.formatted(now, now, now);
+
+        JsonNode res = postBatch(MediaType.APPLICATION_JSON, body, 207);
+
+        assertThat(res.get("accepted").asInt()).isEqualTo(2);
+        assertThat(res.get("rejected").asInt()).isEqualTo(1);
+        assertThat(res.get("ids").get(1).isNull()).isTrue();
+        assertThat(res.get("errors").get(0).get("index").asInt()).isEqualTo(1);
+        assertThat(res.get("errors").get(0).get("retryable").asBoolean()).isFalse();
+
+        awaitPersisted(List.of(res.get("ids").get(0).asText(), res.get("ids").get(2).asText()));
+    }
+
+    @Test @DisplayName("IT-10-B: NDJSON 배치 → 깨진 줄은 malformed json으로 거절, 나머지는 저장")
+    void ndjson_partial_success() throws Exception {
+        String now = Instant.now().toString();
+        String body = """
+        {"executedAt":"%s","userId":"it10b@example.com","sqlRaw":"SELECT 1","returnRows":1,"status":"SUCCESS"}
+        {"executedAt":"%s","userId":"it10b@example.com",
+        {"executedAt":"%s","userId":"it10b@example.com","sqlRaw":"UPDATE t SET a=1","returnRows":3,"status":"SUCCESS"}
+        """.formatted(now, now, now);
+
+        JsonNode res = postBatch(MediaType.parseMediaType("application/x-ndjson"), body, 207);
+
+        assertThat(res.get("accepted").asInt()).isEqualTo(2);
+        assertThat(res.get("errors").get(0).get("error").asText()).isEqualTo("malformed json");
+
+        List<String> ids = new ArrayList<>();
+        ids.add(res.get("ids").get(0).asText());
+        ids.add(res.get("ids").get(2).asText());
+        awaitPersisted(ids);
+    }
+
+    @Test @DisplayName("IT-10-C: 전부 유효하면 202, 빈 배치는 400")
+    void all_valid_and_empty() throws Exception {
+        String now = Instant.now().toString();
+        String body = """
+        [{"executedAt":"%s","userId":"it10c@example.com","sqlRaw":"SELECT 1","returnRows":1,"status":"SUCCESS"}]
+        """.formatted(now);
+
+        JsonNode ok = postBatch(MediaType.APPLICATION_JSON, body, 202);
+        assertThat(ok.get("accepted").asInt()).isEqualTo(1);
+
+        postBatch(MediaType.APPLICATION_JSON, "[]", 400);
+    }
+}
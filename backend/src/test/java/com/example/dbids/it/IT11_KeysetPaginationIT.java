@@ -0,0 +1,83 @@
+package com.example.dbids.it;
+
+import com.example.dbids.sqlite.model.QueryLog;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+class IT11_KeysetPaginationIT extends ItBase {
+
+    private static final String USER = "it11-keyset@example.com";
+
+    private JsonNode list(String... params) throws Exception {
+        var req = get("/api/logs").param("user", USER).param("size", "3");
+        for (int i = 0; i < params.length; i += 2) req = req.param(params[i], params[i + 1]);
+        var res = mvc.perform(req).andReturn().getResponse();
+        assertThat(res.getStatus()).isEqualTo(200);
+        return new ObjectMapper().readTree(res.getContentAsString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("IT-11: /api/logs 커서로 끝까지 넘기면 같은 시각(동률) 행도 빠짐/중복 없이 최신순으로 모두 조회")
+    void cursor_pagesThroughAllRows() throws Exception {
+        // 7건, 그중 4건은 같은 executedAt → id 로 순서가 갈려야 함
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            String id = UUID.randomUUID().toString();
+            String ts = (i < 4) ? "2030-01-01T00:00:00Z" : "2030-01-01T00:00:0" + i + "Z";
+            logRepo.save(new QueryLog(id, ts, USER, null, "SELECT " + i, "SELECT", 0, QueryLog.Status.SUCCESS));
+            ids.add(id);
+        }
+
+        List<String> seen = new ArrayList<>();
+        List<String> times = new ArrayList<>();
+        JsonNode page = list("count", "exact");
+        assertThat(page.get("totalElements").asLong()).isEqualTo(7);
+        int requests = 1;
+        while (true) {
+            for (JsonNode row : page.get("content")) {
+                seen.add(row.get("id").asText());
+                times.add(row.get("executedAt").asText());
+            }
+            if (!page.get("hasNext").asBoolean()) break;
+            page = list("cursor", page.get("nextCursor").asText(), "count", "none");
+            assertThat(page.get("totalElements").asLong()).isEqualTo(-1);
+            requests++;
+        }
+
+        assertThat(requests).isEqualTo(3);
+        assertThat(seen).hasSize(7).doesNotHaveDuplicates().containsExactlyInAnyOrderElementsOf(ids);
+        assertThat(times).isSortedAccordingTo((a, b) -> b.compareTo(a));
+
+        // 커서 없이 page>0 → OFFSET 폴백: size+1 건으로 다음 유무만 판단(count=none 이면 COUNT 없이 -1), 키셋 순서와 일치
+        JsonNode offset = list("page", "1", "count", "none");
+        assertThat(offset.get("totalElements").asLong()).isEqualTo(-1);
+        assertThat(offset.get("hasNext").asBoolean()).isTrue();
+        List<String> offsetIds = new ArrayList<>();
+        offset.get("content").forEach(row -> offsetIds.add(row.get("id").asText()));
+        assertThat(offsetIds).containsExactlyElementsOf(seen.subList(3, 6));
+        JsonNode lastPage = list("page", "2", "count", "exact");
+        assertThat(lastPage.get("content")).hasSize(1);
+        assertThat(lastPage.get("hasNext").asBoolean()).isFalse();
+        assertThat(lastPage.get("totalElements").asLong()).isEqualTo(7);
+
+        // 필터가 있는 근사 건수는 상한 COUNT → 상한 미만이면 정확히 일치
+        assertThat(list("count", "estimate").get("totalElements").asLong()).isEqualTo(7);
+        assertThat(mvc.perform(get("/api/logs").param("count", "estimate")).andReturn().getResponse().getStatus()).isEqualTo(200);
+        assertThat(mvc.perform(get("/api/events").param("count", "estimate")).andReturn().getResponse().getStatus()).isEqualTo(200);
+
+        // 잘못된 커서/카운트 모드 → 400
+        assertThat(mvc.perform(get("/api/logs").param("cursor", "not-a-cursor")).andReturn().getResponse().getStatus()).isEqualTo(400);
+        assertThat(mvc.perform(get("/api/logs").param("count", "maybe")).andReturn().getResponse().getStatus()).isEqualTo(400);
+        assertThat(mvc.perform(get("/api/events").param("cursor", "not-a-cursor")).andReturn().getResponse().getStatus()).isEqualTo(400);
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.dbids.it;
+
+import com.example.dbids.sqlite.model.QueryLog;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+class IT12_StreamingExportIT extends ItBase {
+
+    private static final String USER = "it12-export@example.com";
+
+    private MockHttpServletResponse export(String... params) throws Exception {
+        var req = get("/api/logs/export").param("user", USER);
+        for (int i = 0; i < params.length; i += 2) req = req.param(params[i], params[i + 1]);
+        var started = mvc.perform(req).andReturn();
+        return mvc.perform(asyncDispatch(started)).andReturn().getResponse();
+    }
+
+    @Test
+    @DisplayName("IT-12: /api/logs/export 스트리밍 — 기존 1만 건 상한 없이 CSV 전체, NDJSON+gzip 도 같은 조건으로 출력")
+    void export_streamsAllRows() throws Exception {
+        int n = 10_050;   // 예전 size 상한(10,000)보다 많게
+        List<QueryLog> rows = new java.util.ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            String ts = "2031-01-01T00:%02d:%02dZ".formatted((i / 60) % 60, i % 60);
+            rows.add(new QueryLog(UUID.randomUUID().toString(), ts, USER, null,
+                    "SELECT \"x\", " + i, "SELECT", i % 7, i % 10 == 0 ? QueryLog.Status.FAILURE : QueryLog.Status.SUCCESS));
+        }
+        logRepo.saveAll(rows);
+
+        // CSV: 헤더 + 전체 행, 따옴표 이스케이프 유지
+        MockHttpServletResponse csv = export();
+        assertThat(csv.getStatus()).isEqualTo(200);
+        assertThat(csv.getContentType()).startsWith("text/csv");
+        String[] lines = csv.getContentAsString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines[0]).isEqualTo("executedAt,userId,adminId,sqlRaw,sqlSummary,returnRows,status");
+        assertThat(lines).hasSize(n + 1);
+        assertThat(lines[1]).contains("\"SELECT \"\"x\"\", ");
+
+        // NDJSON + gzip, 필터(status, rowsMin) 의미는 /api/logs 와 동일
+        MockHttpServletResponse nd = export("format", "ndjson", "gzip", "true", "status", "FAILURE", "rowsMin", "1");
+        assertThat(nd.getStatus()).isEqualTo(200);
+        assertThat(nd.getHeader("Content-Disposition")).contains("query_logs.ndjson.gz");
+        String body;
+        try (var in = new GZIPInputStream(new ByteArrayInputStream(nd.getContentAsByteArray()))) {
+            body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        long expected = rows.stream().filter(r -> r.getStatus() == QueryLog.Status.FAILURE && r.getReturnRows() >= 1).count();
+        List<String> jl = body.lines().toList();
+        assertThat(jl).hasSize((int) expected);
+        ObjectMapper om = new ObjectMapper();
+        for (String l : jl) {
+            JsonNode j = om.readTree(l);
+            assertThat(j.get("status").asText()).isEqualTo("FAILURE");
+            assertThat(j.get("returnRows").asInt()).isGreaterThanOrEqualTo(1);
+            assertThat(j.get("userId").asText()).isEqualTo(USER);
+        }
+
+        // 잘못된 형식/날짜 → 400 (스트리밍 시작 전)
+        assertThat(mvc.perform(get("/api/logs/export").param("format", "xml")).andReturn().getResponse().getStatus()).isEqualTo(400);
+        assertThat(mvc.perform(get("/api/logs/export").param("from", "2031-13-40")).andReturn().getResponse().getStatus()).isEqualTo(400);
+    }
+}
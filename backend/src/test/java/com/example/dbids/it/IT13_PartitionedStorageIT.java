@@ -0,0 +1,123 @@
+package com.example.dbids.it;
+
+import com.example.dbids.sqlite.LogPartitions;
+import com.example.dbids.sqlite.model.DetectionEvent;
+import com.example.dbids.sqlite.model.QueryLog;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+class IT13_PartitionedStorageIT extends ItBase {
+
+    private static final String USER = "it13-partition@example.com";
+    // 다른 IT 데이터(현재/2030년)와 겹치지 않는 과거 주 + 그 기준의 "지금"(2001-03-05 월요일 → 핫 구간은 02-26 주부터)
+    private static final Instant NOW = Instant.parse("2001-03-05T00:00:00Z");
+
+    @Autowired LogPartitions partitions;
+
+    @AfterEach
+    void dropPartitions() {
+        partitions.enforceRetention(Instant.parse("2100-01-01T00:00:00Z"));   // 다른 IT 조회에 파티션이 섞이지 않게
+    }
+
+    private JsonNode json(String path, String... params) throws Exception {
+        var req = get(path);
+        for (int i = 0; i < params.length; i += 2) req = req.param(params[i], params[i + 1]);
+        var res = mvc.perform(req).andReturn().getResponse();
+        assertThat(res.getStatus()).isEqualTo(200);
+        return new ObjectMapper().readTree(res.getContentAsString(StandardCharsets.UTF_8));
+    }
+
+    private static List<String> ids(JsonNode page) {
+        List<String> out = new ArrayList<>();
+        page.get("content").forEach(r -> out.add(r.get("id").asText()));
+        return out;
+    }
+
+    @Test
+    @DisplayName("IT-13: 롤오버로 주별 파일에 옮긴 로그/이벤트도 기간 조건대로 목록·요약·상세·내보내기에서 조회, 보존 정리 후에는 제외")
+    void partitionedRows_areQueriedByRange() throws Exception {
+        // 01-01 주 3건, 01-08 주 2건, 핫 구간 1건
+        String[] ts = {"2001-01-02T10:00:00Z", "2001-01-03T10:00:00Z", "2001-01-04T10:00:00Z",
+                "2001-01-09T10:00:00Z", "2001-01-10T10:00:00Z", "2001-03-01T10:00:00Z"};
+        List<String> logIds = new ArrayList<>();
+        for (int i = 0; i < ts.length; i++) {
+            String id = "it13-log-" + i;
+            logRepo.save(new QueryLog(id, ts[i], USER, null, "SELECT * FROM t" + i, "SELECT t" + i, i, QueryLog.Status.SUCCESS));
+            logIds.add(id);
+        }
+        eventRepo.save(new DetectionEvent("it13-ev-old", "it13-log-1", DetectionEvent.Type.PATTERN,
+                DetectionEvent.Severity.HIGH, "2001-01-03T10:00:01Z", "SELECT * FROM t1"));
+        eventRepo.save(new DetectionEvent("it13-ev-hot", "it13-log-5", DetectionEvent.Type.PATTERN,
+                DetectionEvent.Severity.HIGH, "2001-03-01T10:00:01Z", "SELECT * FROM t5"));
+
+        partitions.maintain(NOW);
+        assertThat(partitions.all()).extracting(LogPartitions.Partition::name).containsExactly("2001-01-08", "2001-01-01");
+        assertThat(logRepo.findById("it13-log-0")).isEmpty();           // 본 테이블에서는 빠짐
+        assertThat(logRepo.findById("it13-log-5")).isPresent();
+
+        // 기간 조건 → 해당 주 파일만
+        JsonNode week1 = json("/api/logs", "user", USER, "from", "2001-01-01", "to", "2001-01-07", "count", "exact");
+        assertThat(ids(week1)).containsExactly("it13-log-2", "it13-log-1", "it13-log-0");
+        assertThat(week1.get("totalElements").asLong()).isEqualTo(3);
+
+        // 기간 없음 → main + 모든 파티션, 커서로 끝까지(최신순, 빠짐/중복 없음)
+        List<String> seen = new ArrayList<>();
+        JsonNode page = json("/api/logs", "user", USER, "size", "2", "count", "exact");
+        assertThat(page.get("totalElements").asLong()).isEqualTo(6);
+        while (true) {
+            seen.addAll(ids(page));
+            if (!page.get("hasNext").asBoolean()) break;
+            page = json("/api/logs", "user", USER, "size", "2", "cursor", page.get("nextCursor").asText(), "count", "none");
+        }
+        assertThat(seen).containsExactlyElementsOf(logIds.reversed());
+        // OFFSET 페이지(커서 없이 page>0)와 다른 정렬도 같은 결과
+        assertThat(ids(json("/api/logs", "user", USER, "size", "2", "page", "1"))).containsExactly("it13-log-3", "it13-log-2");
+        assertThat(ids(json("/api/logs", "user", USER, "size", "2", "sort", "returnRows,ASC"))).containsExactly("it13-log-0", "it13-log-1");
+        assertThat(json("/api/logs", "user", USER, "count", "estimate").get("totalElements").asLong()).isEqualTo(6);
+
+        // 요약: 파티션과 main 을 합쳐 집계
+        JsonNode summary = json("/api/logs/summary", "user", USER, "from", "2001-01-01", "to", "2001-03-31");
+        assertThat(summary.get("users").get(0).get("userId").asText()).isEqualTo(USER);
+        assertThat(summary.get("users").get(0).get("total").asLong()).isEqualTo(6);
+        assertThat(summary.get("times")).hasSize(6);
+
+        // 이벤트: occurred_at 기간으로 파티션 선택, 같은 파일의 로그와 조인
+        JsonNode events = json("/api/events", "from", "2001-01-01T00:00:00Z", "to", "2001-01-08T00:00:00Z", "count", "exact");
+        assertThat(ids(events)).containsExactly("it13-ev-old");
+        assertThat(events.get("content").get(0).get("userId").asText()).isEqualTo(USER);
+        assertThat(events.get("totalElements").asLong()).isEqualTo(1);
+        JsonNode detail = json("/api/events/it13-ev-old");
+        assertThat(detail.get("userId").asText()).isEqualTo(USER);
+        assertThat(detail.get("executedAt").asText()).isEqualTo("2001-01-03T10:00:00Z");
+
+        // 내보내기도 같은 기간 규칙
+        var started = mvc.perform(get("/api/logs/export").param("user", USER).param("from", "2001-01-01").param("to", "2001-01-14")).andReturn();
+        MockHttpServletResponse csv = mvc.perform(asyncDispatch(started)).andReturn().getResponse();
+        assertThat(csv.getContentAsString(StandardCharsets.UTF_8).split("\n")).hasSize(1 + 5);
+
+        // 보존 정리: 파일 단위로 제외 → 같은 기간 조회 결과가 비고, 핫 구간은 그대로
+        List<Path> files = partitions.all().stream().map(LogPartitions.Partition::path).toList();
+        partitions.enforceRetention(Instant.parse("2001-05-07T00:00:00Z"));
+        assertThat(partitions.all()).isEmpty();
+        assertThat(files).allSatisfy(f -> assertThat(Files.exists(f)).isFalse());
+        assertThat(ids(json("/api/logs", "user", USER, "from", "2001-01-01", "to", "2001-01-31"))).isEmpty();
+        assertThat(ids(json("/api/logs", "user", USER))).containsExactly("it13-log-5");
+        assertThat(mvc.perform(get("/api/events/it13-ev-old")).andReturn().getResponse().getStatus()).isEqualTo(404);
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.dbids.it;
+
+import com.example.dbids.sqlite.LogRollups;
+import com.example.dbids.sqlite.model.QueryLog;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+class IT14_SummaryRollupIT extends ItBase {
+
+    private static final String USER = "it14-rollup@example.com";
+
+    @Autowired LogRollups rollups;
+    @Autowired @Qualifier("sqliteJdbc") JdbcTemplate jdbc;
+
+    private JsonNode summary(String... params) throws Exception {
+        var req = get("/api/logs/summary").param("user", USER);
+        for (int i = 0; i < params.length; i += 2) req = req.param(params[i], params[i + 1]);
+        var res = mvc.perform(req).andReturn().getResponse();
+        assertThat(res.getStatus()).isEqualTo(200);
+        return new ObjectMapper().readTree(res.getContentAsString(StandardCharsets.UTF_8));
+    }
+
+    private void save(String id, Instant at, String sql, int rows, QueryLog.Status status) {
+        logRepo.save(new QueryLog(id, at.toString(), USER, null, sql, "", rows, status));
+    }
+
+    private static long sum(JsonNode buckets) {
+        long n = 0;
+        for (JsonNode b : buckets) n += b.get("total").asLong();
+        return n;
+    }
+
+    @Test
+    @DisplayName("IT-14: 요약 → 닫힌 구간은 롤업, 늦은 행은 적재 시 반영, 최근 구간은 원본 — 합계/성공/실패/행 수가 원본과 같음")
+    void summary_readsRollupsPlusRawTail() throws Exception {
+        Instant now = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        save("it14-a", now.minus(10, ChronoUnit.MINUTES), "SELECT * FROM orders", 3, QueryLog.Status.SUCCESS);
+        save("it14-b", now.minus(9, ChronoUnit.MINUTES), "UPDATE orders SET a = 1", 0, QueryLog.Status.FAILURE);
+
+        rollups.compact(now);
+        save("it14-late", now.minus(8, ChronoUnit.MINUTES), "SELECT 1", 5, QueryLog.Status.SUCCESS);   // 워터마크 이전 → 트리거
+        save("it14-tail", now.plusSeconds(30), "DELETE FROM orders", 2, QueryLog.Status.SUCCESS);      // 워터마크 이후 → 원본
+
+        LogRollups.State st = rollups.state();
+        assertThat(st.watermark()).isEqualTo(now.minusSeconds(60).truncatedTo(ChronoUnit.MINUTES).toString());
+        if (st.start().compareTo(now.minus(10, ChronoUnit.MINUTES).toString()) <= 0) {
+            // 롤업 구간 안의 세 건은 롤업 테이블에(트리거로 더한 늦은 행 포함)
+            assertThat(jdbc.queryForObject("SELECT SUM(cnt) FROM log_rollup WHERE grain = 'DAY' AND user_id = ?", Long.class, USER))
+                    .isEqualTo(3L);
+        }
+
+        for (String grain : new String[]{"minute", "hour", "day"}) {
+            JsonNode s = summary("grain", grain);
+            JsonNode u = s.get("users").get(0);
+            assertThat(u.get("userId").asText()).isEqualTo(USER);
+            assertThat(u.get("total").asLong()).isEqualTo(4);
+            assertThat(u.get("success").asLong()).isEqualTo(3);
+            assertThat(u.get("failure").asLong()).isEqualTo(1);
+            assertThat(u.get("rowsSum").asLong()).isEqualTo(10);
+            assertThat(sum(s.get("times"))).isEqualTo(4);
+        }
+        assertThat(summary("status", "FAILURE").get("users").get(0).get("total").asLong()).isEqualTo(1);
+        assertThat(summary("rowsMin", "5").get("users").get(0).get("total").asLong()).isEqualTo(1);   // 롤업 밖 조건 → 원본
+
+        var bad = mvc.perform(get("/api/logs/summary").param("grain", "week")).andReturn().getResponse();
+        assertThat(bad.getStatus()).isEqualTo(400);
+    }
+}
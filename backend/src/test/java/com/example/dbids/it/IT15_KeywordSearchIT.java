@@ -0,0 +1,87 @@
+package com.example.dbids.it;
+
+import com.example.dbids.sqlite.LogPartitions;
+import com.example.dbids.sqlite.model.DetectionEvent;
+import com.example.dbids.sqlite.model.QueryLog;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+class IT15_KeywordSearchIT extends ItBase {
+
+    private static final String USER = "it15-search@example.com";
+    // 파티션으로 옮길 오래된 주 / 본 테이블에 남는 최근 행
+    private static final Instant NOW = Instant.parse("2002-03-06T00:00:00Z");
+
+    @Autowired LogPartitions partitions;
+
+    private JsonNode json(String path, String... params) throws Exception {
+        var req = get(path);
+        for (int i = 0; i < params.length; i += 2) req = req.param(params[i], params[i + 1]);
+        var res = mvc.perform(req).andReturn().getResponse();
+        assertThat(res.getStatus()).isEqualTo(200);
+        return new ObjectMapper().readTree(res.getContentAsString(StandardCharsets.UTF_8));
+    }
+
+    private List<String> logIds(String keywords) throws Exception {
+        List<String> ids = new ArrayList<>();
+        for (JsonNode row : json("/api/logs", "user", USER, "keywords", keywords, "count", "exact").get("content")) {
+            ids.add(row.get("id").asText());
+        }
+        return ids;
+    }
+
+    @Test
+    @DisplayName("IT-15: 키워드 검색 → 요약/원문 SQL 색인으로 접두어·정확 일치, 파티션 파일/요약/내보내기/이벤트 q 도 같은 결과")
+    void keywords_useFullTextIndex() throws Exception {
+        logRepo.save(new QueryLog("it15-old", "2002-01-02T10:00:00Z", USER, null,
+                "SELECT card_no FROM payments", "SELECT payments", 1, QueryLog.Status.SUCCESS));
+        logRepo.save(new QueryLog("it15-hot", "2002-03-05T10:00:00Z", USER, null,
+                "SELECT * FROM payment_logs WHERE id = 7", "SELECT payment_logs", 1, QueryLog.Status.SUCCESS));
+        logRepo.save(new QueryLog("it15-other", "2002-03-05T11:00:00Z", USER, null,
+                "DELETE FROM users", "DELETE users", 0, QueryLog.Status.FAILURE));
+        eventRepo.save(new DetectionEvent("it15-ev", "it15-hot", DetectionEvent.Type.PATTERN,
+                DetectionEvent.Severity.HIGH, "2002-03-05T10:00:01Z", "SELECT * FROM payment_logs WHERE id = 7"));
+
+        // 본 테이블(JPA 경로): 접두어는 두 행, 따옴표는 정확한 토큰만, 원문 SQL 토큰도 검색
+        assertThat(logIds("pay")).containsExactlyInAnyOrder("it15-hot", "it15-old");
+        assertThat(logIds("\"payments\"")).containsExactly("it15-old");
+        assertThat(logIds("card")).containsExactly("it15-old");
+        assertThat(logIds("payment users")).isEmpty();                   // AND
+
+        // 오래된 주는 파티션으로 → 파일의 색인으로 함께 검색
+        partitions.maintain(NOW);
+        assertThat(logRepo.findById("it15-old")).isEmpty();
+        assertThat(logIds("pay")).containsExactlyInAnyOrder("it15-hot", "it15-old");
+        assertThat(json("/api/logs", "user", USER, "keywords", "pay", "from", "2002-01-01", "to", "2002-03-31", "count", "exact")
+                .get("totalElements").asLong()).isEqualTo(2);
+        assertThat(logIds("\"payments\"")).containsExactly("it15-old");
+
+        // 요약/내보내기도 같은 조건
+        JsonNode s = json("/api/logs/summary", "user", USER, "keywords", "pay", "from", "2002-01-01", "to", "2002-03-31");
+        assertThat(s.get("users").get(0).get("total").asLong()).isEqualTo(2);
+        var started = mvc.perform(get("/api/logs/export").param("user", USER).param("keywords", "pay")
+                .param("from", "2002-01-01").param("to", "2002-03-31")).andReturn();
+        String csv = mvc.perform(asyncDispatch(started)).andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+        assertThat(csv).contains("FROM payments").contains("FROM payment_logs").doesNotContain("FROM users");
+
+        // 이벤트 q
+        JsonNode ev = json("/api/events", "q", "payment_lo", "count", "exact");
+        assertThat(ev.get("content")).extracting(n -> n.get("id").asText()).containsExactly("it15-ev");
+        assertThat(json("/api/events", "q", "\"payments\"", "count", "exact").get("content")).isEmpty();
+
+        // 토큰이 없는 입력 → LIKE 대체(오류 없음)
+        assertThat(logIds("*")).isEmpty();
+    }
+}
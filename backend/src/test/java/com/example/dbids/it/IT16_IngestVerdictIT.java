@@ -0,0 +1,61 @@
+package com.example.dbids.it;
+
+import com.example.dbids.sqlite.model.DetectionEvent;
+import com.example.dbids.sqlite.model.QueryLog;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+class IT16_IngestVerdictIT extends ItBase {
+
+    private JsonNode ingest(String sql) throws Exception {
+        String body = """
+        {"executedAt":"%s","userId":"it16@example.com","sqlRaw":"%s","returnRows":0,"status":"SUCCESS"}
+        """.formatted(Instant.now().toString(), sql);
+        var res = mvc.perform(post("/api/ingest/log").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andReturn().getResponse();
+        assertThat(res.getStatus()).isEqualTo(202);
+        return om.readTree(res.getContentAsString(StandardCharsets.UTF_8));
+    }
+
+    private QueryLog awaitLog(String id) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 3_000;
+        while (System.currentTimeMillis() < deadline) {
+            var log = logRepo.findById(id);
+            if (log.isPresent()) return log.get();
+            Thread.sleep(20);
+        }
+        throw new AssertionError("not persisted: " + id);
+    }
+
+    @Test
+    @DisplayName("IT-16: 수집 응답에 판정 포함 → 차단 쿼리는 FAILURE 로 한 번에 저장되고 이벤트 ID 가 응답과 같음")
+    void ingest_returnsVerdict_andPersistsFinalStatus() throws Exception {
+        JsonNode blocked = ingest("DROP TABLE it16_orders");
+        JsonNode v = blocked.get("verdict");
+        assertThat(v.get("blocked").asBoolean()).isTrue();
+        assertThat(v.get("status").asText()).isEqualTo("FAILURE");
+        JsonNode d = v.get("detections").get(0);
+        assertThat(d.get("type").asText()).isEqualTo("PATTERN");
+        assertThat(d.get("severity").asText()).isEqualTo("HIGH");
+        assertThat(d.get("rule").asText()).isNotBlank();
+
+        String logId = blocked.get("id").asText();
+        assertThat(awaitLog(logId).getStatus()).isEqualTo(QueryLog.Status.FAILURE);
+        // 로그와 같은 트랜잭션으로 기록 → 로그가 보이면 이벤트도 보임
+        DetectionEvent ev = eventRepo.findById(d.get("eventId").asText()).orElseThrow();
+        assertThat(ev.getLogId()).isEqualTo(logId);
+
+        JsonNode clean = ingest("SELECT 1");
+        assertThat(clean.get("verdict").get("blocked").asBoolean()).isFalse();
+        assertThat(clean.get("verdict").get("detections")).isEmpty();
+        assertThat(awaitLog(clean.get("id").asText()).getStatus()).isEqualTo(QueryLog.Status.SUCCESS);
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.dbids.it;
+
+import com.example.dbids.sqlite.model.QueryLog;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+class IT17_InlineVerdictIT extends ItBase {
+
+    private JsonNode verdict(String sql, String user, int expectStatus) throws Exception {
+        var req = post("/api/verdict").contentType(MediaType.TEXT_PLAIN).content(sql.getBytes(StandardCharsets.UTF_8));
+        if (user != null) req = req.param("user", user);
+        var res = mvc.perform(req).andReturn().getResponse();
+        assertThat(res.getStatus()).isEqualTo(expectStatus);
+        return om.readTree(res.getContentAsString(StandardCharsets.UTF_8));
+    }
+
+    private QueryLog awaitLog(String id) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 3_000;
+        while (System.currentTimeMillis() < deadline) {
+            var log = logRepo.findById(id);
+            if (log.isPresent()) return log.get();
+            Thread.sleep(20);
+        }
+        throw new AssertionError("not persisted: " + id);
+    }
+
+    @Test
+    @DisplayName("IT-17: POST /api/verdict → 차단 SQL 은 DENY, 일반 SQL 은 ALLOW, 기록은 응답 뒤 파이프라인이 저장")
+    void verdict_allowsOrDenies_andLogsLater() throws Exception {
+        JsonNode deny = verdict("DROP TABLE it17_orders", "it17_app", 200);
+        assertThat(deny.get("decision").asText()).isEqualTo("DENY");
+        assertThat(deny.get("logged").asBoolean()).isTrue();
+        String eventId = deny.get("detections").get(0).get("eventId").asText();
+
+        QueryLog denied = awaitLog(deny.get("logId").asText());
+        assertThat(denied.getStatus()).isEqualTo(QueryLog.Status.FAILURE);
+        assertThat(denied.getUserId()).isEqualTo("it17_app");
+        assertThat(eventRepo.findById(eventId)).isPresent();
+
+        JsonNode allow = verdict("SELECT id FROM it17_orders WHERE id = 1", "it17_app", 200);
+        assertThat(allow.get("decision").asText()).isEqualTo("ALLOW");
+        assertThat(awaitLog(allow.get("logId").asText()).getStatus()).isEqualTo(QueryLog.Status.SUCCESS);
+
+        assertThat(verdict("SELECT 1", null, 400).get("error").asText()).isEqualTo("user is required");
+        assertThat(verdict(" ", "it17_app", 400).get("error").asText()).isEqualTo("sql is required");
+
+        var st = om.readTree(mvc.perform(get("/api/verdict/stats")).andReturn().getResponse().getContentAsString());
+        assertThat(st.get("denied").asLong()).isGreaterThanOrEqualTo(1);
+        assertThat(st.get("p99Micros").asDouble()).isPositive();
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.dbids.it;
+
+import com.example.dbids.sqlite.model.NotificationLog;
+import com.example.dbids.sqlite.model.NotificationOutbox;
+import com.example.dbids.sqlite.repository.NotificationOutboxRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+class IT18_NotifyRecipientIT extends ItBase {
+
+    @Autowired NotificationOutboxRepository outboxRepo;
+
+    private String ingestDrop(String user, String notifyEmail) throws Exception {
+        String body = """
+        {"executedAt":"%s","userId":"%s@example.com","sqlRaw":"DROP TABLE %s_orders","returnRows":0,"status":"SUCCESS"}
+        """.formatted(Instant.now().toString(), user, user);
+        var req = post("/api/ingest/log").contentType(MediaType.APPLICATION_JSON).content(body);
+        if (notifyEmail != null) req.header("X-Notify-Email", notifyEmail);
+        var res = mvc.perform(req).andReturn().getResponse();
+        assertThat(res.getStatus()).isEqualTo(202);
+        JsonNode n = om.readTree(res.getContentAsString(StandardCharsets.UTF_8));
+        return n.get("verdict").get("detections").get(0).get("eventId").asText();
+    }
+
+    private NotificationOutbox awaitEmail(String eventId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 3_000;
+        while (System.currentTimeMillis() < deadline) {
+            Optional<NotificationOutbox> row = outboxRepo.findAll().stream()
+                    .filter(o -> o.getChannel() == NotificationLog.Channel.EMAIL && eventId.equals(o.getEventId()))
+                    .findFirst();
+            if (row.isPresent()) return row.get();
+            Thread.sleep(20);
+        }
+        throw new AssertionError("no email outbox row for " + eventId);
+    }
+
+    @Test
+    @DisplayName("IT-18: 알림 수신자는 요청 스레드에서 정해짐 → 저장 워커가 적재해도 요청별 관리자 이메일로, 헤더 없으면 to-default")
+    void recipient_isResolvedPerRequest() throws Exception {
+        String a = ingestDrop("it18a", "alice@dbids.local");
+        String b = ingestDrop("it18b", "bob@dbids.local");
+        String none = ingestDrop("it18c", null);
+
+        assertThat(awaitEmail(a).getRecipient()).isEqualTo("alice@dbids.local");
+        assertThat(awaitEmail(b).getRecipient()).isEqualTo("bob@dbids.local");
+        assertThat(awaitEmail(none).getRecipient()).isNull();
+    }
+}
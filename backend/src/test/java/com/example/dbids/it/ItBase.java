@@ -59,6 +59,10 @@ public abstract class ItBase {
         r.add("spring.jpa.properties.hibernate.dialect", () -> "org.hibernate.community.dialect.SQLiteDialect");
         r.add("spring.main.web-application-type",  () -> "servlet");
         r.add("spring.mail.username",              () -> "");
+        // 파티션 정리/롤업 압축은 테스트가 직접 호출(IT13, IT14), 파일은 build 아래
+        r.add("dbids.partition.enabled",           () -> "false");
+        r.add("dbids.rollup.enabled",              () -> "false");
+        r.add("dbids.partition.dir",               () -> IT_DB.resolveSibling(IT_DB.getFileName() + "-partitions").toString());
     }
 
     @BeforeEach void setUp() { }
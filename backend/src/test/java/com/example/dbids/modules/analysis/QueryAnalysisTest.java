@@ -0,0 +1,60 @@
+package com.example.dbids.modules.analysis;
+
+import com.example.dbids.modules.behavior.QueryClassifier;
+import com.example.dbids.modules.storage.SqlSummarizer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 공용 분석 컨텍스트 단위 테스트
+ * - 정규화/분류/테이블 추정이 한 번에 계산되는지
+ * - 리터럴만 다른 문장은 같은 지문(fingerprint)을 갖는지
+ */
+class QueryAnalysisTest {
+
+    @Test
+    @DisplayName("UT-QA-01: 정규화/분류/테이블을 한 번에 계산한다")
+    void computesSharedFields() {
+        QueryAnalysis a = QueryAnalysis.of("select * from users u join orders o on u.id=o.uid where u.name='kim' -- c");
+
+        assertEquals("SELECT * FROM USERS U JOIN ORDERS O ON U.ID=O.UID WHERE U.NAME='?'", a.getNormalized());
+        assertEquals(QueryClassifier.Kind.SELECT, a.getKind());
+        assertTrue(Set.copyOf(a.getTables()).contains("USERS"));
+    }
+
+    @Test
+    @DisplayName("UT-QA-02: 리터럴만 다른 문장은 같은 지문, 형태가 다르면 다른 지문")
+    void fingerprintIgnoresLiterals() {
+        QueryAnalysis a = QueryAnalysis.of("SELECT * FROM t WHERE id = 1 AND name = 'a'");
+        QueryAnalysis b = QueryAnalysis.of("select *  from t where id = 42 and name = 'bbb'");
+        QueryAnalysis c = QueryAnalysis.of("DELETE FROM t WHERE id = 1");
+
+        assertEquals(a.getFingerprint(), b.getFingerprint());
+        assertNotEquals(a.getFingerprint(), c.getFingerprint());
+        assertEquals(16, a.getFingerprintHex().length());
+    }
+
+    @Test
+    @DisplayName("UT-QA-03: 저장된 요약이 있으면 그대로, 없으면 요청 시 계산")
+    void summaryProvidedOrLazy() {
+        String sql = "UPDATE accounts SET balance = 0 WHERE id = 7";
+
+        assertEquals("given", QueryAnalysis.of(sql, "given").getSummary());
+        assertEquals(SqlSummarizer.summarize(sql), QueryAnalysis.of(sql, "  ").getSummary());
+        assertEquals(QueryClassifier.Kind.UPDATE, QueryAnalysis.of(sql).getKind());
+    }
+
+    @Test
+    @DisplayName("UT-QA-04: null SQL 은 OTHER / 빈 테이블로 처리")
+    void nullSql() {
+        QueryAnalysis a = QueryAnalysis.of((String) null);
+
+        assertEquals("", a.getNormalized());
+        assertEquals(QueryClassifier.Kind.OTHER, a.getKind());
+        assertTrue(a.getTables().isEmpty());
+    }
+}
@@ -1,8 +1,13 @@
 package com.example.dbids.modules.authz;
 
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
 import com.example.dbids.sqlite.model.DetectionEvent;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
 
 import java.util.List;
 import java.util.Map;
@@ -57,4 +62,106 @@ class AuthZEngineTest {
         Optional<AuthZEngine.Violation> v = eng.evaluate("ro-user", "DELETE something weird");
         assertTrue(v.isPresent());
     }
+
+    private static AuthZEngine engineWith(AuthZProperties.Role role) {
+        AuthZProperties p = new AuthZProperties();
+        p.setRoles(Map.of("R", role));
+        p.setUserRoles(Map.of("Kim@Corp.com", "R"));
+        return new AuthZEngine(p);
+    }
+
+    @Test
+    @DisplayName("UT-07-C: 정확/접두/glob 패턴 인덱스 — 선언 순서상 첫 DENY 규칙을 보고")
+    void compiledIndex_matchesLikeRegexRules() {
+        AuthZProperties.Role r = new AuthZProperties.Role();
+        r.setDeny(List.of("SELECT:*_SECRET", "SELECT:hr.*", "select:`payroll`", "SELECT:HR.SALARY", "DELETE:*"));
+        AuthZEngine eng = engineWith(r);
+
+        assertEquals("DENY SELECT:hr.*", eng.evaluate("kim@corp.com", "SELECT * FROM hr.salary").get().ruleMatched());
+        assertEquals("DENY select:`payroll`", eng.evaluate("kim@corp.com", "SELECT * FROM Payroll").get().ruleMatched());
+        assertEquals("DENY SELECT:*_SECRET", eng.evaluate("kim@corp.com", "SELECT * FROM api_secret").get().ruleMatched());
+        assertTrue(eng.evaluate("kim@corp.com", "SELECT * FROM hrx.salary").isEmpty(), "'.' 은 리터럴");
+        assertTrue(eng.evaluate("kim@corp.com", "SELECT * FROM secret_api").isEmpty());
+        // 캐시된 판정도 동일
+        assertEquals("DENY SELECT:hr.*", eng.evaluate("kim@corp.com", "SELECT * FROM hr.salary").get().ruleMatched());
+    }
+
+    @Test
+    @DisplayName("UT-07-D: 사용자 ID 케이스/'@' 무시 해석, 다중 문장 중 하나라도 DENY면 위반")
+    void userResolution_andMultiStatement() {
+        AuthZProperties.Role r = new AuthZProperties.Role();
+        r.setAllow(List.of("SELECT:*"));
+        r.setDeny(List.of("DDL:*"));
+        AuthZEngine eng = engineWith(r);
+
+        assertTrue(eng.evaluate("KIMCORP.COM", "SELECT 1; DROP TABLE users").isPresent());
+        Optional<AuthZEngine.Violation> v = eng.evaluate(" kim@corp.com ", "SELECT * FROM a; DROP TABLE users");
+        assertEquals(AuthZEngine.Action.DDL, v.get().action());
+        assertEquals("USERS", v.get().tableMatched());
+        assertTrue(eng.evaluate("lee@corp.com", "DROP TABLE users").isEmpty(), "역할 없는 사용자는 정책 비적용");
+    }
+
+    @Test
+    @DisplayName("UT-07-E: reload() 시 변경된 규칙으로 재컴파일하고 캐시를 비움")
+    void reload_recompilesPolicy() {
+        AuthZProperties p = new AuthZProperties();
+        AuthZProperties.Role r = new AuthZProperties.Role();
+        r.setDeny(List.of("DELETE:orders"));
+        p.setRoles(Map.of("R", r));
+        p.setUserRoles(Map.of("u", "R"));
+        AuthZEngine eng = new AuthZEngine(p);
+
+        assertTrue(eng.evaluate("u", "DELETE FROM orders").isPresent());
+        r.setDeny(List.of());
+        assertTrue(eng.evaluate("u", "DELETE FROM orders").isPresent(), "reload 전에는 컴파일된 정책 유지");
+
+        eng.reload();
+        assertTrue(eng.evaluate("u", "DELETE FROM orders").isEmpty());
+    }
+
+    @Test
+    @DisplayName("UT-07-F: 판정 카운터(결과×역할×액션) + DENY 는 항상, ALLOW 는 샘플링 비율만 감사 로그")
+    void audit_countsAndSamples() {
+        Logger logger = (Logger) LoggerFactory.getLogger(AuthZAudit.LOGGER);
+        ListAppender<ILoggingEvent> captured = new ListAppender<>();
+        captured.start();
+        logger.addAppender(captured);
+        Level before = logger.getLevel();
+        logger.setLevel(Level.DEBUG);
+        try {
+            AuthZProperties p = new AuthZProperties();
+            AuthZProperties.Role ro = new AuthZProperties.Role();
+            ro.setAllow(List.of("SELECT:*"));
+            ro.setDeny(List.of("DELETE:*"));
+            p.setRoles(Map.of("READ_ONLY", ro));
+            p.setUserRoles(Map.of("ro-user", "READ_ONLY"));
+            AuthZEngine eng = new AuthZEngine(p, new AuthZAudit(0.0));
+
+            eng.evaluate("ro-user", "SELECT * FROM orders");
+            eng.evaluate("ro-user", "SELECT * FROM users");
+            eng.evaluate("ro-user", "DELETE FROM orders");
+            eng.evaluate("ro-user", "INSERT INTO orders VALUES (1)");
+            eng.evaluate("nobody", "SELECT 1");
+
+            AuthZAudit a = eng.audit();
+            assertEquals(2, a.count(AuthZAudit.Outcome.ALLOW, "READ_ONLY", AuthZEngine.Action.SELECT));
+            assertEquals(1, a.count(AuthZAudit.Outcome.DENY, "READ_ONLY", AuthZEngine.Action.DELETE));
+            assertEquals(1, a.count(AuthZAudit.Outcome.NO_MATCH, "READ_ONLY", AuthZEngine.Action.INSERT));
+            assertEquals(1, a.count(AuthZAudit.Outcome.NO_ROLE, null, AuthZEngine.Action.SELECT));
+
+            // sampleRate=0 → DENY 1건만 로그
+            assertEquals(1, captured.list.size());
+            ILoggingEvent ev = captured.list.get(0);
+            assertEquals(Level.INFO, ev.getLevel());
+            assertTrue(ev.getKeyValuePairs().stream().anyMatch(kv -> kv.key.equals("rule") && "DELETE:*".equals(kv.value)));
+
+            @SuppressWarnings("unchecked")
+            Map<String, Long> totals = (Map<String, Long>) a.stats().get("totals");
+            assertEquals(2L, totals.get("ALLOW"));
+            assertEquals(1L, totals.get("DENY"));
+        } finally {
+            logger.detachAppender(captured);
+            logger.setLevel(before);
+        }
+    }
 }
@@ -1,15 +1,13 @@
 package com.example.dbids.modules.authz;
 
-import com.example.dbids.modules.notify.NotificationService;
+import com.example.dbids.modules.analysis.QueryAnalysis;
+import com.example.dbids.modules.detection.Finding;
 import com.example.dbids.sqlite.model.DetectionEvent;
 import com.example.dbids.sqlite.model.QueryLog;
-import com.example.dbids.sqlite.repository.DetectionEventRepository;
-import com.example.dbids.sqlite.repository.QueryLogRepository;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
-import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.*;
-import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.mock.env.MockEnvironment;
 
 import java.time.Instant;
 import java.util.List;
@@ -18,17 +16,9 @@ import java.util.Optional;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.Mockito.*;
 
-@ExtendWith(MockitoExtension.class)
 class AuthZServiceTest {
 
-    @Mock DetectionEventRepository eventRepo;
-    @Mock NotificationService notifier;
-    @Mock QueryLogRepository logRepo;
-
-    @Captor ArgumentCaptor<DetectionEvent> eventCaptor;
-
     private static QueryLog log(String sql, String userId, QueryLog.Status st) {
         return new QueryLog(
                 UUID.randomUUID().toString(),
@@ -65,23 +55,20 @@ class AuthZServiceTest {
         return p;
     }
 
+    private static Optional<Finding> evaluate(AuthZService svc, QueryLog q) {
+        return svc.evaluate(q, QueryAnalysis.of(q));
+    }
+
     @Test
-    @DisplayName("UT-07: READ_ONLY 사용자의 DELETE → AUTHZ 이벤트 생성 + 상태보정(FAILURE) + 알림")
-    void readOnlyDelete_producesAuthzEvent_andMarksFailure() {
-        // given
-        AuthZService svc = new AuthZService(eventRepo, propsStd(), notifier, logRepo);
+    @DisplayName("UT-07: READ_ONLY 사용자의 DELETE → AUTHZ 이벤트(위반 스냅샷) + 항상 차단 판정")
+    void readOnlyDelete_producesAuthzEvent_andBlocks() {
+        AuthZService svc = new AuthZService(propsStd());
         QueryLog q = log("DELETE FROM orders;", "ro-user", QueryLog.Status.SUCCESS);
 
-        when(eventRepo.save(any(DetectionEvent.class))).thenAnswer(inv -> inv.getArgument(0));
-
-        // when
-        Optional<String> evId = svc.evaluateAndRecord(q);
-
-        // then
-        assertTrue(evId.isPresent());
-        verify(eventRepo, times(1)).save(eventCaptor.capture());
-        DetectionEvent ev = eventCaptor.getValue();
+        Optional<Finding> f = evaluate(svc, q);
 
+        assertTrue(f.isPresent());
+        DetectionEvent ev = f.get().event();
         assertEquals(DetectionEvent.Type.AUTHZ, ev.getEventType());
         assertEquals(q.getId(), ev.getLogId());
         // 정책상 기본 severity는 HIGH
@@ -89,31 +76,21 @@ class AuthZServiceTest {
         assertTrue(ev.getSqlRaw().toUpperCase().contains("DENY")
                         || ev.getSqlRaw().toUpperCase().contains("AUTHZ"),
                 "sqlRaw(스냅샷 텍스트)에 권한 위반 정보가 포함되어야 함");
+        assertTrue(ev.getSqlRaw().contains(" RULE=" + f.get().rule() + " SQL="), "알림 규칙 ID 는 스냅샷의 RULE= 과 같음");
 
-        // ★ DENY → 상태 보정(FAILURE) 및 저장 시도
-        assertEquals(QueryLog.Status.FAILURE, q.getStatus());
-        verify(logRepo, times(1)).save(q);
-
-        // 알림 호출
-        verify(notifier, times(1)).onEvent(any(DetectionEvent.class));
+        // ★ DENY → 차단. status 보정은 호출 측(수집 파이프라인)이 저장 전에 한 번만
+        assertTrue(f.get().blocking());
+        assertEquals(QueryLog.Status.SUCCESS, q.getStatus());
     }
 
     @Test
-    @DisplayName("UT-08: DBA 사용자의 DELETE → 이벤트 없음, 상태보정/알림/저장 호출 없음")
+    @DisplayName("UT-08: DBA 사용자의 DELETE → 이벤트 없음")
     void dbaDelete_allows_noEvent() {
-        // given
-        AuthZService svc = new AuthZService(eventRepo, propsStd(), notifier, logRepo);
+        AuthZService svc = new AuthZService(propsStd());
         QueryLog q = log("DELETE FROM orders;", "dba-user", QueryLog.Status.SUCCESS);
 
-        // when
-        Optional<String> evId = svc.evaluateAndRecord(q);
-
-        // then
-        assertTrue(evId.isEmpty());
+        assertTrue(evaluate(svc, q).isEmpty());
         assertEquals(QueryLog.Status.SUCCESS, q.getStatus());
-        verify(eventRepo, never()).save(any());
-        verify(logRepo, never()).save(any());
-        verify(notifier, never()).onEvent(any());
     }
 
     @Test
@@ -121,29 +98,38 @@ class AuthZServiceTest {
     void noRole_assumedAllowed() {
         AuthZProperties p = propsStd();
         p.setUserRoles(Map.of()); // 비움
-        AuthZService svc = new AuthZService(eventRepo, p, notifier, logRepo);
+        AuthZService svc = new AuthZService(p);
         QueryLog q = log("DELETE FROM orders;", "unknown-user", QueryLog.Status.SUCCESS);
 
-        Optional<String> evId = svc.evaluateAndRecord(q);
-
-        assertTrue(evId.isEmpty());
-        verify(eventRepo, never()).save(any());
-        verify(notifier, never()).onEvent(any());
+        assertTrue(evaluate(svc, q).isEmpty());
     }
 
     @Test
-    @DisplayName("UT-08-B: fail-open — 저장 중 예외 발생 시 Optional.empty 반환, 흐름 차단 없음")
-    void failOpen_whenSavingEventThrows() {
-        AuthZService svc = new AuthZService(eventRepo, propsStd(), notifier, logRepo);
+    @DisplayName("UT-08-B: fail-open — 판정 중 예외(분석 결과 없음) 시 Optional.empty 반환, 흐름 차단 없음")
+    void failOpen_whenEvaluationThrows() {
+        AuthZService svc = new AuthZService(propsStd());
         QueryLog q = log("DELETE FROM orders;", "ro-user", QueryLog.Status.SUCCESS);
 
-        when(eventRepo.save(any())).thenThrow(new RuntimeException("disk full"));
+        assertTrue(svc.evaluate(q, null).isEmpty(), "예외가 나도 fail-open으로 empty 반환");
+    }
+
+    @Test
+    @DisplayName("UT-08-D: reloadPolicy() → Environment 에서 authz.* 를 다시 바인딩해 바뀐 역할/매핑을 반영")
+    void reloadPolicy_rebindsFromEnvironment() {
+        MockEnvironment env = new MockEnvironment()
+                .withProperty("authz.roles.READ_ONLY.allow[0]", "SELECT:*")
+                .withProperty("authz.roles.READ_ONLY.deny[0]", "DELETE:*")
+                .withProperty("authz.user-roles.ro-user", "READ_ONLY");
+        AuthZService svc = new AuthZService(Binder.get(env).bind("authz", AuthZProperties.class).get(), env);
+        QueryLog q = log("DELETE FROM orders;", "ro-user", QueryLog.Status.SUCCESS);
+        assertTrue(evaluate(svc, q).isPresent());
 
-        Optional<String> evId = svc.evaluateAndRecord(q);
+        env.setProperty("authz.roles.READ_ONLY.deny[0]", "DDL:*");
+        env.setProperty("authz.roles.READ_ONLY.allow[1]", "DELETE:*");
+        assertTrue(evaluate(svc, q).isPresent(), "reload 전에는 기존 정책 유지");
 
-        assertTrue(evId.isEmpty(), "예외가 나도 fail-open으로 empty 반환");
-        verify(notifier, never()).onEvent(any());
-        // eventRepo 단계에서 터져서 상태 보정도 시도되지 않음
-        verify(logRepo, never()).save(any());
+        svc.reloadPolicy();
+        assertTrue(evaluate(svc, q).isEmpty(), "reload 후 DELETE 허용");
+        assertTrue(evaluate(svc, log("DROP TABLE orders;", "ro-user", QueryLog.Status.SUCCESS)).isPresent());
     }
 }
@@ -0,0 +1,54 @@
+package com.example.dbids.modules.behavior;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * BehaviorBaseline 단위 테스트 (EWMA / P² 분위수 / 스냅샷 직렬화)
+ */
+class BehaviorBaselineTest {
+
+    @Test
+    @DisplayName("UT-BL-01: 정규분포 입력 → EWMA 평균/표준편차와 P² 99분위가 실제 값에 근접")
+    void tracksMeanStdAndQuantile() {
+        BehaviorBaseline b = new BehaviorBaseline(0.99);
+        Random r = new Random(42);
+        int n = 20_000;
+        double[] seen = new double[n];
+        for (int i = 0; i < n; i++) {
+            double v = 100 + 10 * r.nextGaussian();
+            seen[i] = v;
+            b.update(new double[]{v, 0, 0, 0}, 0.01);
+        }
+        Arrays.sort(seen);
+        double exactP99 = seen[(int) (0.99 * n)];
+
+        assertEquals(n, b.samples());
+        assertEquals(100, b.mean(BehaviorBaseline.QPM), 3.0);
+        assertEquals(10, b.std(BehaviorBaseline.QPM), 2.0);
+        assertEquals(exactP99, b.quantile(BehaviorBaseline.QPM), 1.5);
+    }
+
+    @Test
+    @DisplayName("UT-BL-02: 스냅샷 직렬화 왕복 → 동일 상태, 길이가 다르면 null")
+    void snapshotRoundTrip() {
+        BehaviorBaseline b = new BehaviorBaseline(0.99);
+        for (int i = 0; i < 50; i++) b.update(new double[]{i, 0.1, 0, i % 3}, 0.1);
+
+        byte[] bytes = b.toBytes();
+        assertEquals(BehaviorBaseline.BYTES, bytes.length);
+        BehaviorBaseline restored = BehaviorBaseline.fromBytes(bytes, 0.99);
+        assertNotNull(restored);
+        assertEquals(b.samples(), restored.samples());
+        for (int m = 0; m < BehaviorBaseline.METRICS; m++) {
+            assertEquals(b.mean(m), restored.mean(m));
+            assertEquals(b.quantile(m), restored.quantile(m));
+        }
+        assertNull(BehaviorBaseline.fromBytes(new byte[7], 0.99));
+    }
+}
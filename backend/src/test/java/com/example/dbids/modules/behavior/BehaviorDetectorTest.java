@@ -11,7 +11,10 @@ import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.Instant;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -30,6 +33,8 @@ class BehaviorDetectorTest {
 
     @Captor ArgumentCaptor<DetectionEvent> eventCaptor;
 
+    private BehaviorEventWriter writer() { return new BehaviorEventWriter(eventRepo, notifier); }
+
     private BehaviorProperties propsSTP() {
         BehaviorProperties p = new BehaviorProperties();
         p.setWindowSeconds(1);
@@ -58,7 +63,7 @@ class BehaviorDetectorTest {
     @Test
     @DisplayName("UT-05: 1초에 200개 SELECT → Score ≥ 0.8, BEHAVIOR 이벤트 + 알림")
     void spike200In1sec_triggersBehaviorEvent() {
-        BehaviorDetector detector = new BehaviorDetector(propsSTP(), eventRepo, notifier);
+        BehaviorDetector detector = new BehaviorDetector(propsSTP(), writer());
         Instant t0 = Instant.parse("2025-01-01T00:00:00Z");
 
         for (int i = 0; i < 200; i++) {
@@ -84,7 +89,7 @@ class BehaviorDetectorTest {
         props.setThresholdMedium(1e9);
         props.setThresholdHigh(2e9);
 
-        BehaviorDetector detector = new BehaviorDetector(props, eventRepo, notifier);
+        BehaviorDetector detector = new BehaviorDetector(props, writer());
         Instant t0 = Instant.parse("2025-01-01T00:00:00Z");
 
         detector.onLog(logAt(t0, "behav-ut-06", "11111111-1111-1111-1111-111111111111",
@@ -108,7 +113,7 @@ class BehaviorDetectorTest {
         props.setThresholdMedium(1e9);
         props.setThresholdHigh(2e9);
 
-        BehaviorDetector detector = new BehaviorDetector(props, eventRepo, notifier);
+        BehaviorDetector detector = new BehaviorDetector(props, writer());
         Instant t0 = Instant.parse("2025-01-01T00:00:00Z");
 
         for (int i = 0; i < 20; i++) {
@@ -125,7 +130,7 @@ class BehaviorDetectorTest {
     @Test
     @DisplayName("UT-05-B(경계 상회): 임계 이상 활동량 → 이벤트 발생")
     void boundaryAbove_hasEvent() {
-        BehaviorDetector detector = new BehaviorDetector(propsSTP(), eventRepo, notifier);
+        BehaviorDetector detector = new BehaviorDetector(propsSTP(), writer());
         Instant t0 = Instant.parse("2025-01-01T00:00:00Z");
 
         for (int i = 0; i < 80; i++) {
@@ -138,4 +143,158 @@ class BehaviorDetectorTest {
         verify(eventRepo, atLeastOnce()).save(any());
         verify(notifier, atLeastOnce()).onEvent(any());
     }
+
+    @Test
+    @DisplayName("UT-05-C: 버스트 후 로그가 끊겨도 타이밍 휠이 윈도우를 닫아 평가하고, 빈 사용자는 퇴출")
+    void silentAfterBurst_timerClosesWindowAndEvicts() {
+        long[] wall = {1_000_000L};
+        BehaviorProperties props = propsSTP();
+        props.setWheelTickMs(50);
+        BehaviorDetector detector = new BehaviorDetector(props, writer(), () -> wall[0]);
+        Instant t0 = Instant.parse("2025-01-01T00:00:00Z");
+
+        for (int i = 0; i < 200; i++) {
+            detector.onLog(logAt(t0, "behav-quiet", "11111111-1111-1111-1111-111111111111",
+                    "SELECT 1", 1, QueryLog.Status.SUCCESS));
+        }
+        verify(eventRepo, never()).save(any());
+        assertEquals(1, detector.trackedUsers());
+
+        // 후속 로그 없이 벽시계만 진행
+        for (int i = 0; i < 60; i++) {
+            wall[0] += 50;
+            detector.tick(wall[0]);
+        }
+
+        verify(eventRepo, times(1)).save(eventCaptor.capture());
+        assertEquals(DetectionEvent.Type.BEHAVIOR, eventCaptor.getValue().getEventType());
+        verify(notifier, times(1)).onEvent(any());
+        assertEquals(0, detector.trackedUsers());
+    }
+
+    @Test
+    @DisplayName("UT-05-D: 같은 버스트가 슬라이딩 윈도우에 걸쳐 있어도 알림은 한 번")
+    void slidingWindow_cooldownSuppressesDuplicates() {
+        BehaviorProperties props = propsSTP();
+        props.setWindowSeconds(6);
+        props.setSubBuckets(6);
+        BehaviorDetector detector = new BehaviorDetector(props, writer());
+        Instant t0 = Instant.parse("2025-01-01T00:00:00Z");
+
+        for (int i = 0; i < 200; i++) {
+            detector.onLog(logAt(t0, "behav-slide", "11111111-1111-1111-1111-111111111111",
+                    "SELECT 1", 1, QueryLog.Status.SUCCESS));
+        }
+        // 1초 간격 저활동 로그: 버스트가 윈도우에 남아 있는 동안 매 슬라이드마다 평가됨
+        for (int s = 1; s <= 5; s++) {
+            detector.onLog(logAt(t0.plusSeconds(s), "behav-slide", "11111111-1111-1111-1111-111111111111",
+                    "SELECT 1", 1, QueryLog.Status.SUCCESS));
+        }
+
+        verify(eventRepo, times(1)).save(any());
+        verify(notifier, times(1)).onEvent(any());
+    }
+
+    @Test
+    @DisplayName("UT-05-E: 적응형 기준선 학습 후 평소 수준의 바쁜 계정은 무알림, 평소 대비 급증만 탐지")
+    void adaptiveBaseline_busyAccountQuietUntilSpike() {
+        BehaviorProperties props = propsSTP();
+        props.setSubBuckets(1);
+        props.setThresholdMedium(1e9);               // 웜업 구간(상수 임계)에서는 알림 없음
+        props.setThresholdHigh(2e9);
+        props.getBaseline().setWarmupWindows(10);
+        BehaviorDetector detector = new BehaviorDetector(props, writer());
+        Instant t0 = Instant.parse("2025-01-01T00:00:00Z");
+
+        for (int s = 0; s < 40; s++) {
+            int n = 100 + s % 5;                     // 초당 100~104건: 평소 수준
+            for (int i = 0; i < n; i++) {
+                detector.onLog(logAt(t0.plusSeconds(s), "batch-acct", "11111111-1111-1111-1111-111111111111",
+                        "SELECT 1", 1, QueryLog.Status.SUCCESS));
+            }
+        }
+        verify(eventRepo, never()).save(any());
+
+        for (int i = 0; i < 1_000; i++) {
+            detector.onLog(logAt(t0.plusSeconds(40), "batch-acct", "11111111-1111-1111-1111-111111111111",
+                    "SELECT 1", 1, QueryLog.Status.SUCCESS));
+        }
+        detector.onLog(logAt(t0.plusSeconds(41), "batch-acct", "11111111-1111-1111-1111-111111111111",
+                "SELECT 1", 1, QueryLog.Status.SUCCESS));
+
+        verify(eventRepo, times(1)).save(eventCaptor.capture());
+        assertEquals(DetectionEvent.Severity.HIGH, eventCaptor.getValue().getSeverity());
+        assertTrue(eventCaptor.getValue().getSqlRaw().contains("MODE=ADAPTIVE"));
+    }
+
+    @Test
+    @DisplayName("UT-05-F: 떠난 사용자의 기준선은 상태 핸들과 함께 스냅샷 후 내려놓음 → 새 사용자가 상한을 쓰고, 돌아온 사용자는 스냅샷에서 이어 학습")
+    @SuppressWarnings("unchecked")
+    void baselines_followUsersComingAndGoing() {
+        long[] wall = {1_000_000L};
+        BehaviorProperties props = propsSTP();
+        props.setWheelTickMs(50);
+        props.setMaxUsers(2);
+        props.setThresholdMedium(1e9);
+        props.setThresholdHigh(2e9);
+        BehaviorBaselineSnapshots snapshots = mock(BehaviorBaselineSnapshots.class);
+        Map<String, BehaviorBaselineSnapshots.Row> saved = new ConcurrentHashMap<>();
+        when(snapshots.saveAll(anyList())).thenAnswer(inv -> {
+            List<BehaviorBaselineSnapshots.Row> rows = inv.getArgument(0);
+            rows.forEach(r -> saved.put(r.userId(), r));
+            return rows.size();
+        });
+        when(snapshots.load(anyString())).thenAnswer(inv -> {
+            BehaviorBaselineSnapshots.Row r = saved.get((String) inv.getArgument(0));
+            return r == null ? null : r.state();
+        });
+        BehaviorDetector detector = new BehaviorDetector(props, writer(), snapshots, () -> wall[0]);
+        Instant t0 = Instant.parse("2025-01-01T00:00:00Z");
+
+        Runnable idle = () -> {
+            for (int i = 0; i < 60; i++) { wall[0] += 50; detector.tick(wall[0]); }
+        };
+        // 1) u1, u2 활동 후 유휴 → 윈도우 평가(학습) 후 퇴출, 기준선도 스냅샷 후 메모리에서 제거
+        for (String u : List.of("u1", "u2")) {
+            detector.onLog(logAt(t0, u, null, "SELECT 1", 1, QueryLog.Status.SUCCESS));
+        }
+        idle.run();
+        assertEquals(0, detector.trackedUsers());
+        assertEquals(0, detector.stats().get("baselines"));
+        long learned = saved.get("u1").samples();
+        assertTrue(learned > 0);
+
+        // 2) 상한(2명)을 채웠던 사용자가 떠났으므로 새 사용자도 기준선을 가짐
+        for (String u : List.of("u3", "u4")) {
+            detector.onLog(logAt(t0.plusSeconds(10), u, null, "SELECT 1", 1, QueryLog.Status.SUCCESS));
+        }
+        idle.run();
+        assertTrue(saved.get("u3").samples() > 0);
+        assertTrue(saved.get("u4").samples() > 0);
+
+        // 3) u1 복귀 → 스냅샷에서 읽어 이어서 학습
+        detector.onLog(logAt(t0.plusSeconds(20), "u1", null, "SELECT 1", 1, QueryLog.Status.SUCCESS));
+        idle.run();
+        verify(snapshots, times(2)).load("u1");      // 첫 등장(스냅샷 없음) + 복귀
+        assertTrue(saved.get("u1").samples() > learned);
+        assertEquals(0, detector.stats().get("baselines"));
+    }
+
+    @Test
+    @DisplayName("UT-05-G: 알림 아웃박스 적재 실패 → 예외는 탐지 경로로 새지 않고 writeFailed 로 집계")
+    void outboxFailure_isCountedNotSwallowed() {
+        doThrow(new IllegalStateException("outbox down")).when(notifier).onEvent(any());
+        BehaviorDetector detector = new BehaviorDetector(propsSTP(), writer());
+        Instant t0 = Instant.parse("2025-01-01T00:00:00Z");
+
+        for (int i = 0; i < 200; i++) {
+            detector.onLog(logAt(t0, "behav-fail", "11111111-1111-1111-1111-111111111111",
+                    "SELECT 1", 1, QueryLog.Status.SUCCESS));
+        }
+        assertDoesNotThrow(() -> detector.onLog(logAt(t0.plusSeconds(2), "behav-fail",
+                "11111111-1111-1111-1111-111111111111", "SELECT 1", 1, QueryLog.Status.SUCCESS)));
+
+        verify(eventRepo, times(1)).save(any());
+        assertEquals(1L, detector.stats().get("writeFailed"));
+    }
 }
@@ -0,0 +1,109 @@
+package com.example.dbids.modules.behavior;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * BehaviorStateStore 단위 테스트 (동시 집계 / 핸들 재사용 / 용량 상한)
+ */
+class BehaviorStateStoreTest {
+
+    private static final BehaviorFeatureExtractor.Delta SELECT = new BehaviorFeatureExtractor.Delta(1, 0, 0, 0, 1);
+    private static final BehaviorFeatureExtractor.Delta WRITE_ERR = new BehaviorFeatureExtractor.Delta(1, 1, 0, 1, 1);
+
+    private static BehaviorStateStore.Totals add(BehaviorStateStore s, String user, long eventMs,
+                                                 BehaviorFeatureExtractor.Delta d, String logId) {
+        int h = s.acquire(user);
+        try {
+            return s.add(h, eventMs, 0L, d, logId);
+        } finally {
+            s.release(h);
+        }
+    }
+
+    @Test
+    @DisplayName("UT-SS-01: 16개 스레드가 같은 사용자에 동시 적재 → 누락 없이 합계 일치")
+    void concurrentAdds_noLostUpdates() throws Exception {
+        BehaviorStateStore s = new BehaviorStateStore(6, 1_000, 1_000);
+        int threads = 16, perThread = 10_000;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> fs = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            boolean writer = t % 2 == 0;
+            fs.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < perThread; i++) add(s, "hot", 500, writer ? WRITE_ERR : SELECT, "L");
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> f : fs) f.get();
+        pool.shutdown();
+
+        BehaviorStateStore.Totals t = add(s, "hot", 1_500, SELECT, "L2");
+        assertNotNull(t);
+        assertEquals(threads * perThread, t.q());
+        assertEquals(threads / 2 * perThread, t.write());
+        assertEquals(threads / 2 * perThread, t.err());
+        assertEquals("L", t.lastLogId());
+    }
+
+    @Test
+    @DisplayName("UT-SS-02: 빈 윈도우 퇴출 → 핸들 반납 후 다른 사용자가 초기화된 상태로 재사용")
+    void evictAndReuseHandle() {
+        BehaviorStateStore s = new BehaviorStateStore(6, 1_000, 1_000);
+        add(s, "a", 0, SELECT, "L1");
+        int h = s.acquire("a");
+        s.release(h);
+
+        assertFalse(s.tryEvict(h, "a"), "윈도우에 데이터가 남아 있으면 퇴출 불가");
+        assertNotNull(s.advanceIdle(h, 60_000));   // 벽시계 60초 경과 → 마지막 윈도우 마감
+        assertTrue(s.isEmpty(h));
+        assertTrue(s.tryEvict(h, "a"));
+        assertEquals(0, s.size());
+        assertFalse(s.owns(h, "a"));
+
+        int h2 = s.acquire("b");
+        try {
+            assertEquals(h, h2);
+            assertTrue(s.isEmpty(h2));
+            assertNull(s.add(h2, 10_000, 0L, SELECT, "L2"));
+        } finally {
+            s.release(h2);
+        }
+        assertEquals(256, s.bytesPerUser());        // (8 + 3×6) long → 캐시라인 단위 32 long
+    }
+
+    @Test
+    @DisplayName("UT-SS-03: 진행 중인 writer 가 있으면 퇴출하지 않음")
+    void noEvictWhileWriterInFlight() {
+        BehaviorStateStore s = new BehaviorStateStore(2, 1_000, 10);
+        int h = s.acquire("a");
+        assertFalse(s.tryEvict(h, "a"));
+        s.release(h);
+        assertTrue(s.tryEvict(h, "a"));
+    }
+
+    @Test
+    @DisplayName("UT-SS-04: 용량 상한 초과 사용자는 NO_HANDLE, 윈도우보다 오래된 로그는 집계 제외")
+    void capacityAndLateEvents() {
+        BehaviorStateStore s = new BehaviorStateStore(3, 1_000, 1);
+        add(s, "a", 10_000, SELECT, "L1");
+        assertEquals(BehaviorStateStore.NO_HANDLE, s.acquire("b"));
+
+        add(s, "a", 1_000, SELECT, "late");         // 윈도우(3초) 밖 → 무시
+        BehaviorStateStore.Totals t = add(s, "a", 11_000, SELECT, "L2");
+        assertNotNull(t);
+        assertEquals(1, t.q());
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.dbids.modules.behavior;
+
+import com.example.dbids.modules.behavior.QueryClassifier.Kind;
+import com.example.dbids.modules.behavior.SqlStatementParser.Statement;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 토크나이저 기반 문장 파서 단위 테스트
+ * - 정규식 추정이 놓치던 JOIN / 서브쿼리 / CTE / 콤마 FROM / 다중 문장
+ * - 함수 인자 안 FROM, 문자열/주석 안 키워드는 테이블로 보지 않음
+ */
+class SqlStatementParserTest {
+
+    private final SqlStatementParser parser = new SqlStatementParser();
+
+    private Statement one(String sql) {
+        List<Statement> st = parser.parse(sql);
+        assertEquals(1, st.size(), "문장 수");
+        return st.get(0);
+    }
+
+    @Test
+    @DisplayName("UT-SP-01: JOIN / 콤마 FROM / 별칭 / 한정 이름")
+    void joinsAndCommaLists() {
+        Statement s = one("select * from shop.users u, orders as o "
+                + "left join `items` i on i.oid = o.id inner join payments p using (oid) where u.id = o.uid");
+
+        assertEquals(Kind.SELECT, s.kind());
+        assertEquals(List.of("SHOP.USERS", "ORDERS", "ITEMS", "PAYMENTS"), s.tables());
+    }
+
+    @Test
+    @DisplayName("UT-SP-02: 서브쿼리 / 파생 테이블 / EXISTS / 함수 인자 FROM 제외")
+    void subqueries() {
+        Statement s = one("SELECT EXTRACT(YEAR FROM o.created), (SELECT max(x) FROM limits) "
+                + "FROM (SELECT * FROM orders WHERE id IN (SELECT oid FROM refunds)) o, customers c "
+                + "WHERE EXISTS (SELECT 1 FROM blacklist b WHERE b.cid = c.id) AND TRIM(BOTH ' ' FROM c.name) <> ''");
+
+        assertEquals(Kind.SELECT, s.kind());
+        assertEquals(List.of("LIMITS", "ORDERS", "REFUNDS", "CUSTOMERS", "BLACKLIST"), s.tables());
+    }
+
+    @Test
+    @DisplayName("UT-SP-03: CTE 는 본문 종류로 분류하고 CTE 이름은 테이블에서 제외")
+    void commonTableExpressions() {
+        Statement s = one("WITH recent(id) AS (SELECT id FROM orders WHERE ts > 0), "
+                + "big AS (SELECT * FROM recent JOIN items ON items.oid = recent.id) "
+                + "DELETE FROM archive WHERE id IN (SELECT id FROM big)");
+
+        assertEquals(Kind.DELETE, s.kind());
+        assertEquals(List.of("ORDERS", "ITEMS", "ARCHIVE"), s.tables());
+    }
+
+    @Test
+    @DisplayName("UT-SP-04: 다중 문장은 문장별 종류/테이블, 주석/문자열 안의 ; 와 키워드는 무시")
+    void multiStatement() {
+        List<Statement> st = parser.parse(
+                "SELECT 'a; DROP TABLE x' FROM t1 /* ; FROM hidden */; -- FROM c\n"
+                + "DROP TABLE IF EXISTS t2, t3;;  UPDATE t4 SET a = (SELECT b FROM t5)");
+
+        assertEquals(3, st.size());
+        assertEquals(new Statement(Kind.SELECT, List.of("T1")), st.get(0));
+        assertEquals(new Statement(Kind.DDL, List.of("T2", "T3")), st.get(1));
+        assertEquals(new Statement(Kind.UPDATE, List.of("T4", "T5")), st.get(2));
+    }
+
+    @Test
+    @DisplayName("UT-SP-05: INSERT ... SELECT / UPDATE JOIN / DDL 대상 테이블")
+    void writesAndDdl() {
+        assertEquals(new Statement(Kind.INSERT, List.of("AUDIT", "USERS")),
+                one("insert ignore into audit (id, name) select id, name from users"));
+        assertEquals(new Statement(Kind.UPDATE, List.of("A", "B")),
+                one("UPDATE a JOIN b ON a.id = b.id SET a.x = b.x"));
+        assertEquals(new Statement(Kind.DDL, List.of("ORDERS")),
+                one("CREATE INDEX idx_o ON orders (created_at)"));
+        assertEquals(new Statement(Kind.DDL, List.of("V_USERS", "USERS")),
+                one("CREATE VIEW v_users AS SELECT * FROM users"));
+        assertEquals(new Statement(Kind.DDL, List.of("OLD_T", "NEW_T")),
+                one("ALTER TABLE old_t RENAME TO new_t"));
+        assertEquals(new Statement(Kind.DDL, List.of("LOGS")),
+                one("TRUNCATE TABLE logs"));
+    }
+
+    @Test
+    @DisplayName("UT-SP-06: 괄호로 시작하는 UNION, 알 수 없는 문장, 빈 입력")
+    void edgeCases() {
+        assertEquals(new Statement(Kind.SELECT, List.of("A", "B")),
+                one("(SELECT id FROM a) UNION ALL (SELECT id FROM b)"));
+        assertEquals(Kind.OTHER, one("EXPLAIN SELECT * FROM t").kind());
+        assertEquals(new Statement(Kind.DELETE, List.of()), one("DELETE something weird"));
+        assertTrue(parser.parse("  ; -- only comment").isEmpty());
+        assertTrue(parser.parse(null).isEmpty());
+    }
+
+    @Test
+    @DisplayName("UT-SP-07: QueryClassifier 는 파서에 위임(WITH/괄호 시작도 본문 종류)")
+    void classifierDelegates() {
+        QueryClassifier c = new QueryClassifier();
+
+        assertEquals(Kind.SELECT, c.classify("WITH x AS (SELECT 1) SELECT * FROM x"));
+        assertEquals(Kind.INSERT, c.classify("REPLACE INTO t VALUES (1)"));
+        assertEquals(Kind.OTHER, c.classify("  "));
+        assertArrayEquals(new String[]{"USERS", "ORDERS"},
+                c.guessTables("SELECT * FROM users JOIN orders ON users.id = orders.uid"));
+    }
+}
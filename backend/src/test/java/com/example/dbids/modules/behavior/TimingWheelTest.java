@@ -0,0 +1,56 @@
+package com.example.dbids.modules.behavior;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * TimingWheel 단위 테스트 (가짜 시계)
+ */
+class TimingWheelTest {
+
+    @Test
+    @DisplayName("UT-TW-01: 만료 시각 이전에는 실행하지 않고, tick 경계에서 실행")
+    void firesAtDeadline() {
+        TimingWheel w = new TimingWheel(10, 8, () -> 0L);
+        List<String> fired = new ArrayList<>();
+        w.schedule(35, () -> fired.add("a"));
+
+        w.advance(30);
+        assertTrue(fired.isEmpty());
+        w.advance(40);
+        assertEquals(List.of("a"), fired);
+        assertEquals(0, w.pending());
+    }
+
+    @Test
+    @DisplayName("UT-TW-02: 0단 한 바퀴를 넘는 만료는 상위 단을 거쳐 제 시각에 실행")
+    void cascadesAcrossLevels() {
+        TimingWheel w = new TimingWheel(10, 8, () -> 0L);   // 0단 80ms, 1단 640ms, 2단 5120ms
+        List<Long> fired = new ArrayList<>();
+        long[] deadlines = {75, 500, 3_000, 9_999};
+        long[] now = {0};
+        for (long d : deadlines) w.schedule(d, () -> fired.add(now[0]));
+
+        for (now[0] = 10; now[0] <= 10_000; now[0] += 10) w.advance(now[0]);
+
+        assertEquals(List.of(80L, 500L, 3_000L, 10_000L), fired);
+    }
+
+    @Test
+    @DisplayName("UT-TW-03: 이미 지난 시각 등록 → 다음 tick 에 실행, 작업 예외는 다른 작업에 영향 없음")
+    void pastDeadlineAndFailOpen() {
+        TimingWheel w = new TimingWheel(10, 8, () -> 100L);
+        List<String> fired = new ArrayList<>();
+        w.schedule(50, () -> { throw new IllegalStateException("boom"); });
+        w.schedule(50, () -> fired.add("ok"));
+
+        w.advance(110);
+        assertEquals(List.of("ok"), fired);
+        assertEquals(0, w.pending());
+    }
+}
@@ -0,0 +1,197 @@
+package com.example.dbids.modules.ingest;
+
+import com.example.dbids.modules.analysis.QueryAnalysis;
+import com.example.dbids.modules.authz.AuthZService;
+import com.example.dbids.modules.behavior.BehaviorDetector;
+import com.example.dbids.modules.detection.DetectionService;
+import com.example.dbids.modules.detection.Finding;
+import com.example.dbids.modules.notify.NotificationService;
+import com.example.dbids.modules.storage.StorageService;
+import com.example.dbids.sqlite.model.DetectionEvent;
+import com.example.dbids.sqlite.model.QueryLog;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IngestPipelineTest {
+
+    @Mock StorageService storage;
+    @Mock DetectionService detection;
+    @Mock AuthZService authz;
+    @Mock BehaviorDetector behavior;
+    @Mock NotificationService notifier;
+
+    private IngestPipeline pipeline;
+
+    @AfterEach
+    void tearDown() {
+        if (pipeline != null) pipeline.stop();
+    }
+
+    private IngestPipeline newPipeline(int capacity, IngestProperties.Backpressure bp) {
+        IngestProperties p = new IngestProperties();
+        p.setQueueCapacity(capacity);
+        p.setBackpressure(bp);
+        p.setBlockTimeoutMs(50);
+        pipeline = new IngestPipeline(p, new IngestBatchWriter(storage, notifier), detection, authz, behavior);
+        return pipeline;
+    }
+
+    private QueryLog log(String sql) {
+        return new QueryLog(UUID.randomUUID().toString(), "2025-01-01T00:00:00Z",
+                "u@test.com", null, sql, null, 0, QueryLog.Status.SUCCESS);
+    }
+
+    @Test
+    @DisplayName("UT-IP-01: submit 에서 PATTERN/AUTHZ 판정 → 차단이면 FAILURE 로 한 번 저장(로그+이벤트+알림, 요청 시점 수신자), 커밋 후 BEHAVIOR")
+    void judgesBeforePersistAndWritesOnce() {
+        IngestPipeline p = newPipeline(16, IngestProperties.Backpressure.REJECT);
+        QueryLog q = log("DROP TABLE t");
+        DetectionEvent ev = new DetectionEvent(UUID.randomUUID().toString(), q.getId(), DetectionEvent.Type.PATTERN,
+                DetectionEvent.Severity.HIGH, "2025-01-01T00:00:00Z", "drop table t");
+        when(detection.evaluate(eq(q), any(QueryAnalysis.class))).thenReturn(Optional.of(new Finding(ev, "PATTERN_DROP_TABLE", true)));
+
+        IngestVerdict v = p.submit(q, "owner@dbids.local");
+
+        // 판정은 저장 전에 호출 스레드에서
+        assertNotNull(v);
+        assertTrue(v.blocked());
+        assertEquals(QueryLog.Status.FAILURE, v.status());
+        assertEquals(QueryLog.Status.FAILURE, q.getStatus());
+        assertEquals(List.of(new IngestVerdict.Detection(ev.getId(), DetectionEvent.Type.PATTERN,
+                DetectionEvent.Severity.HIGH, "PATTERN_DROP_TABLE")), v.detections());
+        verify(authz).evaluate(eq(q), any(QueryAnalysis.class));
+        verifyNoInteractions(storage);
+        assertEquals(1L, p.stats().get("blocked"));
+
+        p.start();
+
+        verify(behavior, timeout(2_000)).onLog(eq(q), any(QueryAnalysis.class));
+        InOrder order = inOrder(storage, notifier, behavior);
+        order.verify(storage).persistAll(List.of(q), List.of(ev));
+        order.verify(notifier).onEvent(ev, "PATTERN_DROP_TABLE", q, "owner@dbids.local");   // 로그 재조회 없음, 요청 시점 수신자
+        order.verify(behavior).onLog(eq(q), any(QueryAnalysis.class));
+        verifyNoMoreInteractions(storage);
+    }
+
+    @Test
+    @DisplayName("UT-IP-02: REJECT 모드에서 큐가 가득 차면 submit=false, rejected 지표 증가")
+    void rejectsWhenQueueFull() {
+        IngestPipeline p = newPipeline(1, IngestProperties.Backpressure.REJECT); // start() 안 함 → 소비자 없음
+
+        assertNotNull(p.submit(log("SELECT 1")));
+        assertNull(p.submit(log("SELECT 2")));
+
+        Map<String, Object> stats = p.stats();
+        assertEquals(1, stats.get("queueDepth"));
+        assertEquals(1L, stats.get("accepted"));
+        assertEquals(1L, stats.get("rejected"));
+    }
+
+    @Test
+    @DisplayName("UT-IP-03: BLOCK 모드는 타임아웃까지 대기 후 실패")
+    void blockModeTimesOut() {
+        IngestPipeline p = newPipeline(1, IngestProperties.Backpressure.BLOCK);
+        assertNotNull(p.submit(log("SELECT 1")));
+
+        long t0 = System.nanoTime();
+        assertNull(p.submit(log("SELECT 2")));
+        assertTrue(System.nanoTime() - t0 >= 40_000_000L, "blockTimeoutMs 만큼 대기해야 한다");
+    }
+
+    @Test
+    @DisplayName("UT-IP-04: 배치/행 단위 저장 모두 실패하면 알림/BEHAVIOR 로 전달하지 않는다")
+    void persistFailureSkipsDetectors() {
+        IngestPipeline p = newPipeline(16, IngestProperties.Backpressure.REJECT);
+        when(storage.persistAll(anyList(), anyList())).thenThrow(new RuntimeException("db down"));
+        p.start();
+
+        assertNotNull(p.submit(log("DROP TABLE t")));
+
+        verify(storage, timeout(2_000).times(2)).persistAll(anyList(), anyList());   // 배치 → 행 단위 재시도
+        p.stop();
+        verifyNoInteractions(notifier, behavior);
+        assertEquals(1L, p.stats().get("persistFailed"));
+    }
+
+    @Test
+    @DisplayName("UT-IP-05: 대기 중인 로그는 한 번의 persistAll(그룹 커밋)로 기록된다")
+    @SuppressWarnings("unchecked")
+    void groupCommitsQueuedLogs() {
+        IngestPipeline p = newPipeline(16, IngestProperties.Backpressure.REJECT);
+        QueryLog a = log("SELECT 1"), b = log("SELECT 2"), c = log("SELECT 3");
+        assertNotNull(p.submit(a));
+        assertNotNull(p.submit(b));
+        assertNotNull(p.submit(c));
+
+        p.start();
+
+        ArgumentCaptor<List<QueryLog>> batch = ArgumentCaptor.forClass(List.class);
+        verify(storage, timeout(2_000)).persistAll(batch.capture(), eq(List.of()));
+        assertEquals(List.of(a, b, c), batch.getValue());
+        verify(behavior, timeout(2_000).times(3)).onLog(any(), any(QueryAnalysis.class));
+        verify(storage, times(1)).persistAll(anyList(), anyList());
+    }
+
+    @Test
+    @DisplayName("UT-IP-06: 배치 실패 시 행 단위로 재시도해 문제 행만 격리한다")
+    void batchFailureFallsBackToRowByRow() {
+        IngestPipeline p = newPipeline(16, IngestProperties.Backpressure.REJECT);
+        QueryLog good = log("SELECT 1"), bad = log("SELECT 2");
+        when(storage.persistAll(anyList(), anyList())).thenAnswer(inv -> {
+            List<QueryLog> logs = inv.getArgument(0);
+            if (logs.contains(bad)) throw new RuntimeException("constraint");
+            return logs.size();
+        });
+        assertNotNull(p.submit(good));
+        assertNotNull(p.submit(bad));
+
+        p.start();
+
+        verify(behavior, timeout(2_000)).onLog(eq(good), any(QueryAnalysis.class));
+        p.stop();
+        verify(behavior, never()).onLog(eq(bad), any());
+        assertEquals(1L, p.stats().get("persisted"));
+        assertEquals(1L, p.stats().get("persistFailed"));
+    }
+
+    @Test
+    @DisplayName("UT-IP-07: 알림 적재 실패 → 배치/행 단위 모두 롤백 후 로그/이벤트만 기록, notifyFailed 증가, BEHAVIOR 는 진행")
+    void alertFailureStoresLogWithoutAlerts() {
+        IngestPipeline p = newPipeline(16, IngestProperties.Backpressure.REJECT);
+        QueryLog q = log("DROP TABLE t");
+        DetectionEvent ev = new DetectionEvent(UUID.randomUUID().toString(), q.getId(), DetectionEvent.Type.PATTERN,
+                DetectionEvent.Severity.HIGH, "2025-01-01T00:00:00Z", "drop table t");
+        when(detection.evaluate(eq(q), any(QueryAnalysis.class))).thenReturn(Optional.of(new Finding(ev, "PATTERN_DROP_TABLE", true)));
+        doThrow(new RuntimeException("outbox locked")).when(notifier).onEvent(any(), any(), any(), any());
+        assertNotNull(p.submit(q));
+
+        p.start();
+
+        verify(behavior, timeout(2_000)).onLog(eq(q), any(QueryAnalysis.class));
+        p.stop();
+        // 배치(로그+알림) → 행 단위(로그+알림) → 알림 없이 로그/이벤트만
+        verify(storage, times(3)).persistAll(List.of(q), List.of(ev));
+        verify(notifier, times(2)).onEvent(ev, "PATTERN_DROP_TABLE", q, null);
+        assertEquals(1L, p.stats().get("persisted"));
+        assertEquals(0L, p.stats().get("persistFailed"));
+        assertEquals(1L, p.stats().get("notifyFailed"));
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.dbids.modules.ingest;
+
+import com.example.dbids.modules.authz.AuthZService;
+import com.example.dbids.modules.behavior.BehaviorDetector;
+import com.example.dbids.modules.detection.DetectionService;
+import com.example.dbids.modules.notify.NotificationService;
+import com.example.dbids.modules.storage.StorageService;
+import com.example.dbids.sqlite.model.DetectionEvent;
+import com.example.dbids.sqlite.model.QueryLog;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class VerdictServiceTest {
+
+    @Mock StorageService storage;
+    @Mock AuthZService authz;
+    @Mock BehaviorDetector behavior;
+    @Mock NotificationService notifier;
+
+    private IngestPipeline pipeline;
+    private VerdictService verdicts;
+
+    @BeforeEach
+    void setUp() {
+        IngestProperties p = new IngestProperties();
+        p.setQueueCapacity(4);
+        p.setFlushIntervalMs(0);
+        // PATTERN 은 실제 룰셋, AUTHZ 는 미탐(mock 기본값 Optional.empty)
+        DetectionService detection = new DetectionService();
+        pipeline = new IngestPipeline(p, new IngestBatchWriter(storage, notifier), detection, authz, behavior);
+        verdicts = new VerdictService(pipeline);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pipeline.stop();
+    }
+
+    private static byte[] utf8(String s) { return s.getBytes(StandardCharsets.UTF_8); }
+
+    @Test
+    @DisplayName("UT-VD-01: 차단 규칙(DROP TABLE) → DENY, 판정 중 DB 접근 없음, 기록은 큐를 거쳐 FAILURE 로 한 번 저장")
+    @SuppressWarnings("unchecked")
+    void deniesBlockingPattern_andDefersLogging() {
+        VerdictService.Verdict v = verdicts.check(utf8("  drop table orders; "), "app_rw");
+
+        assertEquals(VerdictService.Decision.DENY, v.decision());
+        assertTrue(v.logged());
+        assertEquals(DetectionEvent.Type.PATTERN, v.detections().get(0).type());
+        assertEquals(DetectionEvent.Severity.HIGH, v.detections().get(0).severity());
+        verifyNoInteractions(storage, notifier);
+        assertEquals(1, pipeline.queueDepth());
+
+        pipeline.start();
+        ArgumentCaptor<List<QueryLog>> logs = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<List<DetectionEvent>> events = ArgumentCaptor.forClass(List.class);
+        verify(storage, timeout(2_000)).persistAll(logs.capture(), events.capture());
+        QueryLog q = logs.getValue().get(0);
+        assertEquals(v.logId(), q.getId());
+        assertEquals("drop table orders;", q.getSqlRaw());
+        assertEquals("app_rw", q.getUserId());
+        assertEquals(QueryLog.Status.FAILURE, q.getStatus());
+        assertEquals(v.detections().get(0).eventId(), events.getValue().get(0).getId());
+    }
+
+    @Test
+    @DisplayName("UT-VD-02: 일반 쿼리 → ALLOW(SUCCESS 로 기록), 패킷 버퍼 범위 지정, 잘못된 입력은 IllegalArgumentException")
+    void allowsAndValidates() {
+        byte[] packet = utf8("\u0003SELECT id FROM users WHERE id = 1");
+        VerdictService.Verdict v = verdicts.check(packet, 1, packet.length - 1, "app_ro");
+        assertEquals(VerdictService.Decision.ALLOW, v.decision());
+        assertTrue(v.detections().isEmpty());
+
+        assertThrows(IllegalArgumentException.class, () -> verdicts.check(new byte[]{(byte) 0xC3, 0x28}, "u"));
+        assertThrows(IllegalArgumentException.class, () -> verdicts.check(utf8("   "), "u"));
+        assertThrows(IllegalArgumentException.class, () -> verdicts.check(utf8("SELECT 1"), " "));
+        assertEquals(1L, verdicts.stats().get("allowed"));
+    }
+
+    @Test
+    @DisplayName("UT-VD-03: 기록 큐가 가득 차도 대기 없이 판정 반환(logged=false, dropped 증가)")
+    void fullQueueDropsLogButKeepsVerdict() {
+        for (int i = 0; i < 4; i++) assertTrue(verdicts.check(utf8("SELECT " + i), "u").logged());
+
+        long t0 = System.nanoTime();
+        VerdictService.Verdict v = verdicts.check(utf8("DROP TABLE t"), "u");
+        assertTrue(System.nanoTime() - t0 < 50_000_000L);
+
+        assertEquals(VerdictService.Decision.DENY, v.decision());
+        assertFalse(v.logged());
+        Map<String, Object> st = verdicts.stats();
+        assertEquals(1L, st.get("dropped"));
+        assertEquals(1L, st.get("denied"));
+        verify(storage, never()).persistAll(anyList(), anyList());
+    }
+
+    @Test
+    @DisplayName("UT-VD-04: 판정 지연 — 워밍업 후 p50 1ms 미만, p99 는 I/O 유입 같은 퇴행만 잡는 느슨한 상한")
+    void p99_staysUnderBudget() {
+        IngestProperties p = new IngestProperties();
+        p.setQueueCapacity(1);     // 기록은 곧 가득 참 → 판정 경로만 측정
+        VerdictService v = new VerdictService(new IngestPipeline(p, new IngestBatchWriter(storage, notifier),
+                new DetectionService(), authz, behavior));
+        byte[][] sqls = {
+                utf8("SELECT o.id, o.total FROM orders o JOIN users u ON u.id = o.user_id WHERE u.email = 'a@b.c' AND o.total > 100"),
+                utf8("UPDATE accounts SET balance = balance - 10 WHERE id = 42"),
+                utf8("SELECT * FROM users WHERE name = '' OR 1=1 -- '"),
+        };
+        for (int i = 0; i < 20_000; i++) v.check(sqls[i % sqls.length], "app");    // JIT 워밍업
+        VerdictService fresh = new VerdictService(new IngestPipeline(p, new IngestBatchWriter(storage, notifier),
+                new DetectionService(), authz, behavior));
+        for (int i = 0; i < 20_000; i++) fresh.check(sqls[i % sqls.length], "app");
+
+        // 벽시계 분위수는 공유 CI 의 CPU 경합(JIT/GC 스레드)에 흔들리므로 p99 는 여유 있게
+        double p50 = (double) fresh.stats().get("p50Micros");
+        double p99 = (double) fresh.stats().get("p99Micros");
+        assertTrue(p50 < 1_000.0, "p50=" + p50 + "µs");
+        assertTrue(p99 < 10_000.0, "p99=" + p99 + "µs");
+    }
+
+    @Test
+    @DisplayName("UT-VD-05: 지연 히스토그램 — 분위수는 해당 샘플을 담은 2의 거듭제곱 버킷 상한")
+    void histogramQuantiles() {
+        LatencyHistogram h = new LatencyHistogram();
+        assertEquals(0, h.quantile(0.99));
+        for (int i = 0; i < 98; i++) h.record(1_000);      // [512, 1023]
+        h.record(5_000);                                    // [4096, 8191]
+        h.record(70_000);                                   // [65536, 131071]
+
+        assertEquals(1_023, h.quantile(0.50));
+        assertEquals(8_191, h.quantile(0.99));
+        assertEquals(131_071, h.quantile(1.0));
+        assertEquals(70.0, h.snapshot().get("maxMicros"));
+    }
+}
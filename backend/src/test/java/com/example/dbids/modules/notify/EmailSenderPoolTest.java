@@ -0,0 +1,108 @@
+package com.example.dbids.modules.notify;
+
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.ServerSetup;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.*;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * SMTP 세션 풀 end-to-end: GreenMail SMTP 서버로 실제 발송
+ */
+class EmailSenderPoolTest {
+
+    private int port;
+    private GreenMail greenMail;
+    private SmtpTransportPool pool;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        try (ServerSocket s = new ServerSocket(0)) { port = s.getLocalPort(); }
+        greenMail = startSmtp(port);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (pool != null) pool.stop();
+        if (greenMail != null) greenMail.stop();
+    }
+
+    private static GreenMail startSmtp(int port) {
+        GreenMail gm = new GreenMail(new ServerSetup(port, "127.0.0.1", ServerSetup.PROTOCOL_SMTP));
+        gm.start();
+        return gm;
+    }
+
+    private EmailSender sender(int poolSize) {
+        JavaMailSenderImpl mail = new JavaMailSenderImpl();
+        mail.setHost("127.0.0.1");
+        mail.setPort(port);
+
+        NotifierProperties p = new NotifierProperties();
+        NotifierProperties.Email e = new NotifierProperties.Email();
+        e.setEnabled(true);
+        e.setFrom("noreply@dbids.local");
+        e.setToDefault("admin@dbids.local");
+        e.setPoolSize(poolSize);
+        e.setBatchSize(5);
+        p.setEmail(e);
+
+        pool = new SmtpTransportPool(mail, p);
+        return new EmailSender(mail, p, pool);
+    }
+
+    private long total(String key) {
+        return pool.stats().stream().mapToLong(m -> ((Number) m.get(key)).longValue()).sum();
+    }
+
+    @Test
+    @DisplayName("UT-10-E: 풀 2개 연결로 20건 발송 → 모두 수신, 연결은 풀 크기 이하로만 맺음")
+    void pooledSessions_areReused() throws Exception {
+        EmailSender s = sender(2);
+
+        List<CompletableFuture<Void>> fs = new ArrayList<>();
+        for (int i = 0; i < 20; i++) fs.add(s.sendToAsync("SUBJ-" + i, "BODY-" + i, "to" + (i % 3) + "@dbids.local"));
+        CompletableFuture.allOf(fs.toArray(CompletableFuture[]::new)).get(20, TimeUnit.SECONDS);
+
+        assertTrue(greenMail.waitForIncomingEmail(5000, 20));
+        MimeMessage[] got = greenMail.getReceivedMessages();
+        assertEquals(20, got.length);
+
+        assertEquals(20, total("sent"));
+        assertEquals(0, total("failed"));
+        assertTrue(total("connects") <= 2, "연결은 풀 크기만큼만: " + pool.stats());
+        for (Map<String, Object> m : pool.stats()) assertTrue(m.containsKey("msgPerSec"));
+
+        // 블로킹 경로도 같은 풀을 사용
+        s.send("SYNC", "BODY");
+        assertTrue(greenMail.waitForIncomingEmail(5000, 21));
+        assertTrue(total("connects") <= 2);
+    }
+
+    @Test
+    @DisplayName("UT-10-F: 서버 재시작으로 세션이 끊기면 재연결 후 같은 메시지를 다시 보내 성공")
+    void reconnects_afterServerRestart() throws Exception {
+        EmailSender s = sender(1);
+        s.sendTo("FIRST", "BODY", "ops@dbids.local");
+        assertTrue(greenMail.waitForIncomingEmail(5000, 1));
+        assertEquals(1, total("connects"));
+
+        greenMail.stop();                        // 풀의 세션은 서버 쪽에서 끊김
+        greenMail = startSmtp(port);
+
+        s.sendTo("SECOND", "BODY", "ops@dbids.local");
+        assertTrue(greenMail.waitForIncomingEmail(5000, 1));
+        assertEquals("SECOND", greenMail.getReceivedMessages()[0].getSubject());
+        assertEquals(1, total("reconnects"));
+        assertEquals(2, total("sent"));
+    }
+}
@@ -8,6 +8,7 @@ import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
 
 import java.lang.reflect.Field;
+import java.util.concurrent.CompletionException;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -100,4 +101,23 @@ class EmailSenderTest {
         assertThrows(IllegalStateException.class, () -> sender.send("S", "B"));
         verify(mail, never()).send(any(SimpleMailMessage.class));
     }
+
+    @Test
+    @DisplayName("UT-10-G: 풀 없이 sendToAsync/sendAsync → JavaMailSender 로 보내고 완료된 future, toDefault 누락은 실패한 future")
+    void async_withoutPool_sendsDirectly() {
+        JavaMailSender mail = mock(JavaMailSender.class);
+        EmailSender sender = new EmailSender(mail, props(true, "from@x", "admin@dbids.local"));
+
+        assertDoesNotThrow(() -> sender.sendToAsync("S", "B", "to@x.local").join());
+        assertDoesNotThrow(() -> sender.sendAsync("S", "B").join());
+        verify(mail, times(2)).send(any(SimpleMailMessage.class));
+
+        doThrow(new RuntimeException("SMTP_FAIL")).when(mail).send(any(SimpleMailMessage.class));
+        CompletionException failed = assertThrows(CompletionException.class, () -> sender.sendToAsync("S", "B", "to@x.local").join());
+        assertEquals("SMTP_FAIL", failed.getCause().getMessage());
+
+        EmailSender noDefault = new EmailSender(mail, props(true, "from@x", null));
+        CompletionException missing = assertThrows(CompletionException.class, () -> noDefault.sendAsync("S", "B").join());
+        assertInstanceOf(IllegalStateException.class, missing.getCause());
+    }
 }
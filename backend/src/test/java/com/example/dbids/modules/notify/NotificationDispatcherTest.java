@@ -0,0 +1,137 @@
+package com.example.dbids.modules.notify;
+
+import com.example.dbids.sqlite.model.NotificationLog;
+import com.example.dbids.sqlite.model.NotificationOutbox;
+import com.example.dbids.sqlite.repository.NotificationOutboxRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 아웃박스 채널 워커 단위 테스트 (재시도/백오프/회로 차단)
+ */
+@ExtendWith(MockitoExtension.class)
+class NotificationDispatcherTest {
+
+    @Mock NotificationService service;
+    @Mock NotificationOutboxRepository outboxRepo;
+
+    private static final NotificationLog.Channel SLACK = NotificationLog.Channel.SLACK;
+
+    private NotificationDispatcher dispatcher(int maxAttempts, int breakerFailures) {
+        NotifierProperties p = new NotifierProperties();
+        p.getOutbox().setWorkersEnabled(false);
+        p.getOutbox().setMaxAttempts(maxAttempts);
+        p.getOutbox().setBaseBackoffMs(1000);
+        p.getOutbox().setMaxBackoffMs(8000);
+        p.getOutbox().setBreakerFailureThreshold(breakerFailures);
+        p.getOutbox().setBreakerOpenMs(30_000);
+        return new NotificationDispatcher(service, outboxRepo, p);
+    }
+
+    private static List<NotificationOutbox> jobs(int n, int attempts) {
+        List<NotificationOutbox> out = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            NotificationOutbox j = new NotificationOutbox(UUID.randomUUID().toString(), "ev-" + i, SLACK,
+                    null, null, "text", 0L, "2025-01-01T00:00:00Z");
+            j.setAttempts(attempts);
+            out.add(j);
+        }
+        return out;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<NotificationService.Outcome> recorded() {
+        ArgumentCaptor<List<NotificationService.Outcome>> cap = ArgumentCaptor.forClass(List.class);
+        verify(service).recordOutcomes(cap.capture());
+        return cap.getValue();
+    }
+
+    @Test
+    @DisplayName("UT-NT-01: 실패 → 지수 백오프로 재예약, 최대 시도 도달 시 재시도 없음(FAILED 확정)")
+    void failure_backoffThenGiveUp() {
+        NotificationDispatcher d = dispatcher(3, 100);
+        List<NotificationOutbox> due = jobs(1, 0);
+        due.addAll(jobs(1, 2));                              // 이번이 3번째 시도
+        when(outboxRepo.findDue(eq(SLACK), eq(1_000L), any())).thenReturn(due);
+        when(service.deliverAsync(any())).thenReturn(CompletableFuture.failedFuture(new RuntimeException("SLACK_WEBHOOK_HTTP_503")));
+
+        assertEquals(2, d.drain(SLACK, 1_000L));
+
+        List<NotificationService.Outcome> out = recorded();
+        assertTrue(out.get(0).retryAt() >= 1_000L + 500 && out.get(0).retryAt() <= 1_000L + 1000);
+        assertEquals(-1, out.get(1).retryAt());
+        for (int a = 1; a <= 10; a++) {
+            long b = d.backoffMs(a);
+            assertTrue(b <= 8000 && b >= Math.min(8000, 1000L << (a - 1)) / 2);
+        }
+    }
+
+    @Test
+    @DisplayName("UT-NT-02: 연속 실패로 회로 열림 → 뒤이은 실패는 시도 횟수 없이 미루고, 열린 동안 채널 발송 중단 후 시험 1건으로 복구")
+    void breakerOpensAndRecovers() {
+        NotificationDispatcher d = dispatcher(10, 2);
+        when(outboxRepo.findDue(eq(SLACK), anyLong(), any())).thenAnswer(inv -> jobs(Math.min(5, inv.<Pageable>getArgument(2).getPageSize()), 0));
+        when(service.deliverAsync(any())).thenReturn(CompletableFuture.failedFuture(new RuntimeException("timeout")));
+
+        assertEquals(5, d.drain(SLACK, 0L));                 // 배치 5건을 한꺼번에 발송 → 2건 실패에서 차단
+        verify(service, times(5)).deliverAsync(any());
+        assertEquals(CircuitBreaker.State.OPEN, d.breakerState(SLACK));
+        List<NotificationService.Outcome> out = recorded();
+        assertEquals(List.of(1, 1, 0, 0, 0), out.stream().map(NotificationService.Outcome::attempt).toList());
+        assertEquals(30_000L, out.get(4).retryAt());
+
+        assertEquals(0, d.drain(SLACK, 10_000L));            // 열린 동안은 조회도 안 함
+        verify(outboxRepo, times(1)).findDue(any(), anyLong(), any());
+
+        reset(service);
+        when(service.deliverAsync(any())).thenReturn(CompletableFuture.completedFuture(null));
+        assertEquals(1, d.drain(SLACK, 31_000L));            // HALF_OPEN: 시험 1건만 → 성공 시 CLOSED
+        verify(outboxRepo).findDue(SLACK, 31_000L, PageRequest.of(0, 1));
+        assertEquals(CircuitBreaker.State.CLOSED, d.breakerState(SLACK));
+        assertEquals(5, d.drain(SLACK, 31_001L));
+    }
+
+    @Test
+    @DisplayName("UT-NT-03: 배치는 한꺼번에 발송 시작 → 앞 건이 끝나기 전에 뒤 건도 나가고, 건별 결과가 그대로 기록됨")
+    void batchIsSubmittedBeforeAwaiting() {
+        NotificationDispatcher d = dispatcher(3, 100);
+        List<NotificationOutbox> due = jobs(3, 0);
+        when(outboxRepo.findDue(eq(SLACK), eq(1_000L), any())).thenReturn(due);
+        CompletableFuture<Void> first = new CompletableFuture<>();
+        List<NotificationOutbox> started = new ArrayList<>();
+        when(service.deliverAsync(any())).thenAnswer(inv -> {
+            NotificationOutbox job = inv.getArgument(0);
+            started.add(job);
+            if (job == due.get(0)) return first;
+            if (job == due.get(1)) return CompletableFuture.failedFuture(new RuntimeException("SLACK_WEBHOOK_HTTP_500"));
+            // 마지막 건을 띄울 때까지 첫 건은 아직 진행 중 → 여기서 끝내 줌
+            assertFalse(first.isDone());
+            first.complete(null);
+            return CompletableFuture.completedFuture(null);
+        });
+
+        assertEquals(3, d.drain(SLACK, 1_000L));
+
+        assertEquals(due, started);
+        List<NotificationService.Outcome> out = recorded();
+        assertNull(out.get(0).error());
+        assertEquals("SLACK_WEBHOOK_HTTP_500", out.get(1).error().getMessage());
+        assertTrue(out.get(1).retryAt() > 1_000L);
+        assertNull(out.get(2).error());
+    }
+}
@@ -2,29 +2,36 @@ package com.example.dbids.modules.notify;
 
 import com.example.dbids.modules.auth.CurrentAdminEmailResolver;
 import com.example.dbids.sqlite.model.DetectionEvent;
+import com.example.dbids.sqlite.model.NotificationDigestMember;
 import com.example.dbids.sqlite.model.NotificationLog;
+import com.example.dbids.sqlite.model.NotificationOutbox;
 import com.example.dbids.sqlite.model.QueryLog;
+import com.example.dbids.sqlite.repository.NotificationDigestMemberRepository;
 import com.example.dbids.sqlite.repository.NotificationLogRepository;
+import com.example.dbids.sqlite.repository.NotificationOutboxRepository;
 import com.example.dbids.sqlite.repository.QueryLogRepository;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 /**
  * STP FR-5 Notification 단위 테스트
- * - UT-09: Slack/Email 실시간 알림
+ * - UT-09: Slack/Email 알림 (onEvent 는 아웃박스 적재만, 발송은 워커가 deliverAsync 로)
  * - UT-10: 성공 시 NotificationLog(Status=SENT) 저장
- * 추가: 실패 시 FAILED 기록도 커버
+ * 추가: 실패 시 재시도 예약 / 재시도 소진 FAILED 기록, 반복 알림 묶음(digest)도 커버
  */
 @ExtendWith(MockitoExtension.class)
 class NotificationServiceTest {
@@ -37,8 +44,23 @@ class NotificationServiceTest {
     CurrentAdminEmailResolver currentAdmin;
     @Mock QueryLogRepository logRepo;
     @Mock NotificationLogRepository notifRepo;
+    @Mock NotificationOutboxRepository outboxRepo;
+    @Mock NotificationDigestMemberRepository memberRepo;
+    @Mock ApplicationEventPublisher events;
 
     @Captor ArgumentCaptor<NotificationLog> notifCaptor;
+    @Captor ArgumentCaptor<NotificationOutbox> outboxCaptor;
+
+    private NotificationService svc(NotifierProperties props) {
+        return new NotificationService(
+                emailSender, slackSender, mailFmt, slackFmt, currentAdmin, logRepo, notifRepo, outboxRepo, memberRepo, events, props
+        );
+    }
+
+    private static NotificationOutbox job(NotificationLog.Channel ch, String eventId, String recipient, String body) {
+        return new NotificationOutbox(UUID.randomUUID().toString(), eventId, ch, recipient,
+                ch == NotificationLog.Channel.EMAIL ? "SUBJ" : null, body, 0L, Instant.now().toString());
+    }
 
     // ---------- 공통 헬퍼 ----------
     private static QueryLog sampleLog(String logId) {
@@ -120,12 +142,9 @@ class NotificationServiceTest {
 
     // =============== TC 1: 이메일 전용 ===============
     @Test
-    @DisplayName("UT-10-A: Email ON, Slack OFF → EMAIL/SENT 로그 1건 저장")
-    void email_only_savesEmailSent() {
-        var props = emailOnlyProps();
-        var svc = new NotificationService(
-                emailSender, slackSender, mailFmt, slackFmt, currentAdmin, logRepo, notifRepo, props
-        );
+    @DisplayName("UT-10-A: Email ON, Slack OFF → EMAIL 아웃박스 1건 적재(발송 없음), 워커 발송 시 EMAIL/SENT 저장")
+    void email_only_enqueuesThenSavesEmailSent() {
+        var svc = svc(emailOnlyProps());
 
         String logId = UUID.randomUUID().toString();
         String eventId = UUID.randomUUID().toString();
@@ -136,13 +155,26 @@ class NotificationServiceTest {
 
         var ev = sampleEvent(eventId, logId, DetectionEvent.Severity.MEDIUM);
 
-        // when
+        // when: 탐지 트랜잭션 안에서는 적재만
         svc.onEvent(ev);
 
-        // then
-        verify(emailSender, times(1)).send(anyString(), anyString());
-        verify(emailSender, never()).sendTo(anyString(), anyString(), anyString());
-        verify(slackSender, never()).send(anyString()); // 꺼져 있으므로 호출 X
+        verify(outboxRepo, times(1)).save(outboxCaptor.capture());
+        NotificationOutbox queued = outboxCaptor.getValue();
+        assertEquals(NotificationLog.Channel.EMAIL, queued.getChannel());
+        assertEquals(NotificationOutbox.Status.PENDING, queued.getStatus());
+        assertEquals(eventId, queued.getEventId());
+        assertNull(queued.getRecipient());
+        verify(events).publishEvent(any(NotificationEnqueued.class));
+        verifyNoInteractions(emailSender, slackSender, notifRepo);
+
+        // 워커: 발송 + 결과 기록
+        when(emailSender.sendAsync(anyString(), anyString())).thenReturn(CompletableFuture.completedFuture(null));
+        svc.deliverAsync(queued).join();
+        svc.recordOutcomes(List.of(NotificationService.Outcome.sent(queued)));
+
+        verify(emailSender, times(1)).sendAsync(anyString(), anyString());
+        verify(emailSender, never()).sendToAsync(anyString(), anyString(), anyString());
+        verify(slackSender, never()).sendAsync(anyString()); // 꺼져 있으므로 호출 X
 
         verify(notifRepo, times(1)).save(notifCaptor.capture());
         NotificationLog saved = notifCaptor.getValue();
@@ -150,16 +182,15 @@ class NotificationServiceTest {
         assertEquals(NotificationLog.Status.SENT, saved.getStatus());
         assertEquals(eventId, saved.getEventId());
         assertNotNull(saved.getSentAt());
+        assertEquals(NotificationOutbox.Status.SENT, queued.getStatus());
+        assertEquals(1, queued.getAttempts());
     }
 
     // =============== TC 2: 슬랙 전용 ===============
     @Test
-    @DisplayName("UT-09-A: Slack ON, Email OFF → SLACK/SENT 로그 1건 저장")
-    void slack_only_savesSlackSent() {
-        var props = slackOnlyProps();
-        var svc = new NotificationService(
-                emailSender, slackSender, mailFmt, slackFmt, currentAdmin, logRepo, notifRepo, props
-        );
+    @DisplayName("UT-09-A: Slack ON, Email OFF → SLACK 아웃박스 적재, 워커 발송 시 SLACK/SENT 저장")
+    void slack_only_enqueuesThenSavesSlackSent() {
+        var svc = svc(slackOnlyProps());
 
         String logId = UUID.randomUUID().toString();
         String eventId = UUID.randomUUID().toString();
@@ -168,13 +199,21 @@ class NotificationServiceTest {
 
         var ev = sampleEvent(eventId, logId, DetectionEvent.Severity.HIGH);
 
-        // when
         svc.onEvent(ev);
 
-        // then
-        verify(slackSender, times(1)).send(anyString());
-        verify(emailSender, never()).send(anyString(), anyString());
-        verify(emailSender, never()).sendTo(anyString(), anyString(), anyString());
+        verify(outboxRepo, times(1)).save(outboxCaptor.capture());
+        NotificationOutbox queued = outboxCaptor.getValue();
+        assertEquals(NotificationLog.Channel.SLACK, queued.getChannel());
+        assertEquals("*DB-IDS* alert", queued.getBody());
+        verifyNoInteractions(slackSender);
+
+        when(slackSender.sendAsync("*DB-IDS* alert")).thenReturn(CompletableFuture.completedFuture(null));
+        svc.deliverAsync(queued).join();
+        svc.recordOutcomes(List.of(NotificationService.Outcome.sent(queued)));
+
+        verify(slackSender, times(1)).sendAsync("*DB-IDS* alert");
+        verify(emailSender, never()).sendAsync(anyString(), anyString());
+        verify(emailSender, never()).sendToAsync(anyString(), anyString(), anyString());
 
         verify(notifRepo, times(1)).save(notifCaptor.capture());
         NotificationLog saved = notifCaptor.getValue();
@@ -184,77 +223,78 @@ class NotificationServiceTest {
         assertNotNull(saved.getSentAt());
     }
 
-    // =============== TC 3: 둘 다 ON (순서 무관, 둘 다 기록) ===============
+    // =============== TC 3: 둘 다 ON ===============
     @Test
-    @DisplayName("UT-09-B/UT-10-B: Email+Slack ON → EMAIL/SENT + SLACK/SENT 각 1건씩 저장")
-    void both_on_savesBothChannels() {
-        var props = bothOnProps();
-        var svc = new NotificationService(
-                emailSender, slackSender, mailFmt, slackFmt, currentAdmin, logRepo, notifRepo, props
-        );
+    @DisplayName("UT-09-B/UT-10-B: Email+Slack ON → 채널별 아웃박스 1건씩, 수신자는 적재 시점에 결정")
+    void both_on_enqueuesBothChannels() {
+        var svc = svc(bothOnProps());
 
         String logId = UUID.randomUUID().toString();
         String eventId = UUID.randomUUID().toString();
         when(logRepo.findById(logId)).thenReturn(Optional.of(sampleLog(logId)));
-        when(currentAdmin.resolveNotifyEmailOrNull()).thenReturn(null); // default toDefault 경로 사용
+        when(currentAdmin.resolveNotifyEmailOrNull()).thenReturn("owner@dbids.local");
         when(mailFmt.emailSubject(any(), any())).thenReturn("[DB-IDS] [HIGH] Type=PATTERN User=tester");
         when(mailFmt.emailBody(any(), any())).thenReturn("body");
         when(slackFmt.text(any(), any())).thenReturn("*DB-IDS* alert");
 
         var ev = sampleEvent(eventId, logId, DetectionEvent.Severity.HIGH);
 
-        // when
         svc.onEvent(ev);
 
-        // then: 발송 호출
-        verify(emailSender, times(1)).send(anyString(), anyString());
-        verify(slackSender, times(1)).send(anyString());
-
-        // 로그는 2건 저장 (순서는 구현에 따라 EMAIL → SLACK 이지만, 순서 단언은 하지 않음)
-        verify(notifRepo, times(2)).save(notifCaptor.capture());
-        List<NotificationLog> logs = notifCaptor.getAllValues();
-
-        boolean hasEmailSent = logs.stream().anyMatch(l ->
-                l.getChannel() == NotificationLog.Channel.EMAIL &&
-                        l.getStatus() == NotificationLog.Status.SENT &&
-                        eventId.equals(l.getEventId())
-        );
-        boolean hasSlackSent = logs.stream().anyMatch(l ->
-                l.getChannel() == NotificationLog.Channel.SLACK &&
-                        l.getStatus() == NotificationLog.Status.SENT &&
-                        eventId.equals(l.getEventId())
-        );
-
-        assertTrue(hasEmailSent, "EMAIL/SENT 로그가 1건 이상 있어야 함");
-        assertTrue(hasSlackSent, "SLACK/SENT 로그가 1건 이상 있어야 함");
+        verify(outboxRepo, times(2)).save(outboxCaptor.capture());
+        List<NotificationOutbox> rows = outboxCaptor.getAllValues();
+        assertTrue(rows.stream().anyMatch(r -> r.getChannel() == NotificationLog.Channel.EMAIL
+                && "owner@dbids.local".equals(r.getRecipient()) && eventId.equals(r.getEventId())));
+        assertTrue(rows.stream().anyMatch(r -> r.getChannel() == NotificationLog.Channel.SLACK
+                && eventId.equals(r.getEventId())));
+
+        // 워커(요청 컨텍스트 없음)에서도 적재 시점 수신자로 발송
+        NotificationOutbox email = rows.stream().filter(r -> r.getChannel() == NotificationLog.Channel.EMAIL).findFirst().orElseThrow();
+        when(emailSender.sendToAsync(anyString(), anyString(), anyString())).thenReturn(CompletableFuture.completedFuture(null));
+        svc.deliverAsync(email).join();
+        verify(emailSender, times(1)).sendToAsync(anyString(), eq("body"), eq("owner@dbids.local"));
     }
 
-    // =============== TC 4: 이메일 실패 → EMAIL/FAILED 저장 (슬랙 OFF로 단순화) ===============
     @Test
-    @DisplayName("UT-10-C: Email 전송 실패 → EMAIL/FAILED 로그 저장 (예외 삼키고 계속 진행)")
-    void email_failure_logsFailed() {
-        var props = emailOnlyProps();
-        var svc = new NotificationService(
-                emailSender, slackSender, mailFmt, slackFmt, currentAdmin, logRepo, notifRepo, props
-        );
+    @DisplayName("UT-09-C: 로그/수신자를 넘겨받는 적재(수집 워커 경로) → 넘겨받은 관리자 수신자로 적재, 요청 컨텍스트/로그 재조회 없음")
+    void onEvent_withRecipient_routesPerAdmin() {
+        var svc = svc(emailOnlyProps());
+        when(mailFmt.emailSubject(any(), any())).thenReturn("subj");
+        when(mailFmt.emailBody(any(), any())).thenReturn("body");
 
         String logId = UUID.randomUUID().toString();
+        QueryLog log = sampleLog(logId);
+        svc.onEvent(sampleEvent(UUID.randomUUID().toString(), logId, DetectionEvent.Severity.HIGH), "R1", log, "alice@dbids.local");
+        svc.onEvent(sampleEvent(UUID.randomUUID().toString(), logId, DetectionEvent.Severity.HIGH), "R2", log, "bob@dbids.local");
+        svc.onEvent(sampleEvent(UUID.randomUUID().toString(), logId, DetectionEvent.Severity.HIGH), "R3", log, null);
+
+        verify(outboxRepo, times(3)).save(outboxCaptor.capture());
+        List<String> to = outboxCaptor.getAllValues().stream().map(NotificationOutbox::getRecipient).toList();
+        assertEquals(java.util.Arrays.asList("alice@dbids.local", "bob@dbids.local", null), to);   // null → to-default
+        verifyNoInteractions(currentAdmin, logRepo);
+    }
+
+    // =============== TC 4: 이메일 실패 → 재시도 예약, 소진 시 EMAIL/FAILED ===============
+    @Test
+    @DisplayName("UT-10-C: Email 전송 실패 → 예외 전파, 재시도 가능하면 예약만 / 소진되면 EMAIL/FAILED 저장")
+    void email_failure_retriesThenLogsFailed() {
+        var svc = svc(emailOnlyProps());
         String eventId = UUID.randomUUID().toString();
-        when(logRepo.findById(logId)).thenReturn(Optional.of(sampleLog(logId)));
-        when(mailFmt.emailSubject(any(), any())).thenReturn("[DB-IDS] [MEDIUM] Type=PATTERN User=tester");
-        when(mailFmt.emailBody(any(), any())).thenReturn("body");
-        when(currentAdmin.resolveNotifyEmailOrNull()).thenReturn("owner@dbids.local"); // sendTo 경로로 보냄
+        NotificationOutbox job = job(NotificationLog.Channel.EMAIL, eventId, "owner@dbids.local", "body");
 
-        // EmailSender에서 예외 발생
-        doThrow(new RuntimeException("SMTP_FAIL")).when(emailSender)
-                .sendTo(anyString(), anyString(), anyString());
+        when(emailSender.sendToAsync(anyString(), anyString(), anyString()))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("SMTP_FAIL")));
+        Exception err = (Exception) assertThrows(CompletionException.class, () -> svc.deliverAsync(job).join()).getCause();
 
-        var ev = sampleEvent(eventId, logId, DetectionEvent.Severity.MEDIUM);
+        // 1차 실패: 재시도 예약 → notification_log 없음
+        svc.recordOutcomes(List.of(NotificationService.Outcome.retry(job, err, 12_345L)));
+        verify(notifRepo, never()).save(any());
+        assertEquals(NotificationOutbox.Status.PENDING, job.getStatus());
+        assertEquals(12_345L, job.getNextAttemptAt());
+        assertEquals("SMTP_FAIL", job.getLastError());
 
-        // when
-        svc.onEvent(ev);
-
-        // then: 실패 시 FAILED 로그 남김
+        // 재시도 소진: FAILED 확정
+        svc.recordOutcomes(List.of(NotificationService.Outcome.failed(job, err)));
         verify(notifRepo, times(1)).save(notifCaptor.capture());
         NotificationLog saved = notifCaptor.getValue();
         assertEquals(NotificationLog.Channel.EMAIL, saved.getChannel());
@@ -262,31 +302,24 @@ class NotificationServiceTest {
         assertEquals(eventId, saved.getEventId());
         assertNotNull(saved.getErrorCode());
         assertNotNull(saved.getErrorMessage());
+        assertEquals(NotificationOutbox.Status.FAILED, job.getStatus());
+        assertEquals(2, job.getAttempts());
     }
 
-    // =============== TC 5: 슬랙 실패 → SLACK/FAILED 저장 (이메일 OFF로 단순화) ===============
+    // =============== TC 5: 슬랙 실패 → SLACK/FAILED 저장 ===============
     @Test
-    @DisplayName("UT-10-D: Slack 전송 실패 → SLACK/FAILED 로그 저장 (예외 삼키고 계속 진행)")
+    @DisplayName("UT-10-D: Slack 전송 실패(재시도 소진) → SLACK/FAILED 로그 저장")
     void slack_failure_logsFailed() {
-        var props = slackOnlyProps();
-        var svc = new NotificationService(
-                emailSender, slackSender, mailFmt, slackFmt, currentAdmin, logRepo, notifRepo, props
-        );
-
-        String logId = UUID.randomUUID().toString();
+        var svc = svc(slackOnlyProps());
         String eventId = UUID.randomUUID().toString();
-        when(logRepo.findById(logId)).thenReturn(Optional.of(sampleLog(logId)));
-        when(slackFmt.text(any(), any())).thenReturn("*DB-IDS* alert");
+        NotificationOutbox job = job(NotificationLog.Channel.SLACK, eventId, null, "*DB-IDS* alert");
 
-        // SlackSender에서 예외 발생
-        doThrow(new RuntimeException("SLACK_WEBHOOK_HTTP_500")).when(slackSender).send(anyString());
+        when(slackSender.sendAsync(anyString()))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("SLACK_WEBHOOK_HTTP_500")));
+        Exception err = (Exception) assertThrows(CompletionException.class, () -> svc.deliverAsync(job).join()).getCause();
 
-        var ev = sampleEvent(eventId, logId, DetectionEvent.Severity.HIGH);
+        svc.recordOutcomes(List.of(NotificationService.Outcome.failed(job, err)));
 
-        // when
-        svc.onEvent(ev);
-
-        // then: FAILED 저장
         verify(notifRepo, times(1)).save(notifCaptor.capture());
         NotificationLog saved = notifCaptor.getValue();
         assertEquals(NotificationLog.Channel.SLACK, saved.getChannel());
@@ -295,4 +328,89 @@ class NotificationServiceTest {
         assertNotNull(saved.getErrorCode());
         assertNotNull(saved.getErrorMessage());
     }
+
+    // =============== TC 6: 반복 알림 묶음 ===============
+    @Test
+    @DisplayName("UT-09-C: 같은 규칙/사용자 반복 → 첫 알림 즉시, 창 안 후속은 대기 행 1건으로 묶이고 이벤트마다 NotificationLog(digest_id) 저장")
+    void repeated_alerts_coalesceIntoDigest() {
+        var props = slackOnlyProps();
+        props.getDigest().setWindowSeconds(60);
+        var svc = svc(props);
+
+        String logId = UUID.randomUUID().toString();
+        when(logRepo.findById(logId)).thenReturn(Optional.of(sampleLog(logId)));
+        when(slackFmt.text(any(), any())).thenReturn("*DB-IDS* alert");
+        when(slackFmt.digestText(any(), any(), any())).thenAnswer(inv -> ((AlertDigest) inv.getArgument(0)).headline());
+        String key = "PATTERN|MEDIUM|tester|PATTERN_OR_1_EQ_1";
+
+        // 1) 첫 알림: 같은 키 이력 없음 → 즉시 발송 행
+        long t0 = System.currentTimeMillis();
+        var e1 = sampleEvent(UUID.randomUUID().toString(), logId, DetectionEvent.Severity.MEDIUM);
+        svc.onEvent(e1, "PATTERN_OR_1_EQ_1");
+        verify(outboxRepo).save(outboxCaptor.capture());
+        NotificationOutbox first = outboxCaptor.getValue();
+        assertEquals(key, first.getDigestKey());
+        assertTrue(first.getNextAttemptAt() <= System.currentTimeMillis());
+        first.setStatus(NotificationOutbox.Status.SENT);       // 워커가 발송 완료
+
+        // 2) 창 안 두 번째: 창 끝(첫 예약 + 60s)으로 미룬 행, 워커는 깨우지 않음
+        when(outboxRepo.findFirstByChannelAndDigestKeyOrderByScheduledAtDesc(NotificationLog.Channel.SLACK, key))
+                .thenReturn(Optional.of(first));
+        var e2 = sampleEvent(UUID.randomUUID().toString(), logId, DetectionEvent.Severity.MEDIUM);
+        svc.onEvent(e2, "PATTERN_OR_1_EQ_1");
+        verify(outboxRepo, times(2)).save(outboxCaptor.capture());
+        NotificationOutbox held = outboxCaptor.getValue();
+        assertNotSame(first, held);
+        assertEquals(first.getScheduledAt() + 60_000L, held.getNextAttemptAt());
+        assertTrue(held.getNextAttemptAt() >= t0 + 60_000L);
+        verify(events, times(1)).publishEvent(any(NotificationEnqueued.class));
+
+        // 3) 세 번째: 대기 행에 합쳐짐(새 행 없음, 본문은 묶음 헤드라인)
+        when(outboxRepo.findFirstByChannelAndDigestKeyOrderByScheduledAtDesc(NotificationLog.Channel.SLACK, key))
+                .thenReturn(Optional.of(held));
+        var e3 = sampleEvent(UUID.randomUUID().toString(), logId, DetectionEvent.Severity.MEDIUM);
+        svc.onEvent(e3, "PATTERN_OR_1_EQ_1");
+        verify(outboxRepo, times(3)).save(outboxCaptor.capture());
+        assertSame(held, outboxCaptor.getValue());
+        assertEquals(2, held.getEventCount());
+        assertEquals("2 x PATTERN_OR_1_EQ_1 from user tester in 60s", held.getBody());
+        ArgumentCaptor<NotificationDigestMember> member = ArgumentCaptor.forClass(NotificationDigestMember.class);
+        verify(memberRepo).save(member.capture());
+        assertEquals(held.getId(), member.getValue().getOutboxId());
+        assertEquals(e3.getId(), member.getValue().getEventId());
+
+        // 4) 창 끝 발송 → 묶인 이벤트마다 SENT 로그, digest_id 로 연결
+        when(memberRepo.findEventIds(held.getId())).thenReturn(List.of(e3.getId()));
+        svc.recordOutcomes(List.of(NotificationService.Outcome.sent(held)));
+        verify(notifRepo, times(2)).save(notifCaptor.capture());
+        List<NotificationLog> logs = notifCaptor.getAllValues();
+        assertEquals(List.of(e2.getId(), e3.getId()), logs.stream().map(NotificationLog::getEventId).toList());
+        assertTrue(logs.stream().allMatch(l -> held.getId().equals(l.getDigestId())
+                && l.getStatus() == NotificationLog.Status.SENT));
+    }
+
+    @Test
+    @DisplayName("UT-09-D: 묶음 OFF → 반복 알림도 건별 즉시 적재, AuthZ 규칙은 스냅샷 RULE= 에서 추출")
+    void digest_disabled_enqueuesEachAlert() {
+        var props = slackOnlyProps();
+        props.getDigest().setEnabled(false);
+        var svc = svc(props);
+
+        String logId = UUID.randomUUID().toString();
+        when(logRepo.findById(logId)).thenReturn(Optional.of(sampleLog(logId)));
+        when(slackFmt.text(any(), any())).thenReturn("*DB-IDS* alert");
+
+        for (int i = 0; i < 3; i++) svc.onEvent(sampleEvent(UUID.randomUUID().toString(), logId, DetectionEvent.Severity.LOW));
+        verify(outboxRepo, times(3)).save(outboxCaptor.capture());
+        assertTrue(outboxCaptor.getAllValues().stream().allMatch(o -> o.getDigestKey() == null));
+        verify(outboxRepo, never()).findFirstByChannelAndDigestKeyOrderByScheduledAtDesc(any(), any());
+
+        // 묶음 ON 일 때 AuthZ 이벤트 키
+        props.getDigest().setEnabled(true);
+        var authz = new DetectionEvent(UUID.randomUUID().toString(), logId, DetectionEvent.Type.AUTHZ,
+                DetectionEvent.Severity.HIGH, Instant.now().toString(), "DENY role=READ_ONLY RULE=DELETE:* SQL=DELETE FROM t");
+        svc.onEvent(authz);
+        verify(outboxRepo, times(4)).save(outboxCaptor.capture());
+        assertEquals("AUTHZ|HIGH|tester|DELETE:*", outboxCaptor.getValue().getDigestKey());
+    }
 }
@@ -0,0 +1,131 @@
+package com.example.dbids.modules.notify;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.stubbing.Scenario;
+import com.github.tomakehurst.wiremock.stubbing.StubMapping;
+import com.github.tomakehurst.wiremock.verification.LoggedRequest;
+import org.junit.jupiter.api.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * SlackSender 비동기 발송: infra/wiremock 매핑(slack-success / slack-fail)과 429 시나리오로 검증
+ */
+class SlackSenderAsyncTest {
+
+    private static final Path MAPPINGS = Path.of("..", "infra", "wiremock", "mappings");
+
+    private WireMockServer wm;
+    private SlackSender sender;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        assumeTrue(Files.isDirectory(MAPPINGS), "infra/wiremock/mappings 필요");
+        wm = new WireMockServer(options().dynamicPort());
+        wm.start();
+        // 파일 루트로 띄우면 매핑 삭제가 원본 파일까지 지우므로, 내용만 읽어 메모리 스텁으로 등록
+        try (Stream<Path> files = Files.list(MAPPINGS)) {
+            for (Path f : files.filter(x -> x.toString().endsWith(".json")).toList()) {
+                wm.addStubMapping(StubMapping.buildFrom(Files.readString(f)));
+            }
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (sender != null) sender.stop();
+        if (wm != null) wm.stop();
+    }
+
+    private SlackSender sender(double ratePerSecond, int burst, int batchMax) {
+        NotifierProperties p = new NotifierProperties();
+        NotifierProperties.Slack s = new NotifierProperties.Slack();
+        s.setEnabled(true);
+        s.setWebhookUrl(wm.baseUrl() + "/slack");
+        s.setRatePerSecond(ratePerSecond);
+        s.setBurst(burst);
+        s.setBatchMax(batchMax);
+        p.setSlack(s);
+        sender = new SlackSender(p);
+        return sender;
+    }
+
+    // slack-fail.json(priority 1)을 내리면 slack-success.json 이 응답
+    private void dropFailMapping() {
+        for (StubMapping m : wm.getStubMappings()) {
+            if (m.getResponse().getStatus() == 500) wm.removeStubMapping(m);
+        }
+    }
+
+    @Test
+    @DisplayName("UT-09-E: 매핑 slack-fail(500) → future 실패, slack-success(200) → 성공 + 제어 문자까지 JSON 이스케이프")
+    void infraMappings_failThenSuccess() throws Exception {
+        SlackSender s = sender(100, 10, 1);
+
+        CompletionException ex = assertThrows(CompletionException.class, () -> s.sendAsync("boom").join());
+        assertTrue(ex.getCause().getMessage().contains("SLACK_WEBHOOK_HTTP_500"), ex.getCause().getMessage());
+
+        dropFailMapping();
+        String text = "line1\nline2\t\"quoted\" \\ back \u0001\u001f end";
+        s.sendAsync(text).get(5, TimeUnit.SECONDS);
+
+        List<LoggedRequest> reqs = wm.findAll(postRequestedFor(urlPathEqualTo("/slack")));
+        assertEquals(2, reqs.size());
+        String body = reqs.get(1).getBodyAsString();
+        assertFalse(body.contains("\u0001"), "제어 문자는 \\u 이스케이프되어야 한다");
+        assertEquals(text, new ObjectMapper().readTree(body).get("text").asText());
+    }
+
+    @Test
+    @DisplayName("UT-09-F: 429 + Retry-After → 그 시간만큼 멈춘 뒤 재전송해 성공")
+    void rateLimited_honoursRetryAfter() throws Exception {
+        wm.resetMappings();
+        wm.stubFor(post(urlPathEqualTo("/slack")).inScenario("rl").whenScenarioStateIs(Scenario.STARTED)
+                .willReturn(aResponse().withStatus(429).withHeader("Retry-After", "1").withBody("rate_limited"))
+                .willSetStateTo("open"));
+        wm.stubFor(post(urlPathEqualTo("/slack")).inScenario("rl").whenScenarioStateIs("open")
+                .willReturn(aResponse().withStatus(200).withBody("ok")));
+        SlackSender s = sender(100, 10, 1);
+
+        long t0 = System.nanoTime();
+        s.sendAsync("retry me").get(5, TimeUnit.SECONDS);
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - t0);
+
+        wm.verify(2, postRequestedFor(urlPathEqualTo("/slack")));
+        assertTrue(elapsedMs >= 900, "Retry-After(1s) 전에 재전송하면 안 된다: " + elapsedMs + "ms");
+    }
+
+    @Test
+    @DisplayName("UT-09-G: 호출 스레드는 막히지 않고, 토큰 대기 중 밀린 메시지는 요청 1건으로 합쳐 발송")
+    void nonBlocking_andBatchesBackloggedMessages() throws Exception {
+        dropFailMapping();
+        wm.stubFor(post(urlPathEqualTo("/slack")).atPriority(1)
+                .willReturn(aResponse().withStatus(200).withFixedDelay(300).withBody("ok")));
+        SlackSender s = sender(4, 1, 10);   // 첫 건 즉시, 다음 토큰은 250ms 뒤
+
+        long t0 = System.nanoTime();
+        CompletableFuture<Void> a = s.sendAsync("alert-A");
+        CompletableFuture<Void> b = s.sendAsync("alert-B");
+        CompletableFuture<Void> c = s.sendAsync("alert-C");
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - t0) < 250, "sendAsync 는 즉시 반환해야 한다");
+        assertFalse(a.isDone());
+
+        CompletableFuture.allOf(a, b, c).get(5, TimeUnit.SECONDS);
+        List<LoggedRequest> reqs = wm.findAll(postRequestedFor(urlPathEqualTo("/slack")));
+        assertEquals(2, reqs.size());
+        String merged = new ObjectMapper().readTree(reqs.get(1).getBodyAsString()).get("text").asText();
+        assertTrue(merged.contains("alert-B") && merged.contains("alert-C"));
+    }
+}
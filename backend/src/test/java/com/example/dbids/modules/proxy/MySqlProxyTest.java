@@ -0,0 +1,443 @@
+package com.example.dbids.modules.proxy;
+
+import com.example.dbids.modules.ingest.VerdictService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * MySQL 프록시: 가짜 MySQL 서버(핸드셰이크 → OK, 커맨드마다 OK) + 최소 클라이언트로 왕복 확인
+ */
+class MySqlProxyTest {
+
+    private FakeMySql server;
+    private MySqlProxy proxy;
+    private final List<String> judged = new CopyOnWriteArrayList<>();
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (proxy != null) proxy.stop();
+        if (server != null) server.close();
+    }
+
+    private MySqlProxy start(boolean enforce, int serverCaps) throws IOException {
+        server = new FakeMySql(serverCaps);
+        MySqlProxyProperties p = new MySqlProxyProperties();
+        p.setEnabled(true);
+        p.setListenPort(0);
+        p.setUpstreamPort(server.port());
+        p.setEnforce(enforce);
+
+        // DROP 이 들어간 SQL 만 DENY. 넘겨받은 버퍼 범위를 그대로 해석해 기록
+        // 실제 서비스처럼 비 UTF-8 텍스트는 IllegalArgumentException
+        VerdictService verdicts = mock(VerdictService.class);
+        when(verdicts.check(any(byte[].class), anyInt(), anyInt(), anyString())).thenAnswer(inv -> {
+            byte[] b = inv.getArgument(0);
+            String sql = Utf8Validator.decode(b, inv.getArgument(1), inv.getArgument(2));
+            judged.add(inv.getArgument(3) + ":" + sql);
+            VerdictService.Decision d = sql.contains("DROP") ? VerdictService.Decision.DENY : VerdictService.Decision.ALLOW;
+            return new VerdictService.Verdict(d, "log", true, List.of());
+        });
+        proxy = new MySqlProxy(p, verdicts);
+        proxy.start();
+        return proxy;
+    }
+
+    @Test
+    @DisplayName("UT-PX-01: 감시 모드 → 핸드셰이크/쿼리/응답을 그대로 중계, COM_QUERY 텍스트는 사용자와 함께 판정(DENY 도 전달)")
+    void monitorMode_forwardsAndJudges() throws Exception {
+        start(false, MySqlPackets.CLIENT_PROTOCOL_41);
+        try (Client c = new Client(proxy.port(), "app_rw", 0)) {
+            assertEquals(0x00, c.query("SELECT 1")[0]);
+            assertEquals(0x00, c.query("DROP TABLE orders")[0]);
+            c.quit();
+        }
+
+        assertEquals(List.of("app_rw:SELECT 1", "app_rw:DROP TABLE orders"), judged);
+        assertEquals(List.of("SELECT 1", "DROP TABLE orders"), server.queries);
+        assertEquals(1L, proxy.stats().get("denied"));
+        assertEquals(2L, proxy.stats().get("queries"));
+    }
+
+    @Test
+    @DisplayName("UT-PX-02: 차단 모드 → DENY 쿼리는 MySQL 에 보내지 않고 ERR(1227/42000) 응답, 같은 연결로 다음 쿼리 계속(쿼리 속성 협상 포함)")
+    void enforceMode_answersDeniedWithErr() throws Exception {
+        start(true, MySqlPackets.CLIENT_PROTOCOL_41 | MySqlPackets.CLIENT_QUERY_ATTRIBUTES);
+        try (Client c = new Client(proxy.port(), "mallory", MySqlPackets.CLIENT_QUERY_ATTRIBUTES)) {
+            byte[] err = c.query("DROP TABLE orders");
+            assertEquals(0xFF, err[0] & 0xFF);
+            assertEquals(1227, (err[1] & 0xFF) | (err[2] & 0xFF) << 8);
+            assertEquals("#42000", new String(err, 3, 6, StandardCharsets.US_ASCII));
+            assertEquals(1, c.lastSeq);
+
+            assertEquals(0x00, c.query("SELECT * FROM t")[0]);
+            c.quit();
+        }
+
+        assertEquals(List.of("mallory:DROP TABLE orders", "mallory:SELECT * FROM t"), judged);
+        assertEquals(List.of("SELECT * FROM t"), server.queries);
+    }
+
+    @Test
+    @DisplayName("UT-PX-03: 패킷 해석 → 서버 capability, 사용자명, 쿼리 속성 블록(이름/타입별 값/NULL)을 건너뛴 텍스트 오프셋, 해석 불가면 -1, ERR 레이아웃")
+    void packetHelpers() throws IOException {
+        MySqlPackets.Packet p = new MySqlPackets.Packet();
+        MySqlPackets.read(new java.io.ByteArrayInputStream(frame(0, FakeMySql.handshake(0x0800_0200))), p);
+        assertEquals(0x0800_0200, MySqlPackets.serverCapabilities(p));
+
+        MySqlPackets.read(new java.io.ByteArrayInputStream(frame(1, Client.handshakeResponse("bob", 0))), p);
+        assertEquals("bob", MySqlPackets.handshakeUser(p));
+        assertEquals(MySqlPackets.CLIENT_PROTOCOL_41, MySqlPackets.clientCapabilities(p));
+
+        MySqlPackets.read(new java.io.ByteArrayInputStream(frame(0, new byte[]{3, 0, 1, 'S'})), p);
+        assertEquals(3, MySqlPackets.queryTextOffset(p, true));
+        assertEquals(1, MySqlPackets.queryTextOffset(p, false));
+        // 속성 1개: null 비트맵, bind flag, STRING 타입 + 이름 "tr", 값 lenenc "ab"
+        byte[] one = attributed("S");
+        MySqlPackets.read(new java.io.ByteArrayInputStream(frame(0, one)), p);
+        assertEquals(one.length - 1, MySqlPackets.queryTextOffset(p, true));
+        // 속성 3개: LONGLONG(8바이트), NULL 값(비트맵 비트 1 → 값 없음), DATETIME(길이 1바이트 + 7바이트)
+        byte[] three = {3, 3, 1, 0b010, 1,
+                0x08, (byte) 0x80, 1, 'a',
+                (byte) 0xFE, 0, 1, 'b',
+                0x0C, 0, 1, 'c',
+                1, 2, 3, 4, 5, 6, 7, 8,
+                7, (byte) 0xE9, 7, 1, 2, 3, 4, 5,
+                'S'};
+        MySqlPackets.read(new java.io.ByteArrayInputStream(frame(0, three)), p);
+        assertEquals(three.length - 1, MySqlPackets.queryTextOffset(p, true));
+        // 잘린 값 / 모르는 타입 / bind flag 0 → -1
+        for (byte[] bad : List.of(new byte[]{3, 1, 1, 0, 1, 'S'},
+                                  new byte[]{3, 1, 1, 0, 1, 0x08, 0, 1, 'a', 1, 2},
+                                  new byte[]{3, 1, 1, 0, 1, 0x42, 0, 1, 'a', 'S'},
+                                  new byte[]{3, 1, 1, 0, 0, 'S'})) {
+            MySqlPackets.read(new java.io.ByteArrayInputStream(frame(0, bad)), p);
+            assertEquals(-1, MySqlPackets.queryTextOffset(p, true));
+        }
+
+        byte[] err = MySqlPackets.error(1, 1227, "42000", "no");
+        assertEquals(List.of(11, 0, 0, 1), List.of((int) err[0], (int) err[1], (int) err[2], (int) err[3]));
+    }
+
+    @Test
+    @DisplayName("UT-PX-04: 차단 모드 + 쿼리 속성 값 → 속성 블록을 건너뛴 SQL 로 판정해 DENY, 해석 못 한 속성 블록은 unscreened 로 ERR 거부")
+    void enforceMode_screensQueriesCarryingAttributes() throws Exception {
+        start(true, MySqlPackets.CLIENT_PROTOCOL_41 | MySqlPackets.CLIENT_QUERY_ATTRIBUTES);
+        try (Client c = new Client(proxy.port(), "mallory", MySqlPackets.CLIENT_QUERY_ATTRIBUTES)) {
+            byte[] err = c.send(attributed("DROP TABLE orders"));
+            assertEquals(0xFF, err[0] & 0xFF);
+            assertEquals(1227, (err[1] & 0xFF) | (err[2] & 0xFF) << 8);
+
+            // 모르는 타입(0x42)의 값 → 텍스트 위치를 모름
+            byte[] bad = {MySqlPackets.COM_QUERY, 1, 1, 0, 1, 0x42, 0, 1, 'a', 'D', 'R', 'O', 'P'};
+            assertEquals(0xFF, c.send(bad)[0] & 0xFF);
+
+            assertEquals(0x00, c.send(attributed("SELECT 1"))[0]);
+            c.quit();
+        }
+
+        assertEquals(List.of("mallory:DROP TABLE orders", "mallory:SELECT 1"), judged);
+        assertEquals(List.of("SELECT 1"), server.queries);
+        assertEquals(1L, proxy.stats().get("denied"));
+        assertEquals(1L, proxy.stats().get("unscreened"));
+    }
+
+    @Test
+    @DisplayName("UT-PX-05: 감시 모드 → 해석 못 한 속성 블록은 판정 없이 전달하고 unscreened 로 집계")
+    void monitorMode_forwardsUnscreenedQueries() throws Exception {
+        start(false, MySqlPackets.CLIENT_PROTOCOL_41 | MySqlPackets.CLIENT_QUERY_ATTRIBUTES);
+        try (Client c = new Client(proxy.port(), "app_rw", MySqlPackets.CLIENT_QUERY_ATTRIBUTES)) {
+            assertEquals(0x00, c.send(new byte[]{MySqlPackets.COM_QUERY, 1, 1, 0, 0, 'S'})[0]);   // bind flag 0
+            c.quit();
+        }
+
+        assertEquals(List.of(), judged);
+        assertEquals(1, server.packets.size());
+        assertEquals(1L, proxy.stats().get("unscreened"));
+        assertEquals(0L, proxy.stats().get("queries"));
+    }
+
+    @Test
+    @DisplayName("UT-PX-06: 서버 핸드셰이크의 TLS/압축 광고를 지워 평문으로 협상, 그래도 SSLRequest 를 보내면 차단 모드는 ERR 로 거부(서버에 전달 안 함)")
+    void hidesTlsAndRefusesOpaqueSessionsWhenEnforcing() throws Exception {
+        start(true, MySqlPackets.CLIENT_PROTOCOL_41 | MySqlPackets.CLIENT_SSL | MySqlPackets.CLIENT_COMPRESS);
+        try (Socket s = new Socket()) {
+            s.connect(new InetSocketAddress("127.0.0.1", proxy.port()), 2_000);
+            s.setSoTimeout(5_000);
+            int[] seq = new int[1];
+            byte[] greeting = readPacket(s.getInputStream(), seq);
+            MySqlPackets.Packet g = new MySqlPackets.Packet();
+            MySqlPackets.read(new java.io.ByteArrayInputStream(frame(0, greeting)), g);
+            assertEquals(MySqlPackets.CLIENT_PROTOCOL_41, MySqlPackets.serverCapabilities(g));
+
+            byte[] sslRequest = java.util.Arrays.copyOf(Client.handshakeResponse("x", MySqlPackets.CLIENT_SSL),
+                    MySqlPackets.SSL_REQUEST_LEN);
+            s.getOutputStream().write(frame(1, sslRequest));
+            byte[] err = readPacket(s.getInputStream(), seq);
+            assertEquals(0xFF, err[0] & 0xFF);
+            assertEquals(2, seq[0]);
+        }
+
+        assertEquals(1L, proxy.stats().get("opaque"));
+        assertEquals(List.of(), server.responses);
+    }
+
+    @Test
+    @DisplayName("UT-PX-07: 판정 예외(비 UTF-8 바이트) → 차단 모드는 ERR 로 거부하고 unscreened 집계, 감시 모드는 그대로 전달")
+    void verdictFailure_refusedOnlyWhenEnforcing() throws Exception {
+        byte[] latin1 = {MySqlPackets.COM_QUERY, 'D', 'R', 'O', 'P', ' ', 'T', 'A', 'B', 'L', 'E', ' ', 'u', ' ', '-', '-', ' ', (byte) 0xFF};
+
+        start(true, MySqlPackets.CLIENT_PROTOCOL_41);
+        try (Client c = new Client(proxy.port(), "mallory", 0)) {
+            assertEquals(0xFF, c.send(latin1)[0] & 0xFF);
+            assertEquals(0x00, c.query("SELECT 1")[0]);
+            c.quit();
+        }
+        assertEquals(List.of("SELECT 1"), server.queries);
+        assertEquals(1L, proxy.stats().get("unscreened"));
+
+        proxy.stop();
+        server.close();
+        start(false, MySqlPackets.CLIENT_PROTOCOL_41);
+        try (Client c = new Client(proxy.port(), "app_rw", 0)) {
+            assertEquals(0x00, c.send(latin1)[0]);
+            c.quit();
+        }
+        assertEquals(1, server.packets.size());
+        assertEquals(1L, proxy.stats().get("unscreened"));
+    }
+
+    @Test
+    @DisplayName("UT-PX-08: 16MiB 이상 COM_QUERY → 이어지는 패킷까지 합쳐 판정(뒤에 숨긴 DROP 도 DENY, ERR 시퀀스는 마지막 조각 + 1), 허용 쿼리는 조각 그대로 전달")
+    void largeQuery_reassembledBeforeVerdict() throws Exception {
+        start(true, MySqlPackets.CLIENT_PROTOCOL_41);
+        byte[] hidden = padded("SELECT 1 /*", "*/; DROP TABLE users");
+        byte[] allowed = padded("SELECT 2 /*", "*/");
+        try (Client c = new Client(proxy.port(), "mallory", 0)) {
+            byte[] err = c.send(hidden);
+            assertEquals(0xFF, err[0] & 0xFF);
+            assertEquals(2, c.lastSeq);
+            assertEquals(0x00, c.send(allowed)[0]);
+            c.quit();
+        }
+
+        assertEquals(2, judged.size());
+        assertTrue(judged.get(0).endsWith("DROP TABLE users"));
+        assertEquals(1, server.packets.size());
+        assertArrayEquals(allowed, server.packets.get(0));
+        assertEquals(1L, proxy.stats().get("denied"));
+    }
+
+    // MAX_PAYLOAD 를 넘도록 주석으로 채운 COM_QUERY → 첫 조각에는 head 와 채움 문자만
+    private static byte[] padded(String head, String tail) {
+        byte[] h = head.getBytes(StandardCharsets.UTF_8), t = tail.getBytes(StandardCharsets.UTF_8);
+        byte[] out = new byte[MySqlPackets.MAX_PAYLOAD + 1024];
+        java.util.Arrays.fill(out, (byte) 'x');
+        out[0] = MySqlPackets.COM_QUERY;
+        System.arraycopy(h, 0, out, 1, h.length);
+        System.arraycopy(t, 0, out, out.length - t.length, t.length);
+        return out;
+    }
+
+    // ---------- 가짜 서버 / 클라이언트 ----------
+
+    /** 쿼리 속성 1개(STRING "tr" = "ab")가 붙은 COM_QUERY 페이로드 */
+    static byte[] attributed(String sql) {
+        ByteArrayOutputStream b = new ByteArrayOutputStream();
+        b.writeBytes(new byte[]{MySqlPackets.COM_QUERY, 1, 1, 0, 1, (byte) 0xFE, 0, 2, 't', 'r', 2, 'a', 'b'});
+        b.writeBytes(sql.getBytes(StandardCharsets.UTF_8));
+        return b.toByteArray();
+    }
+
+    static byte[] frame(int seq, byte[] payload) {
+        byte[] out = new byte[4 + payload.length];
+        out[0] = (byte) payload.length;
+        out[1] = (byte) (payload.length >>> 8);
+        out[2] = (byte) (payload.length >>> 16);
+        out[3] = (byte) seq;
+        System.arraycopy(payload, 0, out, 4, payload.length);
+        return out;
+    }
+
+    /** 16MiB 이상 페이로드는 MAX_PAYLOAD 조각 + 이어지는 패킷(시퀀스 1, 2, ...)으로 */
+    static byte[] frames(byte[] payload) {
+        ByteArrayOutputStream b = new ByteArrayOutputStream();
+        int off = 0, seq = 0, n;
+        do {
+            n = Math.min(MySqlPackets.MAX_PAYLOAD, payload.length - off);
+            b.writeBytes(frame(seq++, java.util.Arrays.copyOfRange(payload, off, off + n)));
+            off += n;
+        } while (n == MySqlPackets.MAX_PAYLOAD);
+        return b.toByteArray();
+    }
+
+    /** 이어지는 패킷까지 합친 페이로드(seq 는 마지막 조각) */
+    static byte[] readCommand(InputStream in, int[] seq) throws IOException {
+        byte[] first = readPacket(in, seq);
+        if (first == null || first.length < MySqlPackets.MAX_PAYLOAD) return first;
+        ByteArrayOutputStream b = new ByteArrayOutputStream();
+        b.writeBytes(first);
+        byte[] next;
+        do {
+            next = readPacket(in, seq);
+            b.writeBytes(next);
+        } while (next.length == MySqlPackets.MAX_PAYLOAD);
+        return b.toByteArray();
+    }
+
+    static byte[] readPacket(InputStream in, int[] seq) throws IOException {
+        byte[] h = in.readNBytes(4);
+        if (h.length < 4) return null;
+        int len = (h[0] & 0xFF) | (h[1] & 0xFF) << 8 | (h[2] & 0xFF) << 16;
+        seq[0] = h[3] & 0xFF;
+        return in.readNBytes(len);
+    }
+
+    private static final byte[] OK = {0x00, 0x00, 0x00, 0x02, 0x00, 0x00, 0x00};
+
+    /** 핸드셰이크 → OK, 이후 커맨드마다 OK(COM_QUERY 텍스트 기록), COM_QUIT 이면 종료 */
+    static final class FakeMySql implements AutoCloseable {
+        final ServerSocket ss = new ServerSocket();
+        final List<String> queries = new CopyOnWriteArrayList<>();
+        final List<byte[]> packets = new CopyOnWriteArrayList<>();
+        final List<byte[]> responses = new CopyOnWriteArrayList<>();
+        private final int caps;
+
+        FakeMySql(int caps) throws IOException {
+            this.caps = caps;
+            ss.bind(new InetSocketAddress("127.0.0.1", 0));
+            Thread.ofVirtual().start(() -> {
+                while (!ss.isClosed()) {
+                    try {
+                        Socket s = ss.accept();
+                        Thread.ofVirtual().start(() -> serve(s));
+                    } catch (IOException e) {
+                        return;
+                    }
+                }
+            });
+        }
+
+        int port() { return ss.getLocalPort(); }
+
+        static byte[] handshake(int caps) {
+            ByteArrayOutputStream b = new ByteArrayOutputStream();
+            b.write(10);
+            b.writeBytes("8.0.0-fake\0".getBytes(StandardCharsets.US_ASCII));
+            b.writeBytes(new byte[]{1, 0, 0, 0});                 // thread id
+            b.writeBytes("12345678".getBytes(StandardCharsets.US_ASCII));
+            b.write(0);
+            b.write(caps); b.write(caps >>> 8);
+            b.write(33);                                          // charset
+            b.write(2); b.write(0);                               // status
+            b.write(caps >>> 16); b.write(caps >>> 24);
+            b.write(0);
+            b.writeBytes(new byte[10]);
+            return b.toByteArray();
+        }
+
+        private void serve(Socket s) {
+            try (s; InputStream in = s.getInputStream(); OutputStream out = s.getOutputStream()) {
+                out.write(frame(0, handshake(caps)));
+                int[] seq = new int[1];
+                byte[] resp = readPacket(in, seq);
+                if (resp == null) return;
+                responses.add(resp);
+                boolean attrs = (MySqlPackets.clientCapabilities(packet(seq[0], resp)) & caps & MySqlPackets.CLIENT_QUERY_ATTRIBUTES) != 0;
+                out.write(frame(seq[0] + 1, OK));
+                byte[] cmd;
+                while ((cmd = readCommand(in, seq)) != null) {
+                    if (cmd[0] == MySqlPackets.COM_QUIT) return;
+                    if (cmd[0] == MySqlPackets.COM_QUERY) {
+                        packets.add(cmd);
+                        int off = attrs ? MySqlPackets.queryTextOffset(packet(seq[0], cmd), true) : 1;
+                        if (off >= 0) queries.add(new String(cmd, off, cmd.length - off, StandardCharsets.UTF_8));
+                    }
+                    out.write(frame(seq[0] + 1, OK));
+                }
+            } catch (IOException ignore) {
+            }
+        }
+
+        private static MySqlPackets.Packet packet(int seq, byte[] payload) throws IOException {
+            MySqlPackets.Packet p = new MySqlPackets.Packet();
+            MySqlPackets.read(new java.io.ByteArrayInputStream(frame(seq, payload)), p);
+            return p;
+        }
+
+        @Override public void close() throws IOException { ss.close(); }
+    }
+
+    /** HandshakeResponse41 만 보내는 최소 클라이언트(인증 교환 없음) */
+    static final class Client implements AutoCloseable {
+        private final Socket s = new Socket();
+        private final InputStream in;
+        private final OutputStream out;
+        private final boolean attrs;
+        int lastSeq;
+
+        Client(int port, String user, int extraCaps) throws IOException {
+            s.connect(new InetSocketAddress("127.0.0.1", port), 2_000);
+            s.setSoTimeout(5_000);
+            in = s.getInputStream();
+            out = s.getOutputStream();
+            int[] seq = new int[1];
+            assertNotNull(readPacket(in, seq));                                    // 서버 핸드셰이크
+            out.write(frame(1, handshakeResponse(user, extraCaps)));
+            assertEquals(0x00, readPacket(in, seq)[0]);                            // OK
+            attrs = (extraCaps & MySqlPackets.CLIENT_QUERY_ATTRIBUTES) != 0;
+        }
+
+        static byte[] handshakeResponse(String user, int extraCaps) {
+            int caps = MySqlPackets.CLIENT_PROTOCOL_41 | extraCaps;
+            ByteArrayOutputStream b = new ByteArrayOutputStream();
+            b.write(caps); b.write(caps >>> 8); b.write(caps >>> 16); b.write(caps >>> 24);
+            b.writeBytes(new byte[]{0, 0, 0, 1});                 // max packet
+            b.write(33);
+            b.writeBytes(new byte[23]);
+            b.writeBytes((user + "\0").getBytes(StandardCharsets.UTF_8));
+            b.write(0);                                           // auth response 길이
+            return b.toByteArray();
+        }
+
+        byte[] query(String sql) throws IOException {
+            ByteArrayOutputStream b = new ByteArrayOutputStream();
+            b.write(MySqlPackets.COM_QUERY);
+            if (attrs) { b.write(0); b.write(1); }                // parameter_count=0, parameter_set_count=1
+            b.writeBytes(sql.getBytes(StandardCharsets.UTF_8));
+            return send(b.toByteArray());
+        }
+
+        /** 커맨드 페이로드를 그대로 보내고 첫 응답 패킷을 받음 */
+        byte[] send(byte[] payload) throws IOException {
+            out.write(frames(payload));
+            int[] seq = new int[1];
+            byte[] res = readPacket(in, seq);
+            lastSeq = seq[0];
+            return res;
+        }
+
+        void quit() throws IOException {
+            out.write(frame(0, new byte[]{MySqlPackets.COM_QUIT}));
+        }
+
+        @Override public void close() throws IOException { s.close(); }
+    }
+}
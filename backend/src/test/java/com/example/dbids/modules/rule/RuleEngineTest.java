@@ -4,7 +4,11 @@ import com.example.dbids.sqlite.model.DetectionEvent;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -88,4 +92,81 @@ class RuleEngineTest {
         Optional<RuleEngine.Match> m = engine.evaluate(normalized);
         assertTrue(m.isEmpty(), "정상 쿼리는 매칭되지 않아야 한다");
     }
+
+    @Test
+    @DisplayName("UT-03-RE: 한 번의 스캔으로 매칭된 모든 룰 ID를 선언 순서대로 보고한다")
+    void reportsAllMatchingRuleIds() {
+        SqlNormalizer n = new SqlNormalizer();
+        String normalized = n.normalize("DROP TABLE x; SELECT * FROM a WHERE b=1 OR 1=1 UNION SELECT SLEEP(3)");
+        RuleEngine engine = new RuleEngine(RuleSetProvider.defaultRules());
+
+        List<String> ids = engine.matchingRuleIds(normalized);
+        assertEquals(List.of("PATTERN_DROP_TABLE", "PATTERN_UNION_SELECT", "PATTERN_OR_1_EQ_1", "PATTERN_SLEEP_FUNC"), ids);
+        assertTrue(engine.matchingRuleIds("SELECT NAME FROM USERS ORDER BY 0").isEmpty(), "ORDER 안의 OR는 매칭되면 안 된다");
+    }
+
+    @Test
+    @DisplayName("UT-03-RE: 접두 리터럴 자동 추출(최상위 | 또는 비리터럴 시작이면 없음)")
+    void extractsPrefixLiteral() {
+        assertEquals("DROP", Rule.prefixLiteral("\\bDROP\\s+TABLE\\b"));
+        assertEquals("SLEE", Rule.prefixLiteral("\\bSLEEP?\\s*\\("));
+        assertEquals("OR", Rule.prefixLiteral("\\bOR\\s+(?:1|0)\\s*=\\s*(?:1|0)\\b"));
+        assertNull(Rule.prefixLiteral("\\bDROP\\b|\\bTRUNCATE\\b"));
+        assertNull(Rule.prefixLiteral("(?:DROP|TRUNCATE)\\s"));
+        assertNull(Rule.prefixLiteral("\\bX\\s"));
+    }
+
+    @Test
+    @DisplayName("UT-03-RE: 터키어 기본 로케일에서도 키워드는 ASCII 대문자 → 룰셋 컴파일/스캔 정상")
+    void keywordsIgnoreDefaultLocale() {
+        Locale prev = Locale.getDefault();
+        try {
+            Locale.setDefault(Locale.forLanguageTag("tr-TR"));
+            Rule union = new Rule("R_UNION", DetectionEvent.Severity.MEDIUM, "\\bunion\\s+select\\b");
+            Rule limit = new Rule("R_LIMIT", DetectionEvent.Severity.LOW, "\\(\\s*limit\\b", "limit");
+            assertEquals("UNION", union.keyword);
+            assertEquals("LIMIT", limit.keyword);
+
+            RuleEngine engine = new RuleEngine(List.of(union, limit));
+            assertEquals(List.of("R_UNION", "R_LIMIT"), engine.matchingRuleIds("SELECT 1 UNION SELECT (LIMIT 1)"));
+        } finally {
+            Locale.setDefault(prev);
+        }
+    }
+
+    @Test
+    @DisplayName("UT-03-RE: 수백 개 룰에서도 단일 스캔 결과가 룰별 정규식 find()와 동일하다")
+    void compiledScanAgreesWithPerRuleRegex() {
+        List<Rule> rules = new ArrayList<>(RuleSetProvider.defaultRules());
+        Random rnd = new Random(42);
+        String[] words = {"SELECT", "FROM", "WHERE", "INTO", "TABLE", "GRANT", "LOAD_FILE", "BENCHMARK", "OUTFILE", "EXEC"};
+        for (int i = 0; i < 300; i++) {
+            String w = words[rnd.nextInt(words.length)];
+            String regex = switch (i % 3) {
+                case 0 -> "\\b" + w + "\\s+K" + i + "\\b";                 // 접두 리터럴(anchored)
+                case 1 -> "(?:" + w + "|K" + i + ")\\s*\\(";                 // 키워드 없음(항상 검증)
+                default -> "\\(\\s*" + w + "\\s+K" + i + "\\b";          // 명시 키워드
+            };
+            DetectionEvent.Severity sev = DetectionEvent.Severity.values()[i % 3];
+            rules.add(i % 3 == 2 ? new Rule("R" + i, sev, regex, w) : new Rule("R" + i, sev, regex));
+        }
+        RuleEngine engine = new RuleEngine(rules);
+
+        for (int t = 0; t < 500; t++) {
+            StringBuilder sb = new StringBuilder();
+            int len = 3 + rnd.nextInt(12);
+            for (int j = 0; j < len; j++) {
+                int pick = rnd.nextInt(6);
+                if (pick == 0) sb.append("K").append(rnd.nextInt(300));
+                else if (pick == 1) sb.append("(");
+                else if (pick == 2) sb.append(words[rnd.nextInt(words.length)].toLowerCase());
+                else sb.append(words[rnd.nextInt(words.length)]);
+                sb.append(rnd.nextBoolean() ? " " : "");
+            }
+            String sql = sb.toString();
+
+            List<String> expected = rules.stream().filter(r -> r.matches(sql)).map(r -> r.id).toList();
+            assertEquals(expected, engine.matchingRuleIds(sql), sql);
+        }
+    }
 }
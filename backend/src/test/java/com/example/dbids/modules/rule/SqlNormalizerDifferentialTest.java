@@ -0,0 +1,135 @@
+package com.example.dbids.modules.rule;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 차등 테스트: 손으로 작성한 SqlNormalizer 출력이 기존 replaceAll 체인(아래 legacy)과
+ * 바이트 단위로 같은지 고정 코퍼스 + 시드 고정 랜덤 입력으로 확인한다.
+ */
+class SqlNormalizerDifferentialTest {
+
+    /** 기존 구현(정규식 6회) — 비교 기준 */
+    static String legacy(String sql) {
+        if (sql == null) return "";
+        String s = sql;
+        s = s.replaceAll("(?s)/\\*.*?\\*/", " ");
+        s = s.replaceAll("(?m)--.*?$", " ");
+        s = s.replaceAll("'([^']|'')*'", "'?'");
+        s = s.replaceAll("\"(?:[^\"\\\\]|\\\\.)*\"", "\"?\"");
+        s = s.replaceAll("\\b\\d+\\b", "0");
+        s = s.replaceAll("\\s+", " ").trim();
+        return s.toUpperCase();
+    }
+
+    static final List<String> CORPUS = List.of(
+            "",
+            "   ",
+            "SELECT 1",
+            "select * from users where id = 42 and name = 'kim'",
+            "/* note */  select  *  from users  -- tail\n where id=1",
+            "SELECT * FROM t WHERE a='abc''def' AND b=\"x\\\"y\" AND c=12345",
+            "DROP TABLE x; SELECT * FROM a UNION SELECT * FROM b;",
+            "SeLeCt * From T Where name='abc' OR   1 = 1 /*hack*/",
+            // 주석이 리터럴 마스킹보다 먼저 적용되는 순서 의존 케이스
+            "SELECT 'a/*x*/b', 'c--d' FROM t",
+            "SELECT \"it's\" , 'x' FROM t",
+            "-- a /* b\n*/ c",
+            "/* unterminated comment select 1",
+            "/*/ still open */ tail",
+            "'unterminated",
+            "'ab''",
+            "'ab''cd",
+            "''",
+            "\"\"",
+            "\"a\\\nb\" \" y \"",
+            "\"x\\\\\" trailing",
+            "\"abc\\\"def",
+            "a12 12a 1.5 x_9 _7 9_ (3) -4 +5 0x1F 1e10",
+            "col1=2\r\nAND\tcol2 = 3\u000B\f",
+            "line1 -- c1\rline2 -- c2\u0085line3 -- c3 line4",
+            "\u0001 select 1 \u0001",
+            "SELECT '가나다', 이름 FROM 사용자 WHERE 나이 > 30",
+            "가123 é12 ́ 12 ́12 12́",
+            "straße weiß İstanbul ı",
+            "SELECT SLEEP(5) -- x",
+            "UPDATE accounts SET balance = balance - 100 WHERE id = 42;",
+            "INSERT INTO t (a,b) VALUES ('x''y', \"z\"), (1, 2)"
+    );
+
+    @Test
+    @DisplayName("UT-04-RE 차등: 고정 코퍼스 출력이 기존 정규식 구현과 동일")
+    void corpusMatchesLegacy() {
+        SqlNormalizer n = new SqlNormalizer();
+        for (String sql : CORPUS) {
+            assertEquals(legacy(sql), n.normalize(sql), () -> "input=" + escape(sql));
+        }
+        assertEquals("", n.normalize(null));
+    }
+
+    @Test
+    @DisplayName("UT-04-RE 차등: 랜덤 토큰 조합 20,000건이 기존 구현과 동일")
+    void randomInputsMatchLegacy() {
+        String[] tokens = {
+                "'", "''", "\"", "\\", "\\\"", "/*", "*/", "/", "*", "--", "-",
+                "\n", "\r", "\r\n", "\u0085", " ", "\t", "\u000B", "\f", " ", "  ", "\u0001",
+                "0", "12", "345", "a", "B", "_", "x1", "SELECT", "from", "OR", "=", "(", ")", ";", ",",
+                "가", "é", "́", "ß", "i", "😀"
+        };
+        Random rnd = new Random(20250101L);
+        SqlNormalizer n = new SqlNormalizer();
+        for (int t = 0; t < 20_000; t++) {
+            StringBuilder sb = new StringBuilder();
+            int len = rnd.nextInt(24);
+            for (int i = 0; i < len; i++) sb.append(tokens[rnd.nextInt(tokens.length)]);
+            String sql = sb.toString();
+            assertEquals(legacy(sql), n.normalize(sql), () -> "input=" + escape(sql));
+        }
+    }
+
+    @Test
+    @DisplayName("UT-04-RE 차등: 재사용 버퍼가 이전(더 긴) 입력의 잔여 데이터에 영향받지 않는다")
+    void bufferReuseIsIsolated() {
+        SqlNormalizer n = new SqlNormalizer();
+        String longSql = "SELECT '" + "x".repeat(800) + "' FROM t WHERE id = 1 /* " + "y".repeat(3_000) + " */";
+        assertEquals(legacy(longSql), n.normalize(longSql));
+        for (String sql : CORPUS) assertEquals(legacy(sql), n.normalize(sql));
+    }
+
+    @Test
+    @DisplayName("UT-04-RE: 최대 길이(8192) 리터럴도 처리 (기존 정규식은 재귀로 StackOverflowError)")
+    void longLiteralDoesNotOverflow() {
+        SqlNormalizer n = new SqlNormalizer();
+        String sql = "INSERT INTO t VALUES ('" + "x".repeat(8_150) + "', 1)";
+        assertEquals("INSERT INTO T VALUES ('?', 0)", n.normalize(sql));
+    }
+
+    @Test
+    @DisplayName("UT-04-RE 차등: 터키어 기본 로케일에서도 toUpperCase와 동일")
+    void localeSensitiveUpperCase() {
+        Locale prev = Locale.getDefault();
+        try {
+            Locale.setDefault(Locale.forLanguageTag("tr-TR"));
+            SqlNormalizer n = new SqlNormalizer();
+            String sql = "select id from list where i = 1";
+            assertEquals(legacy(sql), n.normalize(sql));
+        } finally {
+            Locale.setDefault(prev);
+        }
+    }
+
+    private static String escape(String s) {
+        StringBuilder sb = new StringBuilder();
+        for (char c : s.toCharArray()) {
+            if (c < 0x20 || c > 0x7E) sb.append(String.format("\\u%04X", (int) c));
+            else sb.append(c);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.dbids.modules.storage;
+
+import com.example.dbids.dto.QueryLogFilter;
+import com.example.dbids.sqlite.LogPartitionProperties;
+import com.example.dbids.sqlite.LogPartitions;
+import com.example.dbids.sqlite.SqliteDataSources;
+import com.example.dbids.sqlite.SqliteMigrator;
+import com.example.dbids.sqlite.SqliteStorageProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 내보내기 스트림은 reader 풀에서 읽으므로 스트리밍 중에도 단일 writer 쓰기(수집 저장 등)가 진행됨
+ */
+class QueryLogExporterTest {
+
+    @TempDir Path dir;
+
+    private DataSource ds;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (ds instanceof Closeable c) c.close();
+    }
+
+    @Test
+    @DisplayName("UT-13-T: CSV 내보내기가 스트리밍 중(커서 열림)이어도 수집 쓰기가 writer 커넥션을 받아 바로 커밋")
+    void ingestWriteCompletes_whileExportIsStreaming() throws Exception {
+        SqliteStorageProperties sp = new SqliteStorageProperties();
+        sp.setBusyTimeoutMs(200);
+        ds = SqliteDataSources.create("jdbc:sqlite:" + dir.resolve("main.db"), sp);
+        new SqliteMigrator(ds).migrate();
+        JdbcTemplate writer = new JdbcTemplate(ds);       // 트랜잭션 밖 sqliteJdbc 와 같은 경로(writer)
+        List<Object[]> rows = new ArrayList<>();
+        String sql = "SELECT * FROM orders WHERE note = '" + "x".repeat(100) + "'";
+        for (int i = 0; i < 2_000; i++) rows.add(new Object[]{"q" + i, "2030-01-01T00:00:00Z", sql});
+        writer.batchUpdate("INSERT INTO query_log(id, executed_at, user_id, sql_raw, return_rows, status) "
+                + "VALUES (?, ?, 'u', ?, 0, 'SUCCESS')", rows);
+
+        LogPartitionProperties pp = new LogPartitionProperties();
+        pp.setDir(dir.resolve("parts").toString());
+        QueryLogExporter exporter = new QueryLogExporter(new JdbcTemplate(SqliteDataSources.reader(ds)), new LogPartitions(ds, pp));
+        StreamingResponseBody body = exporter.prepare(new QueryLogFilter(null, null, null, null, null, null, null),
+                Sort.by("executedAt"), QueryLogExporter.Format.CSV, false);
+
+        // 첫 버퍼를 내보내는 순간 멈춤 → 커서/커넥션을 쥔 채 대기
+        CountDownLatch streaming = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        long[] written = {0};
+        OutputStream slowClient = new OutputStream() {
+            @Override public void write(int b) { write(new byte[]{(byte) b}, 0, 1); }
+            @Override public void write(byte[] b, int off, int len) {
+                streaming.countDown();
+                try { release.await(); } catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+                written[0] += len;
+            }
+        };
+        CompletableFuture<Void> export = CompletableFuture.runAsync(() -> {
+            try { body.writeTo(slowClient); } catch (Exception e) { throw new IllegalStateException(e); }
+        });
+        assertTrue(streaming.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<Integer> ingest = CompletableFuture.supplyAsync(() -> writer.update(
+                "INSERT INTO query_log(id, executed_at, user_id, sql_raw, return_rows, status) "
+                        + "VALUES ('late', '2030-01-02T00:00:00Z', 'u', 'SELECT 1', 0, 'SUCCESS')"));
+        assertTrue(ingest.get(3, TimeUnit.SECONDS) >= 1);       // 트리거(FTS/롤업) 변경분 포함
+
+        release.countDown();
+        export.get(10, TimeUnit.SECONDS);
+        assertTrue(written[0] > 200_000);
+        assertEquals(2_001, writer.queryForObject("SELECT COUNT(*) FROM query_log", Integer.class));
+    }
+}
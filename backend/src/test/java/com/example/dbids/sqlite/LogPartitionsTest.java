@@ -0,0 +1,194 @@
+package com.example.dbids.sqlite;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 기간 파티션: 핫 구간 밖 행 이동, 기간과 겹치는 파일만 ATTACH, 보존 기간 정리(파일 단위)
+ */
+class LogPartitionsTest {
+
+    // 2030-03-04 는 월요일 → 핫 구간(2주) = [2030-02-25, ...)
+    private static final Instant NOW = Instant.parse("2030-03-06T12:00:00Z");
+
+    @TempDir Path dir;
+
+    private DataSource ds;
+    private JdbcTemplate jdbc;
+    private LogPartitionProperties props;
+    private LogPartitions partitions;
+
+    @BeforeEach
+    void setUp() {
+        SqliteStorageProperties sp = new SqliteStorageProperties();
+        ds = SqliteDataSources.create("jdbc:sqlite:" + dir.resolve("main.db"), sp);
+        new SqliteMigrator(ds).migrate();
+        jdbc = new JdbcTemplate(ds);
+        props = new LogPartitionProperties();
+        props.setDir(dir.resolve("parts").toString());
+        props.setArchiveDir(dir.resolve("archive").toString());
+        props.setBatchRows(2);                  // 한 기간을 여러 트랜잭션으로 나눠 옮기는 경로까지
+        partitions = new LogPartitions(ds, props);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (ds instanceof Closeable c) c.close();
+    }
+
+    private void log(String id, String executedAt) {
+        jdbc.update("INSERT INTO query_log(id, executed_at, user_id, sql_raw, sql_summary, return_rows, status) VALUES (?,?,?,?,?,?,?)",
+                id, executedAt, "u@x", "SELECT 1", "SELECT", 1, "SUCCESS");
+    }
+
+    private void event(String id, String logId, String occurredAt) {
+        jdbc.update("INSERT INTO detection_event(id, log_id, event_type, severity, occurred_at, sql_raw) VALUES (?,?,?,?,?,?)",
+                id, logId, "PATTERN", "HIGH", occurredAt, "SELECT 1");
+    }
+
+    private void seed() {
+        log("a1", "2030-01-07T01:00:00Z");      // 2030-01-07 주
+        log("a2", "2030-01-08T01:00:00Z");
+        log("a3", "2030-01-13T23:59:59Z");
+        log("b1", "2030-01-14T00:00:00Z");      // 2030-01-14 주
+        log("h1", "2030-02-26T00:00:00Z");      // 핫 구간
+        event("e1", "a2", "2030-01-08T01:00:01Z");
+        event("e2", "h1", "2030-02-26T00:00:01Z");
+    }
+
+    private List<String> ids(LogPartitions.Scope scope, String from, String to) {
+        return scope.jdbc().queryForList(
+                scope.unionAll(s -> "SELECT id FROM " + s + ".query_log WHERE executed_at >= :from AND executed_at < :to")
+                        + " ORDER BY id", Map.of("from", from, "to", to), String.class);
+    }
+
+    @Test
+    @DisplayName("UT-13-H: 롤오버 → 핫 구간 이전 행은 주별 파일로(이벤트는 자기 로그와 같은 파일), 본 테이블에는 핫 구간만")
+    void rollover_movesColdWeeksToFiles() {
+        seed();
+
+        assertEquals(4, partitions.rollover(NOW));
+
+        assertEquals(List.of("h1"), jdbc.queryForList("SELECT id FROM query_log", String.class));
+        assertEquals(List.of("e2"), jdbc.queryForList("SELECT id FROM detection_event", String.class));
+
+        List<LogPartitions.Partition> all = partitions.all();
+        assertEquals(List.of("2030-01-14", "2030-01-07"), all.stream().map(LogPartitions.Partition::name).toList());
+        LogPartitions.Partition w1 = all.get(1);
+        assertEquals("2030-01-07T00:00:00Z", w1.periodStart());
+        assertEquals("2030-01-14T00:00:00Z", w1.periodEnd());
+        assertEquals(3, w1.logRows());
+        assertEquals(1, w1.eventRows());
+        assertEquals("2030-01-08T01:00:01Z", w1.eventMin());
+        assertTrue(Files.exists(w1.path()));
+
+        // 다시 돌려도 옮길 행이 없음
+        assertEquals(0, partitions.rollover(NOW));
+    }
+
+    @Test
+    @DisplayName("UT-13-I: 조회 기간과 겹치는 파티션만 ATTACH, main 과 UNION ALL 로 한 번에 조회")
+    void read_attachesOnlyOverlappingPartitions() {
+        seed();
+        partitions.rollover(NOW);
+
+        List<LogPartitions.Partition> jan7 = partitions.forLogs("2030-01-08T00:00:00Z", "2030-01-09T00:00:00Z");
+        assertEquals(List.of("2030-01-07"), jan7.stream().map(LogPartitions.Partition::name).toList());
+        assertEquals(List.of("main", "p_20300107"), partitions.read(jan7, LogPartitions.Scope::schemas));
+        assertEquals(List.of("a2"), partitions.read(jan7, s -> ids(s, "2030-01-08T00:00:00Z", "2030-01-09T00:00:00Z")));
+
+        // 기간 제한 없음 → 전체 파티션 + main
+        assertEquals(List.of("a1", "a2", "a3", "b1", "h1"),
+                partitions.read(partitions.forLogs(null, null), s -> ids(s, "2000-01-01", "2100-01-01")));
+
+        // 핫 구간만 → 파티션 없음(본 테이블만)
+        assertTrue(partitions.forLogs("2030-02-25T00:00:00Z", null).isEmpty());
+        // 이벤트는 occurred_at 범위로
+        assertEquals(1, partitions.forEvents("2030-01-08T00:00:00Z", "2030-01-09T00:00:00Z").size());
+        assertTrue(partitions.forEvents("2030-01-14T00:00:00Z", "2030-01-21T00:00:00Z").isEmpty());
+
+        // 조회가 끝나면 DETACH → 같은 커넥션으로 다시 붙여도 별칭 충돌 없음
+        for (int i = 0; i < 10; i++) assertEquals(1, partitions.read(jan7, s -> ids(s, "2030-01-08", "2030-01-09")).size());
+    }
+
+    @Test
+    @DisplayName("UT-13-J: 보존 기간이 지난 파티션 → 카탈로그에서 빼고 파일 삭제(DROP) 또는 이동(ARCHIVE)")
+    void retention_dropsOrArchivesWholeFiles() {
+        seed();
+        partitions.rollover(NOW);
+        Path w1 = partitions.all().get(1).path();
+        Path w2 = partitions.all().get(0).path();
+
+        // 핫 2주 + 보존 2주 → 기준 주 시작에서 3주 전이 cutoff. 2030-02-04 기준 cutoff = 2030-01-14 : 01-07 주만 만료
+        props.setRetentionPeriods(2);
+        assertEquals(1, partitions.enforceRetention(Instant.parse("2030-02-04T00:00:00Z")));
+        assertFalse(Files.exists(w1));
+        assertEquals(List.of("2030-01-14"), partitions.all().stream().map(LogPartitions.Partition::name).toList());
+        assertEquals(0, jdbc.queryForObject("SELECT COUNT(*) FROM log_partition WHERE name = '2030-01-07'", Integer.class));
+
+        // 2030-03-25 기준 cutoff = 2030-03-04 : 남은 01-14 주도 만료 → 보관 디렉터리로 이동
+        props.setRetentionAction(LogPartitionProperties.RetentionAction.ARCHIVE);
+        assertEquals(1, partitions.enforceRetention(Instant.parse("2030-03-25T00:00:00Z")));
+        assertFalse(Files.exists(w2));
+        assertTrue(Files.exists(dir.resolve("archive").resolve(w2.getFileName())));
+        assertTrue(partitions.forLogs(null, null).isEmpty());
+
+        // 본 테이블 핫 구간은 보존 정리 대상이 아님
+        assertEquals(1, jdbc.queryForObject("SELECT COUNT(*) FROM query_log", Integer.class));
+    }
+
+    @Test
+    @DisplayName("UT-13-K: 이미 파티션이 있는 기간에 늦게 들어온 행 → 다음 롤오버에서 같은 파일에 추가, 카탈로그 건수 갱신")
+    void rollover_appendsLateRowsToExistingPartition() {
+        seed();
+        partitions.rollover(NOW);
+
+        log("late", "2030-01-09T00:00:00Z");
+        assertEquals(1, partitions.rollover(NOW));
+
+        LogPartitions.Partition w1 = partitions.all().get(1);
+        assertEquals(4, w1.logRows());
+        assertEquals(List.of("a1", "a2", "a3", "late"),
+                partitions.read(List.of(w1), s -> s.jdbc().queryForList(
+                        "SELECT id FROM " + w1.alias() + ".query_log ORDER BY id", Map.of(), String.class)));
+    }
+
+    @Test
+    @DisplayName("UT-13-U: main 삭제 단계 실패 → 파일에 복사만 커밋되고 main 행은 그대로, 다음 롤오버가 중복 없이 마저 옮김")
+    void rollover_copyCommitsBeforeMainDelete() {
+        seed();
+        jdbc.execute("CREATE TRIGGER t_block BEFORE DELETE ON query_log BEGIN SELECT RAISE(ABORT, 'blocked'); END");
+
+        assertThrows(IllegalStateException.class, () -> partitions.rollover(NOW));
+
+        assertEquals(5, jdbc.queryForObject("SELECT COUNT(*) FROM query_log", Integer.class));
+        assertEquals(2, jdbc.queryForObject("SELECT COUNT(*) FROM detection_event", Integer.class));
+        assertTrue(partitions.all().isEmpty());             // 카탈로그에 없으니 조회에 중복이 보이지 않음
+        Path w1 = dir.resolve("parts").resolve("dbids-2030-01-07.sqlite").toAbsolutePath();
+        JdbcTemplate file = new JdbcTemplate(new DriverManagerDataSource("jdbc:sqlite:" + w1));
+        assertEquals(List.of("a1", "a2"), file.queryForList("SELECT id FROM query_log ORDER BY id", String.class));
+
+        jdbc.execute("DROP TRIGGER t_block");
+        assertEquals(4, partitions.rollover(NOW));
+
+        assertEquals(List.of("h1"), jdbc.queryForList("SELECT id FROM query_log", String.class));
+        assertEquals(List.of("a1", "a2", "a3"), file.queryForList("SELECT id FROM query_log ORDER BY id", String.class));
+        assertEquals(List.of("e1"), file.queryForList("SELECT id FROM detection_event", String.class));
+        assertEquals(3, partitions.all().get(1).logRows());
+    }
+}
@@ -0,0 +1,190 @@
+package com.example.dbids.sqlite;
+
+import com.example.dbids.dto.LogSummaryResponse;
+import com.example.dbids.dto.QueryLogFilter;
+import com.example.dbids.modules.storage.LogQueryService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 요약 롤업: 압축 결과 = 원본 집계, 워터마크 이전 늦은 행은 트리거로 반영, 요약은 롤업 + 원본 꼬리 합산
+ */
+class LogRollupsTest {
+
+    // lag 60초 → 워터마크 2030-03-06T12:00:00Z
+    private static final Instant NOW = Instant.parse("2030-03-06T12:01:30Z");
+
+    @TempDir Path dir;
+
+    private DataSource ds;
+    private JdbcTemplate jdbc;
+    private LogRollupProperties props;
+    private LogPartitionProperties partitionProps;
+    private LogPartitions partitions;
+    private LogRollups rollups;
+
+    @BeforeEach
+    void setUp() {
+        ds = SqliteDataSources.create("jdbc:sqlite:" + dir.resolve("main.db"), new SqliteStorageProperties());
+        new SqliteMigrator(ds).migrate();
+        jdbc = new JdbcTemplate(ds);
+        partitionProps = new LogPartitionProperties();
+        partitionProps.setDir(dir.resolve("parts").toString());
+        partitions = new LogPartitions(ds, partitionProps);
+        props = new LogRollupProperties();
+        props.setStepMinutes(30);               // 하루를 여러 트랜잭션으로 나누는 경로까지
+        rollups = new LogRollups(ds, props, partitions);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (ds instanceof Closeable c) c.close();
+    }
+
+    private void log(String id, String executedAt, String user, String sql, int rows, String status) {
+        jdbc.update("INSERT INTO query_log(id, executed_at, user_id, sql_raw, sql_summary, return_rows, status) VALUES (?,?,?,?,?,?,?)",
+                id, executedAt, user, sql, "", rows, status);
+    }
+
+    private void seed() {
+        log("a1", "2030-03-05T09:00:10Z", "u1", "SELECT * FROM t", 3, "SUCCESS");
+        log("a2", "2030-03-05T09:00:50Z", "u1", " (select 1)", 1, "SUCCESS");
+        log("a3", "2030-03-05T09:59:00Z", "u2", "INSERT INTO t VALUES (1)", 0, "FAILURE");
+        log("a4", "2030-03-06T11:59:59Z", "u2", "drop table t", 0, "SUCCESS");
+        log("a5", "2030-03-06T12:00:00Z", "u1", "/* hint */ SELECT 1", 1, "SUCCESS");   // 워터마크 이후
+    }
+
+    private Map<String, Object> rollup(String grain, String bucket, String user, String status, String kind) {
+        return jdbc.queryForMap("SELECT cnt, rows_sum FROM log_rollup WHERE grain = ? AND bucket = ? AND user_id = ? AND status = ? AND kind = ?",
+                grain, bucket, user, status, kind);
+    }
+
+    private long total(String grain) {
+        Long n = jdbc.queryForObject("SELECT SUM(cnt) FROM log_rollup WHERE grain = ?", Long.class, grain);
+        return n == null ? 0 : n;
+    }
+
+    @Test
+    @DisplayName("UT-13-L: 압축 → 닫힌 분까지 분/시/일 롤업이 원본 GROUP BY 와 같고(문장 종류 포함), 다시 돌리면 변화 없음")
+    void compact_rollsUpClosedBuckets() {
+        seed();
+
+        assertTrue(rollups.compact(NOW) > 0);
+
+        LogRollups.State st = rollups.state();
+        assertEquals("2030-03-05T00:00:00Z", st.start());
+        assertEquals("2030-03-06T12:00:00Z", st.watermark());
+
+        assertEquals(Map.of("cnt", 2, "rows_sum", 4), rollup("MINUTE", "2030-03-05T09:00:00Z", "u1", "SUCCESS", "SELECT"));
+        assertEquals(Map.of("cnt", 1, "rows_sum", 0), rollup("HOUR", "2030-03-05T09:00:00Z", "u2", "FAILURE", "INSERT"));
+        assertEquals(Map.of("cnt", 1, "rows_sum", 0), rollup("DAY", "2030-03-06T00:00:00Z", "u2", "SUCCESS", "DDL"));
+        // 워터마크 이후 행(a5)은 아직 없음
+        for (String g : List.of("MINUTE", "HOUR", "DAY")) assertEquals(4, total(g));
+
+        assertEquals(0, rollups.compact(NOW));
+        assertEquals(4, total("DAY"));
+
+        // 다음 압축에서 a5 반영(주석으로 시작 → OTHER)
+        rollups.compact(NOW.plusSeconds(60));
+        assertEquals(Map.of("cnt", 1, "rows_sum", 1), rollup("DAY", "2030-03-06T00:00:00Z", "u1", "SUCCESS", "OTHER"));
+        assertEquals(5, total("HOUR"));
+    }
+
+    @Test
+    @DisplayName("UT-13-M: 워터마크 이전 시각으로 늦게 들어온 행 → 적재 트랜잭션에서 트리거로 반영, 롤업 시작 이전/분 보존 밖은 제외")
+    void lateRows_areAppliedByTrigger() {
+        seed();
+        rollups.compact(NOW);
+
+        log("late", "2030-03-05T09:00:30Z", "u1", "SELECT 2", 5, "SUCCESS");
+        assertEquals(Map.of("cnt", 3, "rows_sum", 9), rollup("MINUTE", "2030-03-05T09:00:00Z", "u1", "SUCCESS", "SELECT"));
+        assertEquals(Map.of("cnt", 3, "rows_sum", 9), rollup("DAY", "2030-03-05T00:00:00Z", "u1", "SUCCESS", "SELECT"));
+
+        log("early", "2030-03-04T23:59:59Z", "u1", "SELECT 3", 1, "SUCCESS");        // start 이전 → 원본에서 집계
+        assertEquals(5, total("DAY"));
+
+        // 분 롤업 보존 1일: 03-07 기준이면 03-05 분 버킷 삭제, 이후 그 날 늦은 행은 시/일 롤업에만
+        props.setMinuteRetentionDays(1);
+        assertEquals(0, rollups.pruneMinutes(NOW));
+        assertEquals("2030-03-05T00:00:00Z", rollups.state().minuteStart());
+        assertEquals(2, rollups.pruneMinutes(Instant.parse("2030-03-07T00:00:00Z")));
+        assertEquals("2030-03-06T00:00:00Z", rollups.state().minuteStart());
+        log("late2", "2030-03-05T10:00:00Z", "u3", "UPDATE t SET a = 1", 0, "SUCCESS");
+        assertEquals(1, total("MINUTE"));
+        assertEquals(Map.of("cnt", 1, "rows_sum", 0), rollup("HOUR", "2030-03-05T10:00:00Z", "u3", "SUCCESS", "UPDATE"));
+    }
+
+    @Test
+    @DisplayName("UT-13-N: 요약 → 롤업 구간 + 원본(롤업 이전, 닫히지 않은 최근 구간)을 합친 결과가 원본 전체 집계와 같음")
+    void summary_mergesRollupsWithRawTail() {
+        seed();
+        log("b1", "2030-02-20T08:00:00Z", "u1", "DELETE FROM t", 2, "FAILURE");     // 핫 구간 밖 → 파티션
+        partitions.rollover(NOW);                                                      // 압축 전에 옮겨짐
+        LogQueryService service = new LogQueryService(null, null, partitions, rollups);
+        QueryLogFilter all = new QueryLogFilter(null, null, null, "2030-02-01", "2030-03-31", null, null);
+
+        LogSummaryResponse raw = service.summarize(all, 100);                          // 롤업 전: 전부 원본
+        rollups.compact(NOW);
+        log("late", "2030-03-05T09:30:00Z", "u2", "SELECT 1", 7, "SUCCESS");           // 트리거
+        log("tail", "2030-03-06T12:00:30Z", "u2", "SELECT 1", 1, "SUCCESS");           // 워터마크 이후 → 원본
+        LogSummaryResponse merged = service.summarize(all, 100);
+
+        assertEquals("2030-03-05T00:00:00Z", rollups.state().start());                // 파티션 이후 + 본 테이블 최초일
+        assertEquals(List.of("u1", "u2"), merged.users.stream().map(u -> u.userId).toList());  // 동률 → 사용자 오름차순
+        LogSummaryResponse.UserBucket u2 = merged.users.get(1);
+        assertEquals(4, u2.total);
+        assertEquals(3, u2.success);
+        assertEquals(1, u2.failure);
+        assertEquals(8, u2.rowsSum);
+        LogSummaryResponse.UserBucket u1 = merged.users.get(0);
+        assertEquals(raw.users.stream().filter(u -> u.userId.equals("u1")).findFirst().orElseThrow().total, u1.total);
+        assertEquals(4, u1.total);
+        assertEquals(1, u1.failure);
+
+        List<String> hours = merged.times.stream().map(t -> t.hour).toList();
+        assertEquals(List.of("2030-02-20T08:00:00Z", "2030-03-05T09:00:00Z", "2030-03-06T11:00:00Z", "2030-03-06T12:00:00Z"), hours);
+        assertEquals(4, merged.times.get(1).total);
+
+        // 일 단위 + 사용자/상태 필터도 롤업에서
+        QueryLogFilter u2ok = new QueryLogFilter("u2", null, List.of("SUCCESS"), "2030-03-05", "2030-03-06", null, null);
+        LogSummaryResponse day = service.summarize(u2ok, 100, LogRollups.Grain.DAY);
+        assertEquals(List.of("2030-03-05T00:00:00Z", "2030-03-06T00:00:00Z"), day.times.stream().map(t -> t.hour).toList());
+        assertEquals(List.of(1L, 2L), day.times.stream().map(t -> t.total).toList());
+
+        // 롤업 차원이 아닌 조건(rowsMin)은 원본에서
+        QueryLogFilter rows = new QueryLogFilter(null, null, null, null, null, 5, null);
+        assertEquals(List.of("u2"), service.summarize(rows, 100).users.stream().map(u -> u.userId).toList());
+    }
+
+    @Test
+    @DisplayName("UT-13-O: 압축이 밀린 사이 롤오버로 파티션에 옮겨진 행 → 그 파일을 붙여 함께 집계(누락 없음)")
+    void compact_readsRowsMovedByRollover() {
+        log("x1", "2030-02-04T00:01:00Z", "u1", "SELECT 1", 1, "SUCCESS");
+        rollups.compact(Instant.parse("2030-02-04T00:05:00Z"));                       // 워터마크 02-04T00:04
+        log("x2", "2030-02-05T10:00:00Z", "u1", "SELECT 1", 1, "SUCCESS");
+        log("x3", "2030-02-20T10:00:00Z", "u2", "SELECT 1", 1, "SUCCESS");
+        log("h1", "2030-03-05T10:00:00Z", "u2", "SELECT 1", 1, "SUCCESS");
+        assertEquals(3, partitions.rollover(NOW));                                     // x1~x3 → 파티션
+
+        rollups.compact(NOW);
+
+        assertEquals(4, total("DAY"));
+        assertEquals(Map.of("cnt", 1, "rows_sum", 1), rollup("HOUR", "2030-02-20T10:00:00Z", "u2", "SUCCESS", "SELECT"));
+        // 압축 뒤 읽기 커넥션/writer 에 별칭이 남지 않음
+        assertEquals(List.of("main"), partitions.read(List.of(), LogPartitions.Scope::schemas));
+        assertEquals(1, jdbc.queryForList("PRAGMA database_list").size());
+    }
+}
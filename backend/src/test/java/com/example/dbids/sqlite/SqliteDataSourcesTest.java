@@ -0,0 +1,108 @@
+package com.example.dbids.sqlite;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * SQLite 저장소 프로파일: WAL 프라그마, 읽기 전용 커넥션 분리, 읽기 트랜잭션 중 쓰기 커밋
+ */
+class SqliteDataSourcesTest {
+
+    @TempDir Path dir;
+
+    private DataSource ds;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (ds instanceof Closeable c) c.close();
+    }
+
+    private DataSource create(SqliteStorageProperties.Profile profile) {
+        SqliteStorageProperties p = new SqliteStorageProperties();
+        p.setProfile(profile);
+        p.setBusyTimeoutMs(200);
+        ds = SqliteDataSources.create("jdbc:sqlite:" + dir.resolve("t.db"), p);
+        new SqliteMigrator(ds).migrate();
+        return ds;
+    }
+
+    private static String one(Connection c, String sql) throws SQLException {
+        try (Statement st = c.createStatement(); ResultSet rs = st.executeQuery(sql)) {
+            rs.next();
+            return rs.getString(1);
+        }
+    }
+
+    private static void insert(Connection c, String id) throws SQLException {
+        try (Statement st = c.createStatement()) {
+            st.executeUpdate("INSERT INTO query_log(id, executed_at, user_id, sql_raw, return_rows, status) " +
+                    "VALUES ('" + id + "','2030-01-01T00:00:00Z','u','SELECT 1',0,'SUCCESS')");
+        }
+    }
+
+    @Test
+    @DisplayName("UT-13-E: WAL 프로파일 → writer 는 WAL/NORMAL/busy_timeout, 읽기 전용 커넥션은 reader 풀(쓰기 불가)")
+    void walProfile_splitsWriterAndReader() throws Exception {
+        DataSource ds = create(SqliteStorageProperties.Profile.WAL);
+        assertInstanceOf(SqliteDataSources.ReadWriteSplit.class, ds);
+
+        try (Connection w = ds.getConnection()) {
+            assertEquals("wal", one(w, "PRAGMA journal_mode"));
+            assertEquals("1", one(w, "PRAGMA synchronous"));          // NORMAL
+            assertEquals("200", one(w, "PRAGMA busy_timeout"));
+            insert(w, "w1");
+        }
+
+        try (Connection r = ds.getConnection()) {
+            r.setReadOnly(true);                                     // @Transactional(readOnly = true) 와 같은 경로
+            r.setAutoCommit(false);
+            assertEquals("1", one(r, "SELECT COUNT(*) FROM query_log"));
+            SQLException ex = assertThrows(SQLException.class, () -> insert(r, "r1"));
+            assertTrue(ex.getMessage().contains("readonly") || ex.getMessage().contains("READONLY"), ex.getMessage());
+            r.rollback();
+        }
+    }
+
+    @Test
+    @DisplayName("UT-13-F: WAL → 열린 읽기 트랜잭션이 있어도 쓰기 커밋이 즉시 성공, 읽기 쪽은 시작 시점 스냅샷 유지")
+    void walProfile_readersDoNotBlockWriter() throws Exception {
+        DataSource ds = create(SqliteStorageProperties.Profile.WAL);
+        try (Connection w = ds.getConnection()) { insert(w, "a"); }
+
+        try (Connection r = ds.getConnection()) {
+            r.setReadOnly(true);
+            r.setAutoCommit(false);
+            assertEquals("1", one(r, "SELECT COUNT(*) FROM query_log"));   // 읽기 스냅샷 시작
+
+            long t0 = System.nanoTime();
+            try (Connection w = ds.getConnection()) { insert(w, "b"); }    // autocommit → 바로 커밋
+            assertTrue((System.nanoTime() - t0) / 1_000_000 < 200, "writer 가 reader 때문에 기다리면 안 된다");
+
+            assertEquals("1", one(r, "SELECT COUNT(*) FROM query_log"));
+            r.commit();
+            assertEquals("2", one(r, "SELECT COUNT(*) FROM query_log"));
+        }
+    }
+
+    @Test
+    @DisplayName("UT-13-G: LEGACY 프로파일 → 기존처럼 롤백 저널 단일 풀")
+    void legacyProfile_keepsRollbackJournal() throws Exception {
+        DataSource ds = create(SqliteStorageProperties.Profile.LEGACY);
+        assertFalse(ds instanceof SqliteDataSources.ReadWriteSplit);
+        try (Connection c = ds.getConnection()) {
+            assertEquals("delete", one(c, "PRAGMA journal_mode"));
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.dbids.sqlite;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * SqliteMigrator: 버전 적용/재기동 무변경/구형 DB 흡수 + 조회 경로 EXPLAIN QUERY PLAN 회귀
+ */
+class SqliteMigratorTest {
+
+    @TempDir Path dir;
+
+    private SingleConnectionDataSource ds;
+    private JdbcTemplate jdbc;
+
+    @BeforeEach
+    void setUp() {
+        ds = new SingleConnectionDataSource("jdbc:sqlite:" + dir.resolve("t.db"), true);
+        jdbc = new JdbcTemplate(ds);
+    }
+
+    private String plan(String sql, Object... args) {
+        List<String> rows = jdbc.query("EXPLAIN QUERY PLAN " + sql, (rs, i) -> rs.getString("detail"), args);
+        return String.join(" | ", rows);
+    }
+
+    private void assertIndexed(String plan, String index) {
+        assertTrue(plan.contains("INDEX " + index), "expected " + index + ": " + plan);
+        assertFalse(plan.contains("TEMP B-TREE"), "정렬/그룹용 임시 B-tree 가 없어야 한다: " + plan);
+    }
+
+    @Test
+    @DisplayName("UT-13-A: 빈 DB → 모든 버전 적용, 다시 실행하면 아무것도 하지 않고 데이터 유지")
+    void migrate_isIdempotent() {
+        assertEquals(SqliteMigrator.MIGRATIONS.size(), new SqliteMigrator(ds).migrate());
+        assertEquals(List.of(1, 2, 3, 4, 5), jdbc.queryForList("SELECT version FROM schema_version ORDER BY version", Integer.class));
+
+        jdbc.update("INSERT INTO query_log(id, executed_at, user_id, sql_raw, return_rows, status) VALUES ('a','2030-01-01T00:00:00Z','u','SELECT 1',0,'SUCCESS')");
+        Integer rootpage = jdbc.queryForObject("SELECT rootpage FROM sqlite_master WHERE name = 'query_log'", Integer.class);
+
+        assertEquals(0, new SqliteMigrator(ds).migrate());
+        assertEquals(1, jdbc.queryForObject("SELECT COUNT(*) FROM query_log", Integer.class));
+        // 예전처럼 매 기동마다 테이블을 새로 만들어 복사하지 않음
+        assertEquals(rootpage, jdbc.queryForObject("SELECT rootpage FROM sqlite_master WHERE name = 'query_log'", Integer.class));
+    }
+
+    @Test
+    @DisplayName("UT-13-B: schema_version 이전 DB(admin_id 없는 query_log, 알림 컬럼 없음) → 데이터 보존하며 기준 스키마로 흡수")
+    void migrate_adoptsLegacyDatabase() {
+        jdbc.execute("CREATE TABLE query_log (id TEXT PRIMARY KEY, executed_at TEXT NOT NULL, user_id TEXT NOT NULL, sql_raw TEXT NOT NULL, sql_summary TEXT, return_rows INTEGER NOT NULL DEFAULT 0, status TEXT NOT NULL)");
+        jdbc.execute("CREATE TABLE notification_log (id TEXT PRIMARY KEY, event_id TEXT NOT NULL, channel TEXT NOT NULL, status TEXT NOT NULL, error_code TEXT, error_message TEXT, sent_at TEXT NOT NULL)");
+        jdbc.update("INSERT INTO query_log VALUES ('old','2029-01-01T00:00:00Z','legacy@x','DROP TABLE t',NULL,0,'SUCCESS')");
+
+        new SqliteMigrator(ds).migrate();
+
+        assertEquals("legacy@x", jdbc.queryForObject("SELECT user_id FROM query_log WHERE id = 'old'", String.class));
+        assertNull(jdbc.queryForObject("SELECT admin_id FROM query_log WHERE id = 'old'", String.class));
+        assertEquals(1, jdbc.queryForObject("SELECT COUNT(*) FROM pragma_table_info('notification_log') WHERE name = 'digest_id'", Integer.class));
+        assertEquals(0, jdbc.queryForObject("SELECT COUNT(*) FROM sqlite_master WHERE name = 'query_log_new'", Integer.class));
+    }
+
+    @Test
+    @DisplayName("UT-13-C: EXPLAIN QUERY PLAN — /api/logs 목록·키셋·사용자/상태 필터·시간대 요약이 복합 인덱스를 타고 임시 정렬 없음")
+    void queryLog_hotPaths_useIndexes() {
+        new SqliteMigrator(ds).migrate();
+
+        assertIndexed(plan("SELECT * FROM query_log ORDER BY executed_at DESC, id DESC LIMIT 51"),
+                "idx_query_log_exec_id");
+        String keyset = plan("SELECT * FROM query_log WHERE executed_at <= ? AND (executed_at < ? OR id < ?) ORDER BY executed_at DESC, id DESC LIMIT 51",
+                "2030-01-01", "2030-01-01", "x");
+        assertIndexed(keyset, "idx_query_log_exec_id");
+        assertTrue(keyset.contains("SEARCH"), keyset);
+
+        assertIndexed(plan("SELECT * FROM query_log WHERE user_id = ? ORDER BY executed_at DESC, id DESC LIMIT 51", "u"),
+                "idx_query_log_user_exec");
+        assertIndexed(plan("SELECT * FROM query_log WHERE status = ? AND executed_at >= ? ORDER BY executed_at DESC, id DESC LIMIT 51", "FAILURE", "2030-01-01"),
+                "idx_query_log_status_exec");
+
+        // 시간대별 요약: 기간 조건 + 인덱스만으로 계산(테이블 접근 없음)
+        String byHour = plan("SELECT substr(executed_at,1,13), COUNT(*) FROM query_log WHERE executed_at >= ? AND executed_at < ? GROUP BY substr(executed_at,1,13)",
+                "2030-01-01", "2030-01-02");
+        assertTrue(byHour.contains("COVERING INDEX idx_query_log_exec_id"), byHour);
+
+        // 사용자별 집계: 사용자 인덱스 순서대로 그룹핑
+        assertIndexed(plan("SELECT user_id, COUNT(*) FROM query_log GROUP BY user_id"), "idx_query_log_user_exec");
+    }
+
+    @Test
+    @DisplayName("UT-13-D: EXPLAIN QUERY PLAN — /api/events 목록·유형/심각도 필터·query_log 조인이 인덱스 사용")
+    void detectionEvent_hotPaths_useIndexes() {
+        new SqliteMigrator(ds).migrate();
+
+        assertIndexed(plan("SELECT * FROM detection_event ORDER BY occurred_at DESC, id DESC LIMIT 21"),
+                "idx_event_occurred_id");
+        assertIndexed(plan("SELECT * FROM detection_event WHERE event_type = ? AND severity = ? ORDER BY occurred_at DESC, id DESC LIMIT 21", "PATTERN", "HIGH"),
+                "idx_event_type_sev_occ");
+        assertIndexed(plan("SELECT * FROM detection_event WHERE event_type = ? ORDER BY occurred_at DESC, id DESC LIMIT 21", "AUTHZ"),
+                "idx_event_type_occ");
+        assertIndexed(plan("SELECT * FROM detection_event WHERE severity = ? ORDER BY occurred_at DESC, id DESC LIMIT 21", "HIGH"),
+                "idx_event_sev_occ");
+
+        String join = plan("SELECT e.*, q.user_id FROM detection_event e LEFT JOIN query_log q ON q.id = e.log_id WHERE q.user_id = ? ORDER BY e.occurred_at DESC, e.id DESC LIMIT 21", "u");
+        assertTrue(join.contains("idx_event_log") || join.contains("sqlite_autoindex_query_log_1"), join);
+        assertFalse(join.matches(".*SCAN e( |$).*") && join.matches(".*SCAN q( |$).*"), "양쪽 전체 스캔 금지: " + join);
+
+        assertTrue(plan("SELECT id FROM detection_event WHERE log_id = ?", "l").contains("idx_event_log"));
+    }
+}
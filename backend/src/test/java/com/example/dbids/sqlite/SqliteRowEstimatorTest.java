@@ -0,0 +1,50 @@
+package com.example.dbids.sqlite;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.sqlite.SQLiteDataSource;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * count=estimate 근사 행 수: ANALYZE 이후 적재/앞쪽 삭제도 반영
+ */
+class SqliteRowEstimatorTest {
+
+    @TempDir Path dir;
+
+    private static void insertLogs(JdbcTemplate jdbc, int from, int n) {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = from; i < from + n; i++) {
+            rows.add(new Object[]{"q" + i, "2030-01-01T00:00:00Z"});
+        }
+        jdbc.batchUpdate("INSERT INTO query_log(id, executed_at, user_id, sql_raw, return_rows, status) "
+                + "VALUES (?, ?, 'u', 'SELECT 1', 0, 'SUCCESS')", rows);
+    }
+
+    @Test
+    @DisplayName("UT-13-S: ANALYZE 통계가 오래돼도 추정치는 rowid 범위로 현재 행 수를 따라감(적재 후 증가, 앞쪽 삭제 후 감소)")
+    void estimate_tracksRowsAfterAnalyze() {
+        SQLiteDataSource ds = new SQLiteDataSource();
+        ds.setUrl("jdbc:sqlite:" + dir.resolve("est.db"));
+        new SqliteMigrator(ds).migrate();
+        JdbcTemplate jdbc = new JdbcTemplate(ds);
+        SqliteRowEstimator estimator = new SqliteRowEstimator(jdbc);
+
+        insertLogs(jdbc, 0, 3);
+        jdbc.execute("ANALYZE");
+        insertLogs(jdbc, 3, 1_000);
+        assertEquals(1_003, estimator.estimateRows("query_log"));
+
+        jdbc.update("DELETE FROM query_log WHERE rowid <= 500");   // 보존 정책: 오래된 앞쪽부터 제거
+        assertEquals(503, estimator.estimateRows("query_log"));
+        assertEquals(0, estimator.estimateRows("detection_event"));
+        assertThrows(IllegalArgumentException.class, () -> estimator.estimateRows("admin_user"));
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.dbids.sqlite;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 키워드 검색 FTS5 색인(V5): 검색어 변환, 본 테이블 동기화 트리거, 파티션 파일 색인
+ */
+class SqliteSearchTest {
+
+    @TempDir Path dir;
+
+    private DataSource ds;
+    private JdbcTemplate jdbc;
+    private LogPartitionProperties props;
+    private LogPartitions partitions;
+
+    @BeforeEach
+    void setUp() {
+        ds = SqliteDataSources.create("jdbc:sqlite:" + dir.resolve("main.db"), new SqliteStorageProperties());
+        new SqliteMigrator(ds).migrate();
+        jdbc = new JdbcTemplate(ds);
+        props = new LogPartitionProperties();
+        props.setDir(dir.resolve("parts").toString());
+        partitions = new LogPartitions(ds, props);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (ds instanceof Closeable c) c.close();
+    }
+
+    private void log(String id, String executedAt, String sql, String summary) {
+        jdbc.update("INSERT INTO query_log(id, executed_at, user_id, sql_raw, sql_summary, return_rows, status) VALUES (?,?,?,?,?,?,?)",
+                id, executedAt, "u@x", sql, summary, 0, "SUCCESS");
+    }
+
+    private List<String> search(String keywords) {
+        return jdbc.queryForList("SELECT id FROM query_log WHERE rowid IN (SELECT rowid FROM main.query_log_fts(?)) ORDER BY id",
+                String.class, FtsQuery.of(keywords));
+    }
+
+    @Test
+    @DisplayName("UT-13-P: 검색어 변환 → 단어는 접두어 AND, \"따옴표\" 는 정확한 토큰/구, 연산자/특수문자는 리터럴, 토큰 없으면 null")
+    void ftsQuery_quotesTermsAsPrefixes() {
+        assertEquals("\"ord\"*", FtsQuery.of("ord"));
+        assertEquals("\"ord\"* \"user_id\"*", FtsQuery.of("  ord*  user_id "));
+        assertEquals("\"from orders\"", FtsQuery.of("\"from orders\""));
+        assertEquals("\"OR\"* \"a-b\"* \"x\"\"y\"*", FtsQuery.of("OR a-b x\"y"));
+        assertEquals("\"NEAR(a\"*", FtsQuery.of("NEAR(a"));
+        assertNull(FtsQuery.of("%  = *"));
+        assertNull(FtsQuery.of(" "));
+    }
+
+    @Test
+    @DisplayName("UT-13-Q: 본 테이블 INSERT/UPDATE/DELETE → 트리거로 색인 동기화, 토큰·접두어 검색은 색인 조회(전체 스캔 없음)")
+    void triggers_keepIndexInSync() {
+        log("a", "2030-01-01T00:00:00Z", "SELECT * FROM orders WHERE id = 1", "SELECT orders");
+        log("b", "2030-01-01T00:00:01Z", "DELETE FROM order_items", "");
+        log("c", "2030-01-01T00:00:02Z", "select name from users", "SELECT users");
+
+        assertEquals(List.of("a", "b"), search("ord"));
+        assertEquals(List.of("a"), search("\"orders\""));
+        assertEquals(List.of("a"), search("from orders"));                 // 두 단어 모두(AND)
+        assertEquals(List.of("c"), search("\"from users\""));              // 구: 순서대로 인접
+        assertEquals(List.of("a", "c"), search("SEL"));                    // 대소문자 무시
+
+        // 요약 보강(UPDATE) → 새 토큰으로 검색, 옛 토큰은 빠짐
+        jdbc.update("UPDATE query_log SET sql_summary = 'DELETE order_items' WHERE id = 'b'");
+        jdbc.update("UPDATE query_log SET sql_raw = 'select 1', sql_summary = 'SELECT' WHERE id = 'c'");
+        assertEquals(List.of(), search("users"));
+        assertEquals(List.of("b"), search("delete"));
+        jdbc.update("DELETE FROM query_log WHERE id = 'a'");
+        assertEquals(List.of("b"), search("ord"));
+        jdbc.execute("INSERT INTO query_log_fts(query_log_fts) VALUES ('integrity-check')");
+
+        jdbc.update("INSERT INTO detection_event(id, log_id, event_type, severity, occurred_at, sql_raw) VALUES (?,?,?,?,?,?)",
+                "e1", "b", "PATTERN", "HIGH", "2030-01-01T00:00:01Z", "DELETE FROM order_items");
+        assertEquals(List.of("e1"), jdbc.queryForList(
+                "SELECT id FROM detection_event WHERE rowid IN (SELECT rowid FROM main.detection_event_fts(?))", String.class, FtsQuery.of("items")));
+
+        String plan = String.join(" | ", jdbc.query("EXPLAIN QUERY PLAN SELECT id FROM query_log WHERE rowid IN "
+                + "(SELECT rowid FROM main.query_log_fts(?))", (rs, i) -> rs.getString("detail"), FtsQuery.of("ord")));
+        assertTrue(plan.contains("VIRTUAL TABLE INDEX"), plan);
+        assertFalse(plan.contains("SCAN query_log"), plan);
+    }
+
+    @Test
+    @DisplayName("UT-13-R: 롤오버로 옮긴 행은 파티션 파일 색인에, 색인 전 파일은 정리 주기에 색인 생성 → 조회 시 searchable")
+    void partitions_areIndexedOnRollover() {
+        log("old1", "2030-01-07T01:00:00Z", "SELECT * FROM orders", "SELECT orders");
+        log("old2", "2030-01-08T01:00:00Z", "SELECT * FROM users", "SELECT users");
+        log("hot", "2030-03-05T01:00:00Z", "SELECT * FROM orders", "SELECT orders");
+        partitions.rollover(Instant.parse("2030-03-06T00:00:00Z"));
+        LogPartitions.Partition p = partitions.all().get(0);
+
+        // 다시 옮겨도(늦은 행) 기존 행은 중복 색인되지 않음
+        log("late", "2030-01-09T01:00:00Z", "UPDATE orders SET a = 1", "UPDATE orders");
+        partitions.rollover(Instant.parse("2030-03-06T00:00:00Z"));
+
+        String arm = "SELECT id FROM %1$s.query_log WHERE rowid IN (SELECT rowid FROM %1$s.query_log_fts(:q))";
+        assertEquals(List.of("late", "old1"), partitions.read(List.of(p), s -> {
+            assertTrue(s.searchable(p.alias()));
+            return s.jdbc().queryForList(s.unionAll(x -> arm.formatted(x)) + " ORDER BY id", Map.of("q", "\"orders\""), String.class);
+        }).stream().filter(id -> !id.equals("hot")).toList());
+
+        // 색인 도입 전 파일 흉내: 색인 제거 → searchable=false(LIKE 대체) → 정리 주기에 다시 생성
+        jdbc.execute("ATTACH DATABASE '" + p.path() + "' AS legacy");
+        jdbc.execute("DROP TABLE legacy.query_log_fts");
+        jdbc.execute("DROP TABLE legacy.detection_event_fts");
+        jdbc.execute("DETACH DATABASE legacy");
+        assertFalse(partitions.<Boolean>read(List.of(p), s -> s.searchable(p.alias())));
+        assertEquals(1, partitions.ensureSearchIndexes());
+        assertEquals(0, partitions.ensureSearchIndexes());
+        assertEquals(List.of("old2"), partitions.read(List.of(p), s -> s.jdbc().queryForList(
+                arm.formatted(p.alias()), Map.of("q", "\"users\""), String.class)));
+    }
+}
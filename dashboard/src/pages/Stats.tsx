@@ -24,16 +24,11 @@ export default function Stats() {
             let users: Array<{ userId: string; count: number }> = [];
             let hours: Array<{ hourLabel: string; count: number }> = [];
 
+            // 서버는 한 번에 { users, times } 를 롤업 기반으로 돌려줌(grain=hour)
             try {
-                const u = await api.get("/api/logs/summary", { params: { by: "user", from: f || undefined, to: t || undefined } });
-                const arr = pickArray(u.data, ["users", "user", "data", "content"]);
-                users = normalizeUserBuckets(arr);
-            } catch {}
-
-            try {
-                const h = await api.get("/api/logs/summary", { params: { by: "hour", from: f || undefined, to: t || undefined } });
-                const arr = pickArray(h.data, ["hours", "hour", "data", "content"]);
-                hours = normalizeHourBuckets(arr);
+                const s = await api.get("/api/logs/summary", { params: { grain: "hour", from: f || undefined, to: t || undefined } });
+                users = normalizeUserBuckets(pickArray(s.data, ["users", "user", "data", "content"]));
+                hours = normalizeHourBuckets(pickArray(s.data, ["times", "hours", "hour", "data", "content"]));
             } catch {}
 
             // 2) 폴백: 최근 1000건을 가져와 클라이언트 집계
@@ -224,6 +219,13 @@ function normalizeHourBuckets(list: any[]) {
             }
             return { hourLabel, count };
         })
+        // 여러 날에 걸친 시간 버킷은 시각(HH:00)별로 합침
+        .reduce((acc, it) => {
+            const prev = acc.find((x) => x.hourLabel === it.hourLabel);
+            if (prev) prev.count += it.count;
+            else acc.push({ ...it });
+            return acc;
+        }, [] as Array<{ hourLabel: string; count: number }>)
         .sort((a, b) => a.hourLabel.localeCompare(b.hourLabel));
 }
 